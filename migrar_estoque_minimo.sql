@@ -0,0 +1,10 @@
+-- Script para adicionar o estoque mínimo dos produtos (alertas de reposição)
+-- Executar uma vez no banco sga_db antes de subir a versão com Produto.estoqueMinimo
+-- (necessário onde o hbm2ddl.auto não é "update", como no persistence-aws.xml).
+-- A coluna fica nula nas linhas existentes: nulo usa o estoque mínimo padrão.
+
+ALTER TABLE produto ADD COLUMN IF NOT EXISTS estoque_minimo INTEGER;
+
+-- Verificar coluna
+SELECT table_name, data_type, is_nullable, column_default
+FROM information_schema.columns WHERE table_name = 'produto' AND column_name = 'estoque_minimo';
@@ -0,0 +1,24 @@
+-- Script para migrar a geração de IDs para sequências com incremento 50
+-- (otimizador pooled do Hibernate, necessário para inserir pedidos e itens em lote)
+-- Executar uma vez no banco sga_db antes de subir a versão com @SequenceGenerator(allocationSize = 50).
+-- Reaproveita as sequências <tabela>_id_seq criadas pelas colunas SERIAL/IDENTITY.
+
+DO $$
+DECLARE
+    tabela TEXT;
+    sequencia TEXT;
+BEGIN
+    FOREACH tabela IN ARRAY ARRAY['categoria', 'produto', 'usuario', 'cliente', 'pedido', 'item_pedido'] LOOP
+        IF to_regclass(tabela) IS NULL THEN
+            CONTINUE;
+        END IF;
+        sequencia := tabela || '_id_seq';
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I', sequencia);
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', sequencia);
+        -- O próximo bloco reservado pelo Hibernate começa depois do maior ID existente
+        EXECUTE format('SELECT setval(%L, (SELECT COALESCE(MAX(id), 0) + 1 FROM %I))', sequencia, tabela);
+    END LOOP;
+END $$;
+
+-- Verificar sequências
+SELECT sequencename, increment_by, last_value FROM pg_sequences WHERE sequencename LIKE '%\_id\_seq';
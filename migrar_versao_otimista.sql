@@ -0,0 +1,20 @@
+-- Script para adicionar a coluna de versão (controle de concorrência otimista, @Version)
+-- Executar uma vez no banco sga_db antes de subir a versão com @Version nas entidades
+-- (necessário onde o hbm2ddl.auto não é "update", como no persistence-aws.xml).
+-- As linhas existentes começam na versão 0; linhas inseridas por SQL direto também.
+
+DO $$
+DECLARE
+    tabela TEXT;
+BEGIN
+    FOREACH tabela IN ARRAY ARRAY['categoria', 'produto', 'usuario', 'cliente', 'pedido'] LOOP
+        IF to_regclass(tabela) IS NULL THEN
+            CONTINUE;
+        END IF;
+        EXECUTE format('ALTER TABLE %I ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0', tabela);
+    END LOOP;
+END $$;
+
+-- Verificar colunas
+SELECT table_name, data_type, is_nullable, column_default
+FROM information_schema.columns WHERE column_name = 'versao' ORDER BY table_name;
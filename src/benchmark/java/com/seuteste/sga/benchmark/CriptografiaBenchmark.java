@@ -0,0 +1,47 @@
+package com.seuteste.sga.benchmark;
+
+import com.seuteste.sga.util.CriptografiaUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do BCrypt no login (verificação) e no cadastro ou troca de senha (geração do hash).
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CriptografiaBenchmark {
+
+    private static final String SENHA = "senha-de-benchmark-123";
+
+    private String hash;
+
+    @Setup
+    public void preparar() {
+        hash = CriptografiaUtil.criptografarSenha(SENHA);
+    }
+
+    @Benchmark
+    public boolean verificarSenha() {
+        return CriptografiaUtil.verificarSenha(SENHA, hash);
+    }
+
+    @Benchmark
+    public String criptografarSenha() {
+        return CriptografiaUtil.criptografarSenha(SENHA);
+    }
+}
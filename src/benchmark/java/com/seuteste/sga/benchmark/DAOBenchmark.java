@@ -0,0 +1,97 @@
+package com.seuteste.sga.benchmark;
+
+import com.seuteste.sga.dao.CategoriaDAO;
+import com.seuteste.sga.dao.ProdutoDAO;
+import com.seuteste.sga.dao.impl.CategoriaDAOImpl;
+import com.seuteste.sga.dao.impl.ProdutoDAOImpl;
+import com.seuteste.sga.model.Categoria;
+import com.seuteste.sga.model.Produto;
+import com.seuteste.sga.util.JPAUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações do {@code GenericDAOImpl} (incluir, buscar, atualizar, inativar/ativar) e a
+ * busca de produtos com filtros, contra o PostgreSQL de DB_URL com uma massa própria.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DAOBenchmark {
+
+    private static final int PRODUTOS = 2_000;
+
+    private final CategoriaDAO categoriaDAO = new CategoriaDAOImpl();
+    private final ProdutoDAO produtoDAO = new ProdutoDAOImpl();
+
+    private DadosBenchmark dados;
+    private List<Long> produtoIds;
+    private Categoria alvo;
+    private long inclusoes;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        dados = new DadosBenchmark(PRODUTOS);
+        produtoIds = dados.getProdutoIds();
+        alvo = categoriaDAO.save(new Categoria(dados.getPrefixo() + "-alvo"));
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws Exception {
+        dados.remover();
+        JPAUtil.closeEntityManagerFactory();
+    }
+
+    @Benchmark
+    public Categoria inserir() throws Exception {
+        return categoriaDAO.save(new Categoria(dados.getPrefixo() + "-" + inclusoes++));
+    }
+
+    @Benchmark
+    public Produto buscarPorId() throws Exception {
+        return produtoDAO.findById(produtoIds.get(ThreadLocalRandom.current().nextInt(produtoIds.size())));
+    }
+
+    @Benchmark
+    public Categoria atualizar() throws Exception {
+        alvo.setNome(dados.getPrefixo() + (alvo.getNome().endsWith("-alvo") ? "-alvo2" : "-alvo"));
+        alvo = categoriaDAO.update(alvo);
+        return alvo;
+    }
+
+    @Benchmark
+    public boolean inativarEAtivar() throws Exception {
+        Long id = produtoIds.get(ThreadLocalRandom.current().nextInt(produtoIds.size()));
+        return produtoDAO.deactivate(id) & produtoDAO.activate(id);
+    }
+
+    @Benchmark
+    public List<Produto> filtrarPorNome() throws Exception {
+        return produtoDAO.findWithFilters(dados.getPrefixo() + " produto 1", null, null, null, false);
+    }
+
+    @Benchmark
+    public List<Produto> filtrarPorCategoriaEPreco() throws Exception {
+        return produtoDAO.findWithFilters(null, dados.getCategoriaId(),
+                new BigDecimal("10.00"), new BigDecimal("20.00"), true);
+    }
+}
@@ -0,0 +1,102 @@
+package com.seuteste.sga.benchmark;
+
+import com.seuteste.sga.model.Categoria;
+import com.seuteste.sga.model.Cliente;
+import com.seuteste.sga.model.Produto;
+import com.seuteste.sga.util.JPAUtil;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Massa de dados própria de uma execução de benchmark: uma categoria, um cliente e
+ * produtos com nomes de prefixo único, removidos ao final. Usa o banco de DB_URL.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+final class DadosBenchmark {
+
+    /** Estoque alto o bastante para que as baixas de uma execução não o esgotem. */
+    private static final int ESTOQUE = 1_000_000_000;
+
+    private final String prefixo = "bench-" + UUID.randomUUID().toString().substring(0, 8);
+    private final List<Long> produtoIds = new ArrayList<>();
+    private Long categoriaId;
+    private Long clienteId;
+
+    /**
+     * @param produtos Quantidade de produtos a incluir
+     */
+    DadosBenchmark(int produtos) throws Exception {
+        JPAUtil.executarEmTransacao(() -> {
+            EntityManager em = JPAUtil.getEntityManager();
+            Categoria categoria = new Categoria(prefixo);
+            em.persist(categoria);
+            Cliente cliente = new Cliente();
+            cliente.setNome("Cliente " + prefixo);
+            cliente.setEmail(prefixo + "@benchmark.local");
+            cliente.setDataCadastro(LocalDate.now());
+            em.persist(cliente);
+            List<Produto> incluidos = new ArrayList<>(produtos);
+            for (int i = 0; i < produtos; i++) {
+                Produto produto = new Produto();
+                produto.setNome(prefixo + " produto " + i);
+                produto.setDescricao("Produto de benchmark " + i);
+                produto.setPreco(BigDecimal.valueOf(100 + i % 9_900, 2));
+                produto.setQuantidadeEstoque(ESTOQUE);
+                produto.setCategoria(categoria);
+                produto.setDataCadastro(LocalDate.now());
+                em.persist(produto);
+                incluidos.add(produto);
+            }
+            em.flush();
+            categoriaId = categoria.getId();
+            clienteId = cliente.getId();
+            incluidos.forEach(p -> produtoIds.add(p.getId()));
+            return null;
+        });
+    }
+
+    String getPrefixo() {
+        return prefixo;
+    }
+
+    Long getCategoriaId() {
+        return categoriaId;
+    }
+
+    Long getClienteId() {
+        return clienteId;
+    }
+
+    List<Long> getProdutoIds() {
+        return produtoIds;
+    }
+
+    /**
+     * Remove pedidos, produtos, cliente e categorias da execução. Os pedidos devem ter sido
+     * inativados antes, para que o resumo de vendas não fique com as vendas deles.
+     */
+    void remover() throws Exception {
+        JPAUtil.executarEmTransacao(() -> {
+            EntityManager em = JPAUtil.getEntityManager();
+            em.createNativeQuery("DELETE FROM item_pedido WHERE pedido_id IN (SELECT id FROM pedido WHERE cliente_id = :cliente)")
+                    .setParameter("cliente", clienteId).executeUpdate();
+            em.createNativeQuery("DELETE FROM pedido WHERE cliente_id = :cliente")
+                    .setParameter("cliente", clienteId).executeUpdate();
+            em.createNativeQuery("DELETE FROM produto WHERE categoria_id = :categoria")
+                    .setParameter("categoria", categoriaId).executeUpdate();
+            em.createNativeQuery("DELETE FROM cliente WHERE id = :cliente")
+                    .setParameter("cliente", clienteId).executeUpdate();
+            em.createNativeQuery("DELETE FROM categoria WHERE nome LIKE :prefixo")
+                    .setParameter("prefixo", prefixo + "%").executeUpdate();
+            return null;
+        });
+        JPAUtil.getEntityManagerFactory().getCache().evictAll();
+    }
+}
@@ -0,0 +1,72 @@
+package com.seuteste.sga.benchmark;
+
+import com.seuteste.sga.model.ItemPedido;
+import com.seuteste.sga.model.Pedido;
+import com.seuteste.sga.model.Produto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo de subtotais e do valor total de pedidos grandes, em memória.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PedidoCalculoBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int itens;
+
+    private Pedido pedido;
+
+    @Setup
+    public void preparar() {
+        pedido = new Pedido();
+        List<ItemPedido> lista = new ArrayList<>(itens);
+        for (int i = 0; i < itens; i++) {
+            Produto produto = new Produto();
+            produto.setId((long) i);
+            produto.setPreco(BigDecimal.valueOf(100 + i % 9_900, 2));
+            ItemPedido item = new ItemPedido();
+            item.setPedido(pedido);
+            item.setProduto(produto);
+            item.setQuantidade(1 + i % 50);
+            item.setPrecoUnitario(produto.getPreco());
+            lista.add(item);
+        }
+        pedido.setItens(lista);
+    }
+
+    @Benchmark
+    public void calcularSubtotais(Blackhole bh) {
+        for (ItemPedido item : pedido.getItens()) {
+            item.calcularSubtotal();
+            bh.consume(item.getSubtotal());
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calcularValorTotal() {
+        pedido.calcularValorTotal();
+        return pedido.getValorTotal();
+    }
+}
@@ -0,0 +1,120 @@
+package com.seuteste.sga.benchmark;
+
+import com.seuteste.sga.interceptor.TransacionalInterceptor;
+import com.seuteste.sga.model.Cliente;
+import com.seuteste.sga.model.ItemPedido;
+import com.seuteste.sga.model.Pedido;
+import com.seuteste.sga.model.Produto;
+import com.seuteste.sga.service.AlertasEstoque;
+import com.seuteste.sga.service.CacheOpcoes;
+import com.seuteste.sga.service.Contadores;
+import com.seuteste.sga.service.PedidoService;
+import com.seuteste.sga.util.JPAUtil;
+import com.seuteste.sga.util.TabelaResumoVendas;
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.environment.se.WeldContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@code PedidoService.salvar} de ponta a ponta: bean CDI com o interceptor
+ * {@code @Transacional}, gravação do pedido e dos itens, baixa de estoque, delta do
+ * resumo de vendas e ações após o commit, contra o PostgreSQL de DB_URL.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PedidoServiceBenchmark {
+
+    private static final int PRODUTOS = 200;
+
+    @Param({"1", "20"})
+    private int itens;
+
+    private DadosBenchmark dados;
+    private WeldContainer conteiner;
+    private PedidoService pedidoService;
+    private Cliente cliente;
+    private List<Produto> produtos;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        TabelaResumoVendas.criar();
+        dados = new DadosBenchmark(PRODUTOS);
+        try {
+            conteiner = new Weld()
+                    .disableDiscovery()
+                    .beanClasses(PedidoService.class, CacheOpcoes.class, Contadores.class, AlertasEstoque.class,
+                            TransacionalInterceptor.class)
+                    .interceptors(TransacionalInterceptor.class)
+                    .initialize();
+        } catch (RuntimeException e) {
+            // Sem o contêiner o JMH não chama o encerramento; a massa é removida aqui
+            dados.remover();
+            throw e;
+        }
+        pedidoService = conteiner.select(PedidoService.class).get();
+        JPAUtil.executarEmTransacao(() -> {
+            EntityManager em = JPAUtil.getEntityManager();
+            cliente = em.find(Cliente.class, dados.getClienteId());
+            produtos = new ArrayList<>();
+            for (Long id : dados.getProdutoIds()) {
+                produtos.add(em.find(Produto.class, id));
+            }
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws Exception {
+        // Inativar antes de remover tira os pedidos do resumo de vendas e devolve o estoque
+        List<Long> pedidos = JPAUtil.executarEmTransacao(() -> {
+            List<?> ids = JPAUtil.getEntityManager()
+                    .createNativeQuery("SELECT id FROM pedido WHERE cliente_id = :cliente AND ativo")
+                    .setParameter("cliente", dados.getClienteId())
+                    .getResultList();
+            return ids.stream().map(id -> ((Number) id).longValue()).collect(Collectors.toList());
+        });
+        pedidoService.inativarPedidos(pedidos);
+        conteiner.shutdown();
+        dados.remover();
+        JPAUtil.closeEntityManagerFactory();
+    }
+
+    @Benchmark
+    public Pedido salvar() throws Exception {
+        Pedido pedido = new Pedido(cliente);
+        pedido.setDataPedido(LocalDate.now());
+        pedido.setStatus("Pendente");
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        int inicio = aleatorio.nextInt(produtos.size());
+        for (int i = 0; i < itens; i++) {
+            Produto produto = produtos.get((inicio + i) % produtos.size());
+            pedido.adicionarItem(new ItemPedido(pedido, produto, 1 + aleatorio.nextInt(3), produto.getPreco()));
+        }
+        return pedidoService.salvar(pedido);
+    }
+}
@@ -0,0 +1,28 @@
+package com.seuteste.sga.carga;
+
+/**
+ * Etapas medidas no teste de carga, na ordem em que um usuário virtual as executa.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+enum Etapa {
+
+    ABRIR_LOGIN("GET login.xhtml"),
+    LOGIN("LoginController.login"),
+    PRODUTOS("GET produtos.xhtml"),
+    PEDIDOS("GET pedidos.xhtml"),
+    COMPLETAR_PRODUTO("PedidoController.completarProduto"),
+    ADICIONAR_ITEM("PedidoController.adicionarItem"),
+    SALVAR_PEDIDO("PedidoController.salvar");
+
+    private final String descricao;
+
+    Etapa(String descricao) {
+        this.descricao = descricao;
+    }
+
+    String getDescricao() {
+        return descricao;
+    }
+}
@@ -0,0 +1,137 @@
+package com.seuteste.sga.carga;
+
+import com.seuteste.sga.util.JPAUtil;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Handler;
+import java.util.logging.Logger;
+
+/**
+ * Teste de carga de ponta a ponta: cria a massa sintética, sobe a aplicação num Tomcat
+ * embutido e executa usuários virtuais concorrentes (login, consulta de produtos e cadastro
+ * de pedidos) por um tempo fixo, relatando vazão e latências p50/p99/p99.9 por etapa.
+ * Antes da carga, confere que um pedido recusado por falta de estoque pode ser salvo de
+ * novo no mesmo formulário.
+ *
+ * Executado pelo perfil Maven {@code carga} ({@code mvn -Pcarga verify}), que informa os
+ * parâmetros como propriedades de sistema {@code carga.*}. Usa o banco de DB_URL.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public final class GeradorCarga {
+
+    /** Intervalo entre as linhas de progresso no console. */
+    private static final long PROGRESSO_SEGUNDOS = 10;
+
+    private GeradorCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        File webapp = new File(System.getProperty("carga.webapp", "src/main/webapp"));
+        File classes = new File(System.getProperty("carga.classes", "target/classes"));
+        File relatorio = new File(System.getProperty("carga.relatorio", "target/carga/relatorio.txt"));
+        int usuarios = Integer.getInteger("carga.usuarios", 20);
+        int duracao = Integer.getInteger("carga.duracao", 60);
+        int aquecimento = Integer.getInteger("carga.aquecimento", 10);
+        int produtos = Integer.getInteger("carga.produtos", 500);
+        int clientes = Integer.getInteger("carga.clientes", 100);
+        int pedidosPorSessao = Integer.getInteger("carga.pedidosPorSessao", 5);
+        int itensPorPedido = Integer.getInteger("carga.itensPorPedido", 3);
+
+        File diretorio = relatorio.getAbsoluteFile().getParentFile();
+        diretorio.mkdirs();
+        PrintStream console = System.out;
+        File log = new File(diretorio, "servidor.log");
+        redirecionarSaida(log);
+
+        console.printf("Massa: %d produtos, %d clientes (banco de DB_URL)%n", produtos, clientes);
+        MassaCarga massa = new MassaCarga(produtos, clientes);
+        ServidorEmbutido servidor = new ServidorEmbutido(webapp, classes, new File(diretorio, "tomcat"));
+        try {
+            servidor.iniciar();
+            console.printf("Aplicação em %s (log em %s)%n", servidor.getUrlBase(), log);
+            new UsuarioVirtual(servidor.getUrlBase(), massa, new MedicoesCarga(), 0, 0, 0).verificarNovaTentativaSemEstoque();
+            console.println("Pedido recusado por falta de estoque salvo na nova tentativa");
+            console.printf("%d usuários virtuais, %d s de aquecimento e %d s de medição%n",
+                    usuarios, aquecimento, duracao);
+
+            MedicoesCarga medicoes = new MedicoesCarga();
+            long inicio = System.nanoTime();
+            long inicioMedicao = inicio + TimeUnit.SECONDS.toNanos(aquecimento);
+            long fim = inicioMedicao + TimeUnit.SECONDS.toNanos(duracao);
+            List<Thread> threads = new ArrayList<>(usuarios);
+            for (int i = 0; i < usuarios; i++) {
+                Thread thread = new Thread(new UsuarioVirtual(servidor.getUrlBase(), massa, medicoes,
+                        pedidosPorSessao, itensPorPedido, fim), "sga-carga-usuario-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+                thread.start();
+            }
+
+            esperarAte(inicioMedicao);
+            medicoes.iniciar();
+            while (System.nanoTime() < fim) {
+                esperarAte(Math.min(fim, System.nanoTime() + TimeUnit.SECONDS.toNanos(PROGRESSO_SEGUNDOS)));
+                console.printf("  %3d s: %d pedidos, %d erros%n",
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - inicioMedicao),
+                        medicoes.getPedidosSalvos(), medicoes.getErros());
+            }
+            medicoes.parar();
+            double segundos = (System.nanoTime() - inicioMedicao) / 1e9;
+            for (Thread thread : threads) {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            }
+
+            String texto = String.format("SGA - teste de carga (%d usuários virtuais, %.0f s medidos, "
+                            + "%d pedidos por sessão, %d itens por pedido)%n%n%s%nPedidos por segundo: %.1f%n",
+                    usuarios, segundos, pedidosPorSessao, itensPorPedido, medicoes.relatorio(segundos),
+                    medicoes.getPedidosSalvos() / segundos);
+            try (Writer saida = new OutputStreamWriter(new FileOutputStream(relatorio), StandardCharsets.UTF_8)) {
+                saida.write(texto);
+            }
+            console.println();
+            console.print(texto);
+            console.printf("Relatório em %s%n", relatorio);
+        } finally {
+            servidor.parar();
+            massa.remover();
+            JPAUtil.closeEntityManagerFactory();
+        }
+        // Threads de fundo da aplicação não impedem o fim do teste
+        System.exit(0);
+    }
+
+    /**
+     * Manda a saída do servidor (SQL do Hibernate, logs da aplicação e do Tomcat) para um
+     * arquivo, deixando o console para o progresso e o relatório.
+     */
+    private static void redirecionarSaida(File arquivo) throws IOException {
+        PrintStream log = new PrintStream(new FileOutputStream(arquivo), true, "UTF-8");
+        System.setOut(log);
+        System.setErr(log);
+        Logger raiz = Logger.getLogger("");
+        for (Handler handler : raiz.getHandlers()) {
+            raiz.removeHandler(handler);
+        }
+        // O ConsoleHandler escreve no System.err vigente na sua criação
+        raiz.addHandler(new ConsoleHandler());
+    }
+
+    private static void esperarAte(long nanos) throws InterruptedException {
+        long restante = nanos - System.nanoTime();
+        if (restante > 0) {
+            TimeUnit.NANOSECONDS.sleep(restante);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.seuteste.sga.carga;
+
+import com.seuteste.sga.dao.PedidoDAO;
+import com.seuteste.sga.dao.ResumoVendasDAO;
+import com.seuteste.sga.dao.impl.PedidoDAOImpl;
+import com.seuteste.sga.dao.impl.ResumoVendasDAOImpl;
+import com.seuteste.sga.model.Categoria;
+import com.seuteste.sga.model.Cliente;
+import com.seuteste.sga.model.Produto;
+import com.seuteste.sga.model.Usuario;
+import com.seuteste.sga.util.CriptografiaUtil;
+import com.seuteste.sga.util.JPAUtil;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Massa sintética do teste de carga: um administrador, categorias, clientes e produtos com
+ * um código único da execução no nome, removidos ao final junto com os pedidos criados.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+final class MassaCarga {
+
+    static final String SENHA = "carga-123456";
+
+    private static final int CATEGORIAS = 10;
+    private static final String CLIENTES = "SELECT id FROM cliente WHERE email LIKE :prefixo";
+    /** Estoque alto o bastante para que os pedidos da execução não o esgotem. */
+    private static final int ESTOQUE = 1_000_000_000;
+    /** Estoque do produto escasso, usado só na verificação que antecede a carga. */
+    static final int ESTOQUE_ESCASSO = 5;
+
+    /** Começa com letra, para o número digitado no autocompletar não casar com o próprio código. */
+    private final String codigo = "c" + UUID.randomUUID().toString().substring(0, 7);
+    private final String prefixo = "carga-" + codigo;
+    private final List<Long> produtoIds = new ArrayList<>();
+    private final List<Long> clienteIds = new ArrayList<>();
+    private Long produtoEscassoId;
+
+    /**
+     * @param produtos Quantidade de produtos
+     * @param clientes Quantidade de clientes
+     */
+    MassaCarga(int produtos, int clientes) throws Exception {
+        String hash = CriptografiaUtil.criptografarSenha(SENHA);
+        JPAUtil.executarEmTransacao(() -> {
+            EntityManager em = JPAUtil.getEntityManager();
+            Usuario usuario = new Usuario("Carga " + codigo, getEmail(), hash, Usuario.Perfil.ADMIN);
+            usuario.setDataCadastro(LocalDate.now());
+            em.persist(usuario);
+
+            List<Categoria> categorias = new ArrayList<>();
+            for (int i = 0; i < CATEGORIAS; i++) {
+                Categoria categoria = new Categoria(prefixo + " categoria " + i);
+                em.persist(categoria);
+                categorias.add(categoria);
+            }
+            List<Cliente> incluidos = new ArrayList<>(clientes);
+            for (int i = 0; i < clientes; i++) {
+                Cliente cliente = new Cliente();
+                cliente.setNome("Cliente " + prefixo + " " + i);
+                cliente.setEmail(prefixo + "-" + i + "@carga.local");
+                cliente.setDataCadastro(LocalDate.now());
+                em.persist(cliente);
+                incluidos.add(cliente);
+            }
+            List<Produto> cadastrados = new ArrayList<>(produtos);
+            for (int i = 0; i < produtos; i++) {
+                Produto produto = new Produto();
+                produto.setNome(nomeProduto(i));
+                produto.setDescricao("Produto sintético do teste de carga " + i);
+                produto.setPreco(BigDecimal.valueOf(100 + i % 9_900, 2));
+                produto.setQuantidadeEstoque(ESTOQUE);
+                produto.setCategoria(categorias.get(i % CATEGORIAS));
+                produto.setDataCadastro(LocalDate.now());
+                em.persist(produto);
+                cadastrados.add(produto);
+            }
+            // Fora de produtoIds e sem dígitos no nome nem na categoria, para os usuários
+            // virtuais não o escolherem
+            Categoria escassos = new Categoria(prefixo + " escassos");
+            em.persist(escassos);
+            Produto escasso = new Produto();
+            escasso.setNome(prefixo + " escasso");
+            escasso.setDescricao("Produto sintético com pouco estoque");
+            escasso.setPreco(BigDecimal.TEN);
+            escasso.setQuantidadeEstoque(ESTOQUE_ESCASSO);
+            escasso.setCategoria(escassos);
+            escasso.setDataCadastro(LocalDate.now());
+            em.persist(escasso);
+            em.flush();
+            produtoEscassoId = escasso.getId();
+            incluidos.forEach(c -> clienteIds.add(c.getId()));
+            cadastrados.forEach(p -> produtoIds.add(p.getId()));
+            return null;
+        });
+    }
+
+    String getEmail() {
+        return prefixo + "@carga.local";
+    }
+
+    /**
+     * @return Código da execução, presente no nome de todos os produtos (útil no autocompletar)
+     */
+    String getCodigo() {
+        return codigo;
+    }
+
+    String nomeProduto(int indice) {
+        return prefixo + " produto " + indice;
+    }
+
+    /**
+     * Altera direto no banco o estoque do produto escasso, como faria uma venda concorrente.
+     *
+     * @param quantidade Novo estoque
+     */
+    void definirEstoqueEscasso(int quantidade) throws Exception {
+        JPAUtil.executarEmTransacao(() -> JPAUtil.getEntityManager()
+                .createNativeQuery("UPDATE produto SET quantidade_estoque = :quantidade WHERE id = :id")
+                .setParameter("quantidade", quantidade)
+                .setParameter("id", produtoEscassoId)
+                .executeUpdate());
+    }
+
+    /**
+     * @return Estoque do produto escasso lido do banco
+     */
+    int getEstoqueEscasso() throws Exception {
+        return JPAUtil.executarEmTransacao(() -> ((Number) JPAUtil.getEntityManager()
+                .createNativeQuery("SELECT quantidade_estoque FROM produto WHERE id = :id")
+                .setParameter("id", produtoEscassoId)
+                .getSingleResult()).intValue());
+    }
+
+    List<Long> getProdutoIds() {
+        return Collections.unmodifiableList(produtoIds);
+    }
+
+    List<Long> getClienteIds() {
+        return Collections.unmodifiableList(clienteIds);
+    }
+
+    /**
+     * Tira os pedidos da execução do resumo de vendas e remove tudo o que foi criado.
+     * O estoque não é devolvido: os produtos são removidos em seguida.
+     */
+    void remover() throws Exception {
+        PedidoDAO pedidoDAO = new PedidoDAOImpl();
+        ResumoVendasDAO resumoVendasDAO = new ResumoVendasDAOImpl();
+        JPAUtil.executarEmTransacao(() -> {
+            EntityManager em = JPAUtil.getEntityManager();
+            List<?> pedidos = em.createNativeQuery("SELECT id FROM pedido WHERE cliente_id IN (" + CLIENTES + ") AND ativo")
+                    .setParameter("prefixo", prefixo + "-%")
+                    .getResultList();
+            List<Long> ativos = pedidoDAO.lockIdsByAtivo(
+                    pedidos.stream().map(id -> ((Number) id).longValue()).collect(Collectors.toList()), true);
+            if (!ativos.isEmpty()) {
+                resumoVendasDAO.aplicarPedidos(ativos, -1);
+            }
+            em.createNativeQuery("DELETE FROM item_pedido WHERE pedido_id IN (SELECT id FROM pedido WHERE cliente_id IN (" + CLIENTES + "))")
+                    .setParameter("prefixo", prefixo + "-%").executeUpdate();
+            em.createNativeQuery("DELETE FROM pedido WHERE cliente_id IN (" + CLIENTES + ")")
+                    .setParameter("prefixo", prefixo + "-%").executeUpdate();
+            em.createNativeQuery("DELETE FROM produto WHERE nome LIKE :prefixo")
+                    .setParameter("prefixo", prefixo + " %").executeUpdate();
+            em.createNativeQuery("DELETE FROM cliente WHERE email LIKE :prefixo")
+                    .setParameter("prefixo", prefixo + "-%").executeUpdate();
+            em.createNativeQuery("DELETE FROM categoria WHERE nome LIKE :prefixo")
+                    .setParameter("prefixo", prefixo + " %").executeUpdate();
+            em.createNativeQuery("DELETE FROM usuario WHERE email = :email")
+                    .setParameter("email", getEmail()).executeUpdate();
+            return null;
+        });
+        JPAUtil.getEntityManagerFactory().getCache().evictAll();
+    }
+}
@@ -0,0 +1,177 @@
+package com.seuteste.sga.carga;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latências e erros de cada etapa, registrados a partir do fim do aquecimento.
+ *
+ * Guarda todas as medições (não faixas de um histograma) para que p99 e p99.9 sejam exatos
+ * mesmo em execuções curtas; alguns minutos de carga cabem com folga na memória.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+final class MedicoesCarga {
+
+    /** Quantidade de mensagens de erro guardadas por etapa para o relatório. */
+    private static final int EXEMPLOS_ERRO = 3;
+
+    /**
+     * Chamada medida; devolve a resposta para a etapa seguinte.
+     */
+    interface Chamada<T> {
+        T executar() throws IOException;
+    }
+
+    private static final class Amostras {
+        private long[] nanos = new long[1024];
+        private int total;
+        private long erros;
+        private final List<String> exemplosErro = new ArrayList<>();
+
+        synchronized void registrar(long duracao) {
+            if (total == nanos.length) {
+                nanos = Arrays.copyOf(nanos, total * 2);
+            }
+            nanos[total++] = duracao;
+        }
+
+        synchronized void registrarErro(String mensagem) {
+            erros++;
+            if (exemplosErro.size() < EXEMPLOS_ERRO && !exemplosErro.contains(mensagem)) {
+                exemplosErro.add(mensagem);
+            }
+        }
+
+        synchronized long[] ordenadas() {
+            long[] copia = Arrays.copyOf(nanos, total);
+            Arrays.sort(copia);
+            return copia;
+        }
+    }
+
+    private final Map<Etapa, Amostras> amostras = new EnumMap<>(Etapa.class);
+    private volatile boolean medindo;
+
+    MedicoesCarga() {
+        for (Etapa etapa : Etapa.values()) {
+            amostras.put(etapa, new Amostras());
+        }
+    }
+
+    /**
+     * Passa a registrar as medições (fim do aquecimento).
+     */
+    void iniciar() {
+        medindo = true;
+    }
+
+    /**
+     * Para de registrar, antes de encerrar os usuários virtuais.
+     */
+    void parar() {
+        medindo = false;
+    }
+
+    /**
+     * Executa e mede uma etapa. A falha é contada como erro da etapa e repassada.
+     */
+    <T> T medir(Etapa etapa, Chamada<T> chamada) throws IOException {
+        long inicio = System.nanoTime();
+        try {
+            T resultado = chamada.executar();
+            if (medindo) {
+                amostras.get(etapa).registrar(System.nanoTime() - inicio);
+            }
+            return resultado;
+        } catch (IOException | RuntimeException e) {
+            if (medindo) {
+                amostras.get(etapa).registrarErro(e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return Pedidos salvos com sucesso até agora (durante a medição)
+     */
+    long getPedidosSalvos() {
+        Amostras salvar = amostras.get(Etapa.SALVAR_PEDIDO);
+        synchronized (salvar) {
+            return salvar.total;
+        }
+    }
+
+    /**
+     * @return Erros de todas as etapas até agora (durante a medição)
+     */
+    long getErros() {
+        long erros = 0;
+        for (Amostras a : amostras.values()) {
+            synchronized (a) {
+                erros += a.erros;
+            }
+        }
+        return erros;
+    }
+
+    /**
+     * Monta a tabela de vazão e latências por etapa.
+     *
+     * @param segundos Duração da medição
+     * @return Relatório em texto
+     */
+    String relatorio(double segundos) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-34s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "Etapa", "Sucesso", "Erros", "Req/s", "Média ms", "p50 ms", "p99 ms", "p99.9 ms", "Máx ms"));
+        List<String> erros = new ArrayList<>();
+        for (Etapa etapa : Etapa.values()) {
+            Amostras a = amostras.get(etapa);
+            long[] ordenadas = a.ordenadas();
+            long soma = 0;
+            for (long n : ordenadas) {
+                soma += n;
+            }
+            long falhas;
+            synchronized (a) {
+                falhas = a.erros;
+                for (String exemplo : a.exemplosErro) {
+                    erros.add(etapa.getDescricao() + ": " + exemplo);
+                }
+            }
+            sb.append(String.format("%-34s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    etapa.getDescricao(), ordenadas.length, falhas, ordenadas.length / segundos,
+                    ordenadas.length == 0 ? 0.0 : ms(soma / ordenadas.length),
+                    ms(percentil(ordenadas, 50)), ms(percentil(ordenadas, 99)), ms(percentil(ordenadas, 99.9)),
+                    ordenadas.length == 0 ? 0.0 : ms(ordenadas[ordenadas.length - 1])));
+        }
+        if (!erros.isEmpty()) {
+            sb.append(String.format("%nExemplos de erro:%n"));
+            for (String erro : erros) {
+                sb.append("  ").append(erro).append(String.format("%n"));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Percentil pelo método do posto mais próximo.
+     */
+    private static long percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int posto = (int) Math.ceil(ordenadas.length * (percentil / 100.0));
+        return ordenadas[Math.max(posto, 1) - 1];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
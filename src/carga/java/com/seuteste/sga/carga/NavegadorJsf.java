@@ -0,0 +1,176 @@
+package com.seuteste.sga.carga;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Navegador mínimo de um usuário virtual: mantém o cookie de sessão e o ViewState da
+ * página atual e envia as requisições AJAX como o PrimeFaces faz no navegador.
+ * Não executa JavaScript nem baixa CSS e scripts; mede apenas o trabalho do servidor.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+final class NavegadorJsf {
+
+    private static final Pattern VIEW_STATE_HTML =
+            Pattern.compile("name=\"javax\\.faces\\.ViewState\"[^>]*value=\"([^\"]*)\"");
+    private static final Pattern VIEW_STATE_AJAX =
+            Pattern.compile("<update id=\"[^\"]*javax\\.faces\\.ViewState[^\"]*\"><!\\[CDATA\\[(.*?)\\]\\]>");
+    private static final Pattern REDIRECIONAMENTO = Pattern.compile("<redirect url=\"([^\"]*)\"");
+    private static final Pattern ERRO_AJAX =
+            Pattern.compile("<error>.*?<error-message><!\\[CDATA\\[(.*?)\\]\\]>", Pattern.DOTALL);
+    private static final Pattern SESSAO = Pattern.compile("JSESSIONID=([^;]+)");
+
+    private final String urlBase;
+    private String sessao;
+    private String pagina;
+    private String viewState;
+
+    /**
+     * @param urlBase URL da aplicação, terminada em barra
+     */
+    NavegadorJsf(String urlBase) {
+        this.urlBase = urlBase;
+    }
+
+    /**
+     * Abre uma página (GET) e guarda o ViewState dela para os envios seguintes.
+     *
+     * @param pagina Página relativa ao contexto, por exemplo {@code produtos.xhtml}
+     * @return HTML da página
+     * @throws IOException Se a resposta não for 200 ou a página não tiver formulário JSF
+     */
+    String abrir(String pagina) throws IOException {
+        HttpURLConnection conexao = conectar(pagina);
+        String html = ler(conexao, pagina);
+        Matcher m = VIEW_STATE_HTML.matcher(html);
+        if (!m.find()) {
+            throw new IOException("Página sem ViewState: " + pagina);
+        }
+        this.pagina = pagina;
+        this.viewState = m.group(1);
+        return html;
+    }
+
+    /**
+     * Envia uma requisição AJAX do PrimeFaces na página atual.
+     *
+     * @param formulario ID do formulário enviado
+     * @param origem ID do componente que disparou a requisição
+     * @param processar Componentes processados (javax.faces.partial.execute)
+     * @param atualizar Componentes renderizados (javax.faces.partial.render)
+     * @param campos Campos do formulário e parâmetros do componente
+     * @return Resposta parcial (partial-response)
+     * @throws IOException Se a resposta não for 200 ou trouxer um erro do JSF
+     */
+    String enviar(String formulario, String origem, String processar, String atualizar,
+                  Map<String, String> campos) throws IOException {
+        Map<String, String> parametros = new LinkedHashMap<>();
+        parametros.put("javax.faces.partial.ajax", "true");
+        parametros.put("javax.faces.source", origem);
+        parametros.put("javax.faces.partial.execute", processar);
+        parametros.put("javax.faces.partial.render", atualizar);
+        parametros.put(origem, origem);
+        parametros.put(formulario, formulario);
+        parametros.putAll(campos);
+        parametros.put("javax.faces.ViewState", viewState);
+
+        StringBuilder corpo = new StringBuilder();
+        for (Map.Entry<String, String> p : parametros.entrySet()) {
+            if (corpo.length() > 0) {
+                corpo.append('&');
+            }
+            corpo.append(URLEncoder.encode(p.getKey(), "UTF-8")).append('=')
+                 .append(URLEncoder.encode(p.getValue(), "UTF-8"));
+        }
+
+        HttpURLConnection conexao = (HttpURLConnection) new URL(urlBase + pagina).openConnection();
+        conexao.setInstanceFollowRedirects(false);
+        conexao.setRequestMethod("POST");
+        conexao.setDoOutput(true);
+        conexao.setRequestProperty("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
+        conexao.setRequestProperty("Faces-Request", "partial/ajax");
+        conexao.setRequestProperty("X-Requested-With", "XMLHttpRequest");
+        if (sessao != null) {
+            conexao.setRequestProperty("Cookie", "JSESSIONID=" + sessao);
+        }
+        try (OutputStream saida = conexao.getOutputStream()) {
+            saida.write(corpo.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        String resposta = ler(conexao, pagina + " (" + origem + ")");
+        Matcher erro = ERRO_AJAX.matcher(resposta);
+        if (erro.find()) {
+            throw new IOException("Erro do JSF em " + origem + ": " + erro.group(1));
+        }
+        Matcher m = VIEW_STATE_AJAX.matcher(resposta);
+        if (m.find()) {
+            viewState = m.group(1);
+        }
+        return resposta;
+    }
+
+    /**
+     * @param resposta Resposta parcial
+     * @return URL de redirecionamento pedida pela resposta, ou {@code null}
+     */
+    static String redirecionamento(String resposta) {
+        Matcher m = REDIRECIONAMENTO.matcher(resposta);
+        return m.find() ? m.group(1) : null;
+    }
+
+    /**
+     * Esquece a sessão, como um navegador fechado.
+     */
+    void encerrar() {
+        sessao = null;
+        pagina = null;
+        viewState = null;
+    }
+
+    private HttpURLConnection conectar(String pagina) throws IOException {
+        HttpURLConnection conexao = (HttpURLConnection) new URL(urlBase + pagina).openConnection();
+        conexao.setInstanceFollowRedirects(false);
+        if (sessao != null) {
+            conexao.setRequestProperty("Cookie", "JSESSIONID=" + sessao);
+        }
+        return conexao;
+    }
+
+    private String ler(HttpURLConnection conexao, String descricao) throws IOException {
+        int status = conexao.getResponseCode();
+        String cookie = conexao.getHeaderField("Set-Cookie");
+        if (cookie != null) {
+            Matcher m = SESSAO.matcher(cookie);
+            if (m.find()) {
+                sessao = m.group(1);
+            }
+        }
+        InputStream entrada = status < 400 ? conexao.getInputStream() : conexao.getErrorStream();
+        ByteArrayOutputStream conteudo = new ByteArrayOutputStream();
+        if (entrada != null) {
+            try (InputStream in = entrada) {
+                byte[] buffer = new byte[8192];
+                int lidos;
+                while ((lidos = in.read(buffer)) != -1) {
+                    conteudo.write(buffer, 0, lidos);
+                }
+            }
+        }
+        if (status != HttpURLConnection.HTTP_OK) {
+            throw new IOException("HTTP " + status + " em " + descricao
+                    + (status / 100 == 3 ? " para " + conexao.getHeaderField("Location") : ""));
+        }
+        return new String(conteudo.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,68 @@
+package com.seuteste.sga.carga;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.loader.WebappLoader;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.webresources.DirResourceSet;
+import org.apache.catalina.webresources.StandardRoot;
+import org.apache.tomcat.util.scan.StandardJarScanner;
+
+import java.io.File;
+
+/**
+ * Tomcat embutido servindo a aplicação a partir das fontes: as páginas de
+ * src/main/webapp e as classes compiladas montadas como WEB-INF/classes, sem gerar o WAR.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+final class ServidorEmbutido {
+
+    static final String CONTEXTO = "/sga";
+
+    private final Tomcat tomcat = new Tomcat();
+
+    /**
+     * @param webapp Diretório com as páginas e o WEB-INF da aplicação
+     * @param classes Diretório com as classes e recursos compilados
+     * @param base Diretório de trabalho do Tomcat
+     */
+    ServidorEmbutido(File webapp, File classes, File base) {
+        // O javax.el-api trazido pelo cdi-api vem antes do EL do Tomcat no classpath e,
+        // sem esta propriedade, procura a implementação da GlassFish, que não está presente
+        System.setProperty("javax.el.ExpressionFactory", "org.apache.el.ExpressionFactoryImpl");
+        tomcat.setBaseDir(base.getAbsolutePath());
+        // Porta livre escolhida pelo sistema, lida depois de iniciar
+        tomcat.setPort(0);
+        tomcat.getConnector().setProperty("maxThreads", "200");
+        Context contexto = tomcat.addWebapp(CONTEXTO, webapp.getAbsolutePath());
+        WebResourceRoot recursos = new StandardRoot(contexto);
+        recursos.addPreResources(new DirResourceSet(recursos, "/WEB-INF/classes", classes.getAbsolutePath(), "/"));
+        contexto.setResources(recursos);
+        // As classes da aplicação também estão no classpath do gerador (massa de dados);
+        // carregar primeiro do pai evita duas cópias de cada classe e de JPAUtil
+        WebappLoader carregador = new WebappLoader();
+        carregador.setDelegate(true);
+        contexto.setLoader(carregador);
+        // Os JARs do Maven não trazem as dependências do Class-Path do manifesto
+        ((StandardJarScanner) contexto.getJarScanner()).setScanManifest(false);
+    }
+
+    void iniciar() throws LifecycleException {
+        tomcat.start();
+    }
+
+    void parar() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    /**
+     * @return URL base da aplicação, terminada em barra
+     */
+    String getUrlBase() {
+        return "http://localhost:" + tomcat.getConnector().getLocalPort() + CONTEXTO + "/";
+    }
+}
@@ -0,0 +1,209 @@
+package com.seuteste.sga.carga;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Um operador simulado: entra no sistema e, na mesma sessão, consulta os produtos e cadastra
+ * alguns pedidos escolhendo os itens pelo autocompletar, como faria no navegador.
+ * Qualquer falha encerra a sessão e ele recomeça pelo login.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+final class UsuarioVirtual implements Runnable {
+
+    private static final Pattern SUGESTAO = Pattern.compile("data-item-value=\"(\\d+)\" data-item-label=\"([^\"]*)\"");
+    private static final Pattern MENSAGEM_ERRO = Pattern.compile("ui-messages-error-detail\">([^<]*)<");
+    /** Pausa depois de uma falha, para um erro persistente não virar um laço sem espera. */
+    private static final long PAUSA_APOS_FALHA_MS = 200;
+
+    private final NavegadorJsf navegador;
+    private final MassaCarga massa;
+    private final MedicoesCarga medicoes;
+    private final int pedidosPorSessao;
+    private final int itensPorPedido;
+    private final long fimNanos;
+
+    UsuarioVirtual(String urlBase, MassaCarga massa, MedicoesCarga medicoes,
+                   int pedidosPorSessao, int itensPorPedido, long fimNanos) {
+        this.navegador = new NavegadorJsf(urlBase);
+        this.massa = massa;
+        this.medicoes = medicoes;
+        this.pedidosPorSessao = pedidosPorSessao;
+        this.itensPorPedido = itensPorPedido;
+        this.fimNanos = fimNanos;
+    }
+
+    @Override
+    public void run() {
+        while (System.nanoTime() < fimNanos && !Thread.currentThread().isInterrupted()) {
+            try {
+                entrar();
+                for (int i = 0; i < pedidosPorSessao && System.nanoTime() < fimNanos; i++) {
+                    consultarProdutos();
+                    cadastrarPedido();
+                }
+            } catch (IOException | RuntimeException e) {
+                try {
+                    Thread.sleep(PAUSA_APOS_FALHA_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            } finally {
+                navegador.encerrar();
+            }
+        }
+    }
+
+    private void entrar() throws IOException {
+        medicoes.medir(Etapa.ABRIR_LOGIN, () -> navegador.abrir("login.xhtml"));
+        Map<String, String> campos = new LinkedHashMap<>();
+        campos.put("loginForm:email", massa.getEmail());
+        campos.put("loginForm:senha", MassaCarga.SENHA);
+        medicoes.medir(Etapa.LOGIN, () -> {
+            String resposta = navegador.enviar("loginForm", "loginForm:entrar", "loginForm", "loginForm", campos);
+            if (NavegadorJsf.redirecionamento(resposta) == null) {
+                throw new IOException("Login recusado" + mensagemErro(resposta));
+            }
+            return resposta;
+        });
+    }
+
+    private void consultarProdutos() throws IOException {
+        medicoes.medir(Etapa.PRODUTOS, () -> verificar(navegador.abrir("produtos.xhtml")));
+    }
+
+    private void cadastrarPedido() throws IOException {
+        medicoes.medir(Etapa.PEDIDOS, () -> verificar(navegador.abrir("pedidos.xhtml")));
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        Map<String, String> formulario = novoFormulario();
+
+        List<String> escolhidos = new ArrayList<>();
+        int produtos = massa.getProdutoIds().size();
+        for (int i = 0; i < itensPorPedido; i++) {
+            // Digita o código da execução e o número do produto, como quem procura um item pelo nome
+            String texto = massa.getCodigo() + " " + aleatorio.nextInt(produtos);
+            String sugestoes = medicoes.medir(Etapa.COMPLETAR_PRODUTO, () -> completar(texto));
+
+            // Escolhe a primeira sugestão que ainda não está no pedido
+            String[] escolha = null;
+            Matcher m = SUGESTAO.matcher(sugestoes);
+            while (escolha == null && m.find()) {
+                if (!escolhidos.contains(m.group(1))) {
+                    escolha = new String[] {m.group(1), m.group(2)};
+                }
+            }
+            if (escolha == null) {
+                continue;
+            }
+            escolhidos.add(escolha[0]);
+            String[] escolhido = escolha;
+            int quantidade = 1 + aleatorio.nextInt(5);
+            medicoes.medir(Etapa.ADICIONAR_ITEM,
+                    () -> adicionarItem(formulario, escolhido[0], escolhido[1], quantidade));
+        }
+        if (escolhidos.isEmpty()) {
+            throw new IOException("O autocompletar não sugeriu nenhum produto");
+        }
+        medicoes.medir(Etapa.SALVAR_PEDIDO, () -> esperar(salvar(formulario), "Pedido cadastrado"));
+    }
+
+    /**
+     * Confere, antes da carga, que um pedido recusado por falta de estoque pode ser corrigido
+     * e salvo no mesmo formulário: o estoque do item cai entre a inclusão e o salvar (como
+     * numa venda concorrente) e, reposto o estoque, o segundo salvar tem de cadastrar o pedido.
+     */
+    void verificarNovaTentativaSemEstoque() throws Exception {
+        try {
+            entrar();
+            verificar(navegador.abrir("pedidos.xhtml"));
+            Map<String, String> formulario = novoFormulario();
+            Matcher m = SUGESTAO.matcher(completar(massa.getCodigo() + " escasso"));
+            if (!m.find()) {
+                throw new IOException("O autocompletar não sugeriu o produto escasso");
+            }
+            adicionarItem(formulario, m.group(1), m.group(2), MassaCarga.ESTOQUE_ESCASSO);
+
+            massa.definirEstoqueEscasso(MassaCarga.ESTOQUE_ESCASSO - 1);
+            String recusa = salvar(formulario);
+            if (!mensagemErro(recusa).contains("Estoque insuficiente")) {
+                throw new IOException("Pedido sem estoque não foi recusado" + mensagemErro(recusa));
+            }
+
+            massa.definirEstoqueEscasso(MassaCarga.ESTOQUE_ESCASSO);
+            esperar(salvar(formulario), "Pedido cadastrado");
+            if (massa.getEstoqueEscasso() != 0) {
+                throw new IOException("Estoque do produto escasso ficou em " + massa.getEstoqueEscasso());
+            }
+        } finally {
+            navegador.encerrar();
+        }
+    }
+
+    private Map<String, String> novoFormulario() {
+        List<Long> clientes = massa.getClienteIds();
+        Map<String, String> formulario = new LinkedHashMap<>();
+        formulario.put("formCadastro:cliente_input",
+                clientes.get(ThreadLocalRandom.current().nextInt(clientes.size())).toString());
+        formulario.put("formCadastro:status_input", "Pendente");
+        return formulario;
+    }
+
+    private String completar(String texto) throws IOException {
+        Map<String, String> busca = new LinkedHashMap<>();
+        busca.put("formCadastro:produto_query", texto);
+        busca.put("formCadastro:produto_input", texto);
+        return navegador.enviar("formCadastro", "formCadastro:produto", "formCadastro:produto",
+                "formCadastro:produto", busca);
+    }
+
+    private String adicionarItem(Map<String, String> formulario, String produtoId, String rotulo, int quantidade)
+            throws IOException {
+        Map<String, String> item = new LinkedHashMap<>(formulario);
+        item.put("formCadastro:produto_input", rotulo);
+        item.put("formCadastro:produto_hinput", produtoId);
+        item.put("formCadastro:quantidade_input", Integer.toString(quantidade));
+        item.put("formCadastro:quantidade_hinput", Integer.toString(quantidade));
+        return esperar(navegador.enviar("formCadastro", "formCadastro:adicionarItem", "formCadastro",
+                "formCadastro:tabelaItens messages formCadastro:valorTotal", item), "Item adicionado");
+    }
+
+    private String salvar(Map<String, String> formulario) throws IOException {
+        return navegador.enviar("formCadastro", "formCadastro:salvar", "formCadastro", "messages tabelaPedidos",
+                formulario);
+    }
+
+    /**
+     * Falha se a página ou a resposta trouxer uma mensagem de erro da aplicação.
+     */
+    private static String verificar(String resposta) throws IOException {
+        String erro = mensagemErro(resposta);
+        if (!erro.isEmpty()) {
+            throw new IOException("Erro da aplicação" + erro);
+        }
+        return resposta;
+    }
+
+    /**
+     * Falha se a resposta não trouxer a mensagem de sucesso esperada.
+     */
+    private static String esperar(String resposta, String sucesso) throws IOException {
+        verificar(resposta);
+        if (!resposta.contains(sucesso)) {
+            throw new IOException("Resposta sem \"" + sucesso + "\"");
+        }
+        return resposta;
+    }
+
+    private static String mensagemErro(String resposta) {
+        Matcher m = MENSAGEM_ERRO.matcher(resposta);
+        return m.find() ? ": " + m.group(1) : "";
+    }
+}
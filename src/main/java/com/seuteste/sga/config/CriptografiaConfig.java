@@ -0,0 +1,41 @@
+package com.seuteste.sga.config;
+
+import com.seuteste.sga.util.ConfigUtil;
+import com.seuteste.sga.util.CriptografiaUtil;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+
+/**
+ * Define na subida da aplicação o custo BCrypt dos novos hashes de senha: o informado em
+ * BCRYPT_ROUNDS ou, sem ele, o calibrado para que uma verificação leve cerca de
+ * BCRYPT_ALVO_MS nesta máquina. Hashes com custo menor são refeitos no login.
+ *
+ * Registrado no web.xml antes do listener do Weld, para medir com a CPU livre.
+ */
+public class CriptografiaConfig implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        int rounds = ConfigUtil.getBcryptRounds();
+        try {
+            if (rounds > 0) {
+                CriptografiaUtil.setRounds(rounds);
+                System.out.println("CriptografiaConfig: custo BCrypt fixo em " + rounds);
+            } else {
+                long inicio = System.nanoTime();
+                int alvo = ConfigUtil.getBcryptAlvoMillis();
+                rounds = CriptografiaUtil.calibrarRounds(alvo);
+                System.out.println("CriptografiaConfig: custo BCrypt calibrado em " + rounds + " para ~" + alvo
+                        + " ms por verificação (calibração em " + (System.nanoTime() - inicio) / 1_000_000 + " ms)");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("CriptografiaConfig: " + e.getMessage() + "; mantendo o custo "
+                    + CriptografiaUtil.getRounds());
+        }
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+    }
+}
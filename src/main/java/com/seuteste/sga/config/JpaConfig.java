@@ -0,0 +1,35 @@
+package com.seuteste.sga.config;
+
+import com.seuteste.sga.util.IndicesBusca;
+import com.seuteste.sga.util.JPAUtil;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Inicializa o JPA (e o pool de conexões) na subida da aplicação
+ * e libera os recursos quando o contexto é destruído.
+ */
+@WebListener
+public class JpaConfig implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        System.out.println("JpaConfig: Inicializando EntityManagerFactory e pool de conexões...");
+        try {
+            JPAUtil.getEntityManagerFactory();
+            System.out.println("JpaConfig: " + JPAUtil.getEstatisticasPool());
+            IndicesBusca.criar();
+        } catch (RuntimeException e) {
+            // A aplicação continua no ar; a próxima chamada ao JPAUtil tenta novamente
+            System.err.println("JpaConfig: Falha ao inicializar JPA: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        JPAUtil.closeEntityManagerFactory();
+        System.out.println("JpaConfig: EntityManagerFactory e pool de conexões encerrados");
+    }
+}
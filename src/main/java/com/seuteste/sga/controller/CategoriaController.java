@@ -1,17 +1,17 @@
 package com.seuteste.sga.controller;
 
+import com.seuteste.sga.controller.lazy.CategoriaLazyDataModel;
 import com.seuteste.sga.model.Categoria;
 import com.seuteste.sga.service.CategoriaService;
 import com.seuteste.sga.service.ServiceException;
 
 import javax.annotation.PostConstruct;
 import javax.faces.application.FacesMessage;
-import javax.faces.bean.ManagedBean;
-import javax.faces.bean.ViewScoped;
 import javax.faces.context.FacesContext;
+import javax.faces.view.ViewScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Managed Bean para controlar as operações relacionadas à entidade Categoria.
@@ -20,14 +20,15 @@ import java.util.List;
  * @author SGA Team
  * @version 1.0
  */
-@ManagedBean(name = "categoriaController")
+@Named("categoriaController")
 @ViewScoped
 public class CategoriaController implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    @Inject
     private CategoriaService categoriaService;
-    private List<Categoria> categorias;
+    private CategoriaLazyDataModel categorias;
     private Categoria categoria;
     private Categoria categoriaSelecionada;
     private String filtroNome;
@@ -36,9 +37,8 @@ public class CategoriaController implements Serializable {
 
     @PostConstruct
     public void init() {
-        categoriaService = new CategoriaService();
         categoria = new Categoria();
-        categorias = new ArrayList<>();
+        categorias = new CategoriaLazyDataModel(categoriaService);
         carregarCategorias();
     }
 
@@ -46,16 +46,8 @@ public class CategoriaController implements Serializable {
      * Carrega a lista de categorias.
      */
     public void carregarCategorias() {
-        try {
-            if (filtroNome != null && !filtroNome.trim().isEmpty()) {
-                categorias = categoriaService.buscarPorNome(filtroNome);
-            } else {
-                categorias = categoriaService.listarTodas();
-            }
-        } catch (ServiceException e) {
-            adicionarMensagemErro("Erro ao carregar categorias: " + e.getMessage());
-            categorias = new ArrayList<>();
-        }
+        // A tabela busca cada página sob demanda; aqui só se aplicam os filtros
+        categorias.setFiltroNome(filtroNome);
     }
 
     /**
@@ -74,6 +66,7 @@ public class CategoriaController implements Serializable {
             categoria = new Categoria();
             categoria.setId(categoriaSelecionada.getId());
             categoria.setNome(categoriaSelecionada.getNome());
+            categoria.setVersao(categoriaSelecionada.getVersao());
             exibirDialogCadastro = true;
         }
     }
@@ -175,14 +168,10 @@ public class CategoriaController implements Serializable {
     }
 
     // Getters e Setters
-    public List<Categoria> getCategorias() {
+    public CategoriaLazyDataModel getCategorias() {
         return categorias;
     }
 
-    public void setCategorias(List<Categoria> categorias) {
-        this.categorias = categorias;
-    }
-
     public Categoria getCategoria() {
         return categoria;
     }
@@ -1,18 +1,18 @@
 package com.seuteste.sga.controller;
 
+import com.seuteste.sga.controller.lazy.ClienteLazyDataModel;
 import com.seuteste.sga.model.Cliente;
 import com.seuteste.sga.service.ClienteService;
 import com.seuteste.sga.service.ServiceException;
 
 import javax.annotation.PostConstruct;
 import javax.faces.application.FacesMessage;
-import javax.faces.bean.ManagedBean;
-import javax.faces.bean.ViewScoped;
 import javax.faces.context.FacesContext;
+import javax.faces.view.ViewScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Managed Bean para controlar as operações relacionadas à entidade Cliente.
@@ -20,14 +20,15 @@ import java.util.List;
  * @author SGA Team
  * @version 1.0
  */
-@ManagedBean(name = "clienteController")
+@Named("clienteController")
 @ViewScoped
 public class ClienteController implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    @Inject
     private ClienteService clienteService;
-    private List<Cliente> clientes;
+    private ClienteLazyDataModel clientes;
     private Cliente cliente;
     private Cliente clienteSelecionado;
     private String filtroNome;
@@ -36,23 +37,14 @@ public class ClienteController implements Serializable {
 
     @PostConstruct
     public void init() {
-        clienteService = new ClienteService();
         cliente = new Cliente();
-        clientes = new ArrayList<>();
+        clientes = new ClienteLazyDataModel(clienteService);
         carregarClientes();
     }
 
     public void carregarClientes() {
-        try {
-            if (filtroNome != null && !filtroNome.trim().isEmpty()) {
-                clientes = clienteService.buscarPorNome(filtroNome);
-            } else {
-                clientes = clienteService.listarTodos();
-            }
-        } catch (ServiceException e) {
-            adicionarMensagemErro("Erro ao carregar clientes: " + e.getMessage());
-            clientes = new ArrayList<>();
-        }
+        // A tabela busca cada página sob demanda; aqui só se aplicam os filtros
+        clientes.setFiltroNome(filtroNome);
     }
 
     public void prepararNovo() {
@@ -70,6 +62,7 @@ public class ClienteController implements Serializable {
             cliente.setTelefone(clienteSelecionado.getTelefone());
             cliente.setEndereco(clienteSelecionado.getEndereco());
             cliente.setDataCadastro(clienteSelecionado.getDataCadastro());
+            cliente.setVersao(clienteSelecionado.getVersao());
             exibirDialogCadastro = true;
         }
     }
@@ -148,14 +141,10 @@ public class ClienteController implements Serializable {
     }
 
     // Getters e Setters
-    public List<Cliente> getClientes() {
+    public ClienteLazyDataModel getClientes() {
         return clientes;
     }
 
-    public void setClientes(List<Cliente> clientes) {
-        this.clientes = clientes;
-    }
-
     public Cliente getCliente() {
         return cliente;
     }
@@ -2,14 +2,16 @@ package com.seuteste.sga.controller;
 
 import com.seuteste.sga.model.Usuario;
 import com.seuteste.sga.service.AutenticacaoService;
+import com.seuteste.sga.service.LimitadorLogin;
 import com.seuteste.sga.service.ServiceException;
 import com.seuteste.sga.util.SessaoUtil;
 
 import javax.annotation.PostConstruct;
 import javax.faces.application.FacesMessage;
-import javax.faces.bean.ManagedBean;
-import javax.faces.bean.ViewScoped;
 import javax.faces.context.FacesContext;
+import javax.faces.view.ViewScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.logging.Level;
@@ -21,7 +23,7 @@ import java.util.logging.Logger;
  * @author SGA Team
  * @version 1.0
  */
-@ManagedBean(name = "loginController")
+@Named("loginController")
 @ViewScoped
 public class LoginController implements Serializable {
 
@@ -29,8 +31,12 @@ public class LoginController implements Serializable {
     private static final Logger LOGGER = Logger.getLogger(LoginController.class.getName());
 
     // Serviços
+    @Inject
     private AutenticacaoService autenticacaoService;
 
+    @Inject
+    private LimitadorLogin limitadorLogin;
+
     // Dados do formulário de login
     private String email;
     private String senha;
@@ -43,8 +49,6 @@ public class LoginController implements Serializable {
     @PostConstruct
     public void init() {
         try {
-            autenticacaoService = new AutenticacaoService();
-            
             // Verificar se já está logado
             if (SessaoUtil.isUsuarioLogado()) {
                 redirecionarParaPaginaPrincipal();
@@ -84,6 +88,15 @@ public class LoginController implements Serializable {
                 return;
             }
 
+            // Limite de tentativas por email e por IP, antes de consultar o banco ou o BCrypt
+            long espera = limitadorLogin.tentativa(emailLimpo, SessaoUtil.getEnderecoRemoto());
+            if (espera > 0) {
+                mensagemErro = "Muitas tentativas de login. Aguarde " + espera + " segundo(s) e tente novamente.";
+                adicionarMensagemErro(mensagemErro);
+                LOGGER.fine("Tentativa de login limitada para email: " + emailLimpo);
+                return;
+            }
+
             // Tentar autenticar
             Usuario usuario = autenticacaoService.autenticar(emailLimpo, senhaLimpa);
 
@@ -1,5 +1,8 @@
 package com.seuteste.sga.controller;
 
+import com.seuteste.sga.controller.lazy.PedidoLazyDataModel;
+import com.seuteste.sga.dao.PlanoBuscaPedido;
+import com.seuteste.sga.dto.OpcaoDTO;
 import com.seuteste.sga.model.Cliente;
 import com.seuteste.sga.model.ItemPedido;
 import com.seuteste.sga.model.Pedido;
@@ -7,14 +10,17 @@ import com.seuteste.sga.model.Produto;
 import com.seuteste.sga.service.ClienteService;
 import com.seuteste.sga.service.PedidoService;
 import com.seuteste.sga.service.ProdutoService;
+import com.seuteste.sga.service.ReservasEstoque;
 import com.seuteste.sga.service.ServiceException;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.faces.application.FacesMessage;
-import javax.faces.bean.ManagedBean;
-import javax.faces.bean.ViewScoped;
 import javax.faces.context.FacesContext;
 import javax.faces.model.SelectItem;
+import javax.faces.view.ViewScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -28,19 +34,28 @@ import java.util.List;
  * @author SGA Team
  * @version 1.0
  */
-@ManagedBean(name = "pedidoController")
+@Named("pedidoController")
 @ViewScoped
 public class PedidoController implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /** Quantidade máxima de sugestões do autocompletar de produtos. */
+    private static final int LIMITE_SUGESTOES_PRODUTO = 15;
+
+    @Inject
     private PedidoService pedidoService;
+    @Inject
     private ClienteService clienteService;
+    @Inject
     private ProdutoService produtoService;
+    @Inject
+    private ReservasEstoque reservasEstoque;
     
-    private List<Pedido> pedidos;
+    private PedidoLazyDataModel pedidos;
     private Pedido pedido;
     private Pedido pedidoSelecionado;
+    private List<Pedido> pedidosSelecionados;
     private String filtroStatus;
     private boolean exibirDialogCadastro;
     private boolean exibirDialogConfirmacao;
@@ -49,39 +64,33 @@ public class PedidoController implements Serializable {
     // Para gerenciamento de itens do pedido
     private ItemPedido novoItem;
     private List<SelectItem> clientesSelectItems;
-    private List<SelectItem> produtosSelectItems;
+    private OpcaoDTO produtoEscolhido;
     private List<SelectItem> statusSelectItems;
+    // Reservas de estoque dos itens adicionados neste formulário
+    private String carrinho;
 
     @PostConstruct
     public void init() {
-        pedidoService = new PedidoService();
-        clienteService = new ClienteService();
-        produtoService = new ProdutoService();
-        
+        carrinho = reservasEstoque.abrirCarrinho();
         pedido = new Pedido();
         novoItem = new ItemPedido();
-        pedidos = new ArrayList<>();
+        pedidos = new PedidoLazyDataModel(pedidoService);
         clientesSelectItems = new ArrayList<>();
-        produtosSelectItems = new ArrayList<>();
         statusSelectItems = new ArrayList<>();
         
         carregarPedidos();
         carregarClientes();
-        carregarProdutos();
         carregarStatus();
     }
 
+    @PreDestroy
+    public void destruir() {
+        reservasEstoque.liberarCarrinho(carrinho);
+    }
+
     public void carregarPedidos() {
-        try {
-            if (filtroStatus != null && !filtroStatus.trim().isEmpty()) {
-                pedidos = pedidoService.buscarPorStatus(filtroStatus);
-            } else {
-                pedidos = pedidoService.listarTodos();
-            }
-        } catch (ServiceException e) {
-            adicionarMensagemErro("Erro ao carregar pedidos: " + e.getMessage());
-            pedidos = new ArrayList<>();
-        }
+        // A tabela busca cada página sob demanda; aqui só se aplicam os filtros
+        pedidos.setFiltroStatus(filtroStatus);
     }
 
     public void carregarClientes() {
@@ -89,8 +98,7 @@ public class PedidoController implements Serializable {
             clientesSelectItems.clear();
             clientesSelectItems.add(new SelectItem(null, "Selecione um cliente"));
             
-            List<Cliente> clientes = clienteService.listarTodos();
-            for (Cliente cliente : clientes) {
+            for (OpcaoDTO cliente : clienteService.listarOpcoes()) {
                 clientesSelectItems.add(new SelectItem(cliente.getId(), cliente.getNome()));
             }
         } catch (ServiceException e) {
@@ -98,20 +106,18 @@ public class PedidoController implements Serializable {
         }
     }
 
-    public void carregarProdutos() {
+    /**
+     * Sugestões do autocompletar de produtos, servidas pelo índice do catálogo em memória.
+     * 
+     * @param texto Texto digitado
+     * @return Produtos sugeridos
+     */
+    public List<OpcaoDTO> completarProduto(String texto) {
         try {
-            produtosSelectItems.clear();
-            produtosSelectItems.add(new SelectItem(null, "Selecione um produto"));
-            
-            List<Produto> produtos = produtoService.listarTodos();
-            for (Produto produto : produtos) {
-                if (produto.getQuantidadeEstoque() > 0) {
-                    produtosSelectItems.add(new SelectItem(produto.getId(), 
-                        produto.getNome() + " (Estoque: " + produto.getQuantidadeEstoque() + ")"));
-                }
-            }
+            return produtoService.autocompletar(texto, LIMITE_SUGESTOES_PRODUTO);
         } catch (ServiceException e) {
-            adicionarMensagemErro("Erro ao carregar produtos: " + e.getMessage());
+            adicionarMensagemErro("Erro ao buscar produtos: " + e.getMessage());
+            return new ArrayList<>();
         }
     }
 
@@ -122,25 +128,41 @@ public class PedidoController implements Serializable {
         statusSelectItems.add(new SelectItem("Processando", "Processando"));
         statusSelectItems.add(new SelectItem("Enviado", "Enviado"));
         statusSelectItems.add(new SelectItem("Entregue", "Entregue"));
-        statusSelectItems.add(new SelectItem("Cancelado", "Cancelado"));
+        statusSelectItems.add(new SelectItem(Pedido.STATUS_CANCELADO, Pedido.STATUS_CANCELADO));
     }
 
     public void prepararNovo() {
+        reservasEstoque.liberarCarrinho(carrinho);
         pedido = new Pedido();
         pedido.setDataPedido(LocalDate.now());
         pedido.setStatus("Pendente");
         novoItem = new ItemPedido();
+        produtoEscolhido = null;
         exibirDialogCadastro = true;
     }
 
     public void prepararEdicao() {
         if (pedidoSelecionado != null) {
+            // A linha da tabela só traz o cliente; itens, produtos e categorias vêm numa única consulta
+            try {
+                pedidoSelecionado = pedidoService.buscarPorId(pedidoSelecionado.getId(), PlanoBuscaPedido.EDICAO);
+            } catch (ServiceException e) {
+                adicionarMensagemErro("Erro ao carregar pedido: " + e.getMessage());
+                return;
+            }
+            if (pedidoSelecionado == null) {
+                adicionarMensagemErro("Pedido não encontrado.");
+                return;
+            }
+            
+            reservasEstoque.liberarCarrinho(carrinho);
             pedido = new Pedido();
             pedido.setId(pedidoSelecionado.getId());
             pedido.setCliente(pedidoSelecionado.getCliente());
             pedido.setDataPedido(pedidoSelecionado.getDataPedido());
             pedido.setStatus(pedidoSelecionado.getStatus());
             pedido.setValorTotal(pedidoSelecionado.getValorTotal());
+            pedido.setVersao(pedidoSelecionado.getVersao());
             
             // Copiar itens
             pedido.setItens(new ArrayList<>());
@@ -155,19 +177,25 @@ public class PedidoController implements Serializable {
             }
             
             novoItem = new ItemPedido();
+            produtoEscolhido = null;
             exibirDialogCadastro = true;
         }
     }
 
     public void prepararDetalhes() {
         if (pedidoSelecionado != null) {
-            exibirDialogDetalhes = true;
+            try {
+                pedidoSelecionado = pedidoService.buscarPorId(pedidoSelecionado.getId(), PlanoBuscaPedido.DETALHE);
+                exibirDialogDetalhes = pedidoSelecionado != null;
+            } catch (ServiceException e) {
+                adicionarMensagemErro("Erro ao carregar detalhes do pedido: " + e.getMessage());
+            }
         }
     }
 
     public void adicionarItem() {
         try {
-            if (novoItem.getProduto() == null) {
+            if (produtoEscolhido == null) {
                 adicionarMensagemErro("Selecione um produto para adicionar ao pedido.");
                 return;
             }
@@ -178,7 +206,7 @@ public class PedidoController implements Serializable {
             }
             
             // Buscar produto completo
-            Produto produto = produtoService.buscarPorId(novoItem.getProduto().getId());
+            Produto produto = produtoService.buscarPorId(produtoEscolhido.getId());
             if (produto == null) {
                 adicionarMensagemErro("Produto não encontrado.");
                 return;
@@ -192,9 +220,11 @@ public class PedidoController implements Serializable {
                 }
             }
             
-            // Verificar estoque
-            if (produto.getQuantidadeEstoque() < novoItem.getQuantidade()) {
-                adicionarMensagemErro("Estoque insuficiente. Disponível: " + produto.getQuantidadeEstoque());
+            // Reservar a quantidade, descontando o que outros pedidos em edição já reservaram
+            try {
+                reservasEstoque.reservar(carrinho, produto.getId(), produto.getQuantidadeEstoque(), novoItem.getQuantidade());
+            } catch (ServiceException e) {
+                adicionarMensagemErro(e.getMessage());
                 return;
             }
             
@@ -209,6 +239,7 @@ public class PedidoController implements Serializable {
             
             // Limpar formulário de novo item
             novoItem = new ItemPedido();
+            produtoEscolhido = null;
             
             adicionarMensagemSucesso("Item adicionado ao pedido!");
         } catch (ServiceException e) {
@@ -218,10 +249,12 @@ public class PedidoController implements Serializable {
 
     public void removerItem(ItemPedido item) {
         pedido.removerItem(item);
+        reservasEstoque.liberar(carrinho, item.getProduto().getId());
         adicionarMensagemSucesso("Item removido do pedido!");
     }
 
     public void salvar() {
+        reservasEstoque.renovar(carrinho);
         try {
             if (pedido.getCliente() == null) {
                 adicionarMensagemErro("Selecione um cliente para o pedido.");
@@ -238,16 +271,23 @@ public class PedidoController implements Serializable {
             pedido.setCliente(cliente);
             
             if (pedido.getId() == null) {
-                pedidoService.salvar(pedido);
+                try {
+                    pedidoService.salvar(pedido);
+                } catch (ServiceException e) {
+                    // A gravação foi desfeita; IDs gerados nela deixariam o pedido como se já existisse
+                    descartarIds(pedido);
+                    throw e;
+                }
                 adicionarMensagemSucesso("Pedido cadastrado com sucesso!");
             } else {
                 pedidoService.atualizar(pedido);
                 adicionarMensagemSucesso("Pedido atualizado com sucesso!");
             }
             
+            // O estoque já foi baixado; as reservas do formulário não são mais necessárias
+            reservasEstoque.liberarCarrinho(carrinho);
             exibirDialogCadastro = false;
             carregarPedidos();
-            carregarProdutos(); // Recarregar para atualizar estoque
             pedido = new Pedido();
         } catch (ServiceException e) {
             adicionarMensagemErro("Erro ao salvar pedido: " + e.getMessage());
@@ -266,8 +306,7 @@ public class PedidoController implements Serializable {
                 pedidoService.inativarPedido(pedidoSelecionado.getId());
                 adicionarMensagemSucesso("Pedido inativado com sucesso!");
                 carregarPedidos();
-                carregarProdutos(); // Recarregar para atualizar estoque
-                pedidoSelecionado = null;
+                    pedidoSelecionado = null;
             }
             exibirDialogConfirmacao = false;
         } catch (ServiceException e) {
@@ -275,9 +314,30 @@ public class PedidoController implements Serializable {
         }
     }
 
+    public void inativarSelecionados() {
+        if (pedidosSelecionados == null || pedidosSelecionados.isEmpty()) {
+            adicionarMensagemErro("Selecione ao menos um pedido.");
+            return;
+        }
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (Pedido selecionado : pedidosSelecionados) {
+                ids.add(selecionado.getId());
+            }
+            int inativados = pedidoService.inativarPedidos(ids);
+            adicionarMensagemSucesso(inativados + " pedido(s) inativado(s) com sucesso!");
+            pedidosSelecionados = null;
+            carregarPedidos();
+        } catch (ServiceException e) {
+            adicionarMensagemErro("Erro ao inativar pedidos: " + e.getMessage());
+        }
+    }
+
     public void cancelar() {
+        reservasEstoque.liberarCarrinho(carrinho);
         pedido = new Pedido();
         novoItem = new ItemPedido();
+        produtoEscolhido = null;
         pedidoSelecionado = null;
         exibirDialogCadastro = false;
         exibirDialogConfirmacao = false;
@@ -310,6 +370,14 @@ public class PedidoController implements Serializable {
         return BigDecimal.ZERO;
     }
 
+    private void descartarIds(Pedido pedido) {
+        pedido.setId(null);
+        pedido.setVersao(null);
+        for (ItemPedido item : pedido.getItens()) {
+            item.setId(null);
+        }
+    }
+
     // Métodos utilitários para mensagens
     private void adicionarMensagemSucesso(String mensagem) {
         FacesContext.getCurrentInstance().addMessage(null, 
@@ -322,14 +390,10 @@ public class PedidoController implements Serializable {
     }
 
     // Getters e Setters
-    public List<Pedido> getPedidos() {
+    public PedidoLazyDataModel getPedidos() {
         return pedidos;
     }
 
-    public void setPedidos(List<Pedido> pedidos) {
-        this.pedidos = pedidos;
-    }
-
     public Pedido getPedido() {
         return pedido;
     }
@@ -346,6 +410,14 @@ public class PedidoController implements Serializable {
         this.pedidoSelecionado = pedidoSelecionado;
     }
 
+    public List<Pedido> getPedidosSelecionados() {
+        return pedidosSelecionados;
+    }
+
+    public void setPedidosSelecionados(List<Pedido> pedidosSelecionados) {
+        this.pedidosSelecionados = pedidosSelecionados;
+    }
+
     public String getFiltroStatus() {
         return filtroStatus;
     }
@@ -386,6 +458,24 @@ public class PedidoController implements Serializable {
         this.novoItem = novoItem;
     }
 
+    /**
+     * Cliente escolhido no formulário, pelo ID das opções; o cadastro completo é lido ao salvar.
+     * 
+     * @return ID do cliente do pedido, ou null
+     */
+    public Long getClienteId() {
+        return pedido.getCliente() != null ? pedido.getCliente().getId() : null;
+    }
+
+    public void setClienteId(Long clienteId) {
+        Cliente cliente = null;
+        if (clienteId != null) {
+            cliente = new Cliente();
+            cliente.setId(clienteId);
+        }
+        pedido.setCliente(cliente);
+    }
+
     public List<SelectItem> getClientesSelectItems() {
         return clientesSelectItems;
     }
@@ -394,12 +484,12 @@ public class PedidoController implements Serializable {
         this.clientesSelectItems = clientesSelectItems;
     }
 
-    public List<SelectItem> getProdutosSelectItems() {
-        return produtosSelectItems;
+    public OpcaoDTO getProdutoEscolhido() {
+        return produtoEscolhido;
     }
 
-    public void setProdutosSelectItems(List<SelectItem> produtosSelectItems) {
-        this.produtosSelectItems = produtosSelectItems;
+    public void setProdutoEscolhido(OpcaoDTO produtoEscolhido) {
+        this.produtoEscolhido = produtoEscolhido;
     }
 
     public List<SelectItem> getStatusSelectItems() {
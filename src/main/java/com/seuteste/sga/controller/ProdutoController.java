@@ -1,21 +1,32 @@
 package com.seuteste.sga.controller;
 
-import com.seuteste.sga.model.Produto;
+import com.seuteste.sga.controller.lazy.ProdutoLazyDataModel;
+import com.seuteste.sga.dto.OpcaoDTO;
+import com.seuteste.sga.dto.ResultadoImportacao;
+import com.seuteste.sga.dto.SaldoEstoqueDTO;
 import com.seuteste.sga.model.Categoria;
+import com.seuteste.sga.model.Produto;
+import com.seuteste.sga.service.AlertasEstoque;
 import com.seuteste.sga.service.ProdutoService;
 import com.seuteste.sga.service.CategoriaService;
+import com.seuteste.sga.service.ImportacaoService;
 import com.seuteste.sga.service.ServiceException;
 
 import javax.annotation.PostConstruct;
 import javax.faces.application.FacesMessage;
-import javax.faces.bean.ManagedBean;
-import javax.faces.bean.ViewScoped;
 import javax.faces.context.FacesContext;
 import javax.faces.model.SelectItem;
+import javax.faces.view.ViewScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
+import org.primefaces.event.FileUploadEvent;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -24,47 +35,44 @@ import java.util.List;
  * @author SGA Team
  * @version 1.0
  */
-@ManagedBean(name = "produtoController")
+@Named("produtoController")
 @ViewScoped
 public class ProdutoController implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    @Inject
     private ProdutoService produtoService;
+    @Inject
     private CategoriaService categoriaService;
-    private List<Produto> produtos;
+    @Inject
+    private ImportacaoService importacaoService;
+    @Inject
+    private AlertasEstoque alertasEstoque;
+    private ProdutoLazyDataModel produtos;
     private Produto produto;
     private Produto produtoSelecionado;
+    private List<Produto> produtosSelecionados;
     private String filtroNome;
     private Long filtroCategoria;
     private boolean exibirDialogCadastro;
     private boolean exibirDialogConfirmacao;
     private List<SelectItem> categoriasSelectItems;
+    private ResultadoImportacao resultadoImportacao;
+    private List<SaldoEstoqueDTO> produtosEmFalta;
 
     @PostConstruct
     public void init() {
-        produtoService = new ProdutoService();
-        categoriaService = new CategoriaService();
         produto = new Produto();
-        produtos = new ArrayList<>();
+        produtos = new ProdutoLazyDataModel(produtoService);
         categoriasSelectItems = new ArrayList<>();
         carregarProdutos();
         carregarCategorias();
     }
 
     public void carregarProdutos() {
-        try {
-            if (filtroNome != null && !filtroNome.trim().isEmpty()) {
-                produtos = produtoService.buscarPorNome(filtroNome);
-            } else if (filtroCategoria != null) {
-                produtos = produtoService.buscarPorCategoria(filtroCategoria);
-            } else {
-                produtos = produtoService.listarTodos();
-            }
-        } catch (ServiceException e) {
-            adicionarMensagemErro("Erro ao carregar produtos: " + e.getMessage());
-            produtos = new ArrayList<>();
-        }
+        // A tabela busca cada página sob demanda; aqui só se aplicam os filtros
+        produtos.setFiltros(filtroNome, filtroCategoria);
     }
 
     public void carregarCategorias() {
@@ -72,8 +80,7 @@ public class ProdutoController implements Serializable {
             categoriasSelectItems.clear();
             categoriasSelectItems.add(new SelectItem(null, "Selecione uma categoria"));
             
-            List<Categoria> categorias = categoriaService.listarTodas();
-            for (Categoria categoria : categorias) {
+            for (OpcaoDTO categoria : categoriaService.listarOpcoes()) {
                 categoriasSelectItems.add(new SelectItem(categoria.getId(), categoria.getNome()));
             }
         } catch (ServiceException e) {
@@ -96,14 +103,21 @@ public class ProdutoController implements Serializable {
             produto.setDescricao(produtoSelecionado.getDescricao());
             produto.setPreco(produtoSelecionado.getPreco());
             produto.setQuantidadeEstoque(produtoSelecionado.getQuantidadeEstoque());
+            produto.setEstoqueMinimo(produtoSelecionado.getEstoqueMinimo());
             produto.setCategoria(produtoSelecionado.getCategoria());
             produto.setDataCadastro(produtoSelecionado.getDataCadastro());
+            produto.setVersao(produtoSelecionado.getVersao());
             exibirDialogCadastro = true;
         }
     }
 
     public void salvar() {
         try {
+            // O formulário traz só o ID da categoria; o produto referencia o cadastro completo
+            if (produto.getCategoria() != null) {
+                produto.setCategoria(categoriaService.buscarPorId(produto.getCategoria().getId()));
+            }
+            
             if (produto.getId() == null) {
                 produtoService.salvar(produto);
                 adicionarMensagemSucesso("Produto cadastrado com sucesso!");
@@ -140,6 +154,46 @@ public class ProdutoController implements Serializable {
         }
     }
 
+    public void inativarSelecionados() {
+        if (produtosSelecionados == null || produtosSelecionados.isEmpty()) {
+            adicionarMensagemErro("Selecione ao menos um produto.");
+            return;
+        }
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (Produto selecionado : produtosSelecionados) {
+                ids.add(selecionado.getId());
+            }
+            int inativados = produtoService.inativarProdutos(ids);
+            adicionarMensagemSucesso(inativados + " produto(s) inativado(s) com sucesso!");
+            produtosSelecionados = null;
+            carregarProdutos();
+        } catch (ServiceException e) {
+            adicionarMensagemErro("Erro ao inativar produtos: " + e.getMessage());
+        }
+    }
+
+    public void prepararImportacao() {
+        resultadoImportacao = null;
+    }
+
+    /**
+     * Importa o arquivo CSV enviado pelo componente de upload.
+     * 
+     * @param evento Evento com o arquivo enviado
+     */
+    public void importar(FileUploadEvent evento) {
+        try (InputStream arquivo = evento.getFile().getInputStream()) {
+            resultadoImportacao = importacaoService.importarProdutos(arquivo);
+            adicionarMensagemSucesso(resultadoImportacao.getInseridos() + " produto(s) incluído(s) e "
+                    + resultadoImportacao.getAtualizados() + " atualizado(s); "
+                    + resultadoImportacao.getLinhasRejeitadas() + " linha(s) rejeitada(s).");
+            carregarProdutos();
+        } catch (ServiceException | IOException e) {
+            adicionarMensagemErro("Erro ao importar produtos: " + e.getMessage());
+        }
+    }
+
     public void cancelar() {
         produto = new Produto();
         produtoSelecionado = null;
@@ -157,6 +211,35 @@ public class ProdutoController implements Serializable {
         carregarProdutos();
     }
 
+    /**
+     * Carrega os produtos em falta para o diálogo de estoque baixo, a partir do conjunto
+     * mantido em memória pelo motor de alertas.
+     */
+    public void prepararEstoqueBaixo() {
+        try {
+            produtosEmFalta = alertasEstoque.listarEmFalta();
+        } catch (ServiceException e) {
+            produtosEmFalta = Collections.emptyList();
+            adicionarMensagemErro("Erro ao carregar produtos com estoque baixo: " + e.getMessage());
+        }
+    }
+
+    public int getTotalEmFalta() {
+        try {
+            return alertasEstoque.contarEmFalta();
+        } catch (ServiceException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @param saldo Produto em falta
+     * @return Estoque mínimo do produto, ou o padrão se ele não define o seu
+     */
+    public int estoqueMinimo(SaldoEstoqueDTO saldo) {
+        return AlertasEstoque.estoqueMinimo(saldo);
+    }
+
     public long getTotalProdutos() {
         try {
             return produtoService.contarTodos();
@@ -177,14 +260,10 @@ public class ProdutoController implements Serializable {
     }
 
     // Getters e Setters
-    public List<Produto> getProdutos() {
+    public ProdutoLazyDataModel getProdutos() {
         return produtos;
     }
 
-    public void setProdutos(List<Produto> produtos) {
-        this.produtos = produtos;
-    }
-
     public Produto getProduto() {
         return produto;
     }
@@ -201,6 +280,14 @@ public class ProdutoController implements Serializable {
         this.produtoSelecionado = produtoSelecionado;
     }
 
+    public List<Produto> getProdutosSelecionados() {
+        return produtosSelecionados;
+    }
+
+    public void setProdutosSelecionados(List<Produto> produtosSelecionados) {
+        this.produtosSelecionados = produtosSelecionados;
+    }
+
     public String getFiltroNome() {
         return filtroNome;
     }
@@ -233,6 +320,32 @@ public class ProdutoController implements Serializable {
         this.exibirDialogConfirmacao = exibirDialogConfirmacao;
     }
 
+    public ResultadoImportacao getResultadoImportacao() {
+        return resultadoImportacao;
+    }
+
+    public List<SaldoEstoqueDTO> getProdutosEmFalta() {
+        return produtosEmFalta;
+    }
+
+    /**
+     * Categoria escolhida no formulário, pelo ID das opções.
+     * 
+     * @return ID da categoria do produto, ou null
+     */
+    public Long getCategoriaId() {
+        return produto.getCategoria() != null ? produto.getCategoria().getId() : null;
+    }
+
+    public void setCategoriaId(Long categoriaId) {
+        Categoria categoria = null;
+        if (categoriaId != null) {
+            categoria = new Categoria();
+            categoria.setId(categoriaId);
+        }
+        produto.setCategoria(categoria);
+    }
+
     public List<SelectItem> getCategoriasSelectItems() {
         return categoriasSelectItems;
     }
@@ -0,0 +1,43 @@
+package com.seuteste.sga.controller.converter;
+
+import com.seuteste.sga.dto.OpcaoDTO;
+import com.seuteste.sga.service.IndiceCatalogo;
+
+import javax.enterprise.inject.spi.CDI;
+import javax.faces.component.UIComponent;
+import javax.faces.context.FacesContext;
+import javax.faces.convert.Converter;
+import javax.faces.convert.ConverterException;
+import javax.faces.convert.FacesConverter;
+
+/**
+ * Converte a opção de produto escolhida no autocompletar para o seu ID e de volta.
+ * O nome exibido vem do índice do catálogo em memória, sem consultar o banco.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+@FacesConverter("opcaoProdutoConverter")
+public class OpcaoProdutoConverter implements Converter<OpcaoDTO> {
+
+    @Override
+    public OpcaoDTO getAsObject(FacesContext context, UIComponent component, String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        Long id;
+        try {
+            id = Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ConverterException("Produto inválido: " + value, e);
+        }
+        OpcaoDTO opcao = CDI.current().select(IndiceCatalogo.class).get().buscarPorId(id);
+        // Enquanto o índice carrega, o ID basta: o pedido relê o produto ao adicionar o item
+        return opcao != null ? opcao : new OpcaoDTO(id, null);
+    }
+
+    @Override
+    public String getAsString(FacesContext context, UIComponent component, OpcaoDTO value) {
+        return value != null && value.getId() != null ? value.getId().toString() : "";
+    }
+}
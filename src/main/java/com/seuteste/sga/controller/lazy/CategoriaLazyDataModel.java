@@ -0,0 +1,52 @@
+package com.seuteste.sga.controller.lazy;
+
+import com.seuteste.sga.dao.CursorPagina;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
+import com.seuteste.sga.model.Categoria;
+import com.seuteste.sga.service.CategoriaService;
+import com.seuteste.sga.service.ServiceException;
+
+/**
+ * LazyDataModel da tabela de categorias.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class CategoriaLazyDataModel extends PaginacaoLazyDataModel<Categoria> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CategoriaService categoriaService;
+    private String filtroNome;
+
+    public CategoriaLazyDataModel(CategoriaService categoriaService) {
+        super(Ordenacao.asc("nome"));
+        this.categoriaService = categoriaService;
+    }
+
+    /**
+     * Define o filtro por nome e reinicia a paginação.
+     * 
+     * @param filtroNome Nome ou parte do nome (null para todos)
+     */
+    public void setFiltroNome(String filtroNome) {
+        this.filtroNome = filtroNome;
+        reiniciar();
+    }
+
+    @Override
+    protected Pagina<Categoria> buscarPagina(CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws ServiceException {
+        return categoriaService.listarPagina(filtroNome, cursor, tamanho, ordenacao);
+    }
+
+    @Override
+    protected long contar() throws ServiceException {
+        return categoriaService.contarPorNome(filtroNome);
+    }
+
+    @Override
+    protected Object getId(Categoria entidade) {
+        return entidade.getId();
+    }
+}
@@ -0,0 +1,52 @@
+package com.seuteste.sga.controller.lazy;
+
+import com.seuteste.sga.dao.CursorPagina;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
+import com.seuteste.sga.model.Cliente;
+import com.seuteste.sga.service.ClienteService;
+import com.seuteste.sga.service.ServiceException;
+
+/**
+ * LazyDataModel da tabela de clientes.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class ClienteLazyDataModel extends PaginacaoLazyDataModel<Cliente> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ClienteService clienteService;
+    private String filtroNome;
+
+    public ClienteLazyDataModel(ClienteService clienteService) {
+        super(Ordenacao.asc("nome"));
+        this.clienteService = clienteService;
+    }
+
+    /**
+     * Define o filtro por nome e reinicia a paginação.
+     * 
+     * @param filtroNome Nome ou parte do nome (null para todos)
+     */
+    public void setFiltroNome(String filtroNome) {
+        this.filtroNome = filtroNome;
+        reiniciar();
+    }
+
+    @Override
+    protected Pagina<Cliente> buscarPagina(CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws ServiceException {
+        return clienteService.listarPagina(filtroNome, cursor, tamanho, ordenacao);
+    }
+
+    @Override
+    protected long contar() throws ServiceException {
+        return clienteService.contarPorNome(filtroNome);
+    }
+
+    @Override
+    protected Object getId(Cliente entidade) {
+        return entidade.getId();
+    }
+}
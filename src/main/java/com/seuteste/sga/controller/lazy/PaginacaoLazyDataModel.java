@@ -0,0 +1,159 @@
+package com.seuteste.sga.controller.lazy;
+
+import com.seuteste.sga.dao.CursorPagina;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
+import com.seuteste.sga.service.ServiceException;
+import org.primefaces.model.FilterMeta;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortMeta;
+import org.primefaces.model.SortOrder;
+
+import javax.faces.application.FacesMessage;
+import javax.faces.context.FacesContext;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * LazyDataModel base para as tabelas paginadas: cada página renderizada busca
+ * no banco apenas os registros que exibe.
+ * 
+ * A busca usa paginação por chave: o cursor do fim de cada página lida é guardado
+ * pela posição da linha, de modo que "próxima página" começa exatamente após o último
+ * registro exibido. Saltos para páginas ainda não visitadas partem do cursor conhecido
+ * mais próximo e pulam apenas a diferença.
+ * 
+ * @param <T> Tipo da entidade exibida
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public abstract class PaginacaoLazyDataModel<T> extends LazyDataModel<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Ordenacao ordenacaoPadrao;
+    private final NavigableMap<Integer, CursorPagina> cursores = new TreeMap<>();
+    private Ordenacao ordenacaoAtual;
+    private Integer totalEmCache;
+
+    protected PaginacaoLazyDataModel(Ordenacao ordenacaoPadrao) {
+        this.ordenacaoPadrao = ordenacaoPadrao;
+        reiniciar();
+    }
+
+    /**
+     * Busca uma página no serviço.
+     * 
+     * @param cursor Posição de início
+     * @param tamanho Quantidade de registros
+     * @param ordenacao Ordenação da tabela
+     * @return Página de registros
+     * @throws ServiceException em caso de erro na operação
+     */
+    protected abstract Pagina<T> buscarPagina(CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws ServiceException;
+
+    /**
+     * Conta os registros que atendem aos filtros atuais.
+     * 
+     * @return Quantidade de registros
+     * @throws ServiceException em caso de erro na operação
+     */
+    protected abstract long contar() throws ServiceException;
+
+    /**
+     * @param entidade Registro exibido
+     * @return ID do registro
+     */
+    protected abstract Object getId(T entidade);
+
+    /**
+     * Descarta cursores e total em cache. Deve ser chamado quando os filtros mudam
+     * ou quando registros são incluídos, alterados ou excluídos.
+     */
+    public void reiniciar() {
+        cursores.clear();
+        cursores.put(0, CursorPagina.inicio());
+        totalEmCache = null;
+    }
+
+    @Override
+    public int count(Map<String, FilterMeta> filterBy) {
+        if (totalEmCache == null) {
+            try {
+                totalEmCache = (int) Math.min(Integer.MAX_VALUE, contar());
+            } catch (ServiceException e) {
+                adicionarMensagemErro("Erro ao contar registros: " + e.getMessage());
+                return 0;
+            }
+        }
+        return totalEmCache;
+    }
+
+    @Override
+    public List<T> load(int first, int pageSize, Map<String, SortMeta> sortBy, Map<String, FilterMeta> filterBy) {
+        Ordenacao ordenacao = converterOrdenacao(sortBy);
+        if (!ordenacao.equals(ordenacaoAtual)) {
+            // Cursores guardam valores do campo de ordenação anterior
+            cursores.clear();
+            cursores.put(0, CursorPagina.inicio());
+            ordenacaoAtual = ordenacao;
+        }
+
+        Map.Entry<Integer, CursorPagina> conhecido = cursores.floorEntry(first);
+        CursorPagina cursor = conhecido.getValue().deslocado(first - conhecido.getKey());
+        try {
+            Pagina<T> pagina = buscarPagina(cursor, pageSize, ordenacao);
+            if (pagina.getProximo() != null) {
+                cursores.put(first + pagina.getItens().size(), pagina.getProximo());
+            }
+            return pagina.getItens();
+        } catch (ServiceException e) {
+            adicionarMensagemErro("Erro ao carregar registros: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    @Override
+    public String getRowKey(T entidade) {
+        Object id = getId(entidade);
+        return id == null ? null : id.toString();
+    }
+
+    @Override
+    public T getRowData(String rowKey) {
+        // A seleção sempre vem da página exibida, que é o conteúdo atual do modelo
+        List<T> pagina = getWrappedData();
+        if (pagina != null && rowKey != null) {
+            for (T entidade : pagina) {
+                if (rowKey.equals(getRowKey(entidade))) {
+                    return entidade;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Ordenacao converterOrdenacao(Map<String, SortMeta> sortBy) {
+        if (sortBy != null) {
+            for (SortMeta sortMeta : sortBy.values()) {
+                if (sortMeta.isActive() && sortMeta.getField() != null) {
+                    return sortMeta.getOrder() == SortOrder.DESCENDING
+                            ? Ordenacao.desc(sortMeta.getField())
+                            : Ordenacao.asc(sortMeta.getField());
+                }
+            }
+        }
+        return ordenacaoPadrao;
+    }
+
+    private void adicionarMensagemErro(String mensagem) {
+        FacesContext contexto = FacesContext.getCurrentInstance();
+        if (contexto != null) {
+            contexto.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Erro", mensagem));
+        }
+    }
+}
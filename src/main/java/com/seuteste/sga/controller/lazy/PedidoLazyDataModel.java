@@ -0,0 +1,52 @@
+package com.seuteste.sga.controller.lazy;
+
+import com.seuteste.sga.dao.CursorPagina;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
+import com.seuteste.sga.model.Pedido;
+import com.seuteste.sga.service.PedidoService;
+import com.seuteste.sga.service.ServiceException;
+
+/**
+ * LazyDataModel da tabela de pedidos.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class PedidoLazyDataModel extends PaginacaoLazyDataModel<Pedido> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final PedidoService pedidoService;
+    private String filtroStatus;
+
+    public PedidoLazyDataModel(PedidoService pedidoService) {
+        super(Ordenacao.desc("dataPedido"));
+        this.pedidoService = pedidoService;
+    }
+
+    /**
+     * Define o filtro por status e reinicia a paginação.
+     * 
+     * @param filtroStatus Status do pedido (null para todos)
+     */
+    public void setFiltroStatus(String filtroStatus) {
+        this.filtroStatus = filtroStatus;
+        reiniciar();
+    }
+
+    @Override
+    protected Pagina<Pedido> buscarPagina(CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws ServiceException {
+        return pedidoService.listarPagina(filtroStatus, cursor, tamanho, ordenacao);
+    }
+
+    @Override
+    protected long contar() throws ServiceException {
+        return pedidoService.contarPorStatus(filtroStatus);
+    }
+
+    @Override
+    protected Object getId(Pedido entidade) {
+        return entidade.getId();
+    }
+}
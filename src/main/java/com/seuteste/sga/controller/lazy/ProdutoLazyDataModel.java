@@ -0,0 +1,55 @@
+package com.seuteste.sga.controller.lazy;
+
+import com.seuteste.sga.dao.CursorPagina;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
+import com.seuteste.sga.model.Produto;
+import com.seuteste.sga.service.ProdutoService;
+import com.seuteste.sga.service.ServiceException;
+
+/**
+ * LazyDataModel da tabela de produtos.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class ProdutoLazyDataModel extends PaginacaoLazyDataModel<Produto> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ProdutoService produtoService;
+    private String filtroNome;
+    private Long filtroCategoria;
+
+    public ProdutoLazyDataModel(ProdutoService produtoService) {
+        super(Ordenacao.asc("nome"));
+        this.produtoService = produtoService;
+    }
+
+    /**
+     * Define os filtros e reinicia a paginação.
+     * 
+     * @param filtroNome Nome ou parte do nome (pode ser null)
+     * @param filtroCategoria ID da categoria (pode ser null)
+     */
+    public void setFiltros(String filtroNome, Long filtroCategoria) {
+        this.filtroNome = filtroNome;
+        this.filtroCategoria = filtroCategoria;
+        reiniciar();
+    }
+
+    @Override
+    protected Pagina<Produto> buscarPagina(CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws ServiceException {
+        return produtoService.listarPagina(filtroNome, filtroCategoria, cursor, tamanho, ordenacao);
+    }
+
+    @Override
+    protected long contar() throws ServiceException {
+        return produtoService.contarComFiltros(filtroNome, filtroCategoria);
+    }
+
+    @Override
+    protected Object getId(Produto entidade) {
+        return entidade.getId();
+    }
+}
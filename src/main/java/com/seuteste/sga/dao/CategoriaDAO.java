@@ -1,5 +1,6 @@
 package com.seuteste.sga.dao;
 
+import com.seuteste.sga.dto.OpcaoDTO;
 import com.seuteste.sga.model.Categoria;
 import java.util.List;
 
@@ -55,5 +56,33 @@ public interface CategoriaDAO extends GenericDAO<Categoria, Long> {
      * @throws DAOException em caso de erro na operação
      */
     boolean hasProducts(Long categoriaId) throws DAOException;
-}
 
+    /**
+     * Busca uma página de categorias cujo nome contém o texto informado, usando paginação por chave.
+     * 
+     * @param nome Nome ou parte do nome (null ou vazio para todas)
+     * @param cursor Posição de início da página
+     * @param tamanho Quantidade máxima de registros
+     * @param ordenacao Campo e direção da ordenação
+     * @return Página de categorias
+     * @throws DAOException em caso de erro na operação
+     */
+    Pagina<Categoria> findPageByNomeContaining(String nome, CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws DAOException;
+
+    /**
+     * Conta categorias cujo nome contém o texto informado.
+     * 
+     * @param nome Nome ou parte do nome (null ou vazio para todas)
+     * @return Quantidade de categorias
+     * @throws DAOException em caso de erro na operação
+     */
+    long countByNomeContaining(String nome) throws DAOException;
+
+    /**
+     * Lista id e nome de todas as categorias, ordenadas por nome, para listas de seleção.
+     * 
+     * @return Opções de categoria
+     * @throws DAOException em caso de erro na operação
+     */
+    List<OpcaoDTO> findOpcoes() throws DAOException;
+}
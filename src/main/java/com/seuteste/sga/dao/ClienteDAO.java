@@ -1,5 +1,6 @@
 package com.seuteste.sga.dao;
 
+import com.seuteste.sga.dto.OpcaoDTO;
 import com.seuteste.sga.model.Cliente;
 
 import java.util.List;
@@ -43,5 +44,54 @@ public interface ClienteDAO extends GenericDAO<Cliente, Long> {
      * @throws DAOException Em caso de erro no acesso a dados.
      */
     List<Cliente> findByNomeContaining(String nome) throws DAOException;
-}
 
+    /**
+     * Busca uma página de clientes cujo nome contém o texto informado, usando paginação por chave.
+     * 
+     * @param nome Nome ou parte do nome (null ou vazio para todos)
+     * @param cursor Posição de início da página
+     * @param tamanho Quantidade máxima de registros
+     * @param ordenacao Campo e direção da ordenação
+     * @return Página de clientes
+     * @throws DAOException em caso de erro na operação
+     */
+    Pagina<Cliente> findPageByNomeContaining(String nome, CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws DAOException;
+
+    /**
+     * Conta clientes cujo nome contém o texto informado.
+     * 
+     * @param nome Nome ou parte do nome (null ou vazio para todos)
+     * @return Quantidade de clientes
+     * @throws DAOException em caso de erro na operação
+     */
+    long countByNomeContaining(String nome) throws DAOException;
+
+    /**
+     * Lista id e nome de todos os clientes, ordenados por nome, para listas de seleção.
+     * 
+     * @return Opções de cliente
+     * @throws DAOException em caso de erro na operação
+     */
+    List<OpcaoDTO> findOpcoes() throws DAOException;
+
+    /**
+     * Busca clientes pelo nome, tolerando erros de digitação, com os mais parecidos primeiro.
+     * Usa o índice de trigramas sobre o nome; o tempo não cresce com o tamanho da tabela.
+     * 
+     * @param termo Texto digitado
+     * @param limite Quantidade máxima de resultados
+     * @return Clientes encontrados, ordenados por similaridade
+     * @throws DAOException em caso de erro na operação
+     */
+    List<Cliente> searchByNome(String termo, int limite) throws DAOException;
+
+    /**
+     * Percorre todos os clientes (id, nome, email, telefone, endereço, data de cadastro, ativo),
+     * em ordem de ID, sem carregar o resultado inteiro em memória. Pode ser atendida pela réplica de leitura.
+     * 
+     * @param processador Destino de cada linha
+     * @return Quantidade de linhas exportadas
+     * @throws DAOException em caso de erro na operação
+     */
+    long exportar(ProcessadorLinha processador) throws DAOException;
+}
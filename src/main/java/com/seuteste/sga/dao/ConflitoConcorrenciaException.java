@@ -0,0 +1,45 @@
+package com.seuteste.sga.dao;
+
+import org.hibernate.StaleStateException;
+
+import javax.persistence.OptimisticLockException;
+
+/**
+ * Exceção lançada quando uma gravação é recusada porque o registro foi alterado por
+ * outra transação depois de ter sido lido (a versão gravada não confere mais).
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public class ConflitoConcorrenciaException extends DAOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Construtor com mensagem e causa.
+     *
+     * @param message Mensagem de erro
+     * @param cause Causa da exceção
+     */
+    public ConflitoConcorrenciaException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Verifica se a exceção (ou alguma de suas causas) é uma falha de controle de
+     * concorrência otimista, inclusive quando ela só aparece no commit.
+     *
+     * @param erro Exceção a ser verificada
+     * @return true se a gravação foi recusada por conflito de versão
+     */
+    public static boolean isConflito(Throwable erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConflitoConcorrenciaException
+                    || causa instanceof OptimisticLockException
+                    || causa instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+package com.seuteste.sga.dao;
+
+import java.io.Serializable;
+
+/**
+ * Posição de leitura em uma consulta paginada por chave (keyset/seek).
+ * Em vez de pular N linhas com OFFSET, a próxima página começa logo após
+ * o último registro lido, identificado pelo valor do campo de ordenação e pelo ID.
+ * Um deslocamento pode ser somado para saltar páginas a partir da última posição conhecida.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class CursorPagina implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final CursorPagina INICIO = new CursorPagina(false, null, null, 0);
+
+    private final boolean posicionado;
+    private final Object ultimoValor;
+    private final Object ultimoId;
+    private final int deslocamento;
+
+    private CursorPagina(boolean posicionado, Object ultimoValor, Object ultimoId, int deslocamento) {
+        this.posicionado = posicionado;
+        this.ultimoValor = ultimoValor;
+        this.ultimoId = ultimoId;
+        this.deslocamento = deslocamento;
+    }
+
+    /**
+     * @return Cursor posicionado no primeiro registro
+     */
+    public static CursorPagina inicio() {
+        return INICIO;
+    }
+
+    /**
+     * Cria um cursor posicionado logo após o registro informado.
+     * 
+     * @param ultimoValor Valor do campo de ordenação no último registro lido
+     * @param ultimoId ID do último registro lido
+     * @return Cursor
+     */
+    public static CursorPagina apos(Object ultimoValor, Object ultimoId) {
+        if (ultimoId == null) {
+            throw new IllegalArgumentException("O ID do último registro é obrigatório.");
+        }
+        return new CursorPagina(true, ultimoValor, ultimoId, 0);
+    }
+
+    /**
+     * Retorna uma cópia deste cursor que pula mais {@code linhas} registros.
+     * 
+     * @param linhas Quantidade de registros a pular
+     * @return Cursor deslocado
+     */
+    public CursorPagina deslocado(int linhas) {
+        if (linhas < 0) {
+            throw new IllegalArgumentException("Deslocamento não pode ser negativo.");
+        }
+        if (linhas == 0) {
+            return this;
+        }
+        return new CursorPagina(posicionado, ultimoValor, ultimoId, deslocamento + linhas);
+    }
+
+    /**
+     * @return true se o cursor aponta para depois de um registro (false = início da consulta)
+     */
+    public boolean isPosicionado() {
+        return posicionado;
+    }
+
+    public Object getUltimoValor() {
+        return ultimoValor;
+    }
+
+    public Object getUltimoId() {
+        return ultimoId;
+    }
+
+    public int getDeslocamento() {
+        return deslocamento;
+    }
+
+    @Override
+    public String toString() {
+        return posicionado
+                ? "CursorPagina{apos=" + ultimoValor + "/" + ultimoId + ", deslocamento=" + deslocamento + '}'
+                : "CursorPagina{inicio, deslocamento=" + deslocamento + '}';
+    }
+}
@@ -0,0 +1,132 @@
+package com.seuteste.sga.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filtros de uma consulta, montados com métodos tipados em vez de concatenar JPQL.
+ *
+ * Filtros com valor nulo ou vazio são ignorados, e os parâmetros são nomeados pela
+ * posição do filtro ({@code p0}, {@code p1}...). Assim, a condição gerada depende só de
+ * quais filtros estão presentes (a forma da consulta), nunca dos valores: cada forma é
+ * compilada uma única vez pelo DAO e reaproveitada, assim como o plano do Hibernate.
+ * A condição usa o alias {@code e} para a entidade.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public class Especificacao {
+
+    private static final Especificacao TODOS = new Especificacao();
+
+    private final List<String> predicados = new ArrayList<>();
+    private final List<String> campos = new ArrayList<>();
+    private final Map<String, Object> parametros = new LinkedHashMap<>();
+
+    /**
+     * @return Especificação sem filtros, para acrescentar os filtros em seguida
+     */
+    public static Especificacao nova() {
+        return new Especificacao();
+    }
+
+    /**
+     * @return Especificação sem filtros, imutável
+     */
+    public static Especificacao todos() {
+        return TODOS;
+    }
+
+    /**
+     * Filtra os registros cujo campo contém o texto, sem diferenciar maiúsculas.
+     *
+     * @param campo Atributo da entidade (ex.: "nome")
+     * @param texto Texto procurado (ignorado se nulo ou vazio)
+     * @return Esta especificação
+     */
+    public Especificacao contem(String campo, String texto) {
+        if (texto == null || texto.trim().isEmpty()) {
+            return this;
+        }
+        return adicionar(campo, "LOWER(e.%s) LIKE LOWER(:%s)", "%" + texto.trim() + "%");
+    }
+
+    /**
+     * @param campo Atributo da entidade, podendo navegar por associação (ex.: "categoria.id")
+     * @param valor Valor exigido (ignorado se nulo)
+     * @return Esta especificação
+     */
+    public Especificacao igual(String campo, Object valor) {
+        if (valor == null || (valor instanceof String && ((String) valor).trim().isEmpty())) {
+            return this;
+        }
+        return adicionar(campo, "e.%s = :%s", valor instanceof String ? ((String) valor).trim() : valor);
+    }
+
+    /**
+     * @param campo Atributo da entidade
+     * @param valor Valor mínimo, inclusive (ignorado se nulo)
+     * @return Esta especificação
+     */
+    public Especificacao noMinimo(String campo, Comparable<?> valor) {
+        return valor == null ? this : adicionar(campo, "e.%s >= :%s", valor);
+    }
+
+    /**
+     * @param campo Atributo da entidade
+     * @param valor Valor máximo, inclusive (ignorado se nulo)
+     * @return Esta especificação
+     */
+    public Especificacao noMaximo(String campo, Comparable<?> valor) {
+        return valor == null ? this : adicionar(campo, "e.%s <= :%s", valor);
+    }
+
+    /**
+     * @param campo Atributo da entidade
+     * @param valor Limite exclusivo (ignorado se nulo)
+     * @return Esta especificação
+     */
+    public Especificacao maiorQue(String campo, Comparable<?> valor) {
+        return valor == null ? this : adicionar(campo, "e.%s > :%s", valor);
+    }
+
+    private Especificacao adicionar(String campo, String modelo, Object valor) {
+        if (this == TODOS) {
+            throw new UnsupportedOperationException("Use Especificacao.nova() para acrescentar filtros.");
+        }
+        String parametro = "p" + parametros.size();
+        predicados.add(String.format(modelo, campo, parametro));
+        campos.add(campo);
+        parametros.put(parametro, valor);
+        return this;
+    }
+
+    /**
+     * @return Condição JPQL com os filtros presentes, ou null se não houver filtros
+     */
+    public String getCondicao() {
+        return predicados.isEmpty() ? null : String.join(" AND ", predicados);
+    }
+
+    /**
+     * @return Atributos usados nos filtros, para validação contra o modelo
+     */
+    public List<String> getCampos() {
+        return Collections.unmodifiableList(campos);
+    }
+
+    /**
+     * @return Valores dos parâmetros da condição, por nome
+     */
+    public Map<String, Object> getParametros() {
+        return Collections.unmodifiableMap(parametros);
+    }
+
+    @Override
+    public String toString() {
+        return predicados.isEmpty() ? "(todos)" : getCondicao();
+    }
+}
@@ -0,0 +1,36 @@
+package com.seuteste.sga.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exceção lançada quando uma baixa de estoque não pode ser aplicada
+ * porque um ou mais produtos não possuem saldo suficiente.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class EstoqueInsuficienteException extends DAOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Long> produtosSemEstoque;
+
+    /**
+     * Construtor com mensagem e produtos sem saldo.
+     * 
+     * @param message Mensagem de erro
+     * @param produtosSemEstoque IDs dos produtos cuja baixa foi recusada
+     */
+    public EstoqueInsuficienteException(String message, List<Long> produtosSemEstoque) {
+        super(message);
+        this.produtosSemEstoque = Collections.unmodifiableList(produtosSemEstoque);
+    }
+
+    /**
+     * @return IDs dos produtos cuja baixa foi recusada por falta de estoque
+     */
+    public List<Long> getProdutosSemEstoque() {
+        return produtosSemEstoque;
+    }
+}
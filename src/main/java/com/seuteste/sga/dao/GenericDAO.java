@@ -1,6 +1,8 @@
 package com.seuteste.sga.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface genérica para operações CRUD básicas.
@@ -36,17 +38,37 @@ public interface GenericDAO<T, ID> {
      * Ativa uma entidade (marca como ativo = true).
      * 
      * @param id ID da entidade a ser ativada
+     * @return true se a entidade existia inativa e foi ativada
      * @throws DAOException em caso de erro na operação
      */
-    void activate(ID id) throws DAOException;
+    boolean activate(ID id) throws DAOException;
 
     /**
      * Inativa uma entidade (marca como ativo = false).
      * 
      * @param id ID da entidade a ser inativada
+     * @return true se a entidade existia ativa e foi inativada
      * @throws DAOException em caso de erro na operação
      */
-    void deactivate(ID id) throws DAOException;
+    boolean deactivate(ID id) throws DAOException;
+
+    /**
+     * Ativa várias entidades com um único UPDATE por lote de IDs.
+     * 
+     * @param ids IDs das entidades a serem ativadas
+     * @return Quantidade de entidades que estavam inativas e foram ativadas
+     * @throws DAOException em caso de erro na operação
+     */
+    int activateAll(Collection<ID> ids) throws DAOException;
+
+    /**
+     * Inativa várias entidades com um único UPDATE por lote de IDs.
+     * 
+     * @param ids IDs das entidades a serem inativadas
+     * @return Quantidade de entidades que estavam ativas e foram inativadas
+     * @throws DAOException em caso de erro na operação
+     */
+    int deactivateAll(Collection<ID> ids) throws DAOException;
 
     /**
      * Busca uma entidade pelo ID.
@@ -81,6 +103,14 @@ public interface GenericDAO<T, ID> {
      */
     long count() throws DAOException;
 
+    /**
+     * Conta as entidades ativas e inativas com uma única consulta agrupada.
+     * 
+     * @return Quantidade por valor do campo ativo (chaves ausentes valem zero)
+     * @throws DAOException em caso de erro na operação
+     */
+    Map<Boolean, Long> countByAtivo() throws DAOException;
+
     /**
      * Verifica se existe uma entidade com o ID especificado.
      * 
@@ -89,5 +119,16 @@ public interface GenericDAO<T, ID> {
      * @throws DAOException em caso de erro na operação
      */
     boolean exists(ID id) throws DAOException;
-}
 
+    /**
+     * Busca uma página de entidades usando paginação por chave (seek):
+     * a consulta começa logo após a posição do cursor e lê apenas os registros da página.
+     * 
+     * @param cursor Posição de início (use {@link CursorPagina#inicio()} para a primeira página)
+     * @param tamanho Quantidade máxima de registros da página
+     * @param ordenacao Campo e direção da ordenação (o ID é usado como desempate)
+     * @return Página com os registros e o cursor da página seguinte
+     * @throws DAOException em caso de erro na operação ou campo de ordenação inválido
+     */
+    Pagina<T> findPage(CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws DAOException;
+}
@@ -0,0 +1,74 @@
+package com.seuteste.sga.dao;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Critério de ordenação de uma consulta paginada.
+ * O campo é o nome de um atributo da entidade, opcionalmente navegando por uma
+ * associação (ex.: "cliente.nome"); o ID é sempre usado como critério de desempate.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class Ordenacao implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String campo;
+    private final boolean ascendente;
+
+    private Ordenacao(String campo, boolean ascendente) {
+        this.campo = Objects.requireNonNull(campo, "campo");
+        this.ascendente = ascendente;
+    }
+
+    /**
+     * @param campo Atributo da entidade
+     * @return Ordenação crescente pelo campo
+     */
+    public static Ordenacao asc(String campo) {
+        return new Ordenacao(campo, true);
+    }
+
+    /**
+     * @param campo Atributo da entidade
+     * @return Ordenação decrescente pelo campo
+     */
+    public static Ordenacao desc(String campo) {
+        return new Ordenacao(campo, false);
+    }
+
+    /**
+     * @return Ordenação crescente pelo ID
+     */
+    public static Ordenacao porId() {
+        return asc("id");
+    }
+
+    public String getCampo() {
+        return campo;
+    }
+
+    public boolean isAscendente() {
+        return ascendente;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Ordenacao)) return false;
+        Ordenacao that = (Ordenacao) o;
+        return ascendente == that.ascendente && campo.equals(that.campo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(campo, ascendente);
+    }
+
+    @Override
+    public String toString() {
+        return campo + (ascendente ? " ASC" : " DESC");
+    }
+}
@@ -0,0 +1,41 @@
+package com.seuteste.sga.dao;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de uma consulta paginada: os registros da página e o cursor da página seguinte.
+ * 
+ * @param <T> Tipo da entidade
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class Pagina<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<T> itens;
+    private final CursorPagina proximo;
+
+    public Pagina(List<T> itens, CursorPagina proximo) {
+        this.itens = Collections.unmodifiableList(itens);
+        this.proximo = proximo;
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    /**
+     * @return Cursor para a página seguinte, ou null se esta for a última
+     */
+    public CursorPagina getProximo() {
+        return proximo;
+    }
+
+    public boolean isUltima() {
+        return proximo == null;
+    }
+}
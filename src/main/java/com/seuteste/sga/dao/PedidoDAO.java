@@ -4,7 +4,9 @@ import com.seuteste.sga.model.Pedido;
 import com.seuteste.sga.model.Cliente;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface DAO para a entidade Pedido.
@@ -15,36 +17,106 @@ import java.util.List;
  */
 public interface PedidoDAO extends GenericDAO<Pedido, Long> {
 
+    /**
+     * Busca um pedido pelo ID carregando as associações do plano de busca.
+     * @param id ID do pedido.
+     * @param plano Plano de busca do caso de uso.
+     * @return Pedido encontrado ou null se não existir.
+     * @throws DAOException Em caso de erro no acesso a dados.
+     */
+    Pedido findById(Long id, PlanoBuscaPedido plano) throws DAOException;
+
     /**
      * Lista todos os pedidos ordenados pela data do pedido (mais recente primeiro).
+     * Pode ser atendida pela réplica de leitura.
+     * @param plano Plano de busca do caso de uso.
      * @return Lista de pedidos.
      * @throws DAOException Em caso de erro no acesso a dados.
      */
-    List<Pedido> findAllOrderByDataPedidoDesc() throws DAOException;
+    List<Pedido> findAllOrderByDataPedidoDesc(PlanoBuscaPedido plano) throws DAOException;
 
     /**
      * Busca pedidos por cliente.
      * @param cliente Cliente para buscar os pedidos.
+     * @param plano Plano de busca do caso de uso.
      * @return Lista de pedidos do cliente.
      * @throws DAOException Em caso de erro no acesso a dados.
      */
-    List<Pedido> findByCliente(Cliente cliente) throws DAOException;
+    List<Pedido> findByCliente(Cliente cliente, PlanoBuscaPedido plano) throws DAOException;
 
     /**
      * Busca pedidos por status.
      * @param status Status do pedido.
+     * @param plano Plano de busca do caso de uso.
      * @return Lista de pedidos com o status especificado.
      * @throws DAOException Em caso de erro no acesso a dados.
      */
-    List<Pedido> findByStatus(String status) throws DAOException;
+    List<Pedido> findByStatus(String status, PlanoBuscaPedido plano) throws DAOException;
 
     /**
      * Busca pedidos dentro de um período de datas.
+     * Pode ser atendida pela réplica de leitura.
      * @param dataInicio Data de início do período.
      * @param dataFim Data de fim do período.
+     * @param plano Plano de busca do caso de uso.
      * @return Lista de pedidos dentro do período.
      * @throws DAOException Em caso de erro no acesso a dados.
      */
-    List<Pedido> findByDataPedidoBetween(LocalDate dataInicio, LocalDate dataFim) throws DAOException;
-}
+    List<Pedido> findByDataPedidoBetween(LocalDate dataInicio, LocalDate dataFim, PlanoBuscaPedido plano) throws DAOException;
+
+    /**
+     * Busca uma página de pedidos com o status informado, usando paginação por chave.
+     * Os pedidos vêm com o plano {@link PlanoBuscaPedido#LISTAGEM}, o único paginável no banco.
+     * 
+     * @param status Status do pedido (null ou vazio para todos)
+     * @param cursor Posição de início da página
+     * @param tamanho Quantidade máxima de registros
+     * @param ordenacao Campo e direção da ordenação
+     * @return Página de pedidos
+     * @throws DAOException em caso de erro na operação
+     */
+    Pagina<Pedido> findPageByStatus(String status, CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws DAOException;
+
+    /**
+     * Conta pedidos com o status informado.
+     * 
+     * @param status Status do pedido (null ou vazio para todos)
+     * @return Quantidade de pedidos
+     * @throws DAOException em caso de erro na operação
+     */
+    long countByStatus(String status) throws DAOException;
+
+    /**
+     * Bloqueia (SELECT ... FOR UPDATE) os pedidos informados que estão no estado indicado
+     * e retorna seus IDs, para que a movimentação de estoque e a troca de estado não
+     * corram em paralelo com outra operação sobre os mesmos pedidos.
+     * Deve ser chamado dentro de uma transação; o bloqueio dura até o fim dela.
+     * 
+     * @param ids IDs dos pedidos
+     * @param ativo Estado procurado
+     * @return IDs dos pedidos bloqueados com o estado indicado
+     * @throws DAOException em caso de erro na operação
+     */
+    List<Long> lockIdsByAtivo(Collection<Long> ids, boolean ativo) throws DAOException;
+
+    /**
+     * Soma as quantidades dos itens dos pedidos informados, por produto.
+     * 
+     * @param pedidoIds IDs dos pedidos
+     * @return Quantidade total por ID de produto
+     * @throws DAOException em caso de erro na operação
+     */
+    Map<Long, Integer> sumQuantidadePorProduto(Collection<Long> pedidoIds) throws DAOException;
 
+    /**
+     * Percorre todos os pedidos com uma linha por item (pedido, data, status, ativo, cliente, item, produto,
+     * quantidade, preço unitário, subtotal e valor total do pedido); pedidos sem itens saem em uma linha
+     * com as colunas do item vazias,
+     * em ordem de ID, sem carregar o resultado inteiro em memória. Pode ser atendida pela réplica de leitura.
+     * 
+     * @param processador Destino de cada linha
+     * @return Quantidade de linhas exportadas
+     * @throws DAOException em caso de erro na operação
+     */
+    long exportarComItens(ProcessadorLinha processador) throws DAOException;
+}
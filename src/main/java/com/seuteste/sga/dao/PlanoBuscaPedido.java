@@ -0,0 +1,45 @@
+package com.seuteste.sga.dao;
+
+import com.seuteste.sga.model.Pedido;
+
+/**
+ * Planos de busca de pedidos por caso de uso.
+ * Cada plano corresponde a um grafo de entidade de {@link Pedido} e define quais
+ * associações são carregadas junto com o pedido, no mesmo comando SQL.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public enum PlanoBuscaPedido {
+
+    /** Linhas da tabela de pedidos: apenas o cliente. */
+    LISTAGEM(Pedido.GRAFO_LISTAGEM, false),
+
+    /** Diálogo de detalhes: cliente, itens e produtos. */
+    DETALHE(Pedido.GRAFO_DETALHE, true),
+
+    /** Edição do pedido: cliente, itens, produtos e categorias. */
+    EDICAO(Pedido.GRAFO_EDICAO, true);
+
+    private final String grafo;
+    private final boolean incluiItens;
+
+    PlanoBuscaPedido(String grafo, boolean incluiItens) {
+        this.grafo = grafo;
+        this.incluiItens = incluiItens;
+    }
+
+    /**
+     * @return Nome do grafo de entidade usado na busca
+     */
+    public String getGrafo() {
+        return grafo;
+    }
+
+    /**
+     * @return true se o plano carrega a coleção de itens (não pode ser paginado no banco)
+     */
+    public boolean isIncluiItens() {
+        return incluiItens;
+    }
+}
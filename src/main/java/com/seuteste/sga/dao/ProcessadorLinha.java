@@ -0,0 +1,20 @@
+package com.seuteste.sga.dao;
+
+import java.io.IOException;
+
+/**
+ * Recebe, uma a uma, as linhas de uma consulta percorrida sem carregar o resultado inteiro
+ * em memória (ex.: exportações gravadas direto na resposta HTTP).
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ProcessadorLinha {
+
+    /**
+     * @param linha Valores das colunas da consulta, na ordem do SELECT
+     * @throws IOException se a gravação da linha falhar (ex.: cliente desconectou)
+     */
+    void processar(Object[] linha) throws IOException;
+}
@@ -1,9 +1,16 @@
 package com.seuteste.sga.dao;
 
+import com.seuteste.sga.dto.ProdutoImportacaoDTO;
+import com.seuteste.sga.dto.ProdutoIndexadoDTO;
+import com.seuteste.sga.dto.ResultadoImportacao;
+import com.seuteste.sga.dto.SaldoEstoqueDTO;
 import com.seuteste.sga.model.Produto;
 import com.seuteste.sga.model.Categoria;
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface DAO específica para a entidade Produto.
@@ -69,6 +76,8 @@ public interface ProdutoDAO extends GenericDAO<Produto, Long> {
 
     /**
      * Busca produtos com estoque baixo (quantidade <= limite).
+     * Lê a tabela inteira; para telas, use os produtos em falta mantidos em memória pelo
+     * serviço de alertas de estoque.
      * 
      * @param limite Limite de estoque baixo
      * @return Lista de produtos com estoque baixo
@@ -76,6 +85,24 @@ public interface ProdutoDAO extends GenericDAO<Produto, Long> {
      */
     List<Produto> findLowStock(Integer limite) throws DAOException;
 
+    /**
+     * Busca o saldo e o estoque mínimo dos produtos informados, sem carregar as entidades.
+     * 
+     * @param ids IDs dos produtos
+     * @return Saldos dos produtos encontrados
+     * @throws DAOException em caso de erro na operação
+     */
+    List<SaldoEstoqueDTO> findSaldosEstoque(Collection<Long> ids) throws DAOException;
+
+    /**
+     * Busca os produtos ativos com estoque no mínimo de reposição ou abaixo dele.
+     * 
+     * @param estoqueMinimoPadrao Estoque mínimo dos produtos que não definem o seu
+     * @return Saldos dos produtos em falta
+     * @throws DAOException em caso de erro na operação
+     */
+    List<SaldoEstoqueDTO> findSaldosAbaixoDoMinimo(int estoqueMinimoPadrao) throws DAOException;
+
     /**
      * Lista todos os produtos ordenados por nome.
      * 
@@ -103,7 +130,7 @@ public interface ProdutoDAO extends GenericDAO<Produto, Long> {
     List<Produto> findAllOrderByDataCadastro(boolean ascending) throws DAOException;
 
     /**
-     * Busca produtos com filtros combinados.
+     * Busca produtos com filtros combinados. Pode ser atendida pela réplica de leitura.
      * 
      * @param nome Nome ou parte do nome (pode ser null)
      * @param categoriaId ID da categoria (pode ser null)
@@ -115,5 +142,120 @@ public interface ProdutoDAO extends GenericDAO<Produto, Long> {
      */
     List<Produto> findWithFilters(String nome, Long categoriaId, BigDecimal precoMin, 
                                  BigDecimal precoMax, boolean apenasEmEstoque) throws DAOException;
-}
 
+    /**
+     * Baixa o estoque de vários produtos em um único lote de UPDATEs condicionais
+     * ({@code quantidade_estoque >= quantidade}), sem ler os produtos antes.
+     * Se algum produto não tiver saldo suficiente, a transação é desfeita
+     * e nenhuma baixa é mantida.
+     * 
+     * @param quantidades Quantidade a baixar por ID do produto
+     * @throws EstoqueInsuficienteException se algum produto não tiver estoque suficiente
+     * @throws DAOException em caso de erro na operação
+     */
+    void baixarEstoque(Map<Long, Integer> quantidades) throws DAOException;
+
+    /**
+     * Devolve ao estoque as quantidades informadas em um único lote de UPDATEs.
+     * 
+     * @param quantidades Quantidade a devolver por ID do produto
+     * @throws DAOException em caso de erro na operação
+     */
+    void reporEstoque(Map<Long, Integer> quantidades) throws DAOException;
+
+    /**
+     * Busca uma página de produtos que atendem aos filtros informados, usando paginação por chave.
+     * 
+     * @param nome Nome ou parte do nome (pode ser null)
+     * @param categoriaId ID da categoria (pode ser null)
+     * @param cursor Posição de início da página
+     * @param tamanho Quantidade máxima de registros
+     * @param ordenacao Campo e direção da ordenação
+     * @return Página de produtos
+     * @throws DAOException em caso de erro na operação
+     */
+    Pagina<Produto> findPageWithFilters(String nome, Long categoriaId, CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws DAOException;
+
+    /**
+     * Conta produtos que atendem aos filtros informados.
+     * 
+     * @param nome Nome ou parte do nome (pode ser null)
+     * @param categoriaId ID da categoria (pode ser null)
+     * @return Quantidade de produtos
+     * @throws DAOException em caso de erro na operação
+     */
+    long countWithFilters(String nome, Long categoriaId) throws DAOException;
+
+    /**
+     * Busca produtos pelo nome, tolerando erros de digitação, com os mais parecidos primeiro.
+     * Usa o índice de trigramas sobre o nome; o tempo não cresce com o tamanho da tabela.
+     * 
+     * @param termo Texto digitado
+     * @param limite Quantidade máxima de resultados
+     * @return Produtos encontrados, ordenados por similaridade
+     * @throws DAOException em caso de erro na operação
+     */
+    List<Produto> searchByNome(String termo, int limite) throws DAOException;
+
+    /**
+     * Obtém o menor e o maior ID de produto cadastrado, para dividir a carga do índice
+     * do catálogo em faixas.
+     * 
+     * @return Menor e maior ID, nessa ordem, ou null se não houver produtos
+     * @throws DAOException em caso de erro na operação
+     */
+    long[] findFaixaIds() throws DAOException;
+
+    /**
+     * Lista os campos indexáveis dos produtos ativos com ID na faixa informada.
+     * 
+     * @param idInicial Primeiro ID da faixa (inclusive)
+     * @param idFinal Último ID da faixa (inclusive)
+     * @return Produtos ativos da faixa
+     * @throws DAOException em caso de erro na operação
+     */
+    List<ProdutoIndexadoDTO> findIndexaveis(long idInicial, long idFinal) throws DAOException;
+
+    /**
+     * Lista os campos indexáveis dos produtos informados que estão ativos.
+     * 
+     * @param ids IDs dos produtos
+     * @return Produtos ativos entre os informados
+     * @throws DAOException em caso de erro na operação
+     */
+    List<ProdutoIndexadoDTO> findIndexaveis(Collection<Long> ids) throws DAOException;
+
+    /**
+     * Lista os campos indexáveis dos produtos ativos de uma categoria.
+     * 
+     * @param categoriaId ID da categoria
+     * @return Produtos ativos da categoria
+     * @throws DAOException em caso de erro na operação
+     */
+    List<ProdutoIndexadoDTO> findIndexaveisByCategoriaId(Long categoriaId) throws DAOException;
+
+    /**
+     * Percorre todos os produtos (id, nome, descrição, categoria, preço, estoque, data de cadastro, ativo),
+     * em ordem de ID, sem carregar o resultado inteiro em memória. Pode ser atendida pela réplica de leitura.
+     * 
+     * @param processador Destino de cada linha
+     * @return Quantidade de linhas exportadas
+     * @throws DAOException em caso de erro na operação
+     */
+    long exportar(ProcessadorLinha processador) throws DAOException;
+
+    /**
+     * Grava os produtos de uma importação em lote: as linhas são copiadas para uma tabela
+     * temporária e mescladas em produto com um único comando. Produtos com o mesmo nome
+     * (sem diferenciar maiúsculas) são atualizados; os demais são incluídos como ativos.
+     * Se o nome se repete no arquivo, vale a última ocorrência e as anteriores são
+     * registradas como erro no resultado.
+     * 
+     * @param lotes Linhas válidas, em blocos e em ordem de linha
+     * @param resultado Resultado onde são registrados os totais e as linhas repetidas
+     * @return IDs dos produtos incluídos ou atualizados
+     * @throws DAOException em caso de erro na operação
+     */
+    List<Long> mesclarImportacao(Iterator<List<ProdutoImportacaoDTO>> lotes, ResultadoImportacao resultado)
+            throws DAOException;
+}
@@ -0,0 +1,97 @@
+package com.seuteste.sga.dao;
+
+import com.seuteste.sga.dto.TotalVendasDTO;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface DAO para o resumo diário de vendas ({@code resumo_vendas_diario}).
+ *
+ * O resumo guarda quantidade de itens e receita por dia, categoria e cliente, somente de
+ * pedidos ativos e não cancelados. É mantido por deltas aplicados na mesma transação que
+ * altera os pedidos, e pode ser reconstruído por período a partir das tabelas de pedidos.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public interface ResumoVendasDAO {
+
+    /**
+     * Soma (sinal 1) ou subtrai (sinal -1) do resumo os itens dos pedidos, como estão
+     * gravados no banco no momento da chamada. Pedidos cancelados são ignorados; cabe a
+     * quem chama decidir, pela mudança do campo ativo, se o pedido entra ou sai do resumo.
+     *
+     * @param pedidoIds IDs dos pedidos
+     * @param sinal 1 para somar, -1 para subtrair
+     * @throws DAOException Em caso de erro no acesso a dados.
+     */
+    void aplicarPedidos(Collection<Long> pedidoIds, int sinal) throws DAOException;
+
+    /**
+     * Move as vendas já resumidas de um produto para a nova categoria. Deve ser chamado
+     * antes de gravar a categoria nova no produto.
+     *
+     * @param produtoId ID do produto
+     * @param categoriaId ID da nova categoria
+     * @throws DAOException Em caso de erro no acesso a dados.
+     */
+    void transferirCategoria(Long produtoId, Long categoriaId) throws DAOException;
+
+    /**
+     * Recalcula o resumo do período a partir dos pedidos, um mês por transação.
+     * Enquanto cada mês é recalculado, as gravações de pedidos aguardam.
+     *
+     * @param inicio Primeiro dia (inclusive)
+     * @param fim Último dia (inclusive)
+     * @return Quantidade de linhas do resumo gravadas
+     * @throws DAOException Em caso de erro no acesso a dados.
+     */
+    long reconstruir(LocalDate inicio, LocalDate fim) throws DAOException;
+
+    /**
+     * @return true se o resumo não tem nenhuma linha
+     * @throws DAOException Em caso de erro no acesso a dados.
+     */
+    boolean isVazio() throws DAOException;
+
+    /**
+     * @return Primeiro e último dia com pedidos, ou null se não houver pedidos
+     * @throws DAOException Em caso de erro no acesso a dados.
+     */
+    LocalDate[] findPeriodoPedidos() throws DAOException;
+
+    /**
+     * Totais por dia do período, em ordem de data. Pode ser atendida pela réplica de leitura.
+     *
+     * @param inicio Primeiro dia (inclusive)
+     * @param fim Último dia (inclusive)
+     * @return Um total por dia com vendas
+     * @throws DAOException Em caso de erro no acesso a dados.
+     */
+    List<TotalVendasDTO> totalizarPorDia(LocalDate inicio, LocalDate fim) throws DAOException;
+
+    /**
+     * Totais por categoria no período, da maior para a menor receita.
+     * Pode ser atendida pela réplica de leitura.
+     *
+     * @param inicio Primeiro dia (inclusive)
+     * @param fim Último dia (inclusive)
+     * @return Um total por categoria com vendas
+     * @throws DAOException Em caso de erro no acesso a dados.
+     */
+    List<TotalVendasDTO> totalizarPorCategoria(LocalDate inicio, LocalDate fim) throws DAOException;
+
+    /**
+     * Totais por cliente no período, da maior para a menor receita.
+     * Pode ser atendida pela réplica de leitura.
+     *
+     * @param inicio Primeiro dia (inclusive)
+     * @param fim Último dia (inclusive)
+     * @param limite Quantidade máxima de clientes
+     * @return Um total por cliente com vendas
+     * @throws DAOException Em caso de erro no acesso a dados.
+     */
+    List<TotalVendasDTO> totalizarPorCliente(LocalDate inicio, LocalDate fim, int limite) throws DAOException;
+}
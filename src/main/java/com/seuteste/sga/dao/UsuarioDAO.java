@@ -67,7 +67,7 @@ public interface UsuarioDAO extends GenericDAO<Usuario, Long> {
     Usuario authenticate(String email, String senha) throws DAOException;
 
     /**
-     * Busca usuários com filtros combinados.
+     * Busca usuários com filtros combinados. Pode ser atendida pela réplica de leitura.
      * 
      * @param nome Nome ou parte do nome (pode ser null)
      * @param email Email ou parte do email (pode ser null)
@@ -1,7 +1,12 @@
 package com.seuteste.sga.dao.impl;
 
 import com.seuteste.sga.dao.CategoriaDAO;
+import com.seuteste.sga.dao.CursorPagina;
 import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.Especificacao;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
+import com.seuteste.sga.dto.OpcaoDTO;
 import com.seuteste.sga.model.Categoria;
 import com.seuteste.sga.util.JPAUtil;
 
@@ -24,7 +29,7 @@ public class CategoriaDAOImpl extends GenericDAOImpl<Categoria, Long> implements
         try {
             em = JPAUtil.getEntityManager();
             String jpql = "SELECT c FROM Categoria c WHERE c.nome = :nome";
-            TypedQuery<Categoria> query = em.createQuery(jpql, Categoria.class);
+            TypedQuery<Categoria> query = cacheavel(em.createQuery(jpql, Categoria.class));
             query.setParameter("nome", nome);
             return query.getSingleResult();
         } catch (NoResultException e) {
@@ -74,7 +79,7 @@ public class CategoriaDAOImpl extends GenericDAOImpl<Categoria, Long> implements
         try {
             em = JPAUtil.getEntityManager();
             String jpql = "SELECT c FROM Categoria c ORDER BY c.nome ASC";
-            TypedQuery<Categoria> query = em.createQuery(jpql, Categoria.class);
+            TypedQuery<Categoria> query = cacheavel(em.createQuery(jpql, Categoria.class));
             return query.getResultList();
         } catch (Exception e) {
             throw new DAOException("Erro ao listar categorias ordenadas por nome: " + e.getMessage(), e);
@@ -99,5 +104,29 @@ public class CategoriaDAOImpl extends GenericDAOImpl<Categoria, Long> implements
         }
     }
 
-}
+    @Override
+    public Pagina<Categoria> findPageByNomeContaining(String nome, CursorPagina cursor, int tamanho,
+                                                      Ordenacao ordenacao) throws DAOException {
+        return findPage(Especificacao.nova().contem("nome", nome), cursor, tamanho, ordenacao);
+    }
 
+    @Override
+    public long countByNomeContaining(String nome) throws DAOException {
+        return count(Especificacao.nova().contem("nome", nome));
+    }
+
+    @Override
+    public List<OpcaoDTO> findOpcoes() throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            String jpql = "SELECT new com.seuteste.sga.dto.OpcaoDTO(c.id, c.nome) FROM Categoria c ORDER BY c.nome ASC";
+            TypedQuery<OpcaoDTO> query = em.createQuery(jpql, OpcaoDTO.class);
+            return query.getResultList();
+        } catch (Exception e) {
+            throw new DAOException("Erro ao listar opções de categorias: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+}
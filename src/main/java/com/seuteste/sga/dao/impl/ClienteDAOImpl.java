@@ -1,7 +1,13 @@
 package com.seuteste.sga.dao.impl;
 
 import com.seuteste.sga.dao.ClienteDAO;
+import com.seuteste.sga.dao.CursorPagina;
 import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.Especificacao;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
+import com.seuteste.sga.dao.ProcessadorLinha;
+import com.seuteste.sga.dto.OpcaoDTO;
 import com.seuteste.sga.model.Cliente;
 import com.seuteste.sga.util.JPAUtil;
 
@@ -18,6 +24,9 @@ import java.util.List;
  */
 public class ClienteDAOImpl extends GenericDAOImpl<Cliente, Long> implements ClienteDAO {
 
+    private static final String JPQL_EXPORTACAO =
+            "SELECT c.id, c.nome, c.email, c.telefone, c.endereco, c.dataCadastro, c.ativo FROM Cliente c ORDER BY c.id";
+
     @Override
     public Cliente findByEmail(String email) throws DAOException {
         EntityManager em = null;
@@ -58,7 +67,7 @@ public class ClienteDAOImpl extends GenericDAOImpl<Cliente, Long> implements Cli
         try {
             em = JPAUtil.getEntityManager();
             String jpql = "SELECT c FROM Cliente c ORDER BY c.nome";
-            TypedQuery<Cliente> query = em.createQuery(jpql, Cliente.class);
+            TypedQuery<Cliente> query = cacheavel(em.createQuery(jpql, Cliente.class));
             return query.getResultList();
         } catch (Exception e) {
             throw new DAOException("Erro ao listar clientes ordenados por nome: " + e.getMessage(), e);
@@ -67,6 +76,11 @@ public class ClienteDAOImpl extends GenericDAOImpl<Cliente, Long> implements Cli
         }
     }
 
+    @Override
+    public List<Cliente> searchByNome(String termo, int limite) throws DAOException {
+        return buscarPorSimilaridade("cliente", "nome", termo, limite);
+    }
+
     @Override
     public List<Cliente> findByNomeContaining(String nome) throws DAOException {
         EntityManager em = null;
@@ -82,5 +96,35 @@ public class ClienteDAOImpl extends GenericDAOImpl<Cliente, Long> implements Cli
             JPAUtil.closeEntityManager(em);
         }
     }
-}
 
+    @Override
+    public Pagina<Cliente> findPageByNomeContaining(String nome, CursorPagina cursor, int tamanho,
+                                                    Ordenacao ordenacao) throws DAOException {
+        return findPage(Especificacao.nova().contem("nome", nome), cursor, tamanho, ordenacao);
+    }
+
+    @Override
+    public long countByNomeContaining(String nome) throws DAOException {
+        return count(Especificacao.nova().contem("nome", nome));
+    }
+
+    @Override
+    public List<OpcaoDTO> findOpcoes() throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            String jpql = "SELECT new com.seuteste.sga.dto.OpcaoDTO(c.id, c.nome) FROM Cliente c ORDER BY c.nome";
+            TypedQuery<OpcaoDTO> query = em.createQuery(jpql, OpcaoDTO.class);
+            return query.getResultList();
+        } catch (Exception e) {
+            throw new DAOException("Erro ao listar opções de clientes: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public long exportar(ProcessadorLinha processador) throws DAOException {
+        return percorrer(JPQL_EXPORTACAO, processador);
+    }
+}
@@ -1,13 +1,33 @@
 package com.seuteste.sga.dao.impl;
 
+import com.seuteste.sga.dao.ConflitoConcorrenciaException;
+import com.seuteste.sga.dao.CursorPagina;
 import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.Especificacao;
 import com.seuteste.sga.dao.GenericDAO;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
+import com.seuteste.sga.dao.ProcessadorLinha;
 import com.seuteste.sga.util.JPAUtil;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.jpa.QueryHints;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
 import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementação genérica das operações CRUD básicas.
@@ -21,6 +41,22 @@ import java.util.List;
  */
 public abstract class GenericDAOImpl<T, ID> implements GenericDAO<T, ID> {
 
+    /**
+     * Quantidade máxima de IDs por cláusula IN nas operações em lote.
+     */
+    protected static final int TAMANHO_LOTE_IN = 1000;
+
+    /**
+     * JPQL já montado por forma de consulta. As formas são finitas (combinações de filtros
+     * e ordenações previstas nos DAOs), então o mapa não cresce indefinidamente.
+     */
+    private static final Map<String, String> CONSULTAS_COMPILADAS = new ConcurrentHashMap<>();
+
+    /**
+     * Linhas buscadas do banco por vez ao percorrer consultas grandes.
+     */
+    protected static final int TAMANHO_LOTE_LEITURA = 1000;
+
     protected Class<T> entityClass;
 
     /**
@@ -37,9 +73,9 @@ public abstract class GenericDAOImpl<T, ID> implements GenericDAO<T, ID> {
         EntityManager em = null;
         try {
             em = JPAUtil.getEntityManager();
-            em.getTransaction().begin();
+            JPAUtil.beginTransaction(em);
             em.persist(entity);
-            em.getTransaction().commit();
+            JPAUtil.commit(em);
             return entity;
         } catch (Exception e) {
             JPAUtil.rollback(em);
@@ -54,12 +90,18 @@ public abstract class GenericDAOImpl<T, ID> implements GenericDAO<T, ID> {
         EntityManager em = null;
         try {
             em = JPAUtil.getEntityManager();
-            em.getTransaction().begin();
+            JPAUtil.beginTransaction(em);
             T updatedEntity = em.merge(entity);
-            em.getTransaction().commit();
+            // Confere a versão já aqui, mesmo dentro de uma unidade de trabalho maior
+            em.flush();
+            JPAUtil.commit(em);
             return updatedEntity;
         } catch (Exception e) {
             JPAUtil.rollback(em);
+            if (ConflitoConcorrenciaException.isConflito(e)) {
+                throw new ConflitoConcorrenciaException(
+                        "O registro foi alterado por outro usuário. Recarregue os dados e tente novamente.", e);
+            }
             throw new DAOException("Erro ao atualizar entidade: " + e.getMessage(), e);
         } finally {
             JPAUtil.closeEntityManager(em);
@@ -67,63 +109,101 @@ public abstract class GenericDAOImpl<T, ID> implements GenericDAO<T, ID> {
     }
 
     @Override
-    public void activate(ID id) throws DAOException {
+    public boolean activate(ID id) throws DAOException {
+        return alterarAtivo(Collections.singletonList(id), true) > 0;
+    }
+
+    @Override
+    public boolean deactivate(ID id) throws DAOException {
+        return alterarAtivo(Collections.singletonList(id), false) > 0;
+    }
+
+    @Override
+    public int activateAll(Collection<ID> ids) throws DAOException {
+        return alterarAtivo(ids, true);
+    }
+
+    @Override
+    public int deactivateAll(Collection<ID> ids) throws DAOException {
+        return alterarAtivo(ids, false);
+    }
+
+    /**
+     * Altera o campo {@code ativo} direto no banco, com um UPDATE por lote de até
+     * {@link #TAMANHO_LOTE_IN} IDs, sem carregar as entidades.
+     * Instâncias já carregadas no EntityManager não são atualizadas; o cache de
+     * segundo nível da entidade é limpo pelo próprio Hibernate. Em entidades versionadas
+     * a versão é incrementada, para que um formulário aberto antes não desfaça a alteração.
+     */
+    private int alterarAtivo(Collection<ID> ids, boolean ativo) throws DAOException {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
         EntityManager em = null;
         try {
             em = JPAUtil.getEntityManager();
-            em.getTransaction().begin();
-            T entity = em.find(entityClass, id);
-            if (entity != null) {
-                // Usar reflexão para definir o campo 'ativo' como true
-                try {
-                    java.lang.reflect.Method setAtivo = entity.getClass().getMethod("setAtivo", Boolean.class);
-                    setAtivo.invoke(entity, true);
-                    em.merge(entity);
-                } catch (Exception reflectionEx) {
-                    throw new DAOException("Entidade não possui campo 'ativo': " + reflectionEx.getMessage(), reflectionEx);
-                }
+            EntityType<T> tipo = em.getMetamodel().entity(entityClass);
+            try {
+                tipo.getAttribute("ativo");
+            } catch (IllegalArgumentException e) {
+                throw new DAOException("Entidade não possui campo 'ativo': " + entityClass.getSimpleName());
             }
-            em.getTransaction().commit();
+
+            String jpql = "UPDATE " + (tipo.hasVersionAttribute() ? "VERSIONED " : "")
+                    + entityClass.getSimpleName() + " e SET e.ativo = :ativo"
+                    + " WHERE e." + getNomeAtributoId(em) + " IN (:ids) AND e.ativo <> :ativo";
+            JPAUtil.beginTransaction(em);
+            int alterados = 0;
+            for (List<ID> lote : particionar(ids, TAMANHO_LOTE_IN)) {
+                alterados += em.createQuery(jpql)
+                        .setParameter("ativo", ativo)
+                        .setParameter("ids", lote)
+                        .executeUpdate();
+            }
+            JPAUtil.commit(em);
+            return alterados;
+        } catch (DAOException e) {
+            JPAUtil.rollback(em);
+            throw e;
         } catch (Exception e) {
             JPAUtil.rollback(em);
-            throw new DAOException("Erro ao ativar entidade com ID " + id + ": " + e.getMessage(), e);
+            throw new DAOException("Erro ao " + (ativo ? "ativar" : "inativar") + " entidades " + ids + ": " + e.getMessage(), e);
         } finally {
             JPAUtil.closeEntityManager(em);
         }
     }
 
     @Override
-    public void deactivate(ID id) throws DAOException {
+    public T findById(ID id) throws DAOException {
         EntityManager em = null;
         try {
             em = JPAUtil.getEntityManager();
-            em.getTransaction().begin();
-            T entity = em.find(entityClass, id);
-            if (entity != null) {
-                // Usar reflexão para definir o campo 'ativo' como false
-                try {
-                    java.lang.reflect.Method setAtivo = entity.getClass().getMethod("setAtivo", Boolean.class);
-                    setAtivo.invoke(entity, false);
-                    em.merge(entity);
-                } catch (Exception reflectionEx) {
-                    throw new DAOException("Entidade não possui campo 'ativo': " + reflectionEx.getMessage(), reflectionEx);
-                }
-            }
-            em.getTransaction().commit();
+            return em.find(entityClass, id);
         } catch (Exception e) {
-            JPAUtil.rollback(em);
-            throw new DAOException("Erro ao inativar entidade com ID " + id + ": " + e.getMessage(), e);
+            throw new DAOException("Erro ao buscar entidade com ID " + id + ": " + e.getMessage(), e);
         } finally {
             JPAUtil.closeEntityManager(em);
         }
     }
 
-    @Override
-    public T findById(ID id) throws DAOException {
+    /**
+     * Busca uma entidade pelo ID carregando as associações de um grafo de entidade.
+     * 
+     * @param id ID da entidade
+     * @param grafo Nome do grafo de entidade (null para o carregamento padrão)
+     * @return Entidade encontrada ou null se não existir
+     * @throws DAOException em caso de erro
+     */
+    protected T findById(ID id, String grafo) throws DAOException {
+        if (grafo == null) {
+            return findById(id);
+        }
         EntityManager em = null;
         try {
             em = JPAUtil.getEntityManager();
-            return em.find(entityClass, id);
+            Map<String, Object> dicas = new HashMap<>();
+            dicas.put(QueryHints.HINT_FETCHGRAPH, em.getEntityGraph(grafo));
+            return em.find(entityClass, id, dicas);
         } catch (Exception e) {
             throw new DAOException("Erro ao buscar entidade com ID " + id + ": " + e.getMessage(), e);
         } finally {
@@ -176,11 +256,424 @@ public abstract class GenericDAOImpl<T, ID> implements GenericDAO<T, ID> {
         }
     }
 
+    @Override
+    public Map<Boolean, Long> countByAtivo() throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            String jpql = "SELECT e.ativo, COUNT(e) FROM " + entityClass.getSimpleName() + " e GROUP BY e.ativo";
+            TypedQuery<Object[]> query = em.createQuery(jpql, Object[].class);
+            Map<Boolean, Long> contagem = new HashMap<>();
+            for (Object[] linha : query.getResultList()) {
+                contagem.put((Boolean) linha[0], (Long) linha[1]);
+            }
+            return contagem;
+        } catch (Exception e) {
+            throw new DAOException("Erro ao contar entidades por situação: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
     @Override
     public boolean exists(ID id) throws DAOException {
         return findById(id) != null;
     }
 
+    @Override
+    public Pagina<T> findPage(CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws DAOException {
+        return findPage(Especificacao.todos(), cursor, tamanho, ordenacao);
+    }
+
+    /**
+     * Lista as entidades que atendem a uma especificação, na ordem informada
+     * (com o ID como critério de desempate).
+     * 
+     * @param especificacao Filtros da consulta
+     * @param ordenacao Campo e direção da ordenação
+     * @return Entidades encontradas
+     * @throws DAOException em caso de erro na operação ou campo inválido
+     */
+    protected List<T> findAll(Especificacao especificacao, Ordenacao ordenacao) throws DAOException {
+        return listar(JPAUtil.getEntityManager(), especificacao, ordenacao);
+    }
+
+    /**
+     * Como {@link #findAll(Especificacao, Ordenacao)}, mas pode ser atendida pela réplica de
+     * leitura (ver {@link JPAUtil#getEntityManagerLeitura()}): para listagens e relatórios
+     * que toleram alguns segundos de atraso.
+     * 
+     * @param especificacao Filtros da consulta
+     * @param ordenacao Campo e direção da ordenação
+     * @return Entidades encontradas
+     * @throws DAOException em caso de erro na operação ou campo inválido
+     */
+    protected List<T> findAllNaReplica(Especificacao especificacao, Ordenacao ordenacao) throws DAOException {
+        return listar(JPAUtil.getEntityManagerLeitura(), especificacao, ordenacao);
+    }
+
+    private List<T> listar(EntityManager em, Especificacao especificacao, Ordenacao ordenacao) throws DAOException {
+        try {
+            String jpql = compilar(em, "lista", especificacao, ordenacao, false);
+            TypedQuery<T> query = em.createQuery(jpql, entityClass);
+            definirParametros(query, especificacao);
+            return query.getResultList();
+        } catch (DAOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DAOException("Erro ao buscar entidades: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Busca uma página de entidades que atendem a uma especificação, usando paginação por chave.
+     * 
+     * @param especificacao Filtros da consulta
+     * @param cursor Posição de início
+     * @param tamanho Quantidade máxima de registros da página
+     * @param ordenacao Campo e direção da ordenação
+     * @return Página com os registros e o cursor da página seguinte
+     * @throws DAOException em caso de erro na operação ou campo de ordenação inválido
+     */
+    protected Pagina<T> findPage(Especificacao especificacao, CursorPagina cursor, int tamanho,
+                                 Ordenacao ordenacao) throws DAOException {
+        return findPage(especificacao, cursor, tamanho, ordenacao, null);
+    }
+
+    /**
+     * Igual a {@link #findPage(Especificacao, CursorPagina, int, Ordenacao)}, carregando as
+     * associações de um grafo de entidade. O grafo não deve incluir coleções, pois o
+     * Hibernate paginaria o resultado em memória.
+     * 
+     * @param especificacao Filtros da consulta
+     * @param cursor Posição de início
+     * @param tamanho Quantidade máxima de registros da página
+     * @param ordenacao Campo e direção da ordenação
+     * @param grafo Nome do grafo de entidade (null para o carregamento padrão)
+     * @return Página com os registros e o cursor da página seguinte
+     * @throws DAOException em caso de erro na operação ou campo de ordenação inválido
+     */
+    protected Pagina<T> findPage(Especificacao especificacao, CursorPagina cursor, int tamanho,
+                                 Ordenacao ordenacao, String grafo) throws DAOException {
+        if (tamanho <= 0) {
+            throw new DAOException("Tamanho da página deve ser maior que zero.");
+        }
+        if (cursor == null) {
+            cursor = CursorPagina.inicio();
+        }
+        if (ordenacao == null) {
+            ordenacao = Ordenacao.porId();
+        }
+
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            boolean porId = ordenacao.getCampo().equals(getNomeAtributoId(em));
+            String jpql = compilar(em, "pagina", especificacao, ordenacao, cursor.isPosicionado());
+
+            TypedQuery<Object[]> query = comGrafo(em, em.createQuery(jpql, Object[].class), grafo);
+            definirParametros(query, especificacao);
+            if (cursor.isPosicionado()) {
+                query.setParameter("cursorId", cursor.getUltimoId());
+                if (!porId) {
+                    query.setParameter("cursorValor", cursor.getUltimoValor());
+                }
+            }
+            query.setFirstResult(cursor.getDeslocamento());
+            // Um registro a mais indica se existe página seguinte, sem precisar de COUNT
+            query.setMaxResults(tamanho + 1);
+
+            List<Object[]> linhas = query.getResultList();
+            int quantidade = Math.min(linhas.size(), tamanho);
+            List<T> itens = new ArrayList<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                itens.add(entityClass.cast(linhas.get(i)[0]));
+            }
+
+            CursorPagina proximo = null;
+            if (linhas.size() > tamanho) {
+                Object[] ultima = linhas.get(quantidade - 1);
+                proximo = CursorPagina.apos(ultima[1], em.getEntityManagerFactory()
+                        .getPersistenceUnitUtil().getIdentifier(ultima[0]));
+            }
+            return new Pagina<>(itens, proximo);
+        } catch (DAOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DAOException("Erro ao buscar página de entidades: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Conta as entidades que atendem a uma especificação.
+     * 
+     * @param especificacao Filtros da consulta
+     * @return Quantidade de entidades
+     * @throws DAOException em caso de erro
+     */
+    protected long count(Especificacao especificacao) throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            String jpql = compilar(em, "contagem", especificacao, null, false);
+            TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+            definirParametros(query, especificacao);
+            return query.getSingleResult();
+        } catch (DAOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DAOException("Erro ao contar entidades: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Percorre o resultado de uma consulta com um cursor do banco, entregando cada linha ao
+     * processador à medida que chega, sem montar uma lista. O driver busca
+     * {@link #TAMANHO_LOTE_LEITURA} linhas por vez e o contexto de persistência é limpo a
+     * cada lote, então a memória usada não depende da quantidade de linhas. Por isso não
+     * pode ser chamado dentro de uma unidade de trabalho.
+     * 
+     * @param jpql Consulta com projeção de colunas (SELECT a, b, ...)
+     * @param processador Destino de cada linha
+     * @return Quantidade de linhas processadas
+     * @throws DAOException em caso de erro na consulta ou no processamento de uma linha,
+     *         ou se houver uma unidade de trabalho ativa
+     */
+    protected long percorrer(String jpql, ProcessadorLinha processador) throws DAOException {
+        // O em.clear() a cada lote descartaria alterações pendentes de uma unidade de trabalho
+        if (JPAUtil.isUnidadeDeTrabalhoAtiva()) {
+            throw new DAOException("Consultas percorridas em lotes não podem rodar dentro de uma unidade de trabalho.");
+        }
+        EntityManager em = null;
+        try {
+            // Exportações são leituras longas: podem ser atendidas pela réplica
+            em = JPAUtil.getEntityManagerLeitura();
+            // O PostgreSQL só usa cursor (em vez de trazer tudo) dentro de uma transação
+            JPAUtil.beginTransaction(em);
+            org.hibernate.query.Query<?> query = em.createQuery(jpql).unwrap(org.hibernate.query.Query.class);
+            query.setReadOnly(true);
+            query.setFetchSize(TAMANHO_LOTE_LEITURA);
+
+            long linhas = 0;
+            try (ScrollableResults resultados = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (resultados.next()) {
+                    processador.processar(resultados.get());
+                    if (++linhas % TAMANHO_LOTE_LEITURA == 0) {
+                        em.clear();
+                    }
+                }
+            }
+            JPAUtil.commit(em);
+            return linhas;
+        } catch (Exception e) {
+            JPAUtil.rollback(em);
+            throw new DAOException("Erro ao percorrer consulta: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Devolve o JPQL de uma forma de consulta (tipo, filtros presentes, ordenação e
+     * posição do cursor), montando-o e validando os campos só na primeira vez.
+     * Como o texto é sempre o mesmo para a mesma forma, o Hibernate também reaproveita
+     * o plano já interpretado da consulta.
+     */
+    private String compilar(EntityManager em, String tipo, Especificacao especificacao, Ordenacao ordenacao,
+                            boolean posicionado) throws DAOException {
+        String condicao = especificacao.getCondicao();
+        String forma = entityClass.getName() + '|' + tipo + '|' + condicao + '|' + ordenacao + '|' + posicionado;
+        String jpql = CONSULTAS_COMPILADAS.get(forma);
+        if (jpql != null) {
+            return jpql;
+        }
+
+        for (String campo : especificacao.getCampos()) {
+            validarCampo(em, campo, "filtro");
+        }
+        String entidade = entityClass.getSimpleName();
+        StringBuilder consulta = new StringBuilder();
+        if ("contagem".equals(tipo)) {
+            consulta.append("SELECT COUNT(e) FROM ").append(entidade).append(" e WHERE 1=1");
+        } else {
+            validarCampo(em, ordenacao.getCampo(), "ordenação");
+            consulta.append("SELECT e");
+            if ("pagina".equals(tipo)) {
+                consulta.append(", e.").append(ordenacao.getCampo());
+            }
+            consulta.append(" FROM ").append(entidade).append(" e WHERE 1=1");
+        }
+        if (condicao != null) {
+            consulta.append(" AND (").append(condicao).append(')');
+        }
+        if (ordenacao != null) {
+            String id = getNomeAtributoId(em);
+            String campo = "e." + ordenacao.getCampo();
+            String chave = "e." + id;
+            boolean porId = ordenacao.getCampo().equals(id);
+            String direcao = ordenacao.isAscendente() ? "ASC" : "DESC";
+            String comparador = ordenacao.isAscendente() ? ">" : "<";
+            if (posicionado) {
+                if (porId) {
+                    consulta.append(" AND ").append(chave).append(' ').append(comparador).append(" :cursorId");
+                } else {
+                    consulta.append(" AND (").append(campo).append(' ').append(comparador).append(" :cursorValor")
+                            .append(" OR (").append(campo).append(" = :cursorValor AND ")
+                            .append(chave).append(' ').append(comparador).append(" :cursorId))");
+                }
+            }
+            consulta.append(" ORDER BY ");
+            if (!porId) {
+                consulta.append(campo).append(' ').append(direcao).append(", ");
+            }
+            consulta.append(chave).append(' ').append(direcao);
+        }
+
+        jpql = consulta.toString();
+        CONSULTAS_COMPILADAS.putIfAbsent(forma, jpql);
+        return jpql;
+    }
+
+    private static void definirParametros(Query query, Especificacao especificacao) {
+        for (Map.Entry<String, Object> parametro : especificacao.getParametros().entrySet()) {
+            query.setParameter(parametro.getKey(), parametro.getValue());
+        }
+    }
+
+    private String getNomeAtributoId(EntityManager em) {
+        EntityType<T> tipo = em.getMetamodel().entity(entityClass);
+        return tipo.getId(tipo.getIdType().getJavaType()).getName();
+    }
+
+    /**
+     * Garante que o campo de um filtro ou da ordenação é um atributo simples da entidade,
+     * ou de uma associação para um único registro, antes de concatená-lo na consulta.
+     */
+    private void validarCampo(EntityManager em, String campo, String uso) throws DAOException {
+        ManagedType<?> tipo = em.getMetamodel().entity(entityClass);
+        String[] partes = campo.split("\\.");
+        for (int i = 0; i < partes.length; i++) {
+            Attribute<?, ?> atributo;
+            try {
+                atributo = tipo.getAttribute(partes[i]);
+            } catch (IllegalArgumentException e) {
+                throw new DAOException("Campo de " + uso + " inválido: " + campo);
+            }
+            Attribute.PersistentAttributeType tipoAtributo = atributo.getPersistentAttributeType();
+            if (i == partes.length - 1) {
+                if (tipoAtributo != Attribute.PersistentAttributeType.BASIC) {
+                    throw new DAOException("Campo de " + uso + " inválido: " + campo);
+                }
+            } else {
+                if (tipoAtributo != Attribute.PersistentAttributeType.MANY_TO_ONE
+                        && tipoAtributo != Attribute.PersistentAttributeType.ONE_TO_ONE) {
+                    throw new DAOException("Campo de " + uso + " inválido: " + campo);
+                }
+                tipo = em.getMetamodel().managedType(atributo.getJavaType());
+            }
+        }
+    }
+
+    /**
+     * Busca por nome tolerante a erros de digitação, ordenada por relevância.
+     * Encontra os registros cujo nome contém o termo ou tem uma palavra parecida com ele
+     * (operador {@code <%} do pg_trgm). As duas condições são atendidas pelo índice GIN
+     * {@code gin_trgm_ops} sobre {@code lower(coluna)} criado por {@link com.seuteste.sga.util.IndicesBusca}.
+     * 
+     * @param tabela Tabela da entidade (constante do DAO, nunca entrada do usuário)
+     * @param coluna Coluna pesquisada (constante do DAO, nunca entrada do usuário)
+     * @param termo Texto digitado
+     * @param limite Quantidade máxima de resultados
+     * @return Entidades mais parecidas primeiro
+     * @throws DAOException em caso de erro
+     */
+    @SuppressWarnings("unchecked")
+    protected List<T> buscarPorSimilaridade(String tabela, String coluna, String termo, int limite) throws DAOException {
+        String normalizado = termo == null ? "" : termo.trim().toLowerCase();
+        if (normalizado.isEmpty() || limite <= 0) {
+            return new ArrayList<>();
+        }
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            String expressao = "lower(e." + coluna + ")";
+            String sql = "SELECT e.* FROM " + tabela + " e"
+                    + " WHERE " + expressao + " LIKE :padrao ESCAPE '\\' OR :termo <% " + expressao
+                    + " ORDER BY word_similarity(:termo, " + expressao + ") DESC, e." + coluna + ", e.id";
+            Query query = em.createNativeQuery(sql, entityClass);
+            query.setParameter("padrao", "%" + escaparLike(normalizado) + "%");
+            query.setParameter("termo", normalizado);
+            query.setMaxResults(limite);
+            return query.getResultList();
+        } catch (Exception e) {
+            throw new DAOException("Erro ao buscar por similaridade: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Escapa os curingas do LIKE ({@code %}, {@code _} e a barra invertida) digitados pelo usuário.
+     */
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Divide uma coleção de IDs em lotes de tamanho máximo, sem repetições,
+     * para limitar o tamanho das cláusulas IN.
+     * 
+     * @param ids IDs a dividir
+     * @param tamanho Tamanho máximo de cada lote
+     * @param <K> Tipo do ID
+     * @return Lotes de IDs
+     */
+    protected static <K> List<List<K>> particionar(Collection<K> ids, int tamanho) {
+        List<K> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<K>> lotes = new ArrayList<>();
+        for (int inicio = 0; inicio < distintos.size(); inicio += tamanho) {
+            lotes.add(distintos.subList(inicio, Math.min(inicio + tamanho, distintos.size())));
+        }
+        return lotes;
+    }
+
+    /**
+     * Marca a consulta como cacheável no cache de consultas do Hibernate.
+     * Indicado para consultas de dados de referência: o resultado é invalidado
+     * automaticamente quando o Hibernate grava em alguma das tabelas consultadas.
+     * 
+     * @param query Consulta JPA
+     * @param <Q> Tipo da consulta
+     * @return A mesma consulta, para encadeamento
+     */
+    protected static <Q extends Query> Q cacheavel(Q query) {
+        query.setHint(QueryHints.HINT_CACHEABLE, true);
+        return query;
+    }
+
+    /**
+     * Aplica um grafo de entidade à consulta: as associações do grafo são buscadas
+     * com JOIN no mesmo comando SQL e as demais ficam para carregamento tardio.
+     * 
+     * @param em EntityManager que criou a consulta
+     * @param query Consulta JPA
+     * @param grafo Nome do grafo de entidade (null para não alterar a consulta)
+     * @param <Q> Tipo da consulta
+     * @return A mesma consulta, para encadeamento
+     */
+    protected static <Q extends Query> Q comGrafo(EntityManager em, Q query, String grafo) {
+        if (grafo != null) {
+            query.setHint(QueryHints.HINT_FETCHGRAPH, em.getEntityGraph(grafo));
+        }
+        return query;
+    }
+
     /**
      * Método utilitário para criar consultas personalizadas.
      * 
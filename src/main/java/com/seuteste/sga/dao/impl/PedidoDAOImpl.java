@@ -1,15 +1,27 @@
 package com.seuteste.sga.dao.impl;
 
+import com.seuteste.sga.dao.CursorPagina;
 import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.Especificacao;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
+import com.seuteste.sga.dao.ProcessadorLinha;
 import com.seuteste.sga.dao.PedidoDAO;
+import com.seuteste.sga.dao.PlanoBuscaPedido;
 import com.seuteste.sga.model.Cliente;
 import com.seuteste.sga.model.Pedido;
 import com.seuteste.sga.util.JPAUtil;
+import org.hibernate.jpa.QueryHints;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.TypedQuery;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementação do DAO para a entidade Pedido.
@@ -19,13 +31,23 @@ import java.util.List;
  */
 public class PedidoDAOImpl extends GenericDAOImpl<Pedido, Long> implements PedidoDAO {
 
+    private static final String JPQL_EXPORTACAO =
+            "SELECT p.id, p.dataPedido, p.status, p.ativo, c.id, c.nome, i.id, pr.id, pr.nome, i.quantidade, " +
+            "i.precoUnitario, i.subtotal, p.valorTotal " +
+            "FROM Pedido p JOIN p.cliente c LEFT JOIN p.itens i LEFT JOIN i.produto pr ORDER BY p.id, i.id";
+
+    @Override
+    public Pedido findById(Long id, PlanoBuscaPedido plano) throws DAOException {
+        return findById(id, plano.getGrafo());
+    }
+
     @Override
-    public List<Pedido> findAllOrderByDataPedidoDesc() throws DAOException {
+    public List<Pedido> findAllOrderByDataPedidoDesc(PlanoBuscaPedido plano) throws DAOException {
         EntityManager em = null;
         try {
-            em = JPAUtil.getEntityManager();
-            String jpql = "SELECT p FROM Pedido p ORDER BY p.dataPedido DESC";
-            TypedQuery<Pedido> query = em.createQuery(jpql, Pedido.class);
+            em = JPAUtil.getEntityManagerLeitura();
+            String jpql = select(plano) + " ORDER BY p.dataPedido DESC";
+            TypedQuery<Pedido> query = criarConsulta(em, jpql, plano);
             return query.getResultList();
         } catch (Exception e) {
             throw new DAOException("Erro ao listar pedidos ordenados por data: " + e.getMessage(), e);
@@ -35,12 +57,12 @@ public class PedidoDAOImpl extends GenericDAOImpl<Pedido, Long> implements Pedid
     }
 
     @Override
-    public List<Pedido> findByCliente(Cliente cliente) throws DAOException {
+    public List<Pedido> findByCliente(Cliente cliente, PlanoBuscaPedido plano) throws DAOException {
         EntityManager em = null;
         try {
             em = JPAUtil.getEntityManager();
-            String jpql = "SELECT p FROM Pedido p WHERE p.cliente = :cliente ORDER BY p.dataPedido DESC";
-            TypedQuery<Pedido> query = em.createQuery(jpql, Pedido.class);
+            String jpql = select(plano) + " WHERE p.cliente = :cliente ORDER BY p.dataPedido DESC";
+            TypedQuery<Pedido> query = criarConsulta(em, jpql, plano);
             query.setParameter("cliente", cliente);
             return query.getResultList();
         } catch (Exception e) {
@@ -51,12 +73,12 @@ public class PedidoDAOImpl extends GenericDAOImpl<Pedido, Long> implements Pedid
     }
 
     @Override
-    public List<Pedido> findByStatus(String status) throws DAOException {
+    public List<Pedido> findByStatus(String status, PlanoBuscaPedido plano) throws DAOException {
         EntityManager em = null;
         try {
             em = JPAUtil.getEntityManager();
-            String jpql = "SELECT p FROM Pedido p WHERE p.status = :status ORDER BY p.dataPedido DESC";
-            TypedQuery<Pedido> query = em.createQuery(jpql, Pedido.class);
+            String jpql = select(plano) + " WHERE p.status = :status ORDER BY p.dataPedido DESC";
+            TypedQuery<Pedido> query = criarConsulta(em, jpql, plano);
             query.setParameter("status", status);
             return query.getResultList();
         } catch (Exception e) {
@@ -67,12 +89,13 @@ public class PedidoDAOImpl extends GenericDAOImpl<Pedido, Long> implements Pedid
     }
 
     @Override
-    public List<Pedido> findByDataPedidoBetween(LocalDate dataInicio, LocalDate dataFim) throws DAOException {
+    public List<Pedido> findByDataPedidoBetween(LocalDate dataInicio, LocalDate dataFim,
+                                                PlanoBuscaPedido plano) throws DAOException {
         EntityManager em = null;
         try {
-            em = JPAUtil.getEntityManager();
-            String jpql = "SELECT p FROM Pedido p WHERE p.dataPedido BETWEEN :dataInicio AND :dataFim ORDER BY p.dataPedido DESC";
-            TypedQuery<Pedido> query = em.createQuery(jpql, Pedido.class);
+            em = JPAUtil.getEntityManagerLeitura();
+            String jpql = select(plano) + " WHERE p.dataPedido BETWEEN :dataInicio AND :dataFim ORDER BY p.dataPedido DESC";
+            TypedQuery<Pedido> query = criarConsulta(em, jpql, plano);
             query.setParameter("dataInicio", dataInicio);
             query.setParameter("dataFim", dataFim);
             return query.getResultList();
@@ -82,5 +105,82 @@ public class PedidoDAOImpl extends GenericDAOImpl<Pedido, Long> implements Pedid
             JPAUtil.closeEntityManager(em);
         }
     }
-}
 
+    @Override
+    public Pagina<Pedido> findPageByStatus(String status, CursorPagina cursor, int tamanho,
+                                           Ordenacao ordenacao) throws DAOException {
+        return findPage(Especificacao.nova().igual("status", status), cursor, tamanho, ordenacao,
+                PlanoBuscaPedido.LISTAGEM.getGrafo());
+    }
+
+    @Override
+    public long countByStatus(String status) throws DAOException {
+        return count(Especificacao.nova().igual("status", status));
+    }
+
+    @Override
+    public List<Long> lockIdsByAtivo(Collection<Long> ids, boolean ativo) throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            String jpql = "SELECT p.id FROM Pedido p WHERE p.id IN (:ids) AND p.ativo = :ativo ORDER BY p.id";
+            List<Long> bloqueados = new ArrayList<>();
+            for (List<Long> lote : particionar(ids, TAMANHO_LOTE_IN)) {
+                TypedQuery<Long> query = em.createQuery(jpql, Long.class);
+                query.setParameter("ids", lote);
+                query.setParameter("ativo", ativo);
+                query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+                bloqueados.addAll(query.getResultList());
+            }
+            return bloqueados;
+        } catch (Exception e) {
+            throw new DAOException("Erro ao bloquear pedidos: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> sumQuantidadePorProduto(Collection<Long> pedidoIds) throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            String jpql = "SELECT i.produto.id, SUM(i.quantidade) FROM ItemPedido i " +
+                          "WHERE i.pedido.id IN (:ids) GROUP BY i.produto.id";
+            Map<Long, Integer> quantidades = new HashMap<>();
+            for (List<Long> lote : particionar(pedidoIds, TAMANHO_LOTE_IN)) {
+                TypedQuery<Object[]> query = em.createQuery(jpql, Object[].class);
+                query.setParameter("ids", lote);
+                for (Object[] linha : query.getResultList()) {
+                    quantidades.merge((Long) linha[0], ((Number) linha[1]).intValue(), Integer::sum);
+                }
+            }
+            return quantidades;
+        } catch (Exception e) {
+            throw new DAOException("Erro ao somar itens dos pedidos: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Com a coleção de itens no JOIN, cada pedido voltaria uma vez por item;
+     * o DISTINCT é resolvido pelo Hibernate, sem ir para o SQL.
+     */
+    private String select(PlanoBuscaPedido plano) {
+        return plano.isIncluiItens() ? "SELECT DISTINCT p FROM Pedido p" : "SELECT p FROM Pedido p";
+    }
+
+    private TypedQuery<Pedido> criarConsulta(EntityManager em, String jpql, PlanoBuscaPedido plano) {
+        TypedQuery<Pedido> query = comGrafo(em, em.createQuery(jpql, Pedido.class), plano.getGrafo());
+        if (plano.isIncluiItens()) {
+            query.setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false);
+        }
+        return query;
+    }
+
+    @Override
+    public long exportarComItens(ProcessadorLinha processador) throws DAOException {
+        return percorrer(JPQL_EXPORTACAO, processador);
+    }
+}
@@ -1,16 +1,42 @@
 package com.seuteste.sga.dao.impl;
 
+import com.seuteste.sga.dao.CursorPagina;
 import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.Especificacao;
+import com.seuteste.sga.dao.EstoqueInsuficienteException;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
+import com.seuteste.sga.dao.ProcessadorLinha;
+import com.seuteste.sga.dto.ProdutoImportacaoDTO;
+import com.seuteste.sga.dto.ProdutoIndexadoDTO;
+import com.seuteste.sga.dto.ResultadoImportacao;
+import com.seuteste.sga.dto.SaldoEstoqueDTO;
 import com.seuteste.sga.dao.ProdutoDAO;
 import com.seuteste.sga.model.Categoria;
 import com.seuteste.sga.model.Produto;
 import com.seuteste.sga.util.JPAUtil;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Implementação do DAO para a entidade Produto.
@@ -20,6 +46,93 @@ import java.util.List;
  */
 public class ProdutoDAOImpl extends GenericDAOImpl<Produto, Long> implements ProdutoDAO {
 
+    private static final String JPQL_EXPORTACAO =
+            "SELECT p.id, p.nome, p.descricao, c.nome, p.preco, p.quantidadeEstoque, p.dataCadastro, p.ativo " +
+            "FROM Produto p LEFT JOIN p.categoria c ORDER BY p.id";
+
+    /**
+     * As movimentações incrementam a versão do produto: um formulário de produto aberto
+     * antes da venda não pode gravar por cima o estoque que ela baixou.
+     */
+    private static final String SQL_BAIXAR_ESTOQUE =
+            "UPDATE produto SET quantidade_estoque = quantidade_estoque - ?, versao = versao + 1 " +
+            "WHERE id = ? AND quantidade_estoque >= ?";
+
+    private static final String SQL_REPOR_ESTOQUE =
+            "UPDATE produto SET quantidade_estoque = quantidade_estoque + ?, versao = versao + 1 WHERE id = ?";
+
+    private static final String SQL_CRIAR_TABELA_IMPORTACAO =
+            "CREATE TEMPORARY TABLE produto_importacao (linha integer, nome text, descricao text, " +
+            "preco numeric(10,2), quantidade_estoque integer, categoria_id bigint, " +
+            "chave text GENERATED ALWAYS AS (lower(nome)) STORED) ON COMMIT DROP";
+
+    /**
+     * Sem estatísticas, o planejador estima poucas linhas na tabela temporária e escolhe
+     * buscar cada nome pelo índice, em vez de cruzar as tabelas de uma vez.
+     */
+    private static final String SQL_ANALISAR_IMPORTACAO = "ANALYZE produto_importacao";
+
+    private static final String SQL_COPIAR_IMPORTACAO =
+            "COPY produto_importacao (linha, nome, descricao, preco, quantidade_estoque, categoria_id) FROM STDIN";
+
+    private static final String SQL_INCREMENTO_SEQUENCIA =
+            "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = 'produto_id_seq'";
+
+    /**
+     * Mescla a tabela temporária em produto. Devolve uma linha por produto atualizado ('A') ou
+     * incluído ('I'), e uma por linha do arquivo descartada por repetir um nome ('R').
+     * Os IDs novos seguem o otimizador pooled do Hibernate: cada nextval reserva um bloco de
+     * "incremento" IDs que termina no valor devolvido, então não colidem com os da aplicação.
+     */
+    private static final String SQL_MESCLAR_IMPORTACAO =
+            "WITH origem AS (" +
+            "  SELECT DISTINCT ON (chave) * FROM produto_importacao ORDER BY chave, linha DESC), " +
+            "atualizados AS (" +
+            "  UPDATE produto p SET descricao = COALESCE(o.descricao, p.descricao), preco = o.preco, " +
+            "    quantidade_estoque = o.quantidade_estoque, categoria_id = o.categoria_id, versao = p.versao + 1 " +
+            "  FROM origem o WHERE lower(p.nome) = o.chave RETURNING p.id), " +
+            "novos AS (" +
+            "  SELECT o.*, row_number() OVER (ORDER BY o.linha) - 1 AS posicao FROM origem o " +
+            "  WHERE NOT EXISTS (SELECT 1 FROM produto p WHERE lower(p.nome) = o.chave)), " +
+            "blocos AS (" +
+            "  SELECT b.bloco, nextval('produto_id_seq') AS ultimo_id " +
+            "  FROM generate_series(0, (SELECT (count(*) - 1) / ? FROM novos)) AS b(bloco)), " +
+            "incluidos AS (" +
+            "  INSERT INTO produto (id, nome, descricao, preco, quantidade_estoque, categoria_id, data_cadastro, ativo) " +
+            "  SELECT k.ultimo_id - (? - 1) + n.posicao % ?, n.nome, n.descricao, n.preco, n.quantidade_estoque, " +
+            "    n.categoria_id, current_date, true " +
+            "  FROM novos n JOIN blocos k ON k.bloco = n.posicao / ? RETURNING id) " +
+            "SELECT 'A', id FROM atualizados " +
+            "UNION ALL SELECT 'I', id FROM incluidos " +
+            "UNION ALL SELECT 'R', t.linha FROM produto_importacao t " +
+            "  WHERE NOT EXISTS (SELECT 1 FROM origem o WHERE o.linha = t.linha)";
+
+    /**
+     * Move no resumo de vendas as vendas dos produtos que a importação troca de categoria.
+     */
+    private static final String SQL_TRANSFERIR_VENDAS_IMPORTACAO = ResumoVendasDAOImpl.sqlTransferirCategorias(
+            "SELECT p.id, p.categoria_id, o.categoria_id FROM produto p JOIN (" +
+            "  SELECT DISTINCT ON (chave) chave, categoria_id FROM produto_importacao ORDER BY chave, linha DESC) o " +
+            "  ON lower(p.nome) = o.chave WHERE p.categoria_id <> o.categoria_id");
+
+    /**
+     * Tamanho aproximado, em caracteres, de cada envio do COPY ao banco.
+     */
+    private static final int TAMANHO_ENVIO_COPY = 1 << 20;
+
+    private static final String JPQL_SALDOS_ESTOQUE =
+            "SELECT new com.seuteste.sga.dto.SaldoEstoqueDTO(p.id, p.nome, p.quantidadeEstoque, p.estoqueMinimo, p.ativo) " +
+            "FROM Produto p";
+
+    private static final String JPQL_INDEXAVEIS =
+            "SELECT new com.seuteste.sga.dto.ProdutoIndexadoDTO(p.id, p.nome, p.descricao, c.nome) " +
+            "FROM Produto p LEFT JOIN p.categoria c WHERE p.ativo = true";
+
+    @Override
+    public List<Produto> searchByNome(String termo, int limite) throws DAOException {
+        return buscarPorSimilaridade("produto", "nome", termo, limite);
+    }
+
     @Override
     public List<Produto> findByNomeContaining(String nome) throws DAOException {
         EntityManager em = null;
@@ -50,7 +163,7 @@ public class ProdutoDAOImpl extends GenericDAOImpl<Produto, Long> implements Pro
         try {
             em = JPAUtil.getEntityManager();
             String jpql = "SELECT p FROM Produto p WHERE p.categoria.id = :categoriaId";
-            TypedQuery<Produto> query = em.createQuery(jpql, Produto.class);
+            TypedQuery<Produto> query = cacheavel(em.createQuery(jpql, Produto.class));
             query.setParameter("categoriaId", categoriaId);
             return query.getResultList();
         } catch (Exception e) {
@@ -124,112 +237,408 @@ public class ProdutoDAOImpl extends GenericDAOImpl<Produto, Long> implements Pro
     }
 
     @Override
-    public List<Produto> findAllOrderByNome() throws DAOException {
+    public List<SaldoEstoqueDTO> findSaldosEstoque(Collection<Long> ids) throws DAOException {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
         EntityManager em = null;
         try {
             em = JPAUtil.getEntityManager();
-            String jpql = "SELECT p FROM Produto p ORDER BY p.nome ASC";
-            TypedQuery<Produto> query = em.createQuery(jpql, Produto.class);
-            return query.getResultList();
+            List<SaldoEstoqueDTO> saldos = new ArrayList<>(ids.size());
+            for (List<Long> lote : particionar(ids, TAMANHO_LOTE_IN)) {
+                saldos.addAll(em.createQuery(JPQL_SALDOS_ESTOQUE + " WHERE p.id IN (:ids)", SaldoEstoqueDTO.class)
+                        .setParameter("ids", lote)
+                        .getResultList());
+            }
+            return saldos;
         } catch (Exception e) {
-            throw new DAOException("Erro ao listar produtos ordenados por nome: " + e.getMessage(), e);
+            throw new DAOException("Erro ao buscar saldos de estoque: " + e.getMessage(), e);
         } finally {
             JPAUtil.closeEntityManager(em);
         }
     }
 
     @Override
-    public List<Produto> findAllOrderByPreco(boolean ascending) throws DAOException {
+    public List<SaldoEstoqueDTO> findSaldosAbaixoDoMinimo(int estoqueMinimoPadrao) throws DAOException {
         EntityManager em = null;
         try {
             em = JPAUtil.getEntityManager();
-            String order = ascending ? "ASC" : "DESC";
-            String jpql = "SELECT p FROM Produto p ORDER BY p.preco " + order;
-            TypedQuery<Produto> query = em.createQuery(jpql, Produto.class);
-            return query.getResultList();
+            return em.createQuery(JPQL_SALDOS_ESTOQUE + " WHERE p.ativo = true AND "
+                    + "p.quantidadeEstoque <= COALESCE(p.estoqueMinimo, :padrao)", SaldoEstoqueDTO.class)
+                    .setParameter("padrao", estoqueMinimoPadrao)
+                    .getResultList();
         } catch (Exception e) {
-            throw new DAOException("Erro ao listar produtos ordenados por preço: " + e.getMessage(), e);
+            throw new DAOException("Erro ao buscar produtos abaixo do estoque mínimo: " + e.getMessage(), e);
         } finally {
             JPAUtil.closeEntityManager(em);
         }
     }
 
     @Override
-    public List<Produto> findAllOrderByDataCadastro(boolean ascending) throws DAOException {
+    public List<Produto> findAllOrderByNome() throws DAOException {
         EntityManager em = null;
         try {
             em = JPAUtil.getEntityManager();
-            String order = ascending ? "ASC" : "DESC";
-            String jpql = "SELECT p FROM Produto p ORDER BY p.dataCadastro " + order;
-            TypedQuery<Produto> query = em.createQuery(jpql, Produto.class);
+            String jpql = "SELECT p FROM Produto p ORDER BY p.nome ASC";
+            TypedQuery<Produto> query = cacheavel(em.createQuery(jpql, Produto.class));
             return query.getResultList();
         } catch (Exception e) {
-            throw new DAOException("Erro ao listar produtos ordenados por data de cadastro: " + e.getMessage(), e);
+            throw new DAOException("Erro ao listar produtos ordenados por nome: " + e.getMessage(), e);
         } finally {
             JPAUtil.closeEntityManager(em);
         }
     }
 
+    @Override
+    public List<Produto> findAllOrderByPreco(boolean ascending) throws DAOException {
+        return findAll(Especificacao.todos(), ascending ? Ordenacao.asc("preco") : Ordenacao.desc("preco"));
+    }
+
+    @Override
+    public List<Produto> findAllOrderByDataCadastro(boolean ascending) throws DAOException {
+        return findAll(Especificacao.todos(), ascending ? Ordenacao.asc("dataCadastro") : Ordenacao.desc("dataCadastro"));
+    }
+
     @Override
     public List<Produto> findWithFilters(String nome, Long categoriaId, BigDecimal precoMin, 
                                         BigDecimal precoMax, boolean apenasEmEstoque) throws DAOException {
+        Especificacao especificacao = filtros(nome, categoriaId)
+                .noMinimo("preco", precoMin)
+                .noMaximo("preco", precoMax)
+                .maiorQue("quantidadeEstoque", apenasEmEstoque ? 0 : null);
+        return findAllNaReplica(especificacao, Ordenacao.asc("nome"));
+    }
+
+    @Override
+    public void baixarEstoque(Map<Long, Integer> quantidades) throws DAOException {
+        if (quantidades == null || quantidades.isEmpty()) {
+            return;
+        }
         EntityManager em = null;
         try {
             em = JPAUtil.getEntityManager();
-            
-            StringBuilder jpql = new StringBuilder("SELECT p FROM Produto p WHERE 1=1");
-            List<String> conditions = new ArrayList<>();
-            
-            if (nome != null && !nome.trim().isEmpty()) {
-                conditions.add("LOWER(p.nome) LIKE LOWER(:nome)");
+            JPAUtil.beginTransaction(em);
+            List<Long> semEstoque = executarMovimentoEstoque(em, SQL_BAIXAR_ESTOQUE, quantidades, true);
+            if (!semEstoque.isEmpty()) {
+                JPAUtil.rollback(em);
+                throw new EstoqueInsuficienteException("Estoque insuficiente para os produtos " + semEstoque, semEstoque);
             }
-            
-            if (categoriaId != null) {
-                conditions.add("p.categoria.id = :categoriaId");
+            JPAUtil.commit(em);
+            removerDoCache(em, quantidades.keySet());
+        } catch (DAOException e) {
+            throw e;
+        } catch (Exception e) {
+            JPAUtil.rollback(em);
+            throw new DAOException("Erro ao baixar estoque: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public void reporEstoque(Map<Long, Integer> quantidades) throws DAOException {
+        if (quantidades == null || quantidades.isEmpty()) {
+            return;
+        }
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            JPAUtil.beginTransaction(em);
+            executarMovimentoEstoque(em, SQL_REPOR_ESTOQUE, quantidades, false);
+            JPAUtil.commit(em);
+            removerDoCache(em, quantidades.keySet());
+        } catch (Exception e) {
+            JPAUtil.rollback(em);
+            throw new DAOException("Erro ao repor estoque: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Remove do cache de segundo nível os produtos alterados por SQL direto, que o Hibernate
+     * não enxerga. A remoção é feita já (para leituras desta transação) e repetida após o
+     * commit, descartando o que outra transação tenha recolocado no cache nesse intervalo.
+     */
+    private void removerDoCache(EntityManager em, Collection<Long> produtoIds) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        List<Long> ids = new ArrayList<>(produtoIds);
+        Runnable remover = () -> ids.forEach(id -> cache.evict(Produto.class, id));
+        remover.run();
+        JPAUtil.aposConfirmacao(remover);
+    }
+
+    /**
+     * Envia um UPDATE por produto em um único lote JDBC e devolve os produtos não afetados.
+     * Os produtos são processados em ordem de ID para que transações concorrentes
+     * bloqueiem as linhas sempre na mesma ordem e não entrem em deadlock.
+     * 
+     * @param em EntityManager da transação corrente
+     * @param sql UPDATE com parâmetros (quantidade, id[, quantidade])
+     * @param quantidades Quantidade por ID do produto
+     * @param condicional true se o SQL repete a quantidade na condição de saldo
+     * @return IDs dos produtos cujo UPDATE não afetou nenhuma linha
+     */
+    private List<Long> executarMovimentoEstoque(EntityManager em, String sql, Map<Long, Integer> quantidades,
+                                                boolean condicional) {
+        Map<Long, Integer> ordenadas = new TreeMap<>(quantidades);
+        return em.unwrap(Session.class).doReturningWork(conexao -> {
+            try (PreparedStatement ps = conexao.prepareStatement(sql)) {
+                for (Map.Entry<Long, Integer> movimento : ordenadas.entrySet()) {
+                    ps.setInt(1, movimento.getValue());
+                    ps.setLong(2, movimento.getKey());
+                    if (condicional) {
+                        ps.setInt(3, movimento.getValue());
+                    }
+                    ps.addBatch();
+                }
+                int[] afetadas = ps.executeBatch();
+
+                List<Long> naoAfetados = new ArrayList<>();
+                int i = 0;
+                for (Long produtoId : ordenadas.keySet()) {
+                    if (afetadas[i++] == 0) {
+                        naoAfetados.add(produtoId);
+                    }
+                }
+                return naoAfetados;
             }
-            
-            if (precoMin != null) {
-                conditions.add("p.preco >= :precoMin");
+        });
+    }
+
+    @Override
+    public Pagina<Produto> findPageWithFilters(String nome, Long categoriaId, CursorPagina cursor, int tamanho,
+                                               Ordenacao ordenacao) throws DAOException {
+        // A tabela de produtos exibe o nome da categoria
+        return findPage(filtros(nome, categoriaId), cursor, tamanho, ordenacao, Produto.GRAFO_COM_CATEGORIA);
+    }
+
+    @Override
+    public long countWithFilters(String nome, Long categoriaId) throws DAOException {
+        return count(filtros(nome, categoriaId));
+    }
+
+    @Override
+    public long[] findFaixaIds() throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            Object[] faixa = em.createQuery("SELECT MIN(p.id), MAX(p.id) FROM Produto p", Object[].class).getSingleResult();
+            if (faixa[0] == null) {
+                return null;
             }
-            
-            if (precoMax != null) {
-                conditions.add("p.preco <= :precoMax");
+            return new long[] {((Number) faixa[0]).longValue(), ((Number) faixa[1]).longValue()};
+        } catch (Exception e) {
+            throw new DAOException("Erro ao obter faixa de IDs de produto: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public List<ProdutoIndexadoDTO> findIndexaveis(long idInicial, long idFinal) throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            TypedQuery<ProdutoIndexadoDTO> query = em.createQuery(
+                    JPQL_INDEXAVEIS + " AND p.id BETWEEN :idInicial AND :idFinal", ProdutoIndexadoDTO.class);
+            query.setParameter("idInicial", idInicial);
+            query.setParameter("idFinal", idFinal);
+            return query.getResultList();
+        } catch (Exception e) {
+            throw new DAOException("Erro ao listar produtos para indexação: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public List<ProdutoIndexadoDTO> findIndexaveis(Collection<Long> ids) throws DAOException {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            List<ProdutoIndexadoDTO> indexaveis = new ArrayList<>();
+            for (List<Long> lote : particionar(ids, TAMANHO_LOTE_IN)) {
+                TypedQuery<ProdutoIndexadoDTO> query = em.createQuery(
+                        JPQL_INDEXAVEIS + " AND p.id IN (:ids)", ProdutoIndexadoDTO.class);
+                query.setParameter("ids", lote);
+                indexaveis.addAll(query.getResultList());
             }
-            
-            if (apenasEmEstoque) {
-                conditions.add("p.quantidadeEstoque > 0");
+            return indexaveis;
+        } catch (Exception e) {
+            throw new DAOException("Erro ao listar produtos para indexação: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public List<ProdutoIndexadoDTO> findIndexaveisByCategoriaId(Long categoriaId) throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            TypedQuery<ProdutoIndexadoDTO> query = em.createQuery(
+                    JPQL_INDEXAVEIS + " AND c.id = :categoriaId", ProdutoIndexadoDTO.class);
+            query.setParameter("categoriaId", categoriaId);
+            return query.getResultList();
+        } catch (Exception e) {
+            throw new DAOException("Erro ao listar produtos da categoria para indexação: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    private Especificacao filtros(String nome, Long categoriaId) {
+        return Especificacao.nova()
+                .contem("nome", nome)
+                .igual("categoria.id", categoriaId);
+    }
+
+    @Override
+    public long exportar(ProcessadorLinha processador) throws DAOException {
+        return percorrer(JPQL_EXPORTACAO, processador);
+    }
+
+    @Override
+    public List<Long> mesclarImportacao(Iterator<List<ProdutoImportacaoDTO>> lotes, ResultadoImportacao resultado)
+            throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            JPAUtil.beginTransaction(em);
+            List<Long> afetados = em.unwrap(Session.class).doReturningWork(conexao -> {
+                try (Statement st = conexao.createStatement()) {
+                    st.execute(SQL_CRIAR_TABELA_IMPORTACAO);
+                }
+                copiarImportacao(conexao.unwrap(PGConnection.class).getCopyAPI(), lotes);
+                try (Statement st = conexao.createStatement()) {
+                    st.execute(SQL_ANALISAR_IMPORTACAO);
+                    // Antes da mescla, enquanto o produto ainda tem a categoria antiga
+                    st.executeUpdate(SQL_TRANSFERIR_VENDAS_IMPORTACAO);
+                }
+                return executarMescla(conexao, resultado);
+            });
+            JPAUtil.commit(em);
+            // Os UPDATEs em SQL não passam pelo cache de segundo nível
+            Cache cache = em.getEntityManagerFactory().getCache();
+            JPAUtil.aposConfirmacao(() -> cache.evict(Produto.class));
+            return afetados;
+        } catch (Exception e) {
+            JPAUtil.rollback(em);
+            throw new DAOException("Erro ao importar produtos: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Envia as linhas para a tabela temporária pelo protocolo COPY, no formato texto
+     * (colunas separadas por tabulação, {@code \N} para nulo), em blocos de {@link #TAMANHO_ENVIO_COPY}.
+     */
+    private void copiarImportacao(CopyManager copia, Iterator<List<ProdutoImportacaoDTO>> lotes)
+            throws SQLException {
+        CopyIn entrada = copia.copyIn(SQL_COPIAR_IMPORTACAO);
+        try {
+            StringBuilder buffer = new StringBuilder(TAMANHO_ENVIO_COPY + 4096);
+            while (lotes.hasNext()) {
+                for (ProdutoImportacaoDTO produto : lotes.next()) {
+                    buffer.append(produto.getLinha()).append('\t');
+                    escaparCopia(buffer, produto.getNome()).append('\t');
+                    escaparCopia(buffer, produto.getDescricao()).append('\t');
+                    buffer.append(produto.getPreco().toPlainString()).append('\t')
+                            .append(produto.getQuantidadeEstoque()).append('\t')
+                            .append(produto.getCategoriaId()).append('\n');
+                    if (buffer.length() >= TAMANHO_ENVIO_COPY) {
+                        enviarCopia(entrada, buffer);
+                    }
+                }
             }
-            
-            for (String condition : conditions) {
-                jpql.append(" AND ").append(condition);
+            enviarCopia(entrada, buffer);
+            entrada.endCopy();
+        } finally {
+            if (entrada.isActive()) {
+                entrada.cancelCopy();
             }
-            
-            jpql.append(" ORDER BY p.nome ASC");
-            
-            TypedQuery<Produto> query = em.createQuery(jpql.toString(), Produto.class);
-            
-            if (nome != null && !nome.trim().isEmpty()) {
-                query.setParameter("nome", "%" + nome.trim() + "%");
+        }
+    }
+
+    private static void enviarCopia(CopyIn entrada, StringBuilder buffer) throws SQLException {
+        if (buffer.length() > 0) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            entrada.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    private static StringBuilder escaparCopia(StringBuilder buffer, String valor) {
+        if (valor == null) {
+            return buffer.append("\\N");
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                default:
+                    buffer.append(c);
             }
-            
-            if (categoriaId != null) {
-                query.setParameter("categoriaId", categoriaId);
+        }
+        return buffer;
+    }
+
+    private List<Long> executarMescla(Connection conexao, ResultadoImportacao resultado) throws SQLException {
+        int incremento = 1;
+        try (Statement st = conexao.createStatement();
+             ResultSet rs = st.executeQuery(SQL_INCREMENTO_SEQUENCIA)) {
+            if (rs.next()) {
+                incremento = Math.max(1, rs.getInt(1));
             }
-            
-            if (precoMin != null) {
-                query.setParameter("precoMin", precoMin);
+        }
+
+        List<Long> afetados = new ArrayList<>();
+        List<Integer> repetidas = new ArrayList<>();
+        long atualizados = 0;
+        long inseridos = 0;
+        try (PreparedStatement ps = conexao.prepareStatement(SQL_MESCLAR_IMPORTACAO)) {
+            for (int i = 1; i <= 4; i++) {
+                ps.setInt(i, incremento);
             }
-            
-            if (precoMax != null) {
-                query.setParameter("precoMax", precoMax);
+            ps.setFetchSize(TAMANHO_LOTE_LEITURA);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    char tipo = rs.getString(1).charAt(0);
+                    if (tipo == 'R') {
+                        repetidas.add(rs.getInt(2));
+                        continue;
+                    }
+                    afetados.add(rs.getLong(2));
+                    if (tipo == 'A') {
+                        atualizados++;
+                    } else {
+                        inseridos++;
+                    }
+                }
             }
-            
-            return query.getResultList();
-        } catch (Exception e) {
-            throw new DAOException("Erro ao buscar produtos com filtros: " + e.getMessage(), e);
-        } finally {
-            JPAUtil.closeEntityManager(em);
         }
+        Collections.sort(repetidas);
+        for (Integer linha : repetidas) {
+            resultado.adicionarErro(linha, "Nome repetido no arquivo; foi usada a última ocorrência.");
+        }
+        resultado.setAtualizados(atualizados);
+        resultado.setInseridos(inseridos);
+        return afetados;
     }
 }
-
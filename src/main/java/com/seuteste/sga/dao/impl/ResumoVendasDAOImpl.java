@@ -0,0 +1,297 @@
+package com.seuteste.sga.dao.impl;
+
+import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.ResumoVendasDAO;
+import com.seuteste.sga.dto.TotalVendasDTO;
+import com.seuteste.sga.model.Pedido;
+import com.seuteste.sga.util.JPAUtil;
+import org.hibernate.query.NativeQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Implementação do DAO do resumo diário de vendas, em SQL nativo do PostgreSQL.
+ *
+ * Os deltas são gravados com {@code INSERT ... ON CONFLICT DO UPDATE}, somando ao valor
+ * já existente; as linhas são gravadas em ordem de chave para que transações
+ * concorrentes bloqueiem as mesmas linhas na mesma ordem, sem deadlock. Linhas que
+ * chegam a zero ficam na tabela até a próxima reconstrução do período, e as consultas
+ * as desconsideram. Os comandos declaram a tabela do resumo como a única afetada, para
+ * que o Hibernate não limpe o cache de segundo nível das entidades a cada pedido.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public class ResumoVendasDAOImpl implements ResumoVendasDAO {
+
+    private static final String SQL_UPSERT =
+            "INSERT INTO resumo_vendas_diario AS r (data, categoria_id, cliente_id, quantidade, receita) ";
+
+    private static final String SQL_SOMAR_EXISTENTE =
+            " ON CONFLICT (data, categoria_id, cliente_id) DO UPDATE SET " +
+            "quantidade = r.quantidade + EXCLUDED.quantidade, receita = r.receita + EXCLUDED.receita";
+
+    private static final String FILTRO_NAO_CANCELADO = "p.status <> '" + Pedido.STATUS_CANCELADO + "'";
+
+    private static final String SQL_APLICAR_PEDIDOS = SQL_UPSERT +
+            "SELECT p.data_pedido, pr.categoria_id, p.cliente_id, :sinal * SUM(i.quantidade), :sinal * SUM(i.subtotal) " +
+            "FROM pedido p JOIN item_pedido i ON i.pedido_id = p.id JOIN produto pr ON pr.id = i.produto_id " +
+            "WHERE p.id IN (:ids) AND " + FILTRO_NAO_CANCELADO + " " +
+            "GROUP BY 1, 2, 3 ORDER BY 1, 2, 3" + SQL_SOMAR_EXISTENTE;
+
+    private static final String SQL_MUDANCA_PRODUTO =
+            "SELECT id, categoria_id, CAST(:categoria AS bigint) FROM produto " +
+            "WHERE id = :produto AND categoria_id <> :categoria";
+
+    private static final String SQL_BLOQUEAR = "LOCK TABLE resumo_vendas_diario IN EXCLUSIVE MODE";
+
+    private static final String SQL_LIMPAR_PERIODO =
+            "DELETE FROM resumo_vendas_diario WHERE data BETWEEN :inicio AND :fim";
+
+    private static final String SQL_RECALCULAR_PERIODO = SQL_UPSERT +
+            "SELECT p.data_pedido, pr.categoria_id, p.cliente_id, SUM(i.quantidade), SUM(i.subtotal) " +
+            "FROM pedido p JOIN item_pedido i ON i.pedido_id = p.id JOIN produto pr ON pr.id = i.produto_id " +
+            "WHERE p.data_pedido BETWEEN :inicio AND :fim AND p.ativo AND " + FILTRO_NAO_CANCELADO + " " +
+            "GROUP BY 1, 2, 3";
+
+    private static final String SQL_TOTAL_POR_DIA =
+            "SELECT data, SUM(quantidade) AS quantidade, SUM(receita) AS receita FROM resumo_vendas_diario " +
+            "WHERE data BETWEEN :inicio AND :fim GROUP BY data " +
+            "HAVING SUM(quantidade) <> 0 OR SUM(receita) <> 0 ORDER BY data";
+
+    private static final String SQL_TOTAL_POR_CATEGORIA =
+            "SELECT c.id, c.nome, t.quantidade, t.receita FROM (" +
+            "  SELECT categoria_id, SUM(quantidade) AS quantidade, SUM(receita) AS receita " +
+            "  FROM resumo_vendas_diario WHERE data BETWEEN :inicio AND :fim GROUP BY categoria_id " +
+            "  HAVING SUM(quantidade) <> 0 OR SUM(receita) <> 0) t " +
+            "JOIN categoria c ON c.id = t.categoria_id ORDER BY t.receita DESC, c.id";
+
+    private static final String SQL_TOTAL_POR_CLIENTE =
+            "SELECT c.id, c.nome, t.quantidade, t.receita FROM (" +
+            "  SELECT cliente_id, SUM(quantidade) AS quantidade, SUM(receita) AS receita " +
+            "  FROM resumo_vendas_diario WHERE data BETWEEN :inicio AND :fim GROUP BY cliente_id " +
+            "  HAVING SUM(quantidade) <> 0 OR SUM(receita) <> 0 " +
+            "  ORDER BY receita DESC, cliente_id LIMIT :limite) t " +
+            "JOIN cliente c ON c.id = t.cliente_id ORDER BY t.receita DESC, c.id";
+
+    /**
+     * Monta o comando que move as vendas resumidas de produtos para outra categoria.
+     * Compartilhado com a importação de produtos, que troca categorias em lote.
+     *
+     * @param mudancas Consulta com as colunas (produto, categoria antiga, categoria nova)
+     * @return Comando SQL que subtrai as vendas da categoria antiga e soma na nova
+     */
+    static String sqlTransferirCategorias(String mudancas) {
+        return "WITH mudanca (produto_id, antiga, nova) AS (" + mudancas + "), " +
+                "vendas AS (" +
+                "  SELECT p.data_pedido AS data, m.antiga, m.nova, p.cliente_id, " +
+                "    SUM(i.quantidade) AS quantidade, SUM(i.subtotal) AS receita " +
+                "  FROM mudanca m JOIN item_pedido i ON i.produto_id = m.produto_id " +
+                "  JOIN pedido p ON p.id = i.pedido_id " +
+                "  WHERE p.ativo AND " + FILTRO_NAO_CANCELADO + " " +
+                "  GROUP BY p.data_pedido, m.antiga, m.nova, p.cliente_id) " +
+                SQL_UPSERT +
+                "SELECT data, categoria_id, cliente_id, SUM(quantidade), SUM(receita) FROM (" +
+                "  SELECT data, antiga AS categoria_id, cliente_id, -quantidade AS quantidade, -receita AS receita FROM vendas " +
+                "  UNION ALL SELECT data, nova, cliente_id, quantidade, receita FROM vendas) t " +
+                "GROUP BY 1, 2, 3 ORDER BY 1, 2, 3" + SQL_SOMAR_EXISTENTE;
+    }
+
+    /**
+     * Comando nativo que grava só no resumo; sem declarar a tabela afetada, o Hibernate
+     * invalidaria todas as regiões do cache de segundo nível ao executá-lo.
+     */
+    private static Query comando(EntityManager em, String sql) {
+        return em.createNativeQuery(sql).unwrap(NativeQuery.class).addSynchronizedQuerySpace("resumo_vendas_diario");
+    }
+
+    @Override
+    public void aplicarPedidos(Collection<Long> pedidoIds, int sinal) throws DAOException {
+        if (pedidoIds == null || pedidoIds.isEmpty()) {
+            return;
+        }
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            JPAUtil.beginTransaction(em);
+            // O delta é calculado no banco: itens alterados na unidade de trabalho precisam estar gravados
+            em.flush();
+            for (List<Long> lote : GenericDAOImpl.particionar(pedidoIds, GenericDAOImpl.TAMANHO_LOTE_IN)) {
+                comando(em, SQL_APLICAR_PEDIDOS)
+                        .setParameter("sinal", sinal)
+                        .setParameter("ids", lote)
+                        .executeUpdate();
+            }
+            JPAUtil.commit(em);
+        } catch (Exception e) {
+            JPAUtil.rollback(em);
+            throw new DAOException("Erro ao atualizar o resumo de vendas: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public void transferirCategoria(Long produtoId, Long categoriaId) throws DAOException {
+        if (produtoId == null || categoriaId == null) {
+            return;
+        }
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            JPAUtil.beginTransaction(em);
+            em.flush();
+            comando(em, sqlTransferirCategorias(SQL_MUDANCA_PRODUTO))
+                    .setParameter("produto", produtoId)
+                    .setParameter("categoria", categoriaId)
+                    .executeUpdate();
+            JPAUtil.commit(em);
+        } catch (Exception e) {
+            JPAUtil.rollback(em);
+            throw new DAOException("Erro ao transferir vendas do produto " + produtoId + ": " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public long reconstruir(LocalDate inicio, LocalDate fim) throws DAOException {
+        long linhas = 0;
+        for (LocalDate mes = inicio.withDayOfMonth(1); !mes.isAfter(fim); mes = mes.plusMonths(1)) {
+            LocalDate de = mes.isBefore(inicio) ? inicio : mes;
+            LocalDate ultimoDia = mes.plusMonths(1).minusDays(1);
+            LocalDate ate = ultimoDia.isAfter(fim) ? fim : ultimoDia;
+            linhas += reconstruirPeriodo(de, ate);
+        }
+        return linhas;
+    }
+
+    private long reconstruirPeriodo(LocalDate inicio, LocalDate fim) throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            JPAUtil.beginTransaction(em);
+            // Pedidos gravados durante o recálculo esperam o bloqueio e aplicam o delta depois
+            comando(em, SQL_BLOQUEAR).executeUpdate();
+            comando(em, SQL_LIMPAR_PERIODO)
+                    .setParameter("inicio", Date.valueOf(inicio))
+                    .setParameter("fim", Date.valueOf(fim))
+                    .executeUpdate();
+            int linhas = comando(em, SQL_RECALCULAR_PERIODO)
+                    .setParameter("inicio", Date.valueOf(inicio))
+                    .setParameter("fim", Date.valueOf(fim))
+                    .executeUpdate();
+            JPAUtil.commit(em);
+            return linhas;
+        } catch (Exception e) {
+            JPAUtil.rollback(em);
+            throw new DAOException("Erro ao reconstruir o resumo de vendas de " + inicio + " a " + fim + ": "
+                    + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public boolean isVazio() throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            return em.createNativeQuery("SELECT 1 FROM resumo_vendas_diario LIMIT 1").getResultList().isEmpty();
+        } catch (Exception e) {
+            throw new DAOException("Erro ao consultar o resumo de vendas: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public LocalDate[] findPeriodoPedidos() throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            Object[] linha = (Object[]) em.createQuery(
+                    "SELECT MIN(p.dataPedido), MAX(p.dataPedido) FROM Pedido p").getSingleResult();
+            if (linha[0] == null) {
+                return null;
+            }
+            return new LocalDate[] {(LocalDate) linha[0], (LocalDate) linha[1]};
+        } catch (Exception e) {
+            throw new DAOException("Erro ao consultar o período dos pedidos: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<TotalVendasDTO> totalizarPorDia(LocalDate inicio, LocalDate fim) throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManagerLeitura();
+            List<Object[]> linhas = em.createNativeQuery(SQL_TOTAL_POR_DIA)
+                    .setParameter("inicio", Date.valueOf(inicio))
+                    .setParameter("fim", Date.valueOf(fim))
+                    .getResultList();
+            List<TotalVendasDTO> totais = new ArrayList<>(linhas.size());
+            for (Object[] linha : linhas) {
+                totais.add(new TotalVendasDTO(((Date) linha[0]).toLocalDate(), null, null,
+                        ((Number) linha[1]).longValue(), (BigDecimal) linha[2]));
+            }
+            return totais;
+        } catch (Exception e) {
+            throw new DAOException("Erro ao totalizar vendas por dia: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public List<TotalVendasDTO> totalizarPorCategoria(LocalDate inicio, LocalDate fim) throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManagerLeitura();
+            return totaisPorGrupo(em.createNativeQuery(SQL_TOTAL_POR_CATEGORIA)
+                    .setParameter("inicio", Date.valueOf(inicio))
+                    .setParameter("fim", Date.valueOf(fim)));
+        } catch (Exception e) {
+            throw new DAOException("Erro ao totalizar vendas por categoria: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @Override
+    public List<TotalVendasDTO> totalizarPorCliente(LocalDate inicio, LocalDate fim, int limite) throws DAOException {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManagerLeitura();
+            return totaisPorGrupo(em.createNativeQuery(SQL_TOTAL_POR_CLIENTE)
+                    .setParameter("inicio", Date.valueOf(inicio))
+                    .setParameter("fim", Date.valueOf(fim))
+                    .setParameter("limite", limite));
+        } catch (Exception e) {
+            throw new DAOException("Erro ao totalizar vendas por cliente: " + e.getMessage(), e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<TotalVendasDTO> totaisPorGrupo(Query query) {
+        List<Object[]> linhas = query.getResultList();
+        List<TotalVendasDTO> totais = new ArrayList<>(linhas.size());
+        for (Object[] linha : linhas) {
+            totais.add(new TotalVendasDTO(null, ((Number) linha[0]).longValue(), (String) linha[1],
+                    ((Number) linha[2]).longValue(), (BigDecimal) linha[3]));
+        }
+        return totais;
+    }
+}
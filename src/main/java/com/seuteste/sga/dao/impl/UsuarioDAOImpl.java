@@ -1,6 +1,8 @@
 package com.seuteste.sga.dao.impl;
 
 import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.Especificacao;
+import com.seuteste.sga.dao.Ordenacao;
 import com.seuteste.sga.dao.UsuarioDAO;
 import com.seuteste.sga.model.Usuario;
 import com.seuteste.sga.util.JPAUtil;
@@ -8,7 +10,6 @@ import com.seuteste.sga.util.JPAUtil;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.TypedQuery;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -121,43 +122,10 @@ public class UsuarioDAOImpl extends GenericDAOImpl<Usuario, Long> implements Usu
 
     @Override
     public List<Usuario> findWithFilters(String nome, String email) throws DAOException {
-        EntityManager em = null;
-        try {
-            em = JPAUtil.getEntityManager();
-            
-            StringBuilder jpql = new StringBuilder("SELECT u FROM Usuario u WHERE 1=1");
-            List<String> conditions = new ArrayList<>();
-            
-            if (nome != null && !nome.trim().isEmpty()) {
-                conditions.add("LOWER(u.nome) LIKE LOWER(:nome)");
-            }
-            
-            if (email != null && !email.trim().isEmpty()) {
-                conditions.add("LOWER(u.email) LIKE LOWER(:email)");
-            }
-            
-            for (String condition : conditions) {
-                jpql.append(" AND ").append(condition);
-            }
-            
-            jpql.append(" ORDER BY u.nome ASC");
-            
-            TypedQuery<Usuario> query = em.createQuery(jpql.toString(), Usuario.class);
-            
-            if (nome != null && !nome.trim().isEmpty()) {
-                query.setParameter("nome", "%" + nome.trim() + "%");
-            }
-            
-            if (email != null && !email.trim().isEmpty()) {
-                query.setParameter("email", "%" + email.trim() + "%");
-            }
-            
-            return query.getResultList();
-        } catch (Exception e) {
-            throw new DAOException("Erro ao buscar usuários com filtros: " + e.getMessage(), e);
-        } finally {
-            JPAUtil.closeEntityManager(em);
-        }
+        Especificacao especificacao = Especificacao.nova()
+                .contem("nome", nome)
+                .contem("email", email);
+        return findAllNaReplica(especificacao, Ordenacao.asc("nome"));
     }
 
     @Override
@@ -0,0 +1,82 @@
+package com.seuteste.sga.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Alerta gerado quando o estoque de um produto cruza o estoque mínimo de reposição.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class AlertaEstoqueDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Tipos de cruzamento do estoque mínimo.
+     */
+    public enum Tipo {
+        /** O estoque chegou ao mínimo ou ficou abaixo dele. */
+        BAIXO,
+        /** O estoque chegou a zero. */
+        ESGOTADO,
+        /** O estoque voltou a ficar acima do mínimo (ou o produto foi inativado). */
+        NORMALIZADO
+    }
+
+    private final Tipo tipo;
+    private final Long produtoId;
+    private final String nome;
+    private final int quantidadeEstoque;
+    private final int estoqueMinimo;
+    private final LocalDateTime momento;
+
+    public AlertaEstoqueDTO(Tipo tipo, Long produtoId, String nome, int quantidadeEstoque, int estoqueMinimo) {
+        this.tipo = tipo;
+        this.produtoId = produtoId;
+        this.nome = nome;
+        this.quantidadeEstoque = quantidadeEstoque;
+        this.estoqueMinimo = estoqueMinimo;
+        this.momento = LocalDateTime.now();
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public Long getProdutoId() {
+        return produtoId;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public int getQuantidadeEstoque() {
+        return quantidadeEstoque;
+    }
+
+    /**
+     * @return Estoque mínimo efetivo (o do produto ou o padrão)
+     */
+    public int getEstoqueMinimo() {
+        return estoqueMinimo;
+    }
+
+    public LocalDateTime getMomento() {
+        return momento;
+    }
+
+    @Override
+    public String toString() {
+        return "AlertaEstoqueDTO{" +
+                "tipo=" + tipo +
+                ", produtoId=" + produtoId +
+                ", nome='" + nome + '\'' +
+                ", quantidadeEstoque=" + quantidadeEstoque +
+                ", estoqueMinimo=" + estoqueMinimo +
+                ", momento=" + momento +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.seuteste.sga.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Projeção leve de uma entidade para listas de seleção (id e nome).
+ * Preenchida diretamente pelas consultas com expressão de construtor, sem carregar a entidade.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class OpcaoDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String nome;
+
+    public OpcaoDTO(Long id, String nome) {
+        this.id = id;
+        this.nome = nome;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OpcaoDTO opcao = (OpcaoDTO) o;
+        return Objects.equals(id, opcao.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "OpcaoDTO{" +
+                "id=" + id +
+                ", nome='" + nome + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,56 @@
+package com.seuteste.sga.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Linha válida de um arquivo de importação de produtos, já com a categoria resolvida.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class ProdutoImportacaoDTO {
+
+    private final int linha;
+    private final String nome;
+    private final String descricao;
+    private final BigDecimal preco;
+    private final int quantidadeEstoque;
+    private final long categoriaId;
+
+    public ProdutoImportacaoDTO(int linha, String nome, String descricao, BigDecimal preco,
+                                int quantidadeEstoque, long categoriaId) {
+        this.linha = linha;
+        this.nome = nome;
+        this.descricao = descricao;
+        this.preco = preco;
+        this.quantidadeEstoque = quantidadeEstoque;
+        this.categoriaId = categoriaId;
+    }
+
+    /**
+     * @return Número da linha no arquivo (o cabeçalho é a linha 1)
+     */
+    public int getLinha() {
+        return linha;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public BigDecimal getPreco() {
+        return preco;
+    }
+
+    public int getQuantidadeEstoque() {
+        return quantidadeEstoque;
+    }
+
+    public long getCategoriaId() {
+        return categoriaId;
+    }
+}
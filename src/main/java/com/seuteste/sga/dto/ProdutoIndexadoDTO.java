@@ -0,0 +1,39 @@
+package com.seuteste.sga.dto;
+
+/**
+ * Projeção dos campos de um produto usados pelo índice de busca do catálogo
+ * (nome, descrição e nome da categoria), sem carregar a entidade.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class ProdutoIndexadoDTO {
+
+    private final Long id;
+    private final String nome;
+    private final String descricao;
+    private final String categoriaNome;
+
+    public ProdutoIndexadoDTO(Long id, String nome, String descricao, String categoriaNome) {
+        this.id = id;
+        this.nome = nome;
+        this.descricao = descricao;
+        this.categoriaNome = categoriaNome;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public String getCategoriaNome() {
+        return categoriaNome;
+    }
+}
@@ -0,0 +1,128 @@
+package com.seuteste.sga.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Resultado de uma importação em lote: totais e relatório de erros por linha.
+ * Para não crescer com arquivos muito ruins, o relatório guarda só os primeiros
+ * {@link #LIMITE_ERROS_DETALHADOS} erros; o total de linhas rejeitadas é sempre exato.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class ResultadoImportacao implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Quantidade máxima de erros detalhados no relatório. */
+    public static final int LIMITE_ERROS_DETALHADOS = 1000;
+
+    /**
+     * Erro de uma linha do arquivo.
+     */
+    public static class ErroLinha implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int linha;
+        private final String mensagem;
+
+        public ErroLinha(int linha, String mensagem) {
+            this.linha = linha;
+            this.mensagem = mensagem;
+        }
+
+        public int getLinha() {
+            return linha;
+        }
+
+        public String getMensagem() {
+            return mensagem;
+        }
+
+        @Override
+        public String toString() {
+            return "Linha " + linha + ": " + mensagem;
+        }
+    }
+
+    private long linhasLidas;
+    private long linhasRejeitadas;
+    private long inseridos;
+    private long atualizados;
+    private long duracaoMillis;
+    private final List<ErroLinha> erros = new ArrayList<>();
+
+    /**
+     * Registra uma linha rejeitada.
+     * 
+     * @param linha Número da linha no arquivo
+     * @param mensagem Motivo da rejeição
+     */
+    public void adicionarErro(int linha, String mensagem) {
+        linhasRejeitadas++;
+        if (erros.size() < LIMITE_ERROS_DETALHADOS) {
+            erros.add(new ErroLinha(linha, mensagem));
+        }
+    }
+
+    public long getLinhasLidas() {
+        return linhasLidas;
+    }
+
+    public void setLinhasLidas(long linhasLidas) {
+        this.linhasLidas = linhasLidas;
+    }
+
+    public long getLinhasRejeitadas() {
+        return linhasRejeitadas;
+    }
+
+    public long getInseridos() {
+        return inseridos;
+    }
+
+    public void setInseridos(long inseridos) {
+        this.inseridos = inseridos;
+    }
+
+    public long getAtualizados() {
+        return atualizados;
+    }
+
+    public void setAtualizados(long atualizados) {
+        this.atualizados = atualizados;
+    }
+
+    public long getDuracaoMillis() {
+        return duracaoMillis;
+    }
+
+    public void setDuracaoMillis(long duracaoMillis) {
+        this.duracaoMillis = duracaoMillis;
+    }
+
+    /**
+     * @return Erros por linha, em ordem de linha (no máximo {@link #LIMITE_ERROS_DETALHADOS})
+     */
+    public List<ErroLinha> getErros() {
+        // Os erros de validação e os de gravação são registrados em etapas diferentes
+        erros.sort(Comparator.comparingInt(ErroLinha::getLinha));
+        return Collections.unmodifiableList(erros);
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoImportacao{" +
+                "linhasLidas=" + linhasLidas +
+                ", linhasRejeitadas=" + linhasRejeitadas +
+                ", inseridos=" + inseridos +
+                ", atualizados=" + atualizados +
+                ", duracaoMillis=" + duracaoMillis +
+                '}';
+    }
+}
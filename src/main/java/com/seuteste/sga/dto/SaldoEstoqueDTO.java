@@ -0,0 +1,63 @@
+package com.seuteste.sga.dto;
+
+import java.io.Serializable;
+
+/**
+ * Saldo de estoque de um produto com o estoque mínimo de reposição, lido sem carregar a
+ * entidade. É o que o motor de alertas de estoque guarda para cada produto em falta.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public class SaldoEstoqueDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String nome;
+    private final int quantidadeEstoque;
+    private final Integer estoqueMinimo;
+    private final boolean ativo;
+
+    public SaldoEstoqueDTO(Long id, String nome, Integer quantidadeEstoque, Integer estoqueMinimo, Boolean ativo) {
+        this.id = id;
+        this.nome = nome;
+        this.quantidadeEstoque = quantidadeEstoque != null ? quantidadeEstoque : 0;
+        this.estoqueMinimo = estoqueMinimo;
+        this.ativo = Boolean.TRUE.equals(ativo);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public int getQuantidadeEstoque() {
+        return quantidadeEstoque;
+    }
+
+    /**
+     * @return Estoque mínimo do produto (null se o produto usa o padrão)
+     */
+    public Integer getEstoqueMinimo() {
+        return estoqueMinimo;
+    }
+
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    @Override
+    public String toString() {
+        return "SaldoEstoqueDTO{" +
+                "id=" + id +
+                ", nome='" + nome + '\'' +
+                ", quantidadeEstoque=" + quantidadeEstoque +
+                ", estoqueMinimo=" + estoqueMinimo +
+                ", ativo=" + ativo +
+                '}';
+    }
+}
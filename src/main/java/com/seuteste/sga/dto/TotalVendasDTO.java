@@ -0,0 +1,69 @@
+package com.seuteste.sga.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Total de vendas de um grupo do relatório: um dia, uma categoria ou um cliente.
+ * Nos totais por dia, id e nome são nulos; nos demais, a data é nula.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public class TotalVendasDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LocalDate data;
+    private final Long id;
+    private final String nome;
+    private final long quantidade;
+    private final BigDecimal receita;
+
+    public TotalVendasDTO(LocalDate data, Long id, String nome, long quantidade, BigDecimal receita) {
+        this.data = data;
+        this.id = id;
+        this.nome = nome;
+        this.quantidade = quantidade;
+        this.receita = receita;
+    }
+
+    public LocalDate getData() {
+        return data;
+    }
+
+    /**
+     * @return ID da categoria ou do cliente
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return Nome da categoria ou do cliente
+     */
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * @return Quantidade de itens vendidos
+     */
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    public BigDecimal getReceita() {
+        return receita;
+    }
+
+    @Override
+    public String toString() {
+        return "TotalVendasDTO{" +
+                (data != null ? "data=" + data : "id=" + id + ", nome='" + nome + '\'') +
+                ", quantidade=" + quantidade +
+                ", receita=" + receita +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.seuteste.sga.filter;
+
+import com.seuteste.sga.util.JPAUtil;
+
+import javax.servlet.*;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+
+/**
+ * Filtro que leva para cada requisição o momento da última escrita da sessão do usuário.
+ * Logo depois de gravar algo, as leituras que poderiam ir para a réplica continuam no
+ * banco principal por alguns segundos (ver {@link JPAUtil#getEntityManagerLeitura()}),
+ * e o usuário não vê a tela sem o que acabou de salvar por causa do atraso da réplica.
+ */
+@WebFilter(urlPatterns = {"*.xhtml", "/exportar/*"})
+public class AderenciaLeituraFilter implements Filter {
+
+    private static final String ATRIBUTO_ULTIMA_ESCRITA = "sga.ultimaEscrita";
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        // Inicialização do filtro
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpSession sessao = httpRequest.getSession(false);
+        Long anterior = sessao != null ? (Long) sessao.getAttribute(ATRIBUTO_ULTIMA_ESCRITA) : null;
+
+        JPAUtil.iniciarAderencia(anterior);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Long ultimaEscrita = JPAUtil.encerrarAderencia();
+            if (ultimaEscrita != null && !ultimaEscrita.equals(anterior)) {
+                // A sessão pode ter sido criada ou invalidada durante a requisição (login/logout)
+                sessao = httpRequest.getSession(false);
+                if (sessao != null) {
+                    try {
+                        sessao.setAttribute(ATRIBUTO_ULTIMA_ESCRITA, ultimaEscrita);
+                    } catch (IllegalStateException e) {
+                        // Sessão invalidada: não há mais a quem associar a escrita
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // Finalização do filtro
+    }
+}
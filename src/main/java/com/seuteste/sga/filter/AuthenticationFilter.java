@@ -16,7 +16,7 @@ import java.util.List;
  * Filtro para controle de autenticação e autorização de usuários.
  * Verifica se o usuário está logado e tem permissão para acessar a página.
  */
-@WebFilter(urlPatterns = {"*.xhtml"})
+@WebFilter(urlPatterns = {"*.xhtml", "/exportar/*"})
 public class AuthenticationFilter implements Filter {
 
     // Páginas que não precisam de autenticação
@@ -0,0 +1,23 @@
+package com.seuteste.sga.interceptor;
+
+import javax.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca métodos (ou classes) de serviço que devem executar em uma única unidade de trabalho:
+ * todas as chamadas aos DAOs compartilham o mesmo EntityManager e a mesma transação,
+ * confirmada ao final do método ou desfeita se ele lançar exceção.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Transacional {
+}
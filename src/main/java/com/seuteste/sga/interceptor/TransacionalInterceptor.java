@@ -0,0 +1,27 @@
+package com.seuteste.sga.interceptor;
+
+import com.seuteste.sga.util.JPAUtil;
+
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import java.io.Serializable;
+
+/**
+ * Interceptor que abre uma unidade de trabalho do {@link JPAUtil} em torno dos métodos
+ * anotados com {@link Transacional}. Chamadas aninhadas participam da unidade já existente.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@Transacional
+@Interceptor
+public class TransacionalInterceptor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @AroundInvoke
+    public Object gerenciarTransacao(InvocationContext contexto) throws Exception {
+        return JPAUtil.executarEmTransacao(contexto::proceed);
+    }
+}
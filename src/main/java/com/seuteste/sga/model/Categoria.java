@@ -1,5 +1,9 @@
 package com.seuteste.sga.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
@@ -14,13 +18,16 @@ import java.util.Objects;
  * @version 1.0
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "categoria")
 public class Categoria implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categoria_seq")
+    @SequenceGenerator(name = "categoria_seq", sequenceName = "categoria_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "O nome da categoria é obrigatório")
@@ -31,6 +38,11 @@ public class Categoria implements Serializable {
     @Column(name = "ativo", nullable = false)
     private Boolean ativo = true;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    @ColumnDefault("0")
+    private Long versao;
+
     @OneToMany(mappedBy = "categoria", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Produto> produtos;
 
@@ -75,6 +87,14 @@ public class Categoria implements Serializable {
         this.ativo = ativo;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     // Métodos equals, hashCode e toString
     @Override
     public boolean equals(Object o) {
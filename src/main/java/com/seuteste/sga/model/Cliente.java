@@ -1,5 +1,9 @@
 package com.seuteste.sga.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import javax.persistence.*;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -16,13 +20,16 @@ import java.util.Objects;
  * @version 1.0
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "cliente")
 public class Cliente implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cliente_seq")
+    @SequenceGenerator(name = "cliente_seq", sequenceName = "cliente_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "O nome do cliente é obrigatório")
@@ -50,6 +57,11 @@ public class Cliente implements Serializable {
     @Column(name = "ativo", nullable = false)
     private Boolean ativo = true;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    @ColumnDefault("0")
+    private Long versao;
+
     @OneToMany(mappedBy = "cliente", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Pedido> pedidos;
 
@@ -131,6 +143,14 @@ public class Cliente implements Serializable {
         this.ativo = ativo;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     // Métodos equals, hashCode e toString
     @Override
     public boolean equals(Object o) {
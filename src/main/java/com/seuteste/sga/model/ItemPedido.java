@@ -20,7 +20,8 @@ public class ItemPedido implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_pedido_seq")
+    @SequenceGenerator(name = "item_pedido_seq", sequenceName = "item_pedido_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "O pedido é obrigatório")
@@ -29,7 +30,7 @@ public class ItemPedido implements Serializable {
     private Pedido pedido;
 
     @NotNull(message = "O produto é obrigatório")
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "produto_id", nullable = false)
     private Produto produto;
 
@@ -139,7 +140,7 @@ public class ItemPedido implements Serializable {
     public String toString() {
         return "ItemPedido{" +
                 "id=" + id +
-                ", produto=" + (produto != null ? produto.getNome() : "null") +
+                ", produto=" + (produto != null && Persistence.getPersistenceUtil().isLoaded(produto) ? produto.getNome() : "null") +
                 ", quantidade=" + quantidade +
                 ", precoUnitario=" + precoUnitario +
                 ", subtotal=" + subtotal +
@@ -1,5 +1,7 @@
 package com.seuteste.sga.model;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -19,16 +21,46 @@ import java.util.Objects;
  */
 @Entity
 @Table(name = "pedido")
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = Pedido.GRAFO_LISTAGEM,
+            attributeNodes = @NamedAttributeNode("cliente")),
+    @NamedEntityGraph(name = Pedido.GRAFO_DETALHE,
+            attributeNodes = {
+                @NamedAttributeNode("cliente"),
+                @NamedAttributeNode(value = "itens", subgraph = "itens")
+            },
+            subgraphs = @NamedSubgraph(name = "itens", attributeNodes = @NamedAttributeNode("produto"))),
+    @NamedEntityGraph(name = Pedido.GRAFO_EDICAO,
+            attributeNodes = {
+                @NamedAttributeNode("cliente"),
+                @NamedAttributeNode(value = "itens", subgraph = "itens")
+            },
+            subgraphs = {
+                @NamedSubgraph(name = "itens", attributeNodes = @NamedAttributeNode(value = "produto", subgraph = "produto")),
+                @NamedSubgraph(name = "produto", attributeNodes = @NamedAttributeNode("categoria"))
+            })
+})
 public class Pedido implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /** Linhas da listagem: pedido e cliente. */
+    public static final String GRAFO_LISTAGEM = "Pedido.listagem";
+    /** Diálogo de detalhes: pedido, cliente, itens e produtos. */
+    public static final String GRAFO_DETALHE = "Pedido.detalhe";
+    /** Edição: como o detalhe, incluindo a categoria de cada produto. */
+    public static final String GRAFO_EDICAO = "Pedido.edicao";
+
+    /** Status de pedido cancelado: não entra nos totais de vendas. */
+    public static final String STATUS_CANCELADO = "Cancelado";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedido_seq")
+    @SequenceGenerator(name = "pedido_seq", sequenceName = "pedido_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "O cliente é obrigatório")
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cliente_id", nullable = false)
     private Cliente cliente;
 
@@ -47,6 +79,11 @@ public class Pedido implements Serializable {
     @Column(name = "ativo", nullable = false)
     private Boolean ativo = true;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    @ColumnDefault("0")
+    private Long versao;
+
     @OneToMany(mappedBy = "pedido", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<ItemPedido> itens;
 
@@ -120,6 +157,14 @@ public class Pedido implements Serializable {
         this.ativo = ativo;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     // Métodos de negócio
     public void adicionarItem(ItemPedido item) {
         if (item != null) {
@@ -161,7 +206,7 @@ public class Pedido implements Serializable {
     public String toString() {
         return "Pedido{" +
                 "id=" + id +
-                ", cliente=" + (cliente != null ? cliente.getNome() : "null") +
+                ", cliente=" + (cliente != null && Persistence.getPersistenceUtil().isLoaded(cliente) ? cliente.getNome() : "null") +
                 ", dataPedido=" + dataPedido +
                 ", status=\'" + status + '\'' +
                 ", valorTotal=" + valorTotal +
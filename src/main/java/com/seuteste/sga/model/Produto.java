@@ -1,5 +1,9 @@
 package com.seuteste.sga.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import javax.persistence.*;
 import javax.validation.constraints.*;
 import java.io.Serializable;
@@ -14,13 +18,20 @@ import java.util.Objects;
  * @version 1.0
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "produto")
+@NamedEntityGraph(name = Produto.GRAFO_COM_CATEGORIA, attributeNodes = @NamedAttributeNode("categoria"))
 public class Produto implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /** Produto com a categoria, para telas que exibem o nome da categoria. */
+    public static final String GRAFO_COM_CATEGORIA = "Produto.comCategoria";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produto_seq")
+    @SequenceGenerator(name = "produto_seq", sequenceName = "produto_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "O nome do produto é obrigatório")
@@ -43,8 +54,13 @@ public class Produto implements Serializable {
     @Column(name = "quantidade_estoque", nullable = false)
     private Integer quantidadeEstoque;
 
+    /** Estoque de reposição: no mínimo ou abaixo dele, o produto gera alerta (nulo usa o padrão). */
+    @Min(value = 0, message = "O estoque mínimo não pode ser negativo")
+    @Column(name = "estoque_minimo")
+    private Integer estoqueMinimo;
+
     @NotNull(message = "A categoria é obrigatória")
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "categoria_id", nullable = false)
     private Categoria categoria;
 
@@ -54,6 +70,11 @@ public class Produto implements Serializable {
     @Column(name = "ativo", nullable = false)
     private Boolean ativo = true;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    @ColumnDefault("0")
+    private Long versao;
+
     // Construtores
     public Produto() {
         this.dataCadastro = LocalDate.now();
@@ -110,6 +131,14 @@ public class Produto implements Serializable {
         this.quantidadeEstoque = quantidadeEstoque;
     }
 
+    public Integer getEstoqueMinimo() {
+        return estoqueMinimo;
+    }
+
+    public void setEstoqueMinimo(Integer estoqueMinimo) {
+        this.estoqueMinimo = estoqueMinimo;
+    }
+
     public Categoria getCategoria() {
         return categoria;
     }
@@ -134,6 +163,14 @@ public class Produto implements Serializable {
         this.ativo = ativo;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     // Métodos de negócio
     public boolean isEmEstoque() {
         return quantidadeEstoque != null && quantidadeEstoque > 0;
@@ -174,7 +211,7 @@ public class Produto implements Serializable {
                 ", nome='" + nome + '\'' +
                 ", preco=" + preco +
                 ", quantidadeEstoque=" + quantidadeEstoque +
-                ", categoria=" + (categoria != null ? categoria.getNome() : "null") +
+                ", categoria=" + (categoria != null && Persistence.getPersistenceUtil().isLoaded(categoria) ? categoria.getNome() : "null") +
                 ", dataCadastro=" + dataCadastro +
                 '}';
     }
@@ -1,5 +1,7 @@
 package com.seuteste.sga.model;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import javax.persistence.*;
 import javax.validation.constraints.*;
 import java.io.Serializable;
@@ -37,7 +39,8 @@ public class Usuario implements Serializable {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_seq")
+    @SequenceGenerator(name = "usuario_seq", sequenceName = "usuario_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "O nome é obrigatório")
@@ -67,6 +70,11 @@ public class Usuario implements Serializable {
     @Column(name = "ativo", nullable = false)
     private Boolean ativo = true;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    @ColumnDefault("0")
+    private Long versao;
+
     // Construtores
     public Usuario() {
         this.dataCadastro = LocalDate.now();
@@ -142,6 +150,14 @@ public class Usuario implements Serializable {
         this.ativo = ativo;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     // Métodos de negócio
     public String getPrimeiroNome() {
         if (nome != null && !nome.trim().isEmpty()) {
@@ -0,0 +1,286 @@
+package com.seuteste.sga.service;
+
+import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.ProdutoDAO;
+import com.seuteste.sga.dao.impl.ProdutoDAOImpl;
+import com.seuteste.sga.dto.AlertaEstoqueDTO;
+import com.seuteste.sga.dto.SaldoEstoqueDTO;
+import com.seuteste.sga.util.ConfigUtil;
+import com.seuteste.sga.util.JPAUtil;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Motor de alertas de reposição de estoque.
+ *
+ * Mantém em memória os produtos ativos com estoque no mínimo de reposição ou abaixo dele
+ * (o do produto ou ESTOQUE_MINIMO_PADRAO). Os serviços informam os produtos cujo estoque
+ * ou estoque mínimo mudou; depois da confirmação da transação, esses IDs entram numa lista
+ * de pendentes que a thread do motor relê pela chave, e cada cruzamento do mínimo gera um
+ * alerta na fila. A requisição só acrescenta os IDs e segue; vários pedidos confirmados
+ * juntos viram uma única releitura. Assim, a tela de estoque baixo lê só os produtos em
+ * falta, sem percorrer a tabela de produtos.
+ *
+ * Uma tarefa periódica (ALERTAS_ESTOQUE_RECONCILIACAO_SEGUNDOS) confere o conjunto com o
+ * banco, alcançando alterações feitas fora da aplicação.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@ApplicationScoped
+public class AlertasEstoque {
+
+    private static final Logger LOGGER = Logger.getLogger(AlertasEstoque.class.getName());
+
+    /** Alertas guardados na fila; acima disso os mais antigos são descartados. */
+    private static final int CAPACIDADE_FILA = 10_000;
+
+    /** Acima desta quantidade de produtos alterados, relê o conjunto inteiro de uma vez. */
+    private static final int LIMITE_VERIFICACAO_POR_ID = 10_000;
+
+    private static final Comparator<SaldoEstoqueDTO> MAIS_URGENTE_PRIMEIRO =
+            Comparator.comparingInt(SaldoEstoqueDTO::getQuantidadeEstoque)
+                    .thenComparing(SaldoEstoqueDTO::getNome, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
+    private final Map<Long, SaldoEstoqueDTO> emFalta = new ConcurrentHashMap<>();
+    private final BlockingQueue<AlertaEstoqueDTO> fila = new LinkedBlockingQueue<>(CAPACIDADE_FILA);
+
+    /** Produtos alterados por transações confirmadas, aguardando a releitura do saldo. */
+    private final Set<Long> pendentes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean releituraAgendada = new AtomicBoolean();
+
+    /**
+     * Serializa releituras e atualizações do conjunto, para que um saldo antigo não sobrescreva
+     * um novo (a thread do motor e a carga inicial pedida por uma tela).
+     */
+    private final Object trava = new Object();
+
+    private ProdutoDAO produtoDAO;
+    private volatile boolean carregado;
+    private volatile ScheduledExecutorService agendador;
+
+    public AlertasEstoque() {
+        this.produtoDAO = new ProdutoDAOImpl();
+    }
+
+    /**
+     * Carrega os produtos em falta na subida da aplicação e agenda a reconciliação periódica.
+     */
+    void iniciar(@Observes @Initialized(ApplicationScoped.class) Object evento) {
+        int intervalo = Math.max(1, ConfigUtil.getAlertasEstoqueReconciliacaoSegundos());
+        agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "sga-alertas-estoque");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(this::reconciliar, 0, intervalo, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+    }
+
+    /**
+     * Registra que o estoque ou o estoque mínimo dos produtos mudou. Quando a transação for
+     * confirmada, os saldos são relidos pela thread do motor; se ela for desfeita, nada acontece.
+     *
+     * @param produtoIds IDs dos produtos alterados
+     */
+    public void verificar(Collection<Long> produtoIds) {
+        if (produtoIds == null || produtoIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(produtoIds);
+        JPAUtil.aposConfirmacao(() -> {
+            pendentes.addAll(ids);
+            agendarReleitura();
+        });
+    }
+
+    /**
+     * Agenda uma releitura dos pendentes, a menos que já haja uma esperando a vez. Antes da
+     * subida terminar não há agendador; os pendentes ficam para a primeira releitura.
+     */
+    private void agendarReleitura() {
+        ScheduledExecutorService executor = agendador;
+        if (executor != null && releituraAgendada.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::relerPendentes);
+            } catch (RejectedExecutionException e) {
+                // Aplicação encerrando
+                releituraAgendada.set(false);
+            }
+        }
+    }
+
+    /**
+     * Relê o saldo dos produtos pendentes, na thread do motor.
+     */
+    private void relerPendentes() {
+        // Liberada antes de retirar os IDs: o que chegar depois agenda outra releitura
+        releituraAgendada.set(false);
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = pendentes.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+            it.remove();
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (ids.size() > LIMITE_VERIFICACAO_POR_ID) {
+            reconciliar();
+            return;
+        }
+        try {
+            synchronized (trava) {
+                if (carregado) {
+                    for (SaldoEstoqueDTO saldo : produtoDAO.findSaldosEstoque(ids)) {
+                        aplicar(saldo);
+                    }
+                }
+            }
+        } catch (DAOException e) {
+            // O conjunto é corrigido na próxima reconciliação
+            LOGGER.log(Level.WARNING, "Falha ao verificar o estoque dos produtos " + ids, e);
+        }
+    }
+
+    /**
+     * @return Produtos em falta, do menor para o maior estoque
+     * @throws ServiceException se o conjunto ainda não foi carregado e a leitura falhar
+     */
+    public List<SaldoEstoqueDTO> listarEmFalta() throws ServiceException {
+        carregar();
+        List<SaldoEstoqueDTO> produtos = new ArrayList<>(emFalta.values());
+        produtos.sort(MAIS_URGENTE_PRIMEIRO);
+        return produtos;
+    }
+
+    /**
+     * @return Quantidade de produtos em falta
+     * @throws ServiceException se o conjunto ainda não foi carregado e a leitura falhar
+     */
+    public int contarEmFalta() throws ServiceException {
+        carregar();
+        return emFalta.size();
+    }
+
+    /**
+     * Retira da fila os alertas mais antigos.
+     *
+     * @param maximo Quantidade máxima de alertas
+     * @return Alertas em ordem de ocorrência
+     */
+    public List<AlertaEstoqueDTO> retirarAlertas(int maximo) {
+        List<AlertaEstoqueDTO> alertas = new ArrayList<>();
+        fila.drainTo(alertas, maximo);
+        return alertas;
+    }
+
+    /**
+     * @param saldo Saldo do produto
+     * @return Estoque mínimo do produto, ou o padrão se ele não define o seu
+     */
+    public static int estoqueMinimo(SaldoEstoqueDTO saldo) {
+        return saldo.getEstoqueMinimo() != null ? saldo.getEstoqueMinimo() : ConfigUtil.getEstoqueMinimoPadrao();
+    }
+
+    /**
+     * Confere o conjunto com o banco. Na primeira carga não gera alertas; nas seguintes,
+     * gera os dos cruzamentos que aconteceram fora das operações registradas.
+     */
+    public void reconciliar() {
+        try {
+            recarregar();
+        } catch (DAOException e) {
+            LOGGER.log(Level.WARNING, "Falha ao reconciliar alertas de estoque", e);
+        }
+    }
+
+    private void carregar() throws ServiceException {
+        if (carregado) {
+            return;
+        }
+        // Só acontece antes da primeira reconciliação agendada terminar
+        try {
+            recarregar();
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao carregar produtos com estoque baixo: " + e.getMessage(), e);
+        }
+    }
+
+    private void recarregar() throws DAOException {
+        synchronized (trava) {
+            Map<Long, SaldoEstoqueDTO> banco = new HashMap<>();
+            for (SaldoEstoqueDTO saldo : produtoDAO.findSaldosAbaixoDoMinimo(ConfigUtil.getEstoqueMinimoPadrao())) {
+                banco.put(saldo.getId(), saldo);
+            }
+            if (!carregado) {
+                emFalta.putAll(banco);
+                carregado = true;
+                LOGGER.info("Alertas de estoque carregados: " + banco.size() + " produto(s) em falta");
+                return;
+            }
+            for (SaldoEstoqueDTO saldo : banco.values()) {
+                aplicar(saldo);
+            }
+            for (SaldoEstoqueDTO anterior : new ArrayList<>(emFalta.values())) {
+                if (!banco.containsKey(anterior.getId())) {
+                    emFalta.remove(anterior.getId());
+                    publicar(AlertaEstoqueDTO.Tipo.NORMALIZADO, anterior);
+                }
+            }
+        }
+    }
+
+    /**
+     * Atualiza o conjunto com o saldo atual do produto e publica o alerta do cruzamento, se houver.
+     */
+    private void aplicar(SaldoEstoqueDTO saldo) {
+        boolean emFaltaAgora = saldo.isAtivo() && saldo.getQuantidadeEstoque() <= estoqueMinimo(saldo);
+        SaldoEstoqueDTO anterior = emFaltaAgora ? emFalta.put(saldo.getId(), saldo) : emFalta.remove(saldo.getId());
+        if (emFaltaAgora) {
+            if (saldo.getQuantidadeEstoque() == 0 && (anterior == null || anterior.getQuantidadeEstoque() > 0)) {
+                publicar(AlertaEstoqueDTO.Tipo.ESGOTADO, saldo);
+            } else if (anterior == null) {
+                publicar(AlertaEstoqueDTO.Tipo.BAIXO, saldo);
+            }
+        } else if (anterior != null) {
+            publicar(AlertaEstoqueDTO.Tipo.NORMALIZADO, saldo);
+        }
+    }
+
+    private void publicar(AlertaEstoqueDTO.Tipo tipo, SaldoEstoqueDTO saldo) {
+        AlertaEstoqueDTO alerta = new AlertaEstoqueDTO(tipo, saldo.getId(), saldo.getNome(),
+                saldo.getQuantidadeEstoque(), estoqueMinimo(saldo));
+        // Fila cheia: o alerta mais antigo dá lugar ao novo
+        while (!fila.offer(alerta)) {
+            fila.poll();
+        }
+        LOGGER.fine("Alerta de estoque: " + alerta);
+    }
+}
@@ -1,11 +1,17 @@
 package com.seuteste.sga.service;
 
+import com.seuteste.sga.dao.ConflitoConcorrenciaException;
 import com.seuteste.sga.dao.DAOException;
 import com.seuteste.sga.dao.UsuarioDAO;
 import com.seuteste.sga.dao.impl.UsuarioDAOImpl;
+import com.seuteste.sga.interceptor.Transacional;
 import com.seuteste.sga.model.Usuario;
 import com.seuteste.sga.util.CriptografiaUtil;
 
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -15,12 +21,19 @@ import java.util.logging.Logger;
  * @author SGA Team
  * @version 1.0
  */
+@ApplicationScoped
 public class AutenticacaoService {
 
     private static final Logger LOGGER = Logger.getLogger(AutenticacaoService.class.getName());
 
     private UsuarioDAO usuarioDAO;
 
+    @Inject
+    private VerificadorSenhas verificadorSenhas;
+
+    /** Usuários com hash sendo refeito, para que logins seguidos não repitam o trabalho. */
+    private final Set<Long> rehashEmAndamento = ConcurrentHashMap.newKeySet();
+
     public AutenticacaoService() {
         this.usuarioDAO = new UsuarioDAOImpl();
     }
@@ -64,22 +77,28 @@ public class AutenticacaoService {
                 // Tentar comparação simples como fallback (APENAS para migração)
                 if (senhaLimpa.equals(usuario.getSenha())) {
                     LOGGER.warning("Senha encontrada em texto plano - RECRIAR HASH!");
+                    agendarRehash(usuario, senhaLimpa);
                     return usuario;
                 }
                 return null;
             }
 
-            // Verificar senha com BCrypt
-            boolean senhaCorreta = CriptografiaUtil.verificarSenha(senhaLimpa, usuario.getSenha());
+            // Verificar senha com BCrypt, no grupo de threads limitado para esse fim
+            boolean senhaCorreta = verificadorSenhas.verificar(senhaLimpa, usuario.getSenha());
             
             if (senhaCorreta) {
                 LOGGER.info("Autenticação bem-sucedida para usuário: " + usuario.getNome());
+                if (CriptografiaUtil.precisaRehash(usuario.getSenha())) {
+                    agendarRehash(usuario, senhaLimpa);
+                }
                 return usuario;
             } else {
                 LOGGER.warning("Senha incorreta para email: " + emailLimpo);
                 return null;
             }
 
+        } catch (ServiceException e) {
+            throw e;
         } catch (DAOException e) {
             LOGGER.log(Level.SEVERE, "Erro ao acessar dados durante autenticação", e);
             throw new ServiceException("Erro interno durante autenticação: " + e.getMessage(), e);
@@ -89,6 +108,45 @@ public class AutenticacaoService {
         }
     }
 
+    /**
+     * Refaz em segundo plano o hash de uma senha recém-verificada com o custo atual.
+     * O hash só é trocado se ainda for o que foi verificado, para não desfazer uma troca
+     * de senha feita nesse meio-tempo; se a fila de segundo plano estiver cheia, fica para o
+     * próximo login.
+     * 
+     * @param usuario Usuário autenticado
+     * @param senha Senha em texto plano, já conferida
+     */
+    private void agendarRehash(Usuario usuario, String senha) {
+        Long usuarioId = usuario.getId();
+        String hashVerificado = usuario.getSenha();
+        if (usuarioId == null || !rehashEmAndamento.add(usuarioId)) {
+            return;
+        }
+        boolean aceito = verificadorSenhas.executarEmSegundoPlano(() -> {
+            try {
+                String novoHash = CriptografiaUtil.criptografarSenha(senha);
+                Retentativa.emConflito("atualizar o hash da senha", () -> {
+                    Usuario atual = usuarioDAO.findById(usuarioId);
+                    if (atual != null && hashVerificado.equals(atual.getSenha())) {
+                        atual.setSenha(novoHash);
+                        usuarioDAO.update(atual);
+                        LOGGER.info("Hash da senha refeito com custo " + CriptografiaUtil.getRounds()
+                                + " para usuário: " + atual.getEmail());
+                    }
+                    return null;
+                });
+            } catch (ServiceException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Não foi possível refazer o hash da senha do usuário ID: " + usuarioId, e);
+            } finally {
+                rehashEmAndamento.remove(usuarioId);
+            }
+        });
+        if (!aceito) {
+            rehashEmAndamento.remove(usuarioId);
+        }
+    }
+
     /**
      * Registra um novo usuário no sistema.
      * 
@@ -96,6 +154,7 @@ public class AutenticacaoService {
      * @return O usuário registrado com senha criptografada
      * @throws ServiceException Em caso de erro no registro
      */
+    @Transacional
     public Usuario registrarUsuario(Usuario usuario) throws ServiceException {
         try {
             LOGGER.info("Iniciando registro de novo usuário: " + usuario.getEmail());
@@ -134,51 +193,71 @@ public class AutenticacaoService {
      * @throws ServiceException Em caso de erro na alteração
      */
     public void alterarSenha(Long usuarioId, String senhaAtual, String novaSenha) throws ServiceException {
-        try {
-            LOGGER.info("Iniciando alteração de senha para usuário ID: " + usuarioId);
-
-            // Validar parâmetros
-            if (usuarioId == null) {
-                throw new ServiceException("ID do usuário é obrigatório.");
-            }
+        LOGGER.info("Iniciando alteração de senha para usuário ID: " + usuarioId);
 
-            if (senhaAtual == null || senhaAtual.trim().isEmpty()) {
-                throw new ServiceException("Senha atual é obrigatória.");
-            }
-
-            if (novaSenha == null || novaSenha.trim().isEmpty()) {
-                throw new ServiceException("Nova senha é obrigatória.");
-            }
-
-            if (novaSenha.length() < 6) {
-                throw new ServiceException("Nova senha deve ter pelo menos 6 caracteres.");
-            }
-
-            // Buscar usuário
-            Usuario usuario = usuarioDAO.findById(usuarioId);
-            if (usuario == null) {
-                throw new ServiceException("Usuário não encontrado.");
-            }
+        // Validar parâmetros
+        if (usuarioId == null) {
+            throw new ServiceException("ID do usuário é obrigatório.");
+        }
 
-            // Verificar senha atual
-            boolean senhaAtualCorreta = CriptografiaUtil.verificarSenha(senhaAtual, usuario.getSenha());
-            if (!senhaAtualCorreta) {
-                throw new ServiceException("Senha atual incorreta.");
-            }
+        if (senhaAtual == null || senhaAtual.trim().isEmpty()) {
+            throw new ServiceException("Senha atual é obrigatória.");
+        }
 
-            // Criptografar nova senha
-            String novaSenhaCriptografada = CriptografiaUtil.criptografarSenha(novaSenha);
-            usuario.setSenha(novaSenhaCriptografada);
+        if (novaSenha == null || novaSenha.trim().isEmpty()) {
+            throw new ServiceException("Nova senha é obrigatória.");
+        }
 
-            // Atualizar usuário
-            usuarioDAO.update(usuario);
-            
-            LOGGER.info("Senha alterada com sucesso para usuário: " + usuario.getEmail());
+        if (novaSenha.length() < 6) {
+            throw new ServiceException("Nova senha deve ter pelo menos 6 caracteres.");
+        }
 
+        // Verificar senha atual uma só vez, fora da transação e das tentativas
+        Usuario encontrado;
+        try {
+            encontrado = usuarioDAO.findById(usuarioId);
         } catch (DAOException e) {
             LOGGER.log(Level.SEVERE, "Erro ao alterar senha", e);
             throw new ServiceException("Erro ao alterar senha: " + e.getMessage(), e);
         }
+        if (encontrado == null) {
+            throw new ServiceException("Usuário não encontrado.");
+        }
+        String hashVerificado = encontrado.getSenha();
+        if (!verificadorSenhas.verificar(senhaAtual, hashVerificado)) {
+            throw new ServiceException("Senha atual incorreta.");
+        }
+
+        // Criptografar nova senha uma só vez, fora das tentativas
+        String novaSenhaCriptografada = CriptografiaUtil.criptografarSenha(novaSenha);
+
+        // Em caso de conflito com outra gravação do usuário, relê e tenta de novo
+        Retentativa.emConflito("alterar senha", () -> {
+            try {
+                Usuario usuario = usuarioDAO.findById(usuarioId);
+                if (usuario == null) {
+                    throw new ServiceException("Usuário não encontrado.");
+                }
+
+                // A senha verificada acima precisa ser ainda a gravada (um rehash do login também a troca)
+                if (!hashVerificado.equals(usuario.getSenha())) {
+                    throw new ServiceException("A senha foi alterada nesse meio-tempo. Tente novamente.");
+                }
+
+                // Atualizar usuário
+                usuario.setSenha(novaSenhaCriptografada);
+                usuarioDAO.update(usuario);
+
+                LOGGER.info("Senha alterada com sucesso para usuário: " + usuario.getEmail());
+                return null;
+            } catch (DAOException e) {
+                if (ConflitoConcorrenciaException.isConflito(e)) {
+                    throw e;
+                }
+                LOGGER.log(Level.SEVERE, "Erro ao alterar senha", e);
+                throw new ServiceException("Erro ao alterar senha: " + e.getMessage(), e);
+            }
+        });
     }
 
     /**
@@ -189,41 +268,46 @@ public class AutenticacaoService {
      * @throws ServiceException Em caso de erro na redefinição
      */
     public void redefinirSenha(Long usuarioId, String novaSenha) throws ServiceException {
-        try {
-            LOGGER.info("Iniciando redefinição de senha para usuário ID: " + usuarioId);
+        LOGGER.info("Iniciando redefinição de senha para usuário ID: " + usuarioId);
 
-            // Validar parâmetros
-            if (usuarioId == null) {
-                throw new ServiceException("ID do usuário é obrigatório.");
-            }
+        // Validar parâmetros
+        if (usuarioId == null) {
+            throw new ServiceException("ID do usuário é obrigatório.");
+        }
 
-            if (novaSenha == null || novaSenha.trim().isEmpty()) {
-                throw new ServiceException("Nova senha é obrigatória.");
-            }
+        if (novaSenha == null || novaSenha.trim().isEmpty()) {
+            throw new ServiceException("Nova senha é obrigatória.");
+        }
 
-            if (novaSenha.length() < 6) {
-                throw new ServiceException("Nova senha deve ter pelo menos 6 caracteres.");
-            }
+        if (novaSenha.length() < 6) {
+            throw new ServiceException("Nova senha deve ter pelo menos 6 caracteres.");
+        }
 
-            // Buscar usuário
-            Usuario usuario = usuarioDAO.findById(usuarioId);
-            if (usuario == null) {
-                throw new ServiceException("Usuário não encontrado.");
-            }
+        // Criptografar nova senha uma só vez, fora das tentativas
+        String novaSenhaCriptografada = CriptografiaUtil.criptografarSenha(novaSenha);
 
-            // Criptografar nova senha
-            String novaSenhaCriptografada = CriptografiaUtil.criptografarSenha(novaSenha);
-            usuario.setSenha(novaSenhaCriptografada);
+        Retentativa.emConflito("redefinir senha", () -> {
+            try {
+                // Buscar usuário
+                Usuario usuario = usuarioDAO.findById(usuarioId);
+                if (usuario == null) {
+                    throw new ServiceException("Usuário não encontrado.");
+                }
 
-            // Atualizar usuário
-            usuarioDAO.update(usuario);
-            
-            LOGGER.info("Senha redefinida com sucesso para usuário: " + usuario.getEmail());
+                // Atualizar usuário
+                usuario.setSenha(novaSenhaCriptografada);
+                usuarioDAO.update(usuario);
 
-        } catch (DAOException e) {
-            LOGGER.log(Level.SEVERE, "Erro ao redefinir senha", e);
-            throw new ServiceException("Erro ao redefinir senha: " + e.getMessage(), e);
-        }
+                LOGGER.info("Senha redefinida com sucesso para usuário: " + usuario.getEmail());
+                return null;
+            } catch (DAOException e) {
+                if (ConflitoConcorrenciaException.isConflito(e)) {
+                    throw e;
+                }
+                LOGGER.log(Level.SEVERE, "Erro ao redefinir senha", e);
+                throw new ServiceException("Erro ao redefinir senha: " + e.getMessage(), e);
+            }
+        });
     }
 
     /**
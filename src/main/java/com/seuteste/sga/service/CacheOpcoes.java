@@ -0,0 +1,86 @@
+package com.seuteste.sga.service;
+
+import com.seuteste.sga.dto.OpcaoDTO;
+import com.seuteste.sga.util.JPAUtil;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache das listas de opções dos formulários (categorias e clientes),
+ * compartilhado por todos os usuários da aplicação.
+ * 
+ * Cada lista é carregada na primeira leitura e descartada quando um serviço grava
+ * na entidade correspondente, somente depois da confirmação da transação.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+@ApplicationScoped
+public class CacheOpcoes {
+
+    /**
+     * Listas de opções mantidas no cache.
+     */
+    public enum Lista {
+        CATEGORIAS,
+        CLIENTES
+    }
+
+    /**
+     * Carrega uma lista de opções do banco de dados.
+     */
+    public interface Carregador {
+        List<OpcaoDTO> carregar() throws ServiceException;
+    }
+
+    private final ConcurrentMap<Lista, List<OpcaoDTO>> listas = new ConcurrentHashMap<>();
+    private final Map<Lista, AtomicLong> versoes = new EnumMap<>(Lista.class);
+
+    public CacheOpcoes() {
+        for (Lista lista : Lista.values()) {
+            versoes.put(lista, new AtomicLong());
+        }
+    }
+
+    /**
+     * Obtém uma lista do cache, carregando-a se necessário.
+     * 
+     * @param lista Lista desejada
+     * @param carregador Consulta usada quando a lista não está no cache
+     * @return Lista de opções (não modificável)
+     * @throws ServiceException se o carregamento falhar
+     */
+    public List<OpcaoDTO> obter(Lista lista, Carregador carregador) throws ServiceException {
+        List<OpcaoDTO> opcoes = listas.get(lista);
+        if (opcoes != null) {
+            return opcoes;
+        }
+
+        AtomicLong versao = versoes.get(lista);
+        long versaoInicial = versao.get();
+        List<OpcaoDTO> carregadas = Collections.unmodifiableList(carregador.carregar());
+        // Só guarda se nenhuma gravação foi confirmada durante a carga; senão a lista já nasce velha
+        listas.compute(lista, (chave, atual) -> versao.get() == versaoInicial ? carregadas : atual);
+        return carregadas;
+    }
+
+    /**
+     * Descarta uma lista quando a transação em andamento for confirmada
+     * (ou imediatamente, fora de uma unidade de trabalho).
+     * 
+     * @param lista Lista alterada
+     */
+    public void invalidar(Lista lista) {
+        JPAUtil.aposConfirmacao(() -> {
+            versoes.get(lista).incrementAndGet();
+            listas.remove(lista);
+        });
+    }
+}
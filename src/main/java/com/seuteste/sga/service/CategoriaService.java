@@ -1,10 +1,17 @@
 package com.seuteste.sga.service;
 
 import com.seuteste.sga.dao.CategoriaDAO;
+import com.seuteste.sga.dao.CursorPagina;
 import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
 import com.seuteste.sga.dao.impl.CategoriaDAOImpl;
+import com.seuteste.sga.dto.OpcaoDTO;
+import com.seuteste.sga.interceptor.Transacional;
 import com.seuteste.sga.model.Categoria;
 
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import java.util.List;
 
 /**
@@ -14,10 +21,20 @@ import java.util.List;
  * @author SGA Team
  * @version 1.0
  */
+@ApplicationScoped
 public class CategoriaService {
 
     private CategoriaDAO categoriaDAO;
 
+    @Inject
+    private CacheOpcoes cacheOpcoes;
+
+    @Inject
+    private Contadores contadores;
+
+    @Inject
+    private IndiceCatalogo indiceCatalogo;
+
     public CategoriaService() {
         this.categoriaDAO = new CategoriaDAOImpl();
     }
@@ -29,6 +46,7 @@ public class CategoriaService {
      * @return Categoria salva
      * @throws ServiceException em caso de erro na operação
      */
+    @Transacional
     public Categoria salvar(Categoria categoria) throws ServiceException {
         try {
             validarCategoria(categoria);
@@ -38,7 +56,10 @@ public class CategoriaService {
                 throw new ServiceException("Já existe uma categoria com este nome.");
             }
             
-            return categoriaDAO.save(categoria);
+            Categoria salvo = categoriaDAO.save(categoria);
+            cacheOpcoes.invalidar(CacheOpcoes.Lista.CATEGORIAS);
+            contadores.registrarInclusao(Contadores.Entidade.CATEGORIAS, Boolean.TRUE.equals(salvo.getAtivo()));
+            return salvo;
         } catch (DAOException e) {
             throw new ServiceException("Erro ao salvar categoria: " + e.getMessage(), e);
         }
@@ -51,6 +72,7 @@ public class CategoriaService {
      * @return Categoria atualizada
      * @throws ServiceException em caso de erro na operação
      */
+    @Transacional
     public Categoria atualizar(Categoria categoria) throws ServiceException {
         try {
             validarCategoria(categoria);
@@ -65,7 +87,11 @@ public class CategoriaService {
                 throw new ServiceException("Já existe outra categoria com este nome.");
             }
             
-            return categoriaDAO.update(categoria);
+            Categoria atualizado = categoriaDAO.update(categoria);
+            cacheOpcoes.invalidar(CacheOpcoes.Lista.CATEGORIAS);
+            // O nome da categoria também é termo de busca dos seus produtos
+            indiceCatalogo.atualizarCategoria(atualizado.getId());
+            return atualizado;
         } catch (DAOException e) {
             throw new ServiceException("Erro ao atualizar categoria: " + e.getMessage(), e);
         }
@@ -77,6 +103,7 @@ public class CategoriaService {
      * @param id ID da categoria a ser inativada
      * @throws ServiceException em caso de erro na operação
      */
+    @Transacional
     public void inativarCategoria(Long id) throws ServiceException {
         try {
             // Verifica se a categoria existe
@@ -85,7 +112,10 @@ public class CategoriaService {
                 throw new ServiceException("Categoria não encontrada.");
             }
             
-            categoriaDAO.deactivate(id);
+            if (categoriaDAO.deactivate(id)) {
+                contadores.registrarAlteracaoAtivo(Contadores.Entidade.CATEGORIAS, 1, false);
+            }
+            cacheOpcoes.invalidar(CacheOpcoes.Lista.CATEGORIAS);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao inativar categoria: " + e.getMessage(), e);
         }
@@ -97,6 +127,7 @@ public class CategoriaService {
      * @param id ID da categoria a ser ativada
      * @throws ServiceException em caso de erro na operação
      */
+    @Transacional
     public void ativarCategoria(Long id) throws ServiceException {
         try {
             // Verifica se a categoria existe
@@ -105,7 +136,10 @@ public class CategoriaService {
                 throw new ServiceException("Categoria não encontrada.");
             }
             
-            categoriaDAO.activate(id);
+            if (categoriaDAO.activate(id)) {
+                contadores.registrarAlteracaoAtivo(Contadores.Entidade.CATEGORIAS, 1, true);
+            }
+            cacheOpcoes.invalidar(CacheOpcoes.Lista.CATEGORIAS);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao ativar categoria: " + e.getMessage(), e);
         }
@@ -143,6 +177,22 @@ public class CategoriaService {
         }
     }
 
+    /**
+     * Lista id e nome das categorias para listas de seleção, a partir do cache compartilhado.
+     * 
+     * @return Opções de categoria ordenadas por nome
+     * @throws ServiceException em caso de erro na operação
+     */
+    public List<OpcaoDTO> listarOpcoes() throws ServiceException {
+        return cacheOpcoes.obter(CacheOpcoes.Lista.CATEGORIAS, () -> {
+            try {
+                return categoriaDAO.findOpcoes();
+            } catch (DAOException e) {
+                throw new ServiceException("Erro ao listar opções de categorias: " + e.getMessage(), e);
+            }
+        });
+    }
+
     /**
      * Busca categorias por nome (busca parcial).
      * 
@@ -186,8 +236,41 @@ public class CategoriaService {
      * @throws ServiceException em caso de erro na operação
      */
     public long contarTodas() throws ServiceException {
+        // Totais mantidos em memória, sem consultar o banco
+        return contadores.getTotal(Contadores.Entidade.CATEGORIAS);
+    }
+
+    /**
+     * Lista uma página de categorias usando paginação por chave.
+     * 
+     * @param nome Nome ou parte do nome (null ou vazio para todas)
+     * @param cursor Posição de início da página
+     * @param tamanho Quantidade máxima de registros
+     * @param ordenacao Campo e direção da ordenação
+     * @return Página de categorias
+     * @throws ServiceException em caso de erro na operação
+     */
+    public Pagina<Categoria> listarPagina(String nome, CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws ServiceException {
+        try {
+            return categoriaDAO.findPageByNomeContaining(nome, cursor, tamanho, ordenacao);
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao listar página de categorias: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Conta categorias com os mesmos filtros de {@link #listarPagina}.
+     * 
+     * @param nome Nome ou parte do nome (null ou vazio para todas)
+     * @return Quantidade de categorias
+     * @throws ServiceException em caso de erro na operação
+     */
+    public long contarPorNome(String nome) throws ServiceException {
+        if (nome == null || nome.trim().isEmpty()) {
+            return contadores.getTotal(Contadores.Entidade.CATEGORIAS);
+        }
         try {
-            return categoriaDAO.count();
+            return categoriaDAO.countByNomeContaining(nome);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao contar categorias: " + e.getMessage(), e);
         }
@@ -1,10 +1,17 @@
 package com.seuteste.sga.service;
 
 import com.seuteste.sga.dao.ClienteDAO;
+import com.seuteste.sga.dao.CursorPagina;
 import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
 import com.seuteste.sga.dao.impl.ClienteDAOImpl;
+import com.seuteste.sga.dto.OpcaoDTO;
+import com.seuteste.sga.interceptor.Transacional;
 import com.seuteste.sga.model.Cliente;
 
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import java.util.List;
 
 /**
@@ -13,14 +20,25 @@ import java.util.List;
  * @author SGA Team
  * @version 1.0
  */
+@ApplicationScoped
 public class ClienteService {
 
+    /** Quantidade máxima de resultados da busca por nome. */
+    private static final int LIMITE_BUSCA_NOME = 50;
+
     private ClienteDAO clienteDAO;
 
+    @Inject
+    private CacheOpcoes cacheOpcoes;
+
+    @Inject
+    private Contadores contadores;
+
     public ClienteService() {
         this.clienteDAO = new ClienteDAOImpl();
     }
 
+    @Transacional
     public Cliente salvar(Cliente cliente) throws ServiceException {
         try {
             validarCliente(cliente);
@@ -29,12 +47,16 @@ public class ClienteService {
                 throw new ServiceException("Já existe um cliente com este email.");
             }
             
-            return clienteDAO.save(cliente);
+            Cliente salvo = clienteDAO.save(cliente);
+            cacheOpcoes.invalidar(CacheOpcoes.Lista.CLIENTES);
+            contadores.registrarInclusao(Contadores.Entidade.CLIENTES, Boolean.TRUE.equals(salvo.getAtivo()));
+            return salvo;
         } catch (DAOException e) {
             throw new ServiceException("Erro ao salvar cliente: " + e.getMessage(), e);
         }
     }
 
+    @Transacional
     public Cliente atualizar(Cliente cliente) throws ServiceException {
         try {
             validarCliente(cliente);
@@ -49,7 +71,9 @@ public class ClienteService {
                 throw new ServiceException("Já existe outro cliente com este email.");
             }
             
-            return clienteDAO.update(cliente);
+            Cliente atualizado = clienteDAO.update(cliente);
+            cacheOpcoes.invalidar(CacheOpcoes.Lista.CLIENTES);
+            return atualizado;
         } catch (DAOException e) {
             throw new ServiceException("Erro ao atualizar cliente: " + e.getMessage(), e);
         }
@@ -61,6 +85,7 @@ public class ClienteService {
      * @param id ID do cliente a ser inativado
      * @throws ServiceException em caso de erro na operação
      */
+    @Transacional
     public void inativarCliente(Long id) throws ServiceException {
         try {
             Cliente cliente = clienteDAO.findById(id);
@@ -68,7 +93,10 @@ public class ClienteService {
                 throw new ServiceException("Cliente não encontrado.");
             }
             
-            clienteDAO.deactivate(id);
+            if (clienteDAO.deactivate(id)) {
+                contadores.registrarAlteracaoAtivo(Contadores.Entidade.CLIENTES, 1, false);
+            }
+            cacheOpcoes.invalidar(CacheOpcoes.Lista.CLIENTES);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao inativar cliente: " + e.getMessage(), e);
         }
@@ -80,6 +108,7 @@ public class ClienteService {
      * @param id ID do cliente a ser ativado
      * @throws ServiceException em caso de erro na operação
      */
+    @Transacional
     public void ativarCliente(Long id) throws ServiceException {
         try {
             Cliente cliente = clienteDAO.findById(id);
@@ -87,7 +116,10 @@ public class ClienteService {
                 throw new ServiceException("Cliente não encontrado.");
             }
             
-            clienteDAO.activate(id);
+            if (clienteDAO.activate(id)) {
+                contadores.registrarAlteracaoAtivo(Contadores.Entidade.CLIENTES, 1, true);
+            }
+            cacheOpcoes.invalidar(CacheOpcoes.Lista.CLIENTES);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao ativar cliente: " + e.getMessage(), e);
         }
@@ -123,20 +155,70 @@ public class ClienteService {
         }
     }
 
+    /**
+     * Lista id e nome dos clientes para listas de seleção, a partir do cache compartilhado.
+     * 
+     * @return Opções de cliente ordenadas por nome
+     * @throws ServiceException em caso de erro na operação
+     */
+    public List<OpcaoDTO> listarOpcoes() throws ServiceException {
+        return cacheOpcoes.obter(CacheOpcoes.Lista.CLIENTES, () -> {
+            try {
+                return clienteDAO.findOpcoes();
+            } catch (DAOException e) {
+                throw new ServiceException("Erro ao listar opções de clientes: " + e.getMessage(), e);
+            }
+        });
+    }
+
     public List<Cliente> buscarPorNome(String nome) throws ServiceException {
         try {
             if (nome == null || nome.trim().isEmpty()) {
                 return listarTodos();
             }
-            return clienteDAO.findByNomeContaining(nome.trim());
+            // Mais parecidos primeiro, limitado para a busca não crescer com o cadastro
+            return clienteDAO.searchByNome(nome.trim(), LIMITE_BUSCA_NOME);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao buscar clientes por nome: " + e.getMessage(), e);
         }
     }
 
     public long contarTodos() throws ServiceException {
+        // Totais mantidos em memória, sem consultar o banco
+        return contadores.getTotal(Contadores.Entidade.CLIENTES);
+    }
+
+    /**
+     * Lista uma página de clientes usando paginação por chave.
+     * 
+     * @param nome Nome ou parte do nome (null ou vazio para todos)
+     * @param cursor Posição de início da página
+     * @param tamanho Quantidade máxima de registros
+     * @param ordenacao Campo e direção da ordenação
+     * @return Página de clientes
+     * @throws ServiceException em caso de erro na operação
+     */
+    public Pagina<Cliente> listarPagina(String nome, CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws ServiceException {
+        try {
+            return clienteDAO.findPageByNomeContaining(nome, cursor, tamanho, ordenacao);
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao listar página de clientes: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Conta clientes com os mesmos filtros de {@link #listarPagina}.
+     * 
+     * @param nome Nome ou parte do nome (null ou vazio para todos)
+     * @return Quantidade de clientes
+     * @throws ServiceException em caso de erro na operação
+     */
+    public long contarPorNome(String nome) throws ServiceException {
+        if (nome == null || nome.trim().isEmpty()) {
+            return contadores.getTotal(Contadores.Entidade.CLIENTES);
+        }
         try {
-            return clienteDAO.count();
+            return clienteDAO.countByNomeContaining(nome);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao contar clientes: " + e.getMessage(), e);
         }
@@ -0,0 +1,237 @@
+package com.seuteste.sga.service;
+
+import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.GenericDAO;
+import com.seuteste.sga.dao.impl.CategoriaDAOImpl;
+import com.seuteste.sga.dao.impl.ClienteDAOImpl;
+import com.seuteste.sga.dao.impl.PedidoDAOImpl;
+import com.seuteste.sga.dao.impl.ProdutoDAOImpl;
+import com.seuteste.sga.util.ConfigUtil;
+import com.seuteste.sga.util.JPAUtil;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Totais de registros por entidade (ativos e inativos) mantidos em memória.
+ * 
+ * Os serviços ajustam os totais a cada inclusão, ativação e inativação, depois da
+ * confirmação da transação, e uma tarefa periódica os confere com o banco de dados
+ * (variável CONTADORES_RECONCILIACAO_SEGUNDOS). Assim, exibir os totais nas telas
+ * não executa nenhum SELECT COUNT.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+@ApplicationScoped
+public class Contadores {
+
+    private static final Logger LOGGER = Logger.getLogger(Contadores.class.getName());
+
+    /** Tentativas de recontagem quando há gravações durante a consulta. */
+    private static final int TENTATIVAS_RECONCILIACAO = 3;
+
+    /**
+     * Entidades com totais mantidos em memória.
+     */
+    public enum Entidade {
+        CATEGORIAS,
+        CLIENTES,
+        PRODUTOS,
+        PEDIDOS
+    }
+
+    /**
+     * Totais de uma entidade. A versão muda a cada ajuste, para que uma recontagem
+     * concorrente com gravações não sobrescreva os ajustes com um valor antigo.
+     */
+    private static final class Contagem {
+        private long ativos;
+        private long inativos;
+        private long versao;
+        private boolean carregada;
+    }
+
+    private final Map<Entidade, Contagem> contagens = new EnumMap<>(Entidade.class);
+    private final Map<Entidade, GenericDAO<?, Long>> daos = new EnumMap<>(Entidade.class);
+    private ScheduledExecutorService agendador;
+
+    public Contadores() {
+        daos.put(Entidade.CATEGORIAS, new CategoriaDAOImpl());
+        daos.put(Entidade.CLIENTES, new ClienteDAOImpl());
+        daos.put(Entidade.PRODUTOS, new ProdutoDAOImpl());
+        daos.put(Entidade.PEDIDOS, new PedidoDAOImpl());
+        for (Entidade entidade : Entidade.values()) {
+            contagens.put(entidade, new Contagem());
+        }
+    }
+
+    /**
+     * Carrega os totais na subida da aplicação e agenda a reconciliação periódica.
+     */
+    void iniciar(@Observes @Initialized(ApplicationScoped.class) Object evento) {
+        int intervalo = Math.max(1, ConfigUtil.getContadoresReconciliacaoSegundos());
+        agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "sga-contadores");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(this::reconciliar, 0, intervalo, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+    }
+
+    /**
+     * @param entidade Entidade
+     * @return Total de registros (ativos e inativos)
+     * @throws ServiceException se os totais ainda não foram carregados e a contagem falhar
+     */
+    public long getTotal(Entidade entidade) throws ServiceException {
+        Contagem contagem = carregada(entidade);
+        synchronized (contagem) {
+            return contagem.ativos + contagem.inativos;
+        }
+    }
+
+    /**
+     * @param entidade Entidade
+     * @return Total de registros ativos
+     * @throws ServiceException se os totais ainda não foram carregados e a contagem falhar
+     */
+    public long getAtivos(Entidade entidade) throws ServiceException {
+        Contagem contagem = carregada(entidade);
+        synchronized (contagem) {
+            return contagem.ativos;
+        }
+    }
+
+    /**
+     * @param entidade Entidade
+     * @return Total de registros inativos
+     * @throws ServiceException se os totais ainda não foram carregados e a contagem falhar
+     */
+    public long getInativos(Entidade entidade) throws ServiceException {
+        Contagem contagem = carregada(entidade);
+        synchronized (contagem) {
+            return contagem.inativos;
+        }
+    }
+
+    /**
+     * Registra a inclusão de um registro, aplicada quando a transação for confirmada.
+     * 
+     * @param entidade Entidade incluída
+     * @param ativo Situação do novo registro
+     */
+    public void registrarInclusao(Entidade entidade, boolean ativo) {
+        registrarInclusoes(entidade, 1, ativo);
+    }
+
+    /**
+     * Registra a inclusão de vários registros na mesma situação, aplicada quando a
+     * transação for confirmada.
+     * 
+     * @param entidade Entidade incluída
+     * @param quantidade Quantidade de registros incluídos
+     * @param ativo Situação dos novos registros
+     */
+    public void registrarInclusoes(Entidade entidade, long quantidade, boolean ativo) {
+        if (quantidade <= 0) {
+            return;
+        }
+        JPAUtil.aposConfirmacao(() -> ajustar(entidade, ativo ? quantidade : 0, ativo ? 0 : quantidade));
+    }
+
+    /**
+     * Registra a troca de situação de registros, aplicada quando a transação for confirmada.
+     * 
+     * @param entidade Entidade alterada
+     * @param quantidade Quantidade de registros que mudaram de situação
+     * @param ativo Nova situação dos registros
+     */
+    public void registrarAlteracaoAtivo(Entidade entidade, int quantidade, boolean ativo) {
+        if (quantidade <= 0) {
+            return;
+        }
+        long delta = ativo ? quantidade : -quantidade;
+        JPAUtil.aposConfirmacao(() -> ajustar(entidade, delta, -delta));
+    }
+
+    /**
+     * Confere todos os totais com o banco de dados.
+     */
+    public void reconciliar() {
+        for (Entidade entidade : Entidade.values()) {
+            try {
+                reconciliar(entidade);
+            } catch (DAOException e) {
+                LOGGER.log(Level.WARNING, "Falha ao reconciliar contadores de " + entidade, e);
+            }
+        }
+    }
+
+    private void ajustar(Entidade entidade, long ativos, long inativos) {
+        Contagem contagem = contagens.get(entidade);
+        synchronized (contagem) {
+            contagem.ativos += ativos;
+            contagem.inativos += inativos;
+            contagem.versao++;
+        }
+    }
+
+    private Contagem carregada(Entidade entidade) throws ServiceException {
+        Contagem contagem = contagens.get(entidade);
+        synchronized (contagem) {
+            if (contagem.carregada) {
+                return contagem;
+            }
+        }
+        // Só acontece antes da primeira reconciliação agendada terminar
+        try {
+            reconciliar(entidade);
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao contar " + entidade.name().toLowerCase() + ": " + e.getMessage(), e);
+        }
+        return contagem;
+    }
+
+    private void reconciliar(Entidade entidade) throws DAOException {
+        Contagem contagem = contagens.get(entidade);
+        for (int tentativa = 1; ; tentativa++) {
+            long versao;
+            synchronized (contagem) {
+                versao = contagem.versao;
+            }
+            Map<Boolean, Long> banco = daos.get(entidade).countByAtivo();
+            long ativos = banco.getOrDefault(Boolean.TRUE, 0L);
+            long inativos = banco.getOrDefault(Boolean.FALSE, 0L);
+            synchronized (contagem) {
+                // Com ajustes durante a consulta não dá para saber se eles já estão na contagem
+                if (contagem.versao == versao || tentativa == TENTATIVAS_RECONCILIACAO) {
+                    if (contagem.carregada && (contagem.ativos != ativos || contagem.inativos != inativos)) {
+                        LOGGER.info("Contadores de " + entidade + " corrigidos: ativos " + contagem.ativos + " -> " + ativos
+                                + ", inativos " + contagem.inativos + " -> " + inativos);
+                    }
+                    contagem.ativos = ativos;
+                    contagem.inativos = inativos;
+                    contagem.carregada = true;
+                    return;
+                }
+            }
+        }
+    }
+}
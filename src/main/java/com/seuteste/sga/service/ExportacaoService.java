@@ -0,0 +1,111 @@
+package com.seuteste.sga.service;
+
+import com.seuteste.sga.dao.ClienteDAO;
+import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.PedidoDAO;
+import com.seuteste.sga.dao.ProcessadorLinha;
+import com.seuteste.sga.dao.ProdutoDAO;
+import com.seuteste.sga.dao.impl.ClienteDAOImpl;
+import com.seuteste.sga.dao.impl.PedidoDAOImpl;
+import com.seuteste.sga.dao.impl.ProdutoDAOImpl;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Classe de serviço para exportação de dados.
+ * As linhas são entregues uma a uma ao destino (ex.: a resposta HTTP), à medida que
+ * o banco as devolve, então a memória usada não cresce com o tamanho da exportação.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+@ApplicationScoped
+public class ExportacaoService {
+
+    /**
+     * Conjuntos de dados exportáveis e suas colunas, na ordem em que são entregues.
+     */
+    public enum Conjunto {
+        PEDIDOS("pedidos", true, "pedido_id", "data_pedido", "status", "ativo", "cliente_id", "cliente_nome",
+                "item_id", "produto_id", "produto_nome", "quantidade", "preco_unitario", "subtotal", "valor_total"),
+        PRODUTOS("produtos", false, "id", "nome", "descricao", "categoria", "preco", "quantidade_estoque",
+                "data_cadastro", "ativo"),
+        CLIENTES("clientes", false, "id", "nome", "email", "telefone", "endereco", "data_cadastro", "ativo");
+
+        private final String nome;
+        private final boolean somenteAdmin;
+        private final List<String> colunas;
+
+        Conjunto(String nome, boolean somenteAdmin, String... colunas) {
+            this.nome = nome;
+            this.somenteAdmin = somenteAdmin;
+            this.colunas = Collections.unmodifiableList(Arrays.asList(colunas));
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        /**
+         * @return true se só administradores podem exportar o conjunto (como a tela de pedidos)
+         */
+        public boolean isSomenteAdmin() {
+            return somenteAdmin;
+        }
+
+        public List<String> getColunas() {
+            return colunas;
+        }
+
+        /**
+         * @param nome Nome exato do conjunto (ex.: "pedidos")
+         * @return Conjunto com o nome informado, ou null se não existir
+         */
+        public static Conjunto porNome(String nome) {
+            for (Conjunto conjunto : values()) {
+                if (conjunto.nome.equals(nome)) {
+                    return conjunto;
+                }
+            }
+            return null;
+        }
+    }
+
+    private ProdutoDAO produtoDAO;
+    private ClienteDAO clienteDAO;
+    private PedidoDAO pedidoDAO;
+
+    public ExportacaoService() {
+        this.produtoDAO = new ProdutoDAOImpl();
+        this.clienteDAO = new ClienteDAOImpl();
+        this.pedidoDAO = new PedidoDAOImpl();
+    }
+
+    /**
+     * Entrega todas as linhas de um conjunto de dados ao processador, em ordem de ID.
+     * 
+     * @param conjunto Conjunto a exportar
+     * @param processador Destino de cada linha (valores na ordem de {@link Conjunto#getColunas()})
+     * @return Quantidade de linhas exportadas
+     * @throws ServiceException em caso de erro na consulta ou na gravação das linhas
+     */
+    public long exportar(Conjunto conjunto, ProcessadorLinha processador) throws ServiceException {
+        try {
+            switch (conjunto) {
+                case PEDIDOS:
+                    return pedidoDAO.exportarComItens(processador);
+                case PRODUTOS:
+                    return produtoDAO.exportar(processador);
+                case CLIENTES:
+                    return clienteDAO.exportar(processador);
+                default:
+                    throw new ServiceException("Conjunto de exportação não suportado: " + conjunto);
+            }
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao exportar " + conjunto.getNome() + ": " + e.getMessage(), e);
+        }
+    }
+}
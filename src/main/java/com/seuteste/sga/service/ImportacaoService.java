@@ -0,0 +1,322 @@
+package com.seuteste.sga.service;
+
+import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.ProdutoDAO;
+import com.seuteste.sga.dao.impl.ProdutoDAOImpl;
+import com.seuteste.sga.dto.OpcaoDTO;
+import com.seuteste.sga.dto.ProdutoImportacaoDTO;
+import com.seuteste.sga.dto.ResultadoImportacao;
+import com.seuteste.sga.util.LeitorCsv;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Classe de serviço para importação de produtos em lote a partir de arquivos CSV.
+ *
+ * O arquivo é lido em blocos: enquanto um bloco é gravado no banco pelo COPY, o próximo
+ * já está sendo lido e validado em paralelo, com as mesmas regras do cadastro
+ * ({@link ProdutoService#verificarCampos}). As linhas válidas são mescladas em produto
+ * com um único comando, e as inválidas voltam no relatório de erros do resultado.
+ *
+ * O cabeçalho é obrigatório e as colunas são localizadas pelo nome: nome, preco,
+ * quantidade_estoque e categoria (nome da categoria) são obrigatórias, descricao é
+ * opcional e as demais são ignoradas, então um arquivo exportado pelo sistema pode ser
+ * reimportado como está. O separador é ';' (com vírgula decimal aceita no preço) ou ','.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@ApplicationScoped
+public class ImportacaoService {
+
+    private static final Logger LOGGER = Logger.getLogger(ImportacaoService.class.getName());
+
+    /** Linhas lidas e validadas por bloco. */
+    private static final int LINHAS_POR_BLOCO = 10_000;
+
+    private ProdutoDAO produtoDAO;
+
+    @Inject
+    private CategoriaService categoriaService;
+
+
+    @Inject
+    private Contadores contadores;
+
+    @Inject
+    private IndiceCatalogo indiceCatalogo;
+
+    @Inject
+    private AlertasEstoque alertasEstoque;
+
+    public ImportacaoService() {
+        this.produtoDAO = new ProdutoDAOImpl();
+    }
+
+    /**
+     * Importa os produtos de um arquivo CSV (UTF-8). Produtos já cadastrados com o mesmo
+     * nome (sem diferenciar maiúsculas) são atualizados; os demais são incluídos como ativos.
+     * Linhas inválidas não impedem a importação das demais.
+     *
+     * @param arquivo Conteúdo do arquivo (não é fechado pelo método)
+     * @return Totais da importação e erros por linha
+     * @throws ServiceException se o arquivo não tiver as colunas obrigatórias ou em caso de erro na gravação
+     */
+    public ResultadoImportacao importarProdutos(InputStream arquivo) throws ServiceException {
+        long inicio = System.currentTimeMillis();
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        try {
+            BufferedReader leitor = new BufferedReader(new InputStreamReader(arquivo, StandardCharsets.UTF_8), 1 << 16);
+            leitor.mark(1 << 16);
+            String primeiraLinha = leitor.readLine();
+            leitor.reset();
+            if (primeiraLinha != null && primeiraLinha.startsWith("\uFEFF")) {
+                leitor.skip(1);
+            }
+            char separador = LeitorCsv.detectarSeparador(primeiraLinha);
+            LeitorCsv csv = new LeitorCsv(leitor, separador);
+
+            Colunas colunas = new Colunas(csv.proximo());
+            Validador validador = new Validador(colunas, mapearCategorias(), separador == ';');
+            LotesValidados lotes = new LotesValidados(csv, validador, resultado);
+
+            List<Long> afetados = produtoDAO.mesclarImportacao(lotes, resultado);
+            resultado.setLinhasLidas(lotes.linhasLidas);
+            resultado.setDuracaoMillis(System.currentTimeMillis() - inicio);
+
+            contadores.registrarInclusoes(Contadores.Entidade.PRODUTOS, resultado.getInseridos(), true);
+            indiceCatalogo.atualizarProdutos(afetados);
+            alertasEstoque.verificar(afetados);
+            LOGGER.info("Importação de produtos concluída: " + resultado);
+            return resultado;
+        } catch (IOException e) {
+            throw new ServiceException("Erro ao ler o arquivo de importação: " + e.getMessage(), e);
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao importar produtos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return ID das categorias pelo nome em minúsculas, a partir do cache de opções
+     */
+    private Map<String, Long> mapearCategorias() throws ServiceException {
+        Map<String, Long> categorias = new HashMap<>();
+        for (OpcaoDTO opcao : categoriaService.listarOpcoes()) {
+            categorias.put(opcao.getNome().trim().toLowerCase(Locale.ROOT), opcao.getId());
+        }
+        return categorias;
+    }
+
+    /**
+     * Posição das colunas reconhecidas no cabeçalho (-1 se ausente).
+     */
+    private static final class Colunas {
+        private int nome = -1;
+        private int descricao = -1;
+        private int preco = -1;
+        private int quantidadeEstoque = -1;
+        private int categoria = -1;
+
+        private Colunas(String[] cabecalho) throws ServiceException {
+            if (cabecalho == null) {
+                throw new ServiceException("O arquivo de importação está vazio.");
+            }
+            for (int i = 0; i < cabecalho.length; i++) {
+                switch (cabecalho[i].trim().toLowerCase(Locale.ROOT)) {
+                    case "nome":
+                        nome = i;
+                        break;
+                    case "descricao":
+                        descricao = i;
+                        break;
+                    case "preco":
+                        preco = i;
+                        break;
+                    case "quantidade_estoque":
+                        quantidadeEstoque = i;
+                        break;
+                    case "categoria":
+                        categoria = i;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (nome < 0 || preco < 0 || quantidadeEstoque < 0 || categoria < 0) {
+                throw new ServiceException("O cabeçalho do arquivo deve conter as colunas "
+                        + "nome, preco, quantidade_estoque e categoria.");
+            }
+        }
+    }
+
+    /**
+     * Converte e valida uma linha; sem estado mutável, para ser usado por várias threads.
+     */
+    private static final class Validador {
+        private final Colunas colunas;
+        private final Map<String, Long> categorias;
+        private final boolean virgulaDecimal;
+
+        private Validador(Colunas colunas, Map<String, Long> categorias, boolean virgulaDecimal) {
+            this.colunas = colunas;
+            this.categorias = categorias;
+            this.virgulaDecimal = virgulaDecimal;
+        }
+
+        /**
+         * @return ProdutoImportacaoDTO se a linha for válida, senão ResultadoImportacao.ErroLinha
+         */
+        private Object validar(String[] campos, int linha) {
+            String nome = campo(campos, colunas.nome);
+            String descricao = campo(campos, colunas.descricao);
+            String textoPreco = campo(campos, colunas.preco);
+            String textoQuantidade = campo(campos, colunas.quantidadeEstoque);
+            String categoria = campo(campos, colunas.categoria);
+
+            BigDecimal preco = null;
+            if (textoPreco != null) {
+                try {
+                    preco = new BigDecimal(virgulaDecimal && textoPreco.indexOf(',') >= 0
+                            ? textoPreco.replace(".", "").replace(',', '.') : textoPreco);
+                } catch (NumberFormatException e) {
+                    return new ResultadoImportacao.ErroLinha(linha, "Preço inválido: '" + textoPreco + "'.");
+                }
+            }
+            Integer quantidade = null;
+            if (textoQuantidade != null) {
+                try {
+                    quantidade = Integer.valueOf(textoQuantidade);
+                } catch (NumberFormatException e) {
+                    return new ResultadoImportacao.ErroLinha(linha,
+                            "Quantidade em estoque inválida: '" + textoQuantidade + "'.");
+                }
+            }
+
+            String erro = ProdutoService.verificarCampos(nome, descricao, preco, quantidade, categoria != null);
+            if (erro != null) {
+                return new ResultadoImportacao.ErroLinha(linha, erro);
+            }
+            Long categoriaId = categorias.get(categoria.toLowerCase(Locale.ROOT));
+            if (categoriaId == null) {
+                return new ResultadoImportacao.ErroLinha(linha, "Categoria não encontrada: '" + categoria + "'.");
+            }
+            return new ProdutoImportacaoDTO(linha, nome, descricao, preco, quantidade, categoriaId);
+        }
+
+        /**
+         * @return Campo sem espaços nas pontas, ou null se ausente ou vazio
+         */
+        private static String campo(String[] campos, int indice) {
+            if (indice < 0 || indice >= campos.length) {
+                return null;
+            }
+            String valor = campos[indice].trim();
+            return valor.isEmpty() ? null : valor;
+        }
+    }
+
+    /**
+     * Bloco de linhas já validado.
+     */
+    private static final class Bloco {
+        private final List<ProdutoImportacaoDTO> validos = new ArrayList<>();
+        private final List<ResultadoImportacao.ErroLinha> erros = new ArrayList<>();
+        private int linhas;
+    }
+
+    /**
+     * Entrega os blocos de linhas válidas ao DAO, validando o bloco seguinte em segundo
+     * plano enquanto o atual é gravado. A leitura do arquivo é sequencial; a validação de
+     * cada bloco é feita em paralelo.
+     */
+    private static final class LotesValidados implements Iterator<List<ProdutoImportacaoDTO>> {
+        private final LeitorCsv csv;
+        private final Validador validador;
+        private final ResultadoImportacao resultado;
+        private CompletableFuture<Bloco> proximo;
+        private Bloco atual;
+        private long linhasLidas;
+
+        private LotesValidados(LeitorCsv csv, Validador validador, ResultadoImportacao resultado) {
+            this.csv = csv;
+            this.validador = validador;
+            this.resultado = resultado;
+            this.proximo = CompletableFuture.supplyAsync(this::lerBloco);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (atual == null && proximo != null) {
+                try {
+                    atual = proximo.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+                proximo = atual.linhas == LINHAS_POR_BLOCO ? CompletableFuture.supplyAsync(this::lerBloco) : null;
+                linhasLidas += atual.linhas;
+                for (ResultadoImportacao.ErroLinha erro : atual.erros) {
+                    resultado.adicionarErro(erro.getLinha(), erro.getMensagem());
+                }
+            }
+            return atual != null && atual.linhas > 0;
+        }
+
+        @Override
+        public List<ProdutoImportacaoDTO> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<ProdutoImportacaoDTO> validos = atual.validos;
+            atual = null;
+            return validos;
+        }
+
+        private Bloco lerBloco() {
+            List<String[]> registros = new ArrayList<>(LINHAS_POR_BLOCO);
+            int[] linhas = new int[LINHAS_POR_BLOCO];
+            try {
+                String[] campos;
+                while (registros.size() < LINHAS_POR_BLOCO && (campos = csv.proximo()) != null) {
+                    linhas[registros.size()] = csv.getLinha();
+                    registros.add(campos);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            Object[] validados = new Object[registros.size()];
+            IntStream.range(0, validados.length).parallel()
+                    .forEach(i -> validados[i] = validador.validar(registros.get(i), linhas[i]));
+
+            Bloco bloco = new Bloco();
+            bloco.linhas = validados.length;
+            for (Object validado : validados) {
+                if (validado instanceof ProdutoImportacaoDTO) {
+                    bloco.validos.add((ProdutoImportacaoDTO) validado);
+                } else {
+                    bloco.erros.add((ResultadoImportacao.ErroLinha) validado);
+                }
+            }
+            return bloco;
+        }
+    }
+}
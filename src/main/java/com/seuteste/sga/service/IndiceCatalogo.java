@@ -0,0 +1,389 @@
+package com.seuteste.sga.service;
+
+import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.ProdutoDAO;
+import com.seuteste.sga.dao.impl.ProdutoDAOImpl;
+import com.seuteste.sga.dto.OpcaoDTO;
+import com.seuteste.sga.dto.ProdutoIndexadoDTO;
+import com.seuteste.sga.util.ConfigUtil;
+import com.seuteste.sga.util.JPAUtil;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido em memória do catálogo de produtos ativos, usado no autocompletar.
+ *
+ * Os termos (palavras do nome, da descrição e do nome da categoria, sem acentos e em
+ * minúsculas) ficam em mapas ordenados, então cada palavra digitada é tratada como prefixo
+ * e a busca percorre só os termos que começam com ela, sem acessar o banco de dados.
+ *
+ * O índice é carregado em paralelo, em faixas de ID, na subida da aplicação. Depois disso
+ * os serviços informam os produtos e categorias alterados, que são relidos do banco após a
+ * confirmação da transação. Carga e atualizações rodam em uma única thread, em ordem, de modo
+ * que uma atualização pedida durante a carga é aplicada depois dela.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@ApplicationScoped
+public class IndiceCatalogo {
+
+    private static final Logger LOGGER = Logger.getLogger(IndiceCatalogo.class.getName());
+
+    /** Faixas de ID por thread na carga do índice, para equilibrar faixas com mais ou menos produtos. */
+    private static final int FAIXAS_POR_THREAD = 4;
+
+    /** Máximo de produtos examinados por busca, para termos muito curtos ou comuns. */
+    private static final int LIMITE_CANDIDATOS = 20_000;
+
+    /** Produtos relidos do banco por vez ao atualizar o índice. */
+    private static final int BLOCO_ATUALIZACAO = 5_000;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final String[] SEM_TERMOS = new String[0];
+
+    /**
+     * Produto indexado. Os termos ficam ordenados para testar prefixos com busca binária.
+     */
+    private static final class Documento {
+        private final Long id;
+        private final String nome;
+        private final String[] termosNome;
+        private final String[] termos;
+
+        private Documento(ProdutoIndexadoDTO produto) {
+            this.id = produto.getId();
+            this.nome = produto.getNome();
+            this.termosNome = termos(produto.getNome());
+            this.termos = termos(produto.getNome(), produto.getDescricao(), produto.getCategoriaNome());
+        }
+    }
+
+    private final ProdutoDAO produtoDAO;
+    private final Map<Long, Documento> documentos = new ConcurrentHashMap<>();
+    /** Termo do nome -> IDs dos produtos. */
+    private final ConcurrentSkipListMap<String, Set<Long>> indiceNome = new ConcurrentSkipListMap<>();
+    /** Termo do nome, da descrição ou da categoria -> IDs dos produtos. */
+    private final ConcurrentSkipListMap<String, Set<Long>> indiceGeral = new ConcurrentSkipListMap<>();
+    private volatile boolean pronto;
+    private ExecutorService atualizador;
+
+    public IndiceCatalogo() {
+        this.produtoDAO = new ProdutoDAOImpl();
+    }
+
+    /**
+     * Agenda a carga do índice na subida da aplicação, sem atrasar a inicialização.
+     */
+    void iniciar(@Observes @Initialized(ApplicationScoped.class) Object evento) {
+        atualizador = Executors.newSingleThreadExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "sga-indice-catalogo");
+            thread.setDaemon(true);
+            return thread;
+        });
+        atualizador.submit(this::carregar);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (atualizador != null) {
+            atualizador.shutdownNow();
+        }
+    }
+
+    /**
+     * @return true se a carga inicial terminou e as buscas podem usar o índice
+     */
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Busca produtos ativos cujos termos começam com cada palavra digitada.
+     * Produtos que atendem pelo nome vêm antes dos que só atendem pela descrição ou categoria.
+     *
+     * @param texto Texto digitado
+     * @param limite Quantidade máxima de resultados
+     * @return Id e nome dos produtos encontrados
+     */
+    public List<OpcaoDTO> buscar(String texto, int limite) {
+        String[] palavras = termos(texto);
+        if (palavras.length == 0 || limite <= 0) {
+            return Collections.emptyList();
+        }
+        // A palavra mais longa é a mais seletiva; as demais são conferidas em cada candidato
+        String principal = palavras[0];
+        for (String palavra : palavras) {
+            if (palavra.length() > principal.length()) {
+                principal = palavra;
+            }
+        }
+
+        Map<Long, Documento> encontrados = new LinkedHashMap<>();
+        int candidatos = coletar(indiceNome, principal, palavras, d -> d.termosNome, limite, encontrados, 0);
+        if (encontrados.size() < limite) {
+            coletar(indiceGeral, principal, palavras, d -> d.termos, limite, encontrados, candidatos);
+        }
+
+        List<OpcaoDTO> opcoes = new ArrayList<>(encontrados.size());
+        for (Documento documento : encontrados.values()) {
+            opcoes.add(new OpcaoDTO(documento.id, documento.nome));
+        }
+        return opcoes;
+    }
+
+    /**
+     * @param produtoId ID do produto
+     * @return Id e nome do produto, ou null se ele não estiver no índice
+     */
+    public OpcaoDTO buscarPorId(Long produtoId) {
+        Documento documento = produtoId != null ? documentos.get(produtoId) : null;
+        return documento != null ? new OpcaoDTO(documento.id, documento.nome) : null;
+    }
+
+    /**
+     * Relê do banco os produtos informados após a confirmação da transação: os ativos são
+     * (re)indexados e os inativos ou excluídos saem do índice.
+     *
+     * @param produtoIds IDs dos produtos alterados
+     */
+    public void atualizarProdutos(Collection<Long> produtoIds) {
+        if (produtoIds == null || produtoIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(produtoIds);
+        agendarAposConfirmacao(() -> {
+            // Em blocos, para que uma importação em lote não traga todos os produtos de uma vez
+            for (int inicio = 0; inicio < ids.size(); inicio += BLOCO_ATUALIZACAO) {
+                List<Long> bloco = ids.subList(inicio, Math.min(ids.size(), inicio + BLOCO_ATUALIZACAO));
+                Set<Long> removidos = new TreeSet<>(bloco);
+                for (ProdutoIndexadoDTO produto : produtoDAO.findIndexaveis(bloco)) {
+                    indexar(produto);
+                    removidos.remove(produto.getId());
+                }
+                removidos.forEach(this::remover);
+            }
+        });
+    }
+
+    /**
+     * Reindexa os produtos de uma categoria (após a confirmação da transação), para que
+     * a busca reflita o novo nome da categoria.
+     *
+     * @param categoriaId ID da categoria alterada
+     */
+    public void atualizarCategoria(Long categoriaId) {
+        if (categoriaId == null) {
+            return;
+        }
+        agendarAposConfirmacao(() -> produtoDAO.findIndexaveisByCategoriaId(categoriaId).forEach(this::indexar));
+    }
+
+    /**
+     * Separa os textos em termos únicos e ordenados, sem acentos e em minúsculas.
+     *
+     * @param textos Textos a separar (podem ser null)
+     * @return Termos dos textos
+     */
+    static String[] termos(String... textos) {
+        TreeSet<String> termos = new TreeSet<>();
+        for (String texto : textos) {
+            if (texto != null && !texto.isEmpty()) {
+                separar(texto, termos);
+            }
+        }
+        return termos.isEmpty() ? SEM_TERMOS : termos.toArray(SEM_TERMOS);
+    }
+
+    private static void separar(String texto, Set<String> termos) {
+        for (int i = 0; i < texto.length(); i++) {
+            // A decomposição dos acentos só é necessária fora do ASCII, que é o caso comum
+            if (texto.charAt(i) > 0x7F) {
+                texto = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        StringBuilder termo = new StringBuilder();
+        for (int i = 0; i <= texto.length(); i++) {
+            char c = i < texto.length() ? texto.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                termo.append(Character.toLowerCase(c));
+            } else if (termo.length() > 0) {
+                termos.add(termo.toString());
+                termo.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Percorre os produtos dos termos que começam com a palavra principal, em ordem de termo
+     * (o termo igual à palavra vem primeiro), e guarda os que têm todas as demais palavras.
+     *
+     * @return Quantidade de candidatos examinados até aqui
+     */
+    private int coletar(ConcurrentSkipListMap<String, Set<Long>> indice, String principal, String[] palavras,
+                        Function<Documento, String[]> termosDoDocumento, int limite,
+                        Map<Long, Documento> encontrados, int candidatos) {
+        ConcurrentNavigableMap<String, Set<Long>> termos = indice.subMap(principal, true, principal + Character.MAX_VALUE, false);
+        for (Set<Long> ids : termos.values()) {
+            for (Long id : ids) {
+                if (encontrados.size() >= limite || ++candidatos > LIMITE_CANDIDATOS) {
+                    return candidatos;
+                }
+                Documento documento = documentos.get(id);
+                if (documento != null && !encontrados.containsKey(id)
+                        && contemTodas(termosDoDocumento.apply(documento), palavras)) {
+                    encontrados.put(id, documento);
+                }
+            }
+        }
+        return candidatos;
+    }
+
+    private static boolean contemTodas(String[] termos, String[] palavras) {
+        for (String palavra : palavras) {
+            int posicao = Arrays.binarySearch(termos, palavra);
+            if (posicao < 0) {
+                posicao = -posicao - 1;
+                if (posicao >= termos.length || !termos[posicao].startsWith(palavra)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Carrega todos os produtos ativos, com uma tarefa por faixa de IDs.
+     */
+    private void carregar() {
+        long inicio = System.currentTimeMillis();
+        // Metade do pool de conexões, para não esgotá-lo enquanto a aplicação atende requisições
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), ConfigUtil.getPoolMaxSize() / 2));
+        ExecutorService carga = Executors.newFixedThreadPool(threads, tarefa -> {
+            Thread thread = new Thread(tarefa, "sga-indice-catalogo-carga");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long[] ids = produtoDAO.findFaixaIds();
+            List<Future<?>> faixas = new ArrayList<>();
+            if (ids != null) {
+                long tamanhoFaixa = (ids[1] - ids[0]) / ((long) threads * FAIXAS_POR_THREAD) + 1;
+                for (long idInicial = ids[0]; idInicial <= ids[1]; idInicial += tamanhoFaixa) {
+                    long primeiro = idInicial;
+                    long ultimo = Math.min(ids[1], idInicial + tamanhoFaixa - 1);
+                    faixas.add(carga.submit(() -> {
+                        produtoDAO.findIndexaveis(primeiro, ultimo).forEach(this::indexar);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> faixa : faixas) {
+                faixa.get();
+            }
+            pronto = true;
+            LOGGER.info("Índice do catálogo carregado: " + documentos.size() + " produtos, "
+                    + indiceGeral.size() + " termos, em " + (System.currentTimeMillis() - inicio) + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Sem o índice, o autocompletar continua funcionando pela busca no banco
+            LOGGER.log(Level.WARNING, "Falha ao carregar o índice do catálogo", e);
+        } finally {
+            carga.shutdownNow();
+        }
+    }
+
+    private void agendarAposConfirmacao(AtualizacaoIndice atualizacao) {
+        JPAUtil.aposConfirmacao(() -> {
+            if (atualizador == null) {
+                return;
+            }
+            atualizador.submit(() -> {
+                try {
+                    atualizacao.executar();
+                } catch (DAOException e) {
+                    LOGGER.log(Level.WARNING, "Falha ao atualizar o índice do catálogo", e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Atualização do índice que lê o banco de dados.
+     */
+    @FunctionalInterface
+    private interface AtualizacaoIndice {
+        void executar() throws DAOException;
+    }
+
+    private void indexar(ProdutoIndexadoDTO produto) {
+        Documento novo = new Documento(produto);
+        Documento antigo = documentos.put(novo.id, novo);
+        if (antigo != null) {
+            desindexar(antigo, novo);
+        }
+        for (String termo : novo.termosNome) {
+            indiceNome.computeIfAbsent(termo, t -> new ConcurrentSkipListSet<>()).add(novo.id);
+        }
+        for (String termo : novo.termos) {
+            indiceGeral.computeIfAbsent(termo, t -> new ConcurrentSkipListSet<>()).add(novo.id);
+        }
+    }
+
+    private void remover(Long produtoId) {
+        Documento antigo = documentos.remove(produtoId);
+        if (antigo != null) {
+            desindexar(antigo, null);
+        }
+    }
+
+    /**
+     * Tira o produto dos termos que ele deixou de ter. Só é chamado pela thread de atualização.
+     */
+    private void desindexar(Documento antigo, Documento novo) {
+        desindexar(indiceNome, antigo.id, antigo.termosNome, novo != null ? novo.termosNome : SEM_TERMOS);
+        desindexar(indiceGeral, antigo.id, antigo.termos, novo != null ? novo.termos : SEM_TERMOS);
+    }
+
+    private static void desindexar(ConcurrentSkipListMap<String, Set<Long>> indice, Long id,
+                                   String[] termosAntigos, String[] termosNovos) {
+        for (String termo : termosAntigos) {
+            if (Arrays.binarySearch(termosNovos, termo) >= 0) {
+                continue;
+            }
+            Set<Long> ids = indice.get(termo);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    indice.remove(termo, ids);
+                }
+            }
+        }
+    }
+}
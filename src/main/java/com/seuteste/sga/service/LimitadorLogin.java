@@ -0,0 +1,208 @@
+package com.seuteste.sga.service;
+
+import com.seuteste.sga.util.ConfigUtil;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Limite de tentativas de login por email e por endereço IP, consultado antes de qualquer
+ * consulta ao banco ou verificação BCrypt.
+ *
+ * Cada chave tem um balde de fichas (rajada de LOGIN_LIMITE_*_RAJADA tentativas, repostas
+ * a LOGIN_LIMITE_*_POR_MINUTO). O balde é guardado como um único instante, o momento em
+ * que ele estaria cheio de novo, e cada tentativa o avança com um compareAndSet; não há
+ * travas, e uma tentativa recusada custa uma leitura no mapa e uma comparação.
+ *
+ * Baldes cheios equivalem a chaves nunca vistas e são descartados periodicamente, ou na
+ * hora quando o mapa chega a LOGIN_LIMITE_CHAVES. Se nem assim houver espaço, a chave nova
+ * não é acompanhada; por isso o limite por IP segura quem varia o email.
+ *
+ * O limite por IP só vem ligado com LOGIN_PROXIES_CONFIAVEIS configurado: atrás do nginx e
+ * do balanceador o endereço do cliente só é conhecido pelo X-Forwarded-For dos proxies
+ * confiáveis (ver SessaoUtil.getEnderecoRemoto()).
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@ApplicationScoped
+public class LimitadorLogin {
+
+    private static final Logger LOGGER = Logger.getLogger(LimitadorLogin.class.getName());
+
+    /** Intervalo entre as limpezas dos baldes cheios. */
+    private static final long LIMPEZA_SEGUNDOS = 60;
+
+    /** Marca um balde já retirado do mapa; quem o encontrar busca (ou cria) outro. */
+    private static final long REMOVIDO = Long.MIN_VALUE;
+
+    /**
+     * Baldes de um tipo de chave (email ou IP).
+     */
+    private static final class Regra {
+        private final String nome;
+        /** Tempo para repor uma ficha; 0 desliga a regra. */
+        private final long intervaloNanos;
+        /** Quanto o balde pode estar "adiantado" em relação a agora: (rajada - 1) fichas. */
+        private final long toleranciaNanos;
+        private final int maximoChaves;
+        private final Map<String, AtomicLong> baldes = new ConcurrentHashMap<>();
+        private final AtomicBoolean limpando = new AtomicBoolean();
+
+        Regra(String nome, int rajada, int porMinuto, int maximoChaves) {
+            this.nome = nome;
+            this.intervaloNanos = porMinuto > 0 ? TimeUnit.MINUTES.toNanos(1) / porMinuto : 0;
+            this.toleranciaNanos = intervaloNanos * (Math.max(1, rajada) - 1);
+            this.maximoChaves = Math.max(1, maximoChaves);
+        }
+
+        /**
+         * Consome uma ficha da chave.
+         *
+         * @return 0 se havia ficha, ou os nanossegundos até a próxima ficha
+         */
+        long consumir(String chave, long agora) {
+            if (intervaloNanos == 0 || chave == null) {
+                return 0;
+            }
+            while (true) {
+                AtomicLong balde = baldes.get(chave);
+                if (balde == null) {
+                    if (baldes.size() >= maximoChaves) {
+                        limpar(agora);
+                        if (baldes.size() >= maximoChaves) {
+                            return 0;
+                        }
+                    }
+                    balde = baldes.putIfAbsent(chave, new AtomicLong(agora + intervaloNanos));
+                    if (balde == null) {
+                        return 0;
+                    }
+                }
+                long cheio = balde.get();
+                if (cheio == REMOVIDO) {
+                    baldes.remove(chave, balde);
+                    continue;
+                }
+                long base = cheio - agora > 0 ? cheio : agora;
+                long adiantado = base - agora;
+                if (adiantado > toleranciaNanos) {
+                    return adiantado - toleranciaNanos;
+                }
+                if (balde.compareAndSet(cheio, base + intervaloNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Retira os baldes cheios. Uma limpeza por vez; as demais chamadas voltam na hora.
+         */
+        void limpar(long agora) {
+            if (!limpando.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                int removidos = 0;
+                for (Map.Entry<String, AtomicLong> entrada : baldes.entrySet()) {
+                    AtomicLong balde = entrada.getValue();
+                    long cheio = balde.get();
+                    if (cheio != REMOVIDO && cheio - agora <= 0 && balde.compareAndSet(cheio, REMOVIDO)) {
+                        baldes.remove(entrada.getKey(), balde);
+                        removidos++;
+                    }
+                }
+                if (removidos > 0) {
+                    LOGGER.fine("Limitador de login (" + nome + "): " + removidos + " baldes cheios descartados");
+                }
+            } finally {
+                limpando.set(false);
+            }
+        }
+    }
+
+    private final LongAdder recusadas = new LongAdder();
+    private Regra porEmail;
+    private Regra porIp;
+    private ScheduledExecutorService agendador;
+
+    @PostConstruct
+    void configurar() {
+        int maximoChaves = ConfigUtil.getLoginLimiteChaves();
+        porEmail = new Regra("email", ConfigUtil.getLoginLimiteEmailRajada(),
+                ConfigUtil.getLoginLimiteEmailPorMinuto(), maximoChaves);
+        porIp = new Regra("ip", ConfigUtil.getLoginLimiteIpRajada(),
+                ConfigUtil.getLoginLimiteIpPorMinuto(), maximoChaves);
+    }
+
+    /**
+     * Agenda a limpeza dos baldes cheios.
+     */
+    void iniciar(@Observes @Initialized(ApplicationScoped.class) Object evento) {
+        agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "sga-limitador-login");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(() -> {
+            long agora = System.nanoTime();
+            porEmail.limpar(agora);
+            porIp.limpar(agora);
+        }, LIMPEZA_SEGUNDOS, LIMPEZA_SEGUNDOS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+    }
+
+    /**
+     * Registra uma tentativa de login. O IP é consultado primeiro, de modo que uma tentativa
+     * recusada por ele não gasta a ficha do email.
+     *
+     * @param email Email informado (normalizado aqui)
+     * @param enderecoIp Endereço de origem da requisição
+     * @return 0 se a tentativa pode seguir, ou quantos segundos esperar até a próxima
+     */
+    public long tentativa(String email, String enderecoIp) {
+        long agora = System.nanoTime();
+        long espera = porIp.consumir(enderecoIp, agora);
+        if (espera == 0) {
+            espera = porEmail.consumir(email != null ? email.trim().toLowerCase(Locale.ROOT) : null, agora);
+        }
+        if (espera == 0) {
+            return 0;
+        }
+        recusadas.increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * @return Tentativas recusadas desde a subida
+     */
+    public long getRecusadas() {
+        return recusadas.sum();
+    }
+
+    /**
+     * @return Emails e IPs com balde em uso neste momento
+     */
+    public int getChavesAcompanhadas() {
+        return porEmail.baldes.size() + porIp.baldes.size();
+    }
+}
@@ -1,49 +1,73 @@
 package com.seuteste.sga.service;
 
+import com.seuteste.sga.dao.CursorPagina;
 import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.EstoqueInsuficienteException;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
 import com.seuteste.sga.dao.PedidoDAO;
+import com.seuteste.sga.dao.PlanoBuscaPedido;
 import com.seuteste.sga.dao.ProdutoDAO;
+import com.seuteste.sga.dao.ResumoVendasDAO;
 import com.seuteste.sga.dao.impl.PedidoDAOImpl;
 import com.seuteste.sga.dao.impl.ProdutoDAOImpl;
+import com.seuteste.sga.dao.impl.ResumoVendasDAOImpl;
+import com.seuteste.sga.interceptor.Transacional;
 import com.seuteste.sga.model.ItemPedido;
 import com.seuteste.sga.model.Pedido;
 import com.seuteste.sga.model.Produto;
 
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Classe de serviço para operações relacionadas à entidade Pedido.
  * 
+ * Toda operação que muda os itens, o status ou a situação de um pedido aplica também o
+ * delta correspondente no resumo diário de vendas, na mesma transação
+ * (ver {@link RelatorioVendasService}).
+ * 
  * @author SGA Team
  * @version 1.0
  */
+@ApplicationScoped
 public class PedidoService {
 
     private PedidoDAO pedidoDAO;
     private ProdutoDAO produtoDAO;
+    private ResumoVendasDAO resumoVendasDAO;
+
+
+    @Inject
+    private Contadores contadores;
+
+    @Inject
+    private AlertasEstoque alertasEstoque;
 
     public PedidoService() {
         this.pedidoDAO = new PedidoDAOImpl();
         this.produtoDAO = new ProdutoDAOImpl();
+        this.resumoVendasDAO = new ResumoVendasDAOImpl();
     }
 
+    @Transacional
     public Pedido salvar(Pedido pedido) throws ServiceException {
         try {
             validarPedido(pedido);
             
-            // Verificar estoque e calcular valores
+            // Calcular valores (o estoque é conferido na própria baixa, no banco)
             for (ItemPedido item : pedido.getItens()) {
                 Produto produto = item.getProduto();
                 
-                // Verificar se há estoque suficiente
-                if (produto.getQuantidadeEstoque() < item.getQuantidade()) {
-                    throw new ServiceException("Estoque insuficiente para o produto: " + produto.getNome() + 
-                                             ". Disponível: " + produto.getQuantidadeEstoque() + 
-                                             ", Solicitado: " + item.getQuantidade());
-                }
-                
                 // Definir preço unitário como o preço atual do produto
                 item.setPrecoUnitario(produto.getPreco());
                 item.calcularSubtotal();
@@ -52,11 +76,17 @@ public class PedidoService {
             // Calcular valor total do pedido
             pedido.calcularValorTotal();
             
+            // Baixar o estoque antes de gravar: sem estoque, o pedido do formulário não
+            // chega a receber ID e pode ser salvo de novo depois de corrigido
+            atualizarEstoque(pedido, false);
+            
             // Salvar o pedido
             Pedido pedidoSalvo = pedidoDAO.save(pedido);
             
-            // Atualizar estoque dos produtos
-            atualizarEstoque(pedidoSalvo, false);
+            if (Boolean.TRUE.equals(pedidoSalvo.getAtivo())) {
+                resumoVendasDAO.aplicarPedidos(Collections.singleton(pedidoSalvo.getId()), 1);
+            }
+            contadores.registrarInclusao(Contadores.Entidade.PEDIDOS, Boolean.TRUE.equals(pedidoSalvo.getAtivo()));
             
             return pedidoSalvo;
         } catch (DAOException e) {
@@ -64,6 +94,7 @@ public class PedidoService {
         }
     }
 
+    @Transacional
     public Pedido atualizar(Pedido pedido) throws ServiceException {
         try {
             validarPedido(pedido);
@@ -72,8 +103,8 @@ public class PedidoService {
                 throw new ServiceException("ID do pedido é obrigatório para atualização.");
             }
             
-            // Buscar pedido original para reverter estoque
-            Pedido pedidoOriginal = pedidoDAO.findById(pedido.getId());
+            // Buscar pedido original (com itens e produtos) para reverter estoque
+            Pedido pedidoOriginal = pedidoDAO.findById(pedido.getId(), PlanoBuscaPedido.DETALHE);
             if (pedidoOriginal == null) {
                 throw new ServiceException("Pedido não encontrado.");
             }
@@ -81,18 +112,15 @@ public class PedidoService {
             // Reverter estoque do pedido original
             atualizarEstoque(pedidoOriginal, true);
             
-            // Verificar estoque para o pedido atualizado
+            // Retirar do resumo as vendas como estavam gravadas, antes de alterar os itens
+            if (Boolean.TRUE.equals(pedidoOriginal.getAtivo())) {
+                resumoVendasDAO.aplicarPedidos(Collections.singleton(pedidoOriginal.getId()), -1);
+            }
+            
+            // Recalcular valores; se faltar estoque na nova baixa, toda a transação é desfeita
             for (ItemPedido item : pedido.getItens()) {
                 Produto produto = item.getProduto();
                 
-                if (produto.getQuantidadeEstoque() < item.getQuantidade()) {
-                    // Reverter a reversão do estoque em caso de erro
-                    atualizarEstoque(pedidoOriginal, false);
-                    throw new ServiceException("Estoque insuficiente para o produto: " + produto.getNome() + 
-                                             ". Disponível: " + produto.getQuantidadeEstoque() + 
-                                             ", Solicitado: " + item.getQuantidade());
-                }
-                
                 item.setPrecoUnitario(produto.getPreco());
                 item.calcularSubtotal();
             }
@@ -104,6 +132,10 @@ public class PedidoService {
             // Aplicar novo estoque
             atualizarEstoque(pedidoAtualizado, false);
             
+            if (Boolean.TRUE.equals(pedidoAtualizado.getAtivo())) {
+                resumoVendasDAO.aplicarPedidos(Collections.singleton(pedidoAtualizado.getId()), 1);
+            }
+            
             return pedidoAtualizado;
         } catch (DAOException e) {
             throw new ServiceException("Erro ao atualizar pedido: " + e.getMessage(), e);
@@ -116,39 +148,95 @@ public class PedidoService {
      * @param id ID do pedido a ser inativado
      * @throws ServiceException em caso de erro na operação
      */
+    @Transacional
     public void inativarPedido(Long id) throws ServiceException {
         try {
-            Pedido pedido = pedidoDAO.findById(id);
-            if (pedido == null) {
-                throw new ServiceException("Pedido não encontrado.");
+            // Bloqueia o pedido se ainda estiver ativo; inativado antes (ou por um clique repetido
+            // ou requisição concorrente), o estoque não é devolvido de novo
+            if (pedidoDAO.lockIdsByAtivo(Collections.singleton(id), true).isEmpty()) {
+                verificarExistencia(id);
+                return;
             }
             
-            // Reverter estoque antes de inativar
-            atualizarEstoque(pedido, true);
+            // Reverter estoque antes de inativar, com os itens lidos já sob o bloqueio
+            Map<Long, Integer> devolvidas = pedidoDAO.sumQuantidadePorProduto(Collections.singleton(id));
+            produtoDAO.reporEstoque(devolvidas);
+            alertasEstoque.verificar(devolvidas.keySet());
             
-            pedidoDAO.deactivate(id);
+            if (pedidoDAO.deactivate(id)) {
+                resumoVendasDAO.aplicarPedidos(Collections.singleton(id), -1);
+                contadores.registrarAlteracaoAtivo(Contadores.Entidade.PEDIDOS, 1, false);
+            }
         } catch (DAOException e) {
             throw new ServiceException("Erro ao inativar pedido: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Inativa vários pedidos de uma vez, devolvendo ao estoque os itens dos que ainda
+     * estavam ativos. Usa uma consulta para os itens, um lote de UPDATEs para o estoque
+     * e um UPDATE para os pedidos, em vez de repetir a inativação pedido a pedido.
+     * 
+     * @param ids IDs dos pedidos a serem inativados
+     * @return Quantidade de pedidos inativados
+     * @throws ServiceException em caso de erro na operação
+     */
+    @Transacional
+    public int inativarPedidos(Collection<Long> ids) throws ServiceException {
+        try {
+            if (ids == null || ids.isEmpty()) {
+                return 0;
+            }
+            
+            // Bloqueia os pedidos ativos para que nenhum deles tenha o estoque devolvido duas vezes
+            List<Long> ativos = pedidoDAO.lockIdsByAtivo(ids, true);
+            if (ativos.isEmpty()) {
+                return 0;
+            }
+            
+            Map<Long, Integer> devolvidas = pedidoDAO.sumQuantidadePorProduto(ativos);
+            produtoDAO.reporEstoque(devolvidas);
+            alertasEstoque.verificar(devolvidas.keySet());
+            resumoVendasDAO.aplicarPedidos(ativos, -1);
+            
+            int inativados = pedidoDAO.deactivateAll(ativos);
+            contadores.registrarAlteracaoAtivo(Contadores.Entidade.PEDIDOS, inativados, false);
+            return inativados;
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao inativar pedidos: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Ativa um pedido pelo ID.
      * 
      * @param id ID do pedido a ser ativado
      * @throws ServiceException em caso de erro na operação
      */
+    @Transacional
     public void ativarPedido(Long id) throws ServiceException {
         try {
-            Pedido pedido = pedidoDAO.findById(id);
-            if (pedido == null) {
-                throw new ServiceException("Pedido não encontrado.");
+            // Bloqueia o pedido se ainda estiver inativo, para não baixar o estoque duas vezes
+            if (pedidoDAO.lockIdsByAtivo(Collections.singleton(id), false).isEmpty()) {
+                verificarExistencia(id);
+                return;
             }
             
-            // Aplicar estoque novamente ao ativar
-            atualizarEstoque(pedido, false);
+            // Aplicar estoque novamente ao ativar, com os itens lidos já sob o bloqueio
+            Map<Long, Integer> quantidades = pedidoDAO.sumQuantidadePorProduto(Collections.singleton(id));
+            try {
+                produtoDAO.baixarEstoque(quantidades);
+            } catch (EstoqueInsuficienteException e) {
+                throw new ServiceException("Estoque insuficiente para o(s) produto(s): "
+                        + nomesProdutos(pedidoDAO.findById(id, PlanoBuscaPedido.DETALHE), e.getProdutosSemEstoque())
+                        + ".", e);
+            }
+            alertasEstoque.verificar(quantidades.keySet());
             
-            pedidoDAO.activate(id);
+            if (pedidoDAO.activate(id)) {
+                resumoVendasDAO.aplicarPedidos(Collections.singleton(id), 1);
+                contadores.registrarAlteracaoAtivo(Contadores.Entidade.PEDIDOS, 1, true);
+            }
         } catch (DAOException e) {
             throw new ServiceException("Erro ao ativar pedido: " + e.getMessage(), e);
         }
@@ -164,9 +252,28 @@ public class PedidoService {
         }
     }
 
+    /**
+     * Busca um pedido pelo ID com as associações que o caso de uso precisa.
+     * 
+     * @param id ID do pedido
+     * @param plano Plano de busca (ex.: {@link PlanoBuscaPedido#DETALHE} para o diálogo de detalhes)
+     * @return Pedido encontrado ou null se não existir
+     * @throws ServiceException em caso de erro na operação
+     */
+    public Pedido buscarPorId(Long id, PlanoBuscaPedido plano) throws ServiceException {
+        try {
+            if (id == null) {
+                return null;
+            }
+            return pedidoDAO.findById(id, plano);
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao buscar pedido por ID: " + e.getMessage(), e);
+        }
+    }
+
     public List<Pedido> listarTodos() throws ServiceException {
         try {
-            return pedidoDAO.findAllOrderByDataPedidoDesc();
+            return pedidoDAO.findAllOrderByDataPedidoDesc(PlanoBuscaPedido.LISTAGEM);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao listar pedidos: " + e.getMessage(), e);
         }
@@ -177,7 +284,7 @@ public class PedidoService {
             if (status == null || status.trim().isEmpty()) {
                 return listarTodos();
             }
-            return pedidoDAO.findByStatus(status.trim());
+            return pedidoDAO.findByStatus(status.trim(), PlanoBuscaPedido.LISTAGEM);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao buscar pedidos por status: " + e.getMessage(), e);
         }
@@ -188,40 +295,98 @@ public class PedidoService {
             if (dataInicio == null || dataFim == null) {
                 return listarTodos();
             }
-            return pedidoDAO.findByDataPedidoBetween(dataInicio, dataFim);
+            return pedidoDAO.findByDataPedidoBetween(dataInicio, dataFim, PlanoBuscaPedido.LISTAGEM);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao buscar pedidos por período: " + e.getMessage(), e);
         }
     }
 
     public long contarTodos() throws ServiceException {
+        // Totais mantidos em memória, sem consultar o banco
+        return contadores.getTotal(Contadores.Entidade.PEDIDOS);
+    }
+
+    /**
+     * Lista uma página de pedidos usando paginação por chave.
+     * 
+     * @param status Status do pedido (null ou vazio para todos)
+     * @param cursor Posição de início da página
+     * @param tamanho Quantidade máxima de registros
+     * @param ordenacao Campo e direção da ordenação
+     * @return Página de pedidos
+     * @throws ServiceException em caso de erro na operação
+     */
+    public Pagina<Pedido> listarPagina(String status, CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws ServiceException {
         try {
-            return pedidoDAO.count();
+            return pedidoDAO.findPageByStatus(status, cursor, tamanho, ordenacao);
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao listar página de pedidos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Conta pedidos com os mesmos filtros de {@link #listarPagina}.
+     * 
+     * @param status Status do pedido (null ou vazio para todos)
+     * @return Quantidade de pedidos
+     * @throws ServiceException em caso de erro na operação
+     */
+    public long contarPorStatus(String status) throws ServiceException {
+        if (status == null || status.trim().isEmpty()) {
+            return contadores.getTotal(Contadores.Entidade.PEDIDOS);
+        }
+        try {
+            return pedidoDAO.countByStatus(status);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao contar pedidos: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Aplica (ou reverte) a movimentação de estoque de um pedido com um único lote de
+     * UPDATEs condicionais, sem ler e regravar os produtos.
+     * 
+     * @param pedido Pedido cujos itens serão movimentados
+     * @param reverter true para devolver as quantidades ao estoque
+     * @throws ServiceException se faltar estoque ou em caso de erro na operação
+     */
     private void atualizarEstoque(Pedido pedido, boolean reverter) throws ServiceException {
+        Map<Long, Integer> quantidades = new HashMap<>();
+        for (ItemPedido item : pedido.getItens()) {
+            quantidades.merge(item.getProduto().getId(), item.getQuantidade(), Integer::sum);
+        }
+        
         try {
-            for (ItemPedido item : pedido.getItens()) {
-                Produto produto = produtoDAO.findById(item.getProduto().getId());
-                
-                if (reverter) {
-                    // Reverter: adicionar quantidade de volta ao estoque
-                    produto.setQuantidadeEstoque(produto.getQuantidadeEstoque() + item.getQuantidade());
-                } else {
-                    // Aplicar: subtrair quantidade do estoque
-                    produto.setQuantidadeEstoque(produto.getQuantidadeEstoque() - item.getQuantidade());
-                }
-                
-                produtoDAO.update(produto);
+            if (reverter) {
+                produtoDAO.reporEstoque(quantidades);
+            } else {
+                produtoDAO.baixarEstoque(quantidades);
             }
+            alertasEstoque.verificar(quantidades.keySet());
+        } catch (EstoqueInsuficienteException e) {
+            throw new ServiceException("Estoque insuficiente para o(s) produto(s): " + 
+                                     nomesProdutos(pedido, e.getProdutosSemEstoque()) + ".", e);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao atualizar estoque: " + e.getMessage(), e);
         }
     }
 
+    private void verificarExistencia(Long id) throws ServiceException, DAOException {
+        if (pedidoDAO.findById(id) == null) {
+            throw new ServiceException("Pedido não encontrado.");
+        }
+    }
+
+    private String nomesProdutos(Pedido pedido, List<Long> produtoIds) {
+        Set<String> nomes = new LinkedHashSet<>();
+        for (ItemPedido item : pedido.getItens()) {
+            if (produtoIds.contains(item.getProduto().getId())) {
+                nomes.add(item.getProduto().getNome());
+            }
+        }
+        return String.join(", ", nomes);
+    }
+
     private void validarPedido(Pedido pedido) throws ServiceException {
         if (pedido == null) {
             throw new ServiceException("Pedido não pode ser nulo.");
@@ -1,12 +1,24 @@
 package com.seuteste.sga.service;
 
-import com.seuteste.sga.dao.ProdutoDAO;
+import com.seuteste.sga.dao.CursorPagina;
 import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.Ordenacao;
+import com.seuteste.sga.dao.Pagina;
+import com.seuteste.sga.dao.ProdutoDAO;
+import com.seuteste.sga.dao.ResumoVendasDAO;
 import com.seuteste.sga.dao.impl.ProdutoDAOImpl;
+import com.seuteste.sga.dao.impl.ResumoVendasDAOImpl;
+import com.seuteste.sga.dto.OpcaoDTO;
+import com.seuteste.sga.interceptor.Transacional;
 import com.seuteste.sga.model.Produto;
 import com.seuteste.sga.model.Categoria;
 
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -15,23 +27,45 @@ import java.util.List;
  * @author SGA Team
  * @version 1.0
  */
+@ApplicationScoped
 public class ProdutoService {
 
+    /** Quantidade máxima de resultados da busca por nome. */
+    private static final int LIMITE_BUSCA_NOME = 50;
+
     private ProdutoDAO produtoDAO;
+    private ResumoVendasDAO resumoVendasDAO;
+
+
+    @Inject
+    private Contadores contadores;
+
+    @Inject
+    private IndiceCatalogo indiceCatalogo;
+
+    @Inject
+    private AlertasEstoque alertasEstoque;
 
     public ProdutoService() {
         this.produtoDAO = new ProdutoDAOImpl();
+        this.resumoVendasDAO = new ResumoVendasDAOImpl();
     }
 
+    @Transacional
     public Produto salvar(Produto produto) throws ServiceException {
         try {
             validarProduto(produto);
-            return produtoDAO.save(produto);
+            Produto salvo = produtoDAO.save(produto);
+            contadores.registrarInclusao(Contadores.Entidade.PRODUTOS, Boolean.TRUE.equals(salvo.getAtivo()));
+            indiceCatalogo.atualizarProdutos(Collections.singleton(salvo.getId()));
+            alertasEstoque.verificar(Collections.singleton(salvo.getId()));
+            return salvo;
         } catch (DAOException e) {
             throw new ServiceException("Erro ao salvar produto: " + e.getMessage(), e);
         }
     }
 
+    @Transacional
     public Produto atualizar(Produto produto) throws ServiceException {
         try {
             validarProduto(produto);
@@ -40,7 +74,15 @@ public class ProdutoService {
                 throw new ServiceException("ID do produto é obrigatório para atualização.");
             }
             
-            return produtoDAO.update(produto);
+            // Vendas já resumidas acompanham o produto se ele mudar de categoria
+            if (produto.getCategoria() != null) {
+                resumoVendasDAO.transferirCategoria(produto.getId(), produto.getCategoria().getId());
+            }
+            
+            Produto atualizado = produtoDAO.update(produto);
+            indiceCatalogo.atualizarProdutos(Collections.singleton(atualizado.getId()));
+            alertasEstoque.verificar(Collections.singleton(atualizado.getId()));
+            return atualizado;
         } catch (DAOException e) {
             throw new ServiceException("Erro ao atualizar produto: " + e.getMessage(), e);
         }
@@ -52,6 +94,7 @@ public class ProdutoService {
      * @param id ID do produto a ser inativado
      * @throws ServiceException em caso de erro na operação
      */
+    @Transacional
     public void inativarProduto(Long id) throws ServiceException {
         try {
             Produto produto = produtoDAO.findById(id);
@@ -59,18 +102,43 @@ public class ProdutoService {
                 throw new ServiceException("Produto não encontrado.");
             }
             
-            produtoDAO.deactivate(id);
+            if (produtoDAO.deactivate(id)) {
+                contadores.registrarAlteracaoAtivo(Contadores.Entidade.PRODUTOS, 1, false);
+            }
+            indiceCatalogo.atualizarProdutos(Collections.singleton(id));
+            alertasEstoque.verificar(Collections.singleton(id));
         } catch (DAOException e) {
             throw new ServiceException("Erro ao inativar produto: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Inativa vários produtos com um único UPDATE por lote de IDs.
+     * 
+     * @param ids IDs dos produtos a serem inativados
+     * @return Quantidade de produtos inativados
+     * @throws ServiceException em caso de erro na operação
+     */
+    @Transacional
+    public int inativarProdutos(Collection<Long> ids) throws ServiceException {
+        try {
+            int inativados = produtoDAO.deactivateAll(ids);
+            contadores.registrarAlteracaoAtivo(Contadores.Entidade.PRODUTOS, inativados, false);
+            indiceCatalogo.atualizarProdutos(ids);
+            alertasEstoque.verificar(ids);
+            return inativados;
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao inativar produtos: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Ativa um produto pelo ID.
      * 
      * @param id ID do produto a ser ativado
      * @throws ServiceException em caso de erro na operação
      */
+    @Transacional
     public void ativarProduto(Long id) throws ServiceException {
         try {
             Produto produto = produtoDAO.findById(id);
@@ -78,7 +146,11 @@ public class ProdutoService {
                 throw new ServiceException("Produto não encontrado.");
             }
             
-            produtoDAO.activate(id);
+            if (produtoDAO.activate(id)) {
+                contadores.registrarAlteracaoAtivo(Contadores.Entidade.PRODUTOS, 1, true);
+            }
+            indiceCatalogo.atualizarProdutos(Collections.singleton(id));
+            alertasEstoque.verificar(Collections.singleton(id));
         } catch (DAOException e) {
             throw new ServiceException("Erro ao ativar produto: " + e.getMessage(), e);
         }
@@ -102,12 +174,42 @@ public class ProdutoService {
         }
     }
 
+    /**
+     * Sugere produtos ativos para o texto digitado, a partir do índice do catálogo em memória.
+     * Enquanto o índice é carregado na subida da aplicação, usa a busca por nome no banco.
+     * 
+     * @param texto Texto digitado (cada palavra é tratada como início de palavra)
+     * @param limite Quantidade máxima de sugestões
+     * @return Id e nome dos produtos sugeridos
+     * @throws ServiceException em caso de erro na busca pelo banco
+     */
+    public List<OpcaoDTO> autocompletar(String texto, int limite) throws ServiceException {
+        if (texto == null || texto.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (indiceCatalogo.isPronto()) {
+            return indiceCatalogo.buscar(texto, limite);
+        }
+        try {
+            List<OpcaoDTO> opcoes = new ArrayList<>();
+            for (Produto produto : produtoDAO.searchByNome(texto.trim(), limite)) {
+                if (Boolean.TRUE.equals(produto.getAtivo())) {
+                    opcoes.add(new OpcaoDTO(produto.getId(), produto.getNome()));
+                }
+            }
+            return opcoes;
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao buscar produtos: " + e.getMessage(), e);
+        }
+    }
+
     public List<Produto> buscarPorNome(String nome) throws ServiceException {
         try {
             if (nome == null || nome.trim().isEmpty()) {
                 return listarTodos();
             }
-            return produtoDAO.findByNomeContaining(nome.trim());
+            // Mais parecidos primeiro, limitado para a busca não crescer com o cadastro
+            return produtoDAO.searchByNome(nome.trim(), LIMITE_BUSCA_NOME);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao buscar produtos por nome: " + e.getMessage(), e);
         }
@@ -125,8 +227,43 @@ public class ProdutoService {
     }
 
     public long contarTodos() throws ServiceException {
+        // Totais mantidos em memória, sem consultar o banco
+        return contadores.getTotal(Contadores.Entidade.PRODUTOS);
+    }
+
+    /**
+     * Lista uma página de produtos usando paginação por chave.
+     * 
+     * @param nome Nome ou parte do nome (pode ser null)
+     * @param categoriaId ID da categoria (pode ser null)
+     * @param cursor Posição de início da página
+     * @param tamanho Quantidade máxima de registros
+     * @param ordenacao Campo e direção da ordenação
+     * @return Página de produtos
+     * @throws ServiceException em caso de erro na operação
+     */
+    public Pagina<Produto> listarPagina(String nome, Long categoriaId, CursorPagina cursor, int tamanho, Ordenacao ordenacao) throws ServiceException {
+        try {
+            return produtoDAO.findPageWithFilters(nome, categoriaId, cursor, tamanho, ordenacao);
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao listar página de produtos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Conta produtos com os mesmos filtros de {@link #listarPagina}.
+     * 
+     * @param nome Nome ou parte do nome (pode ser null)
+     * @param categoriaId ID da categoria (pode ser null)
+     * @return Quantidade de produtos
+     * @throws ServiceException em caso de erro na operação
+     */
+    public long contarComFiltros(String nome, Long categoriaId) throws ServiceException {
+        if ((nome == null || nome.trim().isEmpty()) && categoriaId == null) {
+            return contadores.getTotal(Contadores.Entidade.PRODUTOS);
+        }
         try {
-            return produtoDAO.count();
+            return produtoDAO.countWithFilters(nome, categoriaId);
         } catch (DAOException e) {
             throw new ServiceException("Erro ao contar produtos: " + e.getMessage(), e);
         }
@@ -137,33 +274,70 @@ public class ProdutoService {
             throw new ServiceException("Produto não pode ser nulo.");
         }
         
-        if (produto.getNome() == null || produto.getNome().trim().isEmpty()) {
-            throw new ServiceException("Nome do produto é obrigatório.");
+        String erro = verificarCampos(produto.getNome(), produto.getDescricao(), produto.getPreco(),
+                produto.getQuantidadeEstoque(), produto.getCategoria() != null);
+        if (erro != null) {
+            throw new ServiceException(erro);
         }
         
-        if (produto.getNome().trim().length() < 2) {
-            throw new ServiceException("Nome do produto deve ter pelo menos 2 caracteres.");
+        if (produto.getEstoqueMinimo() != null && produto.getEstoqueMinimo() < 0) {
+            throw new ServiceException("Estoque mínimo não pode ser negativo.");
+        }
+    }
+
+    /**
+     * Regras de validação dos campos de um produto, compartilhadas pelo cadastro e pela
+     * importação em lote (que valida milhares de linhas e não pode pagar uma exceção por erro).
+     * 
+     * @param nome Nome do produto
+     * @param descricao Descrição do produto
+     * @param preco Preço do produto
+     * @param quantidadeEstoque Quantidade em estoque
+     * @param possuiCategoria true se a categoria foi informada
+     * @return Mensagem do primeiro erro encontrado, ou null se os campos forem válidos
+     */
+    static String verificarCampos(String nome, String descricao, BigDecimal preco, Integer quantidadeEstoque,
+                                  boolean possuiCategoria) {
+        if (nome == null || nome.trim().isEmpty()) {
+            return "Nome do produto é obrigatório.";
+        }
+        
+        if (nome.trim().length() < 2) {
+            return "Nome do produto deve ter pelo menos 2 caracteres.";
         }
         
-        if (produto.getPreco() == null) {
-            throw new ServiceException("Preço do produto é obrigatório.");
+        if (nome.trim().length() > 255) {
+            return "Nome do produto não pode exceder 255 caracteres.";
         }
         
-        if (produto.getPreco().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new ServiceException("Preço do produto deve ser maior que zero.");
+        if (descricao != null && descricao.length() > 1000) {
+            return "Descrição do produto não pode exceder 1000 caracteres.";
         }
         
-        if (produto.getQuantidadeEstoque() == null) {
-            throw new ServiceException("Quantidade em estoque é obrigatória.");
+        if (preco == null) {
+            return "Preço do produto é obrigatório.";
         }
         
-        if (produto.getQuantidadeEstoque() < 0) {
-            throw new ServiceException("Quantidade em estoque não pode ser negativa.");
+        if (preco.compareTo(BigDecimal.ZERO) <= 0) {
+            return "Preço do produto deve ser maior que zero.";
         }
         
-        if (produto.getCategoria() == null) {
-            throw new ServiceException("Categoria do produto é obrigatória.");
+        BigDecimal normalizado = preco.stripTrailingZeros();
+        if (normalizado.scale() > 2 || normalizado.precision() - normalizado.scale() > 8) {
+            return "Preço do produto deve ter no máximo 8 dígitos inteiros e 2 decimais.";
         }
+        
+        if (quantidadeEstoque == null) {
+            return "Quantidade em estoque é obrigatória.";
+        }
+        
+        if (quantidadeEstoque < 0) {
+            return "Quantidade em estoque não pode ser negativa.";
+        }
+        
+        if (!possuiCategoria) {
+            return "Categoria do produto é obrigatória.";
+        }
+        return null;
     }
 }
-
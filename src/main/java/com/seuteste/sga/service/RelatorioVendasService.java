@@ -0,0 +1,198 @@
+package com.seuteste.sga.service;
+
+import com.seuteste.sga.dao.DAOException;
+import com.seuteste.sga.dao.ResumoVendasDAO;
+import com.seuteste.sga.dao.impl.ResumoVendasDAOImpl;
+import com.seuteste.sga.dto.TotalVendasDTO;
+import com.seuteste.sga.util.ConfigUtil;
+import com.seuteste.sga.util.TabelaResumoVendas;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Classe de serviço para os relatórios de vendas por dia, categoria e cliente.
+ *
+ * As consultas leem só o resumo diário ({@code resumo_vendas_diario}), que o
+ * {@link PedidoService} mantém com deltas na mesma transação de cada pedido; assim, um
+ * período de meses é respondido sem varrer os itens de pedido. Na subida da aplicação
+ * o resumo vazio é preenchido a partir dos pedidos existentes, e a cada 24 horas os
+ * últimos dias (variável RESUMO_VENDAS_RECONSTRUCAO_DIAS) são recalculados, corrigindo
+ * diferenças causadas por alterações feitas fora da aplicação.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@ApplicationScoped
+public class RelatorioVendasService {
+
+    private static final Logger LOGGER = Logger.getLogger(RelatorioVendasService.class.getName());
+
+    /** Quantidade padrão de clientes no ranking por receita. */
+    private static final int LIMITE_CLIENTES = 100;
+
+    private ResumoVendasDAO resumoVendasDAO;
+    private ScheduledExecutorService agendador;
+
+    public RelatorioVendasService() {
+        this.resumoVendasDAO = new ResumoVendasDAOImpl();
+    }
+
+    /**
+     * Cria a tabela do resumo, preenche-o se estiver vazio e agenda a reconstrução diária.
+     */
+    void iniciar(@Observes @Initialized(ApplicationScoped.class) Object evento) {
+        agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "sga-resumo-vendas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.execute(() -> {
+            TabelaResumoVendas.criar();
+            preencherSeVazio();
+        });
+        int dias = ConfigUtil.getResumoVendasReconstrucaoDias();
+        if (dias > 0) {
+            agendador.scheduleWithFixedDelay(() -> reconstruirRecentes(dias), 24, 24, TimeUnit.HOURS);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+    }
+
+    /**
+     * @param inicio Primeiro dia (inclusive)
+     * @param fim Último dia (inclusive)
+     * @return Quantidade de itens e receita de cada dia com vendas, em ordem de data
+     * @throws ServiceException se o período for inválido ou em caso de erro na consulta
+     */
+    public List<TotalVendasDTO> vendasPorDia(LocalDate inicio, LocalDate fim) throws ServiceException {
+        validarPeriodo(inicio, fim);
+        try {
+            return resumoVendasDAO.totalizarPorDia(inicio, fim);
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao consultar vendas por dia: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param inicio Primeiro dia (inclusive)
+     * @param fim Último dia (inclusive)
+     * @return Quantidade de itens e receita por categoria, da maior para a menor receita
+     * @throws ServiceException se o período for inválido ou em caso de erro na consulta
+     */
+    public List<TotalVendasDTO> vendasPorCategoria(LocalDate inicio, LocalDate fim) throws ServiceException {
+        validarPeriodo(inicio, fim);
+        try {
+            return resumoVendasDAO.totalizarPorCategoria(inicio, fim);
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao consultar vendas por categoria: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param inicio Primeiro dia (inclusive)
+     * @param fim Último dia (inclusive)
+     * @return Os clientes de maior receita no período, com a quantidade de itens comprados
+     * @throws ServiceException se o período for inválido ou em caso de erro na consulta
+     */
+    public List<TotalVendasDTO> vendasPorCliente(LocalDate inicio, LocalDate fim) throws ServiceException {
+        return vendasPorCliente(inicio, fim, LIMITE_CLIENTES);
+    }
+
+    /**
+     * @param inicio Primeiro dia (inclusive)
+     * @param fim Último dia (inclusive)
+     * @param limite Quantidade máxima de clientes
+     * @return Os clientes de maior receita no período, com a quantidade de itens comprados
+     * @throws ServiceException se o período for inválido ou em caso de erro na consulta
+     */
+    public List<TotalVendasDTO> vendasPorCliente(LocalDate inicio, LocalDate fim, int limite) throws ServiceException {
+        validarPeriodo(inicio, fim);
+        if (limite <= 0) {
+            throw new ServiceException("O limite de clientes deve ser maior que zero.");
+        }
+        try {
+            return resumoVendasDAO.totalizarPorCliente(inicio, fim, limite);
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao consultar vendas por cliente: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recalcula o resumo do período a partir dos pedidos (carga inicial ou correção).
+     *
+     * @param inicio Primeiro dia (inclusive)
+     * @param fim Último dia (inclusive)
+     * @return Quantidade de linhas do resumo gravadas
+     * @throws ServiceException se o período for inválido ou em caso de erro na gravação
+     */
+    public long reconstruir(LocalDate inicio, LocalDate fim) throws ServiceException {
+        validarPeriodo(inicio, fim);
+        try {
+            long inicioMillis = System.currentTimeMillis();
+            long linhas = resumoVendasDAO.reconstruir(inicio, fim);
+            LOGGER.info("Resumo de vendas de " + inicio + " a " + fim + " reconstruído: " + linhas
+                    + " linhas em " + (System.currentTimeMillis() - inicioMillis) + " ms");
+            return linhas;
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao reconstruir o resumo de vendas: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recalcula todo o período com pedidos.
+     *
+     * @return Quantidade de linhas do resumo gravadas
+     * @throws ServiceException em caso de erro na gravação
+     */
+    public long reconstruirTudo() throws ServiceException {
+        try {
+            LocalDate[] periodo = resumoVendasDAO.findPeriodoPedidos();
+            return periodo == null ? 0 : reconstruir(periodo[0], periodo[1]);
+        } catch (DAOException e) {
+            throw new ServiceException("Erro ao reconstruir o resumo de vendas: " + e.getMessage(), e);
+        }
+    }
+
+    private void preencherSeVazio() {
+        try {
+            if (resumoVendasDAO.isVazio()) {
+                reconstruirTudo();
+            }
+        } catch (DAOException | ServiceException e) {
+            LOGGER.log(Level.WARNING, "Falha ao preencher o resumo de vendas", e);
+        }
+    }
+
+    private void reconstruirRecentes(int dias) {
+        LocalDate hoje = LocalDate.now();
+        try {
+            reconstruir(hoje.minusDays(dias - 1L), hoje);
+        } catch (ServiceException e) {
+            LOGGER.log(Level.WARNING, "Falha na reconstrução diária do resumo de vendas", e);
+        }
+    }
+
+    private static void validarPeriodo(LocalDate inicio, LocalDate fim) throws ServiceException {
+        if (inicio == null || fim == null) {
+            throw new ServiceException("Data inicial e data final são obrigatórias.");
+        }
+        if (inicio.isAfter(fim)) {
+            throw new ServiceException("A data inicial deve ser anterior ou igual à data final.");
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.seuteste.sga.service;
+
+import com.seuteste.sga.util.ConfigUtil;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Reservas de estoque dos pedidos em edição.
+ *
+ * Cada formulário de pedido abre um carrinho; ao adicionar um item, a quantidade fica
+ * reservada para ele, e os outros carrinhos só enxergam o disponível para venda
+ * (estoque - reservado pelos demais). O estoque vem do produto que o formulário já leu,
+ * de modo que o cálculo é feito em memória, sem consultas extras. A baixa real continua
+ * sendo feita pelo {@link PedidoService} ao salvar; depois disso o carrinho é liberado.
+ *
+ * As reservas de um carrinho são alteradas sob a trava do próprio carrinho, e as de um
+ * produto sob uma trava escolhida pelo ID do produto entre {@value #FAIXAS_TRAVA} (travas
+ * listradas), tomada já com a do carrinho e sempre nessa ordem: carrinho, depois produto.
+ * Carrinhos sem uso há mais de RESERVA_ESTOQUE_TTL_SEGUNDOS (tela abandonada) são
+ * liberados por uma tarefa periódica.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@ApplicationScoped
+public class ReservasEstoque {
+
+    private static final Logger LOGGER = Logger.getLogger(ReservasEstoque.class.getName());
+
+    /** Quantidade de travas listradas; potência de 2. */
+    private static final int FAIXAS_TRAVA = 64;
+
+    /**
+     * Reservas de um formulário de pedido. Os itens são protegidos pela trava do carrinho.
+     */
+    private static final class Carrinho {
+        private final Map<Long, Integer> itens = new HashMap<>();
+        private volatile long ultimoUso = System.currentTimeMillis();
+        private boolean encerrado;
+    }
+
+    private final Object[] travas = new Object[FAIXAS_TRAVA];
+    /** Produto -> quantidade reservada por todos os carrinhos (alterada sob a trava do produto). */
+    private final Map<Long, Integer> reservado = new ConcurrentHashMap<>();
+    private final Map<String, Carrinho> carrinhos = new ConcurrentHashMap<>();
+    private ScheduledExecutorService agendador;
+
+    public ReservasEstoque() {
+        for (int i = 0; i < travas.length; i++) {
+            travas[i] = new Object();
+        }
+    }
+
+    /**
+     * Agenda a liberação dos carrinhos abandonados.
+     */
+    void iniciar(@Observes @Initialized(ApplicationScoped.class) Object evento) {
+        long intervalo = Math.max(1, ConfigUtil.getReservaEstoqueTtlSegundos() / 4);
+        agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "sga-reservas-estoque");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(this::expirar, intervalo, intervalo, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Identificador de um novo carrinho
+     */
+    public String abrirCarrinho() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Reserva a quantidade de um produto para o carrinho, substituindo a reserva anterior
+     * do mesmo produto nele.
+     *
+     * @param carrinho Identificador do carrinho
+     * @param produtoId ID do produto
+     * @param estoque Estoque do produto, como lido pelo chamador
+     * @param quantidade Quantidade a reservar
+     * @throws ServiceException se a quantidade for maior que o disponível para venda
+     */
+    public void reservar(String carrinho, Long produtoId, int estoque, int quantidade) throws ServiceException {
+        if (carrinho == null || produtoId == null || quantidade <= 0) {
+            throw new ServiceException("Carrinho, produto e quantidade são obrigatórios para a reserva.");
+        }
+        while (true) {
+            Carrinho reservas = carrinhos.computeIfAbsent(carrinho, id -> new Carrinho());
+            synchronized (reservas) {
+                // Expirado entre a busca e a trava: recomeça com um carrinho novo
+                if (reservas.encerrado) {
+                    continue;
+                }
+                reservas.ultimoUso = System.currentTimeMillis();
+                synchronized (trava(produtoId)) {
+                    int doCarrinho = reservas.itens.getOrDefault(produtoId, 0);
+                    int disponivel = estoque - (reservado.getOrDefault(produtoId, 0) - doCarrinho);
+                    if (quantidade > disponivel) {
+                        throw new ServiceException("Estoque insuficiente. Disponível: " + Math.max(0, disponivel));
+                    }
+                    reservas.itens.put(produtoId, quantidade);
+                    ajustar(produtoId, quantidade - doCarrinho);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Desfaz a reserva de um produto no carrinho.
+     *
+     * @param carrinho Identificador do carrinho
+     * @param produtoId ID do produto
+     */
+    public void liberar(String carrinho, Long produtoId) {
+        Carrinho reservas = carrinho != null ? carrinhos.get(carrinho) : null;
+        if (reservas == null || produtoId == null) {
+            return;
+        }
+        synchronized (reservas) {
+            reservas.ultimoUso = System.currentTimeMillis();
+            Integer quantidade = reservas.itens.remove(produtoId);
+            if (quantidade != null) {
+                synchronized (trava(produtoId)) {
+                    ajustar(produtoId, -quantidade);
+                }
+            }
+        }
+    }
+
+    /**
+     * Desfaz todas as reservas do carrinho (pedido salvo, cancelado ou tela fechada).
+     *
+     * @param carrinho Identificador do carrinho
+     */
+    public void liberarCarrinho(String carrinho) {
+        Carrinho reservas = carrinho != null ? carrinhos.remove(carrinho) : null;
+        if (reservas != null) {
+            encerrar(reservas);
+        }
+    }
+
+    /**
+     * Marca o carrinho como em uso, adiando a expiração das suas reservas.
+     *
+     * @param carrinho Identificador do carrinho
+     */
+    public void renovar(String carrinho) {
+        Carrinho reservas = carrinho != null ? carrinhos.get(carrinho) : null;
+        if (reservas != null) {
+            reservas.ultimoUso = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * @param produtoId ID do produto
+     * @param estoque Estoque do produto, como lido pelo chamador
+     * @param carrinho Carrinho cujas reservas contam como disponíveis (pode ser null)
+     * @return Quantidade disponível para venda: o estoque menos o reservado pelos outros carrinhos
+     */
+    public int disponivel(Long produtoId, int estoque, String carrinho) {
+        Carrinho reservas = carrinho != null ? carrinhos.get(carrinho) : null;
+        int doCarrinho = 0;
+        if (reservas != null) {
+            synchronized (reservas) {
+                doCarrinho = reservas.itens.getOrDefault(produtoId, 0);
+            }
+        }
+        return Math.max(0, estoque - (reservado.getOrDefault(produtoId, 0) - doCarrinho));
+    }
+
+    /**
+     * @param produtoId ID do produto
+     * @return Quantidade do produto reservada por todos os carrinhos
+     */
+    public int reservado(Long produtoId) {
+        return reservado.getOrDefault(produtoId, 0);
+    }
+
+    /**
+     * Libera os carrinhos sem uso há mais que o tempo de vida das reservas.
+     */
+    void expirar() {
+        long limite = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(ConfigUtil.getReservaEstoqueTtlSegundos());
+        int expirados = 0;
+        for (Map.Entry<String, Carrinho> entrada : carrinhos.entrySet()) {
+            Carrinho reservas = entrada.getValue();
+            if (reservas.ultimoUso >= limite) {
+                continue;
+            }
+            synchronized (reservas) {
+                // Confere de novo sob a trava: um reservar() pode ter usado o carrinho desde a leitura acima
+                if (reservas.ultimoUso >= limite || !carrinhos.remove(entrada.getKey(), reservas)) {
+                    continue;
+                }
+                encerrar(reservas);
+                expirados++;
+            }
+        }
+        if (expirados > 0) {
+            LOGGER.fine("Reservas de estoque expiradas: " + expirados + " carrinho(s)");
+        }
+    }
+
+    private void encerrar(Carrinho reservas) {
+        synchronized (reservas) {
+            reservas.encerrado = true;
+            List<Map.Entry<Long, Integer>> itens = new ArrayList<>(reservas.itens.entrySet());
+            reservas.itens.clear();
+            for (Map.Entry<Long, Integer> item : itens) {
+                synchronized (trava(item.getKey())) {
+                    ajustar(item.getKey(), -item.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Soma o delta ao total reservado do produto; chamado sob a trava do produto.
+     */
+    private void ajustar(Long produtoId, int delta) {
+        int total = reservado.getOrDefault(produtoId, 0) + delta;
+        if (total > 0) {
+            reservado.put(produtoId, total);
+        } else {
+            reservado.remove(produtoId);
+        }
+    }
+
+    private Object trava(Long produtoId) {
+        int hash = produtoId.hashCode();
+        return travas[(hash ^ (hash >>> 16)) & (FAIXAS_TRAVA - 1)];
+    }
+}
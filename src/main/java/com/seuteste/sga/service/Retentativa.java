@@ -0,0 +1,74 @@
+package com.seuteste.sga.service;
+
+import com.seuteste.sga.dao.ConflitoConcorrenciaException;
+import com.seuteste.sga.util.JPAUtil;
+import com.seuteste.sga.util.OperacaoTransacional;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+
+/**
+ * Executa operações idempotentes em uma unidade de trabalho própria, repetindo-as quando
+ * a gravação é recusada por conflito de versão (outra transação alterou o registro
+ * depois da leitura). Cada tentativa relê os dados, então só serve para operações que
+ * podem ser refeitas sobre o estado atual; edições vindas de formulários devem informar
+ * o conflito ao usuário.
+ *
+ * Dentro de uma unidade de trabalho já aberta não há como repetir só uma parte dela,
+ * então a operação é executada uma única vez.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+final class Retentativa {
+
+    private static final Logger LOGGER = Logger.getLogger(Retentativa.class.getName());
+
+    private static final int TENTATIVAS = 3;
+
+    /** Espera antes da segunda tentativa; dobra a cada nova tentativa, com variação aleatória. */
+    private static final long ESPERA_INICIAL_MS = 20;
+
+    private Retentativa() {
+    }
+
+    /**
+     * @param descricao Descrição da operação para as mensagens de erro (ex.: "alterar senha")
+     * @param operacao Operação idempotente
+     * @return Resultado da operação
+     * @throws ServiceException se a operação falhar, ou se o conflito persistir em todas as tentativas
+     */
+    static <T> T emConflito(String descricao, OperacaoTransacional<T> operacao) throws ServiceException {
+        int tentativas = JPAUtil.isUnidadeDeTrabalhoAtiva() ? 1 : TENTATIVAS;
+        long espera = ESPERA_INICIAL_MS;
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return JPAUtil.executarEmTransacao(operacao);
+            } catch (Exception e) {
+                if (!ConflitoConcorrenciaException.isConflito(e)) {
+                    if (e instanceof ServiceException) {
+                        throw (ServiceException) e;
+                    }
+                    throw new ServiceException("Erro ao " + descricao + ": " + e.getMessage(), e);
+                }
+                if (tentativa >= tentativas) {
+                    throw new ServiceException("Não foi possível " + descricao
+                            + ": o registro foi alterado por outro usuário. Tente novamente.", e);
+                }
+                LOGGER.fine("Conflito de versão ao " + descricao + "; tentativa " + (tentativa + 1) + " de " + tentativas);
+                esperar(espera);
+                espera *= 2;
+            }
+        }
+    }
+
+    private static void esperar(long espera) throws ServiceException {
+        try {
+            // Variação aleatória para que as transações em conflito não se repitam juntas
+            Thread.sleep(espera + ThreadLocalRandom.current().nextLong(espera));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Operação interrompida.", e);
+        }
+    }
+}
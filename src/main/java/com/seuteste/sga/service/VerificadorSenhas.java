@@ -0,0 +1,203 @@
+package com.seuteste.sga.service;
+
+import com.seuteste.sga.util.ConfigUtil;
+import com.seuteste.sga.util.CriptografiaUtil;
+import com.seuteste.sga.util.HistogramaLatencia;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Verificação de senhas BCrypt num grupo próprio de threads.
+ *
+ * Cada verificação ocupa um processador por algumas centenas de milissegundos; feita na
+ * thread da requisição, uma rajada de logins (troca de turno) tomaria todos os núcleos e
+ * atrasaria o resto da aplicação. Aqui no máximo SENHA_VERIFICACAO_THREADS verificações
+ * rodam ao mesmo tempo, até SENHA_VERIFICACAO_FILA aguardam a vez e as demais são recusadas
+ * na hora com um pedido para tentar novamente. O login também desiste depois de
+ * SENHA_VERIFICACAO_TIMEOUT_MS esperando.
+ *
+ * Tarefas sem pressa (refazer um hash) têm uma thread e uma fila próprias, pequenas, para
+ * que uma onda delas depois de uma mudança de custo não tome o lugar dos logins.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@ApplicationScoped
+public class VerificadorSenhas {
+
+    private static final Logger LOGGER = Logger.getLogger(VerificadorSenhas.class.getName());
+
+    private static final String MENSAGEM_OCUPADO =
+            "Muitos logins em andamento no momento. Aguarde alguns segundos e tente novamente.";
+
+    /** Tarefas em segundo plano aguardando; as excedentes são descartadas. */
+    private static final int FILA_SEGUNDO_PLANO = 32;
+
+    private final HistogramaLatencia histogramaVerificacao = new HistogramaLatencia();
+    private final HistogramaLatencia histogramaEspera = new HistogramaLatencia();
+    private final LongAdder recusadas = new LongAdder();
+    private final LongAdder tempoEsgotado = new LongAdder();
+    private ThreadPoolExecutor executor;
+    private ThreadPoolExecutor executorSegundoPlano;
+    private int timeoutMillis;
+
+    @PostConstruct
+    void iniciar() {
+        int threads = Math.max(1, ConfigUtil.getSenhaVerificacaoThreads());
+        int fila = Math.max(1, ConfigUtil.getSenhaVerificacaoFila());
+        timeoutMillis = Math.max(1, ConfigUtil.getSenhaVerificacaoTimeoutMillis());
+        AtomicInteger numero = new AtomicInteger();
+        // AbortPolicy: com a fila cheia, execute() recusa em vez de bloquear a requisição
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), tarefa -> {
+                    Thread thread = new Thread(tarefa, "sga-senhas-" + numero.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executorSegundoPlano = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(FILA_SEGUNDO_PLANO), tarefa -> {
+                    Thread thread = new Thread(tarefa, "sga-senhas-segundo-plano");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        LOGGER.info("Verificação de senhas: " + threads + " threads, fila de " + fila + ", espera máxima de "
+                + timeoutMillis + " ms");
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (executorSegundoPlano != null) {
+            executorSegundoPlano.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifica uma senha contra o hash BCrypt, aguardando a vez no grupo de verificação.
+     *
+     * @param senhaPlana Senha em texto plano
+     * @param hashArmazenado Hash BCrypt armazenado
+     * @return true se a senha corresponder ao hash
+     * @throws ServiceException se a fila estiver cheia ou a espera passar do limite
+     */
+    public boolean verificar(String senhaPlana, String hashArmazenado) throws ServiceException {
+        long enfileirada = System.nanoTime();
+        Future<Boolean> resultado;
+        try {
+            resultado = executor.submit(() -> {
+                long inicio = System.nanoTime();
+                histogramaEspera.registrar(inicio - enfileirada);
+                try {
+                    return CriptografiaUtil.verificarSenha(senhaPlana, hashArmazenado);
+                } finally {
+                    histogramaVerificacao.registrar(System.nanoTime() - inicio);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            recusadas.increment();
+            LOGGER.warning("Verificação de senha recusada: fila cheia (" + executor.getQueue().size() + " aguardando)");
+            throw new ServiceException(MENSAGEM_OCUPADO, e);
+        }
+
+        try {
+            return resultado.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Se ainda estiver na fila, não será mais executada
+            resultado.cancel(false);
+            tempoEsgotado.increment();
+            LOGGER.warning("Verificação de senha desistiu após " + timeoutMillis + " ms ("
+                    + executor.getQueue().size() + " aguardando)");
+            throw new ServiceException(MENSAGEM_OCUPADO, e);
+        } catch (InterruptedException e) {
+            resultado.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Verificação de senha interrompida.", e);
+        } catch (ExecutionException e) {
+            throw new ServiceException("Erro ao verificar senha: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Executa uma tarefa BCrypt sem pressa (ex.: refazer um hash) na thread de segundo plano,
+     * sem ocupar a fila dos logins. Com a fila dela cheia, a tarefa é descartada.
+     *
+     * @param tarefa Tarefa a executar
+     * @return true se a tarefa foi aceita
+     */
+    public boolean executarEmSegundoPlano(Runnable tarefa) {
+        try {
+            executorSegundoPlano.execute(tarefa);
+            return true;
+        } catch (RejectedExecutionException e) {
+            LOGGER.fine("Tarefa em segundo plano descartada: fila de segundo plano cheia");
+            return false;
+        }
+    }
+
+    /**
+     * @return Verificações aguardando na fila neste momento
+     */
+    public int getFilaAguardando() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return Verificações em execução neste momento
+     */
+    public int getEmExecucao() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return Verificações recusadas por fila cheia desde a subida
+     */
+    public long getRecusadas() {
+        return recusadas.sum();
+    }
+
+    /**
+     * @return Logins que desistiram de esperar pela verificação desde a subida
+     */
+    public long getTempoEsgotado() {
+        return tempoEsgotado.sum();
+    }
+
+    /**
+     * @return Histograma da duração de cada verificação BCrypt, sem a espera na fila
+     */
+    public HistogramaLatencia getHistogramaVerificacao() {
+        return histogramaVerificacao;
+    }
+
+    /**
+     * @return Histograma do tempo que cada verificação aguardou na fila
+     */
+    public HistogramaLatencia getHistogramaEspera() {
+        return histogramaEspera;
+    }
+
+    @Override
+    public String toString() {
+        return "VerificadorSenhas{aguardando=" + getFilaAguardando()
+                + ", emExecucao=" + getEmExecucao()
+                + ", recusadas=" + getRecusadas()
+                + ", tempoEsgotado=" + getTempoEsgotado()
+                + ", verificacaoP99Ms=" + histogramaVerificacao.getPercentilMs(99)
+                + ", esperaP99Ms=" + histogramaEspera.getPercentilMs(99) + '}';
+    }
+}
@@ -0,0 +1,189 @@
+package com.seuteste.sga.servlet;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Grava linhas de exportação em um formato de texto, diretamente no destino.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+abstract class EscritorExportacao {
+
+    protected final Writer destino;
+    protected final List<String> colunas;
+
+    protected EscritorExportacao(Writer destino, List<String> colunas) {
+        this.destino = destino;
+        this.colunas = colunas;
+    }
+
+    /**
+     * @param formato "csv" ou "ndjson"
+     * @return Escritor do formato, ou null se o formato não for suportado
+     */
+    static EscritorExportacao para(String formato, Writer destino, List<String> colunas) {
+        if ("csv".equalsIgnoreCase(formato)) {
+            return new Csv(destino, colunas);
+        }
+        if ("ndjson".equalsIgnoreCase(formato)) {
+            return new Ndjson(destino, colunas);
+        }
+        return null;
+    }
+
+    abstract String getTipoConteudo();
+
+    abstract String getExtensao();
+
+    /**
+     * Grava o que vem antes da primeira linha (ex.: cabeçalho do CSV).
+     */
+    abstract void iniciar() throws IOException;
+
+    abstract void escrever(Object[] linha) throws IOException;
+
+    /**
+     * Datas em ISO-8601 e números sem notação científica.
+     */
+    protected static String texto(Object valor) {
+        if (valor instanceof BigDecimal) {
+            return ((BigDecimal) valor).toPlainString();
+        }
+        return String.valueOf(valor);
+    }
+
+    /**
+     * CSV separado por ponto e vírgula (padrão do Excel em português), com aspas
+     * apenas nos valores que contêm separador, aspas ou quebra de linha.
+     */
+    static final class Csv extends EscritorExportacao {
+
+        private static final char SEPARADOR = ';';
+
+        Csv(Writer destino, List<String> colunas) {
+            super(destino, colunas);
+        }
+
+        @Override
+        String getTipoConteudo() {
+            return "text/csv; charset=UTF-8";
+        }
+
+        @Override
+        String getExtensao() {
+            return "csv";
+        }
+
+        @Override
+        void iniciar() throws IOException {
+            escrever(colunas.toArray());
+        }
+
+        @Override
+        void escrever(Object[] linha) throws IOException {
+            for (int i = 0; i < linha.length; i++) {
+                if (i > 0) {
+                    destino.write(SEPARADOR);
+                }
+                if (linha[i] != null) {
+                    escreverCampo(texto(linha[i]));
+                }
+            }
+            destino.write("\r\n");
+        }
+
+        private void escreverCampo(String valor) throws IOException {
+            boolean aspas = false;
+            for (int i = 0; i < valor.length() && !aspas; i++) {
+                char c = valor.charAt(i);
+                aspas = c == SEPARADOR || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!aspas) {
+                destino.write(valor);
+                return;
+            }
+            destino.write('"');
+            destino.write(valor.replace("\"", "\"\""));
+            destino.write('"');
+        }
+    }
+
+    /**
+     * Um objeto JSON por linha, com os nomes das colunas como chaves.
+     */
+    static final class Ndjson extends EscritorExportacao {
+
+        Ndjson(Writer destino, List<String> colunas) {
+            super(destino, colunas);
+        }
+
+        @Override
+        String getTipoConteudo() {
+            return "application/x-ndjson; charset=UTF-8";
+        }
+
+        @Override
+        String getExtensao() {
+            return "ndjson";
+        }
+
+        @Override
+        void iniciar() {
+            // O formato não tem cabeçalho
+        }
+
+        @Override
+        void escrever(Object[] linha) throws IOException {
+            destino.write('{');
+            for (int i = 0; i < linha.length; i++) {
+                if (i > 0) {
+                    destino.write(',');
+                }
+                escreverTexto(colunas.get(i));
+                destino.write(':');
+                Object valor = linha[i];
+                if (valor == null || valor instanceof Number || valor instanceof Boolean) {
+                    destino.write(texto(valor));
+                } else {
+                    escreverTexto(texto(valor));
+                }
+            }
+            destino.write("}\n");
+        }
+
+        private void escreverTexto(String valor) throws IOException {
+            destino.write('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                switch (c) {
+                    case '"':
+                        destino.write("\\\"");
+                        break;
+                    case '\\':
+                        destino.write("\\\\");
+                        break;
+                    case '\n':
+                        destino.write("\\n");
+                        break;
+                    case '\r':
+                        destino.write("\\r");
+                        break;
+                    case '\t':
+                        destino.write("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            destino.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            destino.write(c);
+                        }
+                }
+            }
+            destino.write('"');
+        }
+    }
+}
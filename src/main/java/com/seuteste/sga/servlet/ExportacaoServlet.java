@@ -0,0 +1,105 @@
+package com.seuteste.sga.servlet;
+
+import com.seuteste.sga.model.Usuario;
+import com.seuteste.sga.service.ExportacaoService;
+import com.seuteste.sga.service.ServiceException;
+import com.seuteste.sga.util.SessaoUtil;
+
+import javax.enterprise.inject.spi.CDI;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Exportação de pedidos (com itens), produtos e clientes em CSV ou NDJSON.
+ * 
+ * Uso: {@code /exportar/pedidos?formato=csv} (ou {@code produtos}, {@code clientes};
+ * {@code formato=ndjson}). As linhas são gravadas na resposta à medida que o banco as
+ * devolve, sem montar listas, então a memória usada é a mesma para qualquer volume.
+ * O filtro de autenticação exige o login; o perfil é conferido aqui, sobre o conjunto
+ * já resolvido, para que nenhuma variação do caminho escape da regra.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+@WebServlet(urlPatterns = {"/exportar/*"})
+public class ExportacaoServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = Logger.getLogger(ExportacaoServlet.class.getName());
+
+    /** Tamanho do buffer entre as linhas gravadas e a resposta. */
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private transient ExportacaoService exportacaoService;
+
+    @Override
+    public void init() throws ServletException {
+        exportacaoService = CDI.current().select(ExportacaoService.class).get();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        String caminho = request.getPathInfo();
+        ExportacaoService.Conjunto conjunto = caminho != null
+                ? ExportacaoService.Conjunto.porNome(caminho.substring(1)) : null;
+        if (conjunto == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Use /exportar/pedidos, /exportar/produtos ou /exportar/clientes.");
+            return;
+        }
+        Usuario usuario = SessaoUtil.getUsuarioLogado(request);
+        if (usuario == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Faça login para exportar.");
+            return;
+        }
+        boolean autorizado = conjunto.isSomenteAdmin()
+                ? usuario.isAdmin()
+                : usuario.isAdmin() || usuario.isOperador();
+        if (!autorizado) {
+            LOGGER.warning("Exportação de " + conjunto.getNome() + " negada para: " + usuario.getEmail());
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Acesso negado à exportação de " + conjunto.getNome() + ".");
+            return;
+        }
+        String formato = request.getParameter("formato");
+        if (formato == null || formato.trim().isEmpty()) {
+            formato = "csv";
+        }
+
+        Writer saida = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), TAMANHO_BUFFER);
+        EscritorExportacao escritor = EscritorExportacao.para(formato, saida, conjunto.getColunas());
+        if (escritor == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Formato não suportado: " + formato + " (use csv ou ndjson).");
+            return;
+        }
+
+        response.setContentType(escritor.getTipoConteudo());
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + conjunto.getNome() + "-"
+                + LocalDate.now() + "." + escritor.getExtensao() + "\"");
+        response.setHeader("Cache-Control", "no-store");
+
+        try {
+            escritor.iniciar();
+            long linhas = exportacaoService.exportar(conjunto, escritor::escrever);
+            saida.flush();
+            LOGGER.fine("Exportação de " + conjunto.getNome() + " concluída: " + linhas + " linhas");
+        } catch (ServiceException e) {
+            LOGGER.log(Level.WARNING, "Falha na exportação de " + conjunto.getNome(), e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Erro ao exportar " + conjunto.getNome() + ".");
+            }
+            // Com parte do arquivo já enviada, só resta interromper a resposta
+        }
+    }
+}
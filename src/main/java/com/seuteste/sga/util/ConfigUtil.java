@@ -1,5 +1,8 @@
 package com.seuteste.sga.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Utilitário para leitura de configurações do ambiente
  * Facilita a configuração da aplicação em diferentes ambientes (desenvolvimento, produção)
@@ -59,7 +62,238 @@ public class ConfigUtil {
     public static String getDatabasePassword() {
         return getEnvVar("DB_PASSWORD", "postgres");
     }
+
+    /**
+     * Obtém uma variável de ambiente numérica ou retorna um valor padrão
+     * @param envVar Nome da variável de ambiente
+     * @param defaultValue Valor padrão se a variável não existir ou for inválida
+     * @return Valor da variável de ambiente ou valor padrão
+     */
+    public static int getIntEnvVar(String envVar, int defaultValue) {
+        String value = System.getenv(envVar);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Obtém a URL da réplica de leitura do banco de dados
+     * @return URL da réplica, ou null se não houver réplica (todas as leituras vão para o banco principal)
+     */
+    public static String getReplicaDatabaseUrl() {
+        String url = getEnvVar("DB_REPLICA_URL", null);
+        return url == null || url.trim().isEmpty() ? null : url.trim();
+    }
+    
+    /**
+     * Obtém o usuário da réplica de leitura
+     * @return Usuário da réplica (o mesmo do banco principal se não informado)
+     */
+    public static String getReplicaDatabaseUsername() {
+        return getEnvVar("DB_REPLICA_USERNAME", getDatabaseUsername());
+    }
+    
+    /**
+     * Obtém a senha da réplica de leitura
+     * @return Senha da réplica (a mesma do banco principal se não informada)
+     */
+    public static String getReplicaDatabasePassword() {
+        return getEnvVar("DB_REPLICA_PASSWORD", getDatabasePassword());
+    }
     
+    /**
+     * Obtém por quanto tempo (em segundos), depois de uma escrita, as leituras da mesma sessão
+     * continuam no banco principal, para que o usuário veja o que acabou de gravar mesmo
+     * com a réplica atrasada
+     * @return Janela de aderência ao banco principal em segundos
+     */
+    public static int getReplicaAderenciaSegundos() {
+        return getIntEnvVar("DB_REPLICA_ADERENCIA_SEGUNDOS", 5);
+    }
+
+    /**
+     * Obtém o número mínimo de conexões mantidas no pool
+     * @return Tamanho mínimo do pool
+     */
+    public static int getPoolMinSize() {
+        return getIntEnvVar("DB_POOL_MIN_SIZE", 5);
+    }
+
+    /**
+     * Obtém o número máximo de conexões do pool
+     * @return Tamanho máximo do pool
+     */
+    public static int getPoolMaxSize() {
+        return getIntEnvVar("DB_POOL_MAX_SIZE", 20);
+    }
+
+    /**
+     * Obtém o tempo máximo (em segundos) que uma conexão pode ficar ociosa antes de ser descartada
+     * @return Tempo máximo de ociosidade em segundos
+     */
+    public static int getPoolMaxIdleSeconds() {
+        return getIntEnvVar("DB_POOL_MAX_IDLE_SECONDS", 300);
+    }
+
+    /**
+     * Obtém o tempo máximo (em milissegundos) de espera por uma conexão livre
+     * @return Timeout de obtenção de conexão em milissegundos
+     */
+    public static int getPoolAcquireTimeoutMillis() {
+        return getIntEnvVar("DB_POOL_ACQUIRE_TIMEOUT_MS", 5000);
+    }
+
+    /**
+     * Obtém a localização do arquivo de configuração do cache de segundo nível
+     * @return Recurso do classpath ou URL (ex.: file:/etc/sga/ehcache.xml) do arquivo do Ehcache
+     */
+    public static String getCacheConfigUri() {
+        return getEnvVar("CACHE_CONFIG", "ehcache.xml");
+    }
+    
+    /**
+     * Obtém o intervalo (em segundos) entre as conferências dos contadores em memória com o banco
+     * @return Intervalo de reconciliação em segundos
+     */
+    public static int getContadoresReconciliacaoSegundos() {
+        return getIntEnvVar("CONTADORES_RECONCILIACAO_SEGUNDOS", 300);
+    }
+
+    /**
+     * Obtém quantos dias, até hoje, o resumo de vendas recalcula a cada 24 horas
+     * @return Dias recalculados pela reconstrução diária (0 desliga a reconstrução periódica)
+     */
+    public static int getResumoVendasReconstrucaoDias() {
+        return getIntEnvVar("RESUMO_VENDAS_RECONSTRUCAO_DIAS", 35);
+    }
+
+    /**
+     * Obtém o estoque mínimo dos produtos que não definem o seu
+     * @return Estoque mínimo padrão para os alertas de reposição
+     */
+    public static int getEstoqueMinimoPadrao() {
+        return getIntEnvVar("ESTOQUE_MINIMO_PADRAO", 5);
+    }
+
+    /**
+     * Obtém o intervalo (em segundos) entre as conferências dos alertas de estoque com o banco
+     * @return Intervalo de reconciliação em segundos
+     */
+    public static int getAlertasEstoqueReconciliacaoSegundos() {
+        return getIntEnvVar("ALERTAS_ESTOQUE_RECONCILIACAO_SEGUNDOS", 900);
+    }
+
+    /**
+     * Obtém por quanto tempo (em segundos) as reservas de estoque de um pedido em edição
+     * são mantidas sem uso do formulário
+     * @return Tempo de vida das reservas em segundos
+     */
+    public static int getReservaEstoqueTtlSegundos() {
+        return getIntEnvVar("RESERVA_ESTOQUE_TTL_SEGUNDOS", 900);
+    }
+
+    /**
+     * Obtém o custo BCrypt fixo dos hashes de senha
+     * @return Custo BCrypt (0 calibra o custo na subida pelo tempo alvo de verificação)
+     */
+    public static int getBcryptRounds() {
+        return getIntEnvVar("BCRYPT_ROUNDS", 0);
+    }
+
+    /**
+     * Obtém o tempo alvo (em milissegundos) de uma verificação de senha, usado na calibração do custo BCrypt
+     * @return Tempo alvo de verificação em milissegundos
+     */
+    public static int getBcryptAlvoMillis() {
+        return getIntEnvVar("BCRYPT_ALVO_MS", 250);
+    }
+
+    /**
+     * Obtém quantas verificações de senha (BCrypt) podem rodar ao mesmo tempo
+     * @return Threads dedicadas à verificação de senhas (padrão: metade dos processadores)
+     */
+    public static int getSenhaVerificacaoThreads() {
+        return getIntEnvVar("SENHA_VERIFICACAO_THREADS", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * Obtém quantas verificações de senha podem aguardar na fila antes de os logins serem recusados
+     * @return Tamanho máximo da fila de verificação de senhas
+     */
+    public static int getSenhaVerificacaoFila() {
+        return getIntEnvVar("SENHA_VERIFICACAO_FILA", 4 * getSenhaVerificacaoThreads());
+    }
+
+    /**
+     * Obtém quanto tempo (em milissegundos) um login espera pela verificação da senha
+     * @return Tempo máximo de espera pela verificação em milissegundos
+     */
+    public static int getSenhaVerificacaoTimeoutMillis() {
+        return getIntEnvVar("SENHA_VERIFICACAO_TIMEOUT_MS", 5000);
+    }
+
+    /**
+     * Obtém quantas tentativas de login seguidas um mesmo email pode fazer antes de ser limitado
+     * @return Tamanho da rajada de tentativas por email
+     */
+    public static int getLoginLimiteEmailRajada() {
+        return getIntEnvVar("LOGIN_LIMITE_EMAIL_RAJADA", 5);
+    }
+
+    /**
+     * Obtém quantas tentativas de login por minuto um mesmo email recupera
+     * @return Tentativas por minuto por email (0 desliga o limite por email)
+     */
+    public static int getLoginLimiteEmailPorMinuto() {
+        return getIntEnvVar("LOGIN_LIMITE_EMAIL_POR_MINUTO", 5);
+    }
+
+    /**
+     * Obtém quantas tentativas de login seguidas um mesmo endereço IP pode fazer antes de ser limitado
+     * @return Tamanho da rajada de tentativas por IP (comporta a troca de turno atrás de um mesmo NAT)
+     */
+    public static int getLoginLimiteIpRajada() {
+        return getIntEnvVar("LOGIN_LIMITE_IP_RAJADA", 50);
+    }
+
+    /**
+     * Obtém quantas tentativas de login por minuto um mesmo endereço IP recupera.
+     * Sem LOGIN_PROXIES_CONFIAVEIS o limite vem desligado: atrás do balanceador todas as
+     * requisições chegariam com o endereço dele.
+     * @return Tentativas por minuto por IP (0 desliga o limite por IP)
+     */
+    public static int getLoginLimiteIpPorMinuto() {
+        return getIntEnvVar("LOGIN_LIMITE_IP_POR_MINUTO", getLoginProxiesConfiaveis().isEmpty() ? 0 : 120);
+    }
+
+    /**
+     * Obtém os proxies (nginx, balanceador) cujo cabeçalho X-Forwarded-For é aceito como
+     * origem da requisição
+     * @return Endereços IP ou faixas IPv4 (ex.: 10.0.0.0/16), separados por vírgula na variável
+     */
+    public static List<String> getLoginProxiesConfiaveis() {
+        List<String> proxies = new ArrayList<>();
+        for (String proxy : getEnvVar("LOGIN_PROXIES_CONFIAVEIS", "").split(",")) {
+            if (!proxy.trim().isEmpty()) {
+                proxies.add(proxy.trim());
+            }
+        }
+        return proxies;
+    }
+
+    /**
+     * Obtém quantos emails e IPs o limitador de login acompanha ao mesmo tempo
+     * @return Número máximo de chaves do limitador de login
+     */
+    public static int getLoginLimiteChaves() {
+        return getIntEnvVar("LOGIN_LIMITE_CHAVES", 100_000);
+    }
+
     /**
      * Obtém a porta da aplicação
      * @return Porta da aplicação
@@ -2,6 +2,9 @@ package com.seuteste.sga.util;
 
 import at.favre.lib.crypto.bcrypt.BCrypt;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
 /**
  * Classe utilitária para criptografia de senhas usando BCrypt.
  * 
@@ -11,10 +14,24 @@ import at.favre.lib.crypto.bcrypt.BCrypt;
 public class CriptografiaUtil {
 
     /**
-     * Número de rounds para o algoritmo BCrypt.
+     * Número de rounds para o algoritmo BCrypt até a calibração.
      * Valor padrão: 12 (oferece boa segurança e performance).
      */
-    private static final int ROUNDS = 12;
+    private static final int ROUNDS_PADRAO = 12;
+
+    /** Menor custo aceito pela calibração, por mais lenta que seja a máquina. */
+    private static final int ROUNDS_MINIMO = 10;
+
+    /** Maior custo aceito pela calibração. */
+    private static final int ROUNDS_MAXIMO = 16;
+
+    /** Custo medido pela calibração; cada round a mais dobra o tempo. */
+    private static final int ROUNDS_MEDICAO = 8;
+
+    private static final int MEDICOES = 5;
+
+    /** Custo usado nos novos hashes; definido por {@link #calibrarRounds(long)}. */
+    private static volatile int rounds = ROUNDS_PADRAO;
 
     /**
      * Construtor privado para evitar instanciação da classe utilitária.
@@ -35,7 +52,7 @@ public class CriptografiaUtil {
             throw new IllegalArgumentException("A senha não pode ser nula ou vazia");
         }
         
-        return BCrypt.withDefaults().hashToString(ROUNDS, senhaPlana.toCharArray());
+        return BCrypt.withDefaults().hashToString(rounds, senhaPlana.toCharArray());
     }
 
     /**
@@ -92,7 +109,7 @@ public class CriptografiaUtil {
      * @return Um salt aleatório
      */
     public static String gerarSalt() {
-        return BCrypt.withDefaults().hashToString(ROUNDS, "".toCharArray()).substring(0, 29);
+        return BCrypt.withDefaults().hashToString(rounds, "".toCharArray()).substring(0, 29);
     }
 
     /**
@@ -115,6 +132,75 @@ public class CriptografiaUtil {
         }
     }
 
+    /**
+     * @return Custo (rounds) usado nos novos hashes
+     */
+    public static int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Define o custo dos novos hashes.
+     * 
+     * @param novosRounds Custo BCrypt, entre 4 e 31
+     * @throws IllegalArgumentException se o custo estiver fora do intervalo do BCrypt
+     */
+    public static void setRounds(int novosRounds) {
+        if (novosRounds < 4 || novosRounds > 31) {
+            throw new IllegalArgumentException("O custo do BCrypt deve estar entre 4 e 31");
+        }
+        rounds = novosRounds;
+    }
+
+    /**
+     * Escolhe o maior custo cuja verificação cabe no tempo alvo nesta máquina e passa a
+     * usá-lo nos novos hashes. O tempo é medido num custo baixo (o melhor de algumas
+     * execuções, já com o código aquecido) e extrapolado, pois cada round dobra o trabalho.
+     * Com a máquina ociosa, a latência de uma verificação é esse tempo de CPU.
+     * O resultado fica entre {@value #ROUNDS_MINIMO} e {@value #ROUNDS_MAXIMO}.
+     * 
+     * @param alvoMillis Tempo alvo de uma verificação em milissegundos
+     * @return Custo escolhido
+     */
+    public static int calibrarRounds(long alvoMillis) {
+        char[] senha = "calibracao-bcrypt".toCharArray();
+        // Tempo de CPU da thread, quando disponível: na subida, outras threads (JIT, servidor)
+        // disputam a CPU e inflariam o tempo de relógio
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean tempoCpu = threads.isCurrentThreadCpuTimeSupported();
+        long melhor = Long.MAX_VALUE;
+        for (int i = 0; i < 2 * MEDICOES; i++) {
+            long inicio = tempoCpu ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+            BCrypt.withDefaults().hash(ROUNDS_MEDICAO, senha);
+            long fim = tempoCpu ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+            // As primeiras execuções só aquecem o JIT
+            if (i >= MEDICOES) {
+                melhor = Math.min(melhor, fim - inicio);
+            }
+        }
+        long alvoNanos = alvoMillis * 1_000_000L;
+        int escolhido = ROUNDS_MINIMO;
+        while (escolhido < ROUNDS_MAXIMO && melhor << (escolhido + 1 - ROUNDS_MEDICAO) <= alvoNanos) {
+            escolhido++;
+        }
+        rounds = escolhido;
+        return escolhido;
+    }
+
+    /**
+     * Indica se o hash armazenado deve ser refeito: texto plano (hash inválido) ou custo
+     * menor que o usado nos novos hashes. Um custo maior é mantido; instâncias calibradas
+     * em máquinas diferentes chegariam a custos diferentes e, com qualquer diferença,
+     * ficariam refazendo o hash umas das outras a cada login.
+     * 
+     * @param hash O hash armazenado
+     * @return true se a senha deve ser criptografada de novo no próximo login
+     */
+    public static boolean precisaRehash(String hash) {
+        // obterRounds devolve -1 para hashes inválidos, sempre abaixo do custo atual
+        return obterRounds(hash) < rounds;
+    }
+
     /**
      * Verifica se uma senha atende aos critérios mínimos de segurança.
      * 
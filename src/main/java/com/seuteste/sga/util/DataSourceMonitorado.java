@@ -0,0 +1,111 @@
+package com.seuteste.sga.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * DataSource que delega para o pool real e mede o tempo de obtenção de cada conexão.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public class DataSourceMonitorado implements DataSource {
+
+    private final DataSource delegado;
+    private final HistogramaLatencia histogramaObtencao = new HistogramaLatencia();
+    private final LongAdder falhasObtencao = new LongAdder();
+
+    public DataSourceMonitorado(DataSource delegado) {
+        this.delegado = delegado;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long inicio = System.nanoTime();
+        try {
+            Connection conexao = delegado.getConnection();
+            histogramaObtencao.registrar(System.nanoTime() - inicio);
+            return conexao;
+        } catch (SQLException e) {
+            falhasObtencao.increment();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long inicio = System.nanoTime();
+        try {
+            Connection conexao = delegado.getConnection(username, password);
+            histogramaObtencao.registrar(System.nanoTime() - inicio);
+            return conexao;
+        } catch (SQLException e) {
+            falhasObtencao.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Histograma do tempo de obtenção de conexões
+     */
+    public HistogramaLatencia getHistogramaObtencao() {
+        return histogramaObtencao;
+    }
+
+    /**
+     * @return Número de tentativas de obtenção que falharam (ex.: timeout do pool)
+     */
+    public long getFalhasObtencao() {
+        return falhasObtencao.sum();
+    }
+
+    /**
+     * @return DataSource real encapsulado
+     */
+    public DataSource getDelegado() {
+        return delegado;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegado.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegado.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegado.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegado.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegado.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return delegado.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || delegado.isWrapperFor(iface);
+    }
+}
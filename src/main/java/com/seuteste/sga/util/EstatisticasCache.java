@@ -0,0 +1,85 @@
+package com.seuteste.sga.util;
+
+import java.io.Serializable;
+
+/**
+ * Fotografia instantânea das estatísticas de uma região do cache de segundo nível.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public class EstatisticasCache implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String regiao;
+    private final long acertos;
+    private final long falhas;
+    private final long insercoes;
+    private final long remocoes;
+    private final long expulsoes;
+
+    public EstatisticasCache(String regiao, long acertos, long falhas, long insercoes,
+                             long remocoes, long expulsoes) {
+        this.regiao = regiao;
+        this.acertos = acertos;
+        this.falhas = falhas;
+        this.insercoes = insercoes;
+        this.remocoes = remocoes;
+        this.expulsoes = expulsoes;
+    }
+
+    /**
+     * @return Nome da região (entidade ou região de consultas)
+     */
+    public String getRegiao() {
+        return regiao;
+    }
+
+    public long getAcertos() {
+        return acertos;
+    }
+
+    public long getFalhas() {
+        return falhas;
+    }
+
+    public long getInsercoes() {
+        return insercoes;
+    }
+
+    /**
+     * @return Entradas removidas explicitamente (atualizações e invalidações)
+     */
+    public long getRemocoes() {
+        return remocoes;
+    }
+
+    /**
+     * @return Entradas descartadas por falta de espaço na região
+     */
+    public long getExpulsoes() {
+        return expulsoes;
+    }
+
+    /**
+     * @return Percentual de acertos (0 a 100), ou 0 se não houve leituras
+     */
+    public double getTaxaAcerto() {
+        long leituras = acertos + falhas;
+        return leituras == 0 ? 0.0 : acertos * 100.0 / leituras;
+    }
+
+    @Override
+    public String toString() {
+        return "EstatisticasCache{" +
+                "regiao=" + regiao +
+                ", acertos=" + acertos +
+                ", falhas=" + falhas +
+                ", taxaAcerto=" + String.format("%.1f%%", getTaxaAcerto()) +
+                ", insercoes=" + insercoes +
+                ", remocoes=" + remocoes +
+                ", expulsoes=" + expulsoes +
+                '}';
+    }
+}
@@ -0,0 +1,103 @@
+package com.seuteste.sga.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Fotografia instantânea das estatísticas do pool de conexões.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public class EstatisticasPool implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int conexoesAtivas;
+    private final int conexoesOciosas;
+    private final int conexoesTotais;
+    private final int threadsAguardando;
+    private final int tamanhoMinimo;
+    private final int tamanhoMaximo;
+    private final long falhasObtencao;
+    private final long[] limitesHistogramaMs;
+    private final long[] histogramaObtencao;
+    private final double mediaObtencaoMs;
+
+    public EstatisticasPool(int conexoesAtivas, int conexoesOciosas, int conexoesTotais, int threadsAguardando,
+                            int tamanhoMinimo, int tamanhoMaximo, long falhasObtencao,
+                            long[] limitesHistogramaMs, long[] histogramaObtencao, double mediaObtencaoMs) {
+        this.conexoesAtivas = conexoesAtivas;
+        this.conexoesOciosas = conexoesOciosas;
+        this.conexoesTotais = conexoesTotais;
+        this.threadsAguardando = threadsAguardando;
+        this.tamanhoMinimo = tamanhoMinimo;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.falhasObtencao = falhasObtencao;
+        this.limitesHistogramaMs = limitesHistogramaMs;
+        this.histogramaObtencao = histogramaObtencao;
+        this.mediaObtencaoMs = mediaObtencaoMs;
+    }
+
+    public int getConexoesAtivas() {
+        return conexoesAtivas;
+    }
+
+    public int getConexoesOciosas() {
+        return conexoesOciosas;
+    }
+
+    public int getConexoesTotais() {
+        return conexoesTotais;
+    }
+
+    public int getThreadsAguardando() {
+        return threadsAguardando;
+    }
+
+    public int getTamanhoMinimo() {
+        return tamanhoMinimo;
+    }
+
+    public int getTamanhoMaximo() {
+        return tamanhoMaximo;
+    }
+
+    public long getFalhasObtencao() {
+        return falhasObtencao;
+    }
+
+    /**
+     * @return Limites superiores das faixas do histograma, em milissegundos
+     */
+    public long[] getLimitesHistogramaMs() {
+        return limitesHistogramaMs.clone();
+    }
+
+    /**
+     * @return Contagens por faixa do tempo de obtenção de conexão (a última faixa é aberta)
+     */
+    public long[] getHistogramaObtencao() {
+        return histogramaObtencao.clone();
+    }
+
+    public double getMediaObtencaoMs() {
+        return mediaObtencaoMs;
+    }
+
+    @Override
+    public String toString() {
+        return "EstatisticasPool{" +
+                "ativas=" + conexoesAtivas +
+                ", ociosas=" + conexoesOciosas +
+                ", totais=" + conexoesTotais +
+                ", aguardando=" + threadsAguardando +
+                ", min=" + tamanhoMinimo +
+                ", max=" + tamanhoMaximo +
+                ", falhas=" + falhasObtencao +
+                ", mediaObtencaoMs=" + String.format("%.3f", mediaObtencaoMs) +
+                ", limitesMs=" + Arrays.toString(limitesHistogramaMs) +
+                ", histograma=" + Arrays.toString(histogramaObtencao) +
+                '}';
+    }
+}
@@ -0,0 +1,119 @@
+package com.seuteste.sga.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latência com faixas fixas, seguro para uso concorrente.
+ * Cada registro custa apenas um incremento em um LongAdder, sem bloqueios.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public class HistogramaLatencia {
+
+    /**
+     * Limites superiores (inclusivos) das faixas, em milissegundos.
+     * A última faixa acumula tudo que for maior que o último limite.
+     */
+    private static final long[] LIMITES_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private final LongAdder[] faixas;
+    private final LongAdder total = new LongAdder();
+    private final LongAdder somaNanos = new LongAdder();
+
+    public HistogramaLatencia() {
+        faixas = new LongAdder[LIMITES_MS.length + 1];
+        for (int i = 0; i < faixas.length; i++) {
+            faixas[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra uma medição.
+     *
+     * @param nanos Duração em nanossegundos
+     */
+    public void registrar(long nanos) {
+        long ms = nanos / 1_000_000L;
+        int i = 0;
+        while (i < LIMITES_MS.length && ms > LIMITES_MS[i]) {
+            i++;
+        }
+        faixas[i].increment();
+        total.increment();
+        somaNanos.add(nanos);
+    }
+
+    /**
+     * @return Limites superiores das faixas em milissegundos (a última faixa não tem limite)
+     */
+    public long[] getLimitesMs() {
+        return LIMITES_MS.clone();
+    }
+
+    /**
+     * @return Contagem de medições por faixa, na mesma ordem de {@link #getLimitesMs()} mais a faixa final
+     */
+    public long[] getContagens() {
+        long[] contagens = new long[faixas.length];
+        for (int i = 0; i < faixas.length; i++) {
+            contagens[i] = faixas[i].sum();
+        }
+        return contagens;
+    }
+
+    /**
+     * @return Número total de medições
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * @return Latência média em milissegundos, ou 0 se não houver medições
+     */
+    public double getMediaMs() {
+        long n = total.sum();
+        return n == 0 ? 0.0 : (somaNanos.sum() / (double) n) / 1_000_000.0;
+    }
+
+    /**
+     * Estima um percentil a partir das faixas (retorna o limite superior da faixa que o contém).
+     *
+     * @param percentil Valor entre 0 e 100
+     * @return Limite superior estimado em milissegundos, ou -1 se cair na faixa aberta
+     */
+    public long getPercentilMs(double percentil) {
+        long[] contagens = getContagens();
+        long n = 0;
+        for (long c : contagens) {
+            n += c;
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long alvo = (long) Math.ceil(n * (percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < contagens.length; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= alvo) {
+                return i < LIMITES_MS.length ? LIMITES_MS[i] : -1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("HistogramaLatencia{");
+        long[] contagens = getContagens();
+        for (int i = 0; i < contagens.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(i < LIMITES_MS.length ? "<=" + LIMITES_MS[i] + "ms" : ">" + LIMITES_MS[LIMITES_MS.length - 1] + "ms")
+              .append('=').append(contagens[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.seuteste.sga.util;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cria os índices de trigramas (pg_trgm) usados nas buscas por nome.
+ * 
+ * Os índices GIN sobre {@code lower(nome)} atendem tanto {@code LOWER(nome) LIKE '%termo%'}
+ * quanto os operadores de similaridade do pg_trgm, evitando a leitura completa da tabela
+ * a cada busca. Executado na subida da aplicação; todos os comandos são idempotentes.
+ * 
+ * @author SGA Team
+ * @version 1.0
+ */
+public final class IndicesBusca {
+
+    private static final Logger LOGGER = Logger.getLogger(IndicesBusca.class.getName());
+
+    /** Pares tabela / nome do índice; a coluna indexada é sempre {@code lower(nome)}. */
+    private static final String[][] INDICES = {
+        {"produto", "idx_produto_nome_trgm"},
+        {"cliente", "idx_cliente_nome_trgm"},
+        {"usuario", "idx_usuario_nome_trgm"}
+    };
+
+    private IndicesBusca() {
+    }
+
+    /**
+     * Garante a extensão pg_trgm e os índices de busca por nome.
+     * Falhas (ex.: usuário sem permissão para criar a extensão) são registradas no log;
+     * as buscas continuam funcionando, apenas sem o índice.
+     */
+    public static void criar() {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            em.unwrap(Session.class).doWork(IndicesBusca::criar);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Não foi possível criar os índices de busca por nome", e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    private static void criar(Connection conexao) throws SQLException {
+        boolean autoCommit = conexao.getAutoCommit();
+        // CREATE INDEX CONCURRENTLY não roda dentro de transação
+        conexao.setAutoCommit(true);
+        try (Statement comando = conexao.createStatement()) {
+            comando.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            for (String[] indice : INDICES) {
+                String tabela = indice[0];
+                String nome = indice[1];
+                if (!existeTabela(conexao, tabela)) {
+                    continue;
+                }
+                // Uma criação concorrente interrompida deixa o índice inválido; ele é refeito
+                if (isIndiceInvalido(conexao, nome)) {
+                    comando.execute("DROP INDEX CONCURRENTLY IF EXISTS " + nome);
+                }
+                // CONCURRENTLY: não bloqueia gravações na tabela enquanto o índice é construído
+                comando.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + nome + " ON " + tabela
+                        + " USING gin (lower(nome) gin_trgm_ops)");
+            }
+            LOGGER.info("Índices de busca por nome (pg_trgm) verificados");
+        } finally {
+            conexao.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static boolean existeTabela(Connection conexao, String tabela) throws SQLException {
+        try (PreparedStatement consulta = conexao.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            consulta.setString(1, tabela);
+            try (ResultSet resultado = consulta.executeQuery()) {
+                return resultado.next() && resultado.getBoolean(1);
+            }
+        }
+    }
+
+    private static boolean isIndiceInvalido(Connection conexao, String indice) throws SQLException {
+        String sql = "SELECT NOT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?";
+        try (PreparedStatement consulta = conexao.prepareStatement(sql)) {
+            consulta.setString(1, indice);
+            try (ResultSet resultado = consulta.executeQuery()) {
+                return resultado.next() && resultado.getBoolean(1);
+            }
+        }
+    }
+}
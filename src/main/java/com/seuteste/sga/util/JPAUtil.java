@@ -1,12 +1,34 @@
 package com.seuteste.sga.util;
 
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+import com.seuteste.sga.dao.DAOException;
+import org.hibernate.jpa.boot.internal.ParsedPersistenceXmlDescriptor;
+import org.hibernate.jpa.boot.internal.PersistenceXmlParser;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Classe utilitária para gerenciar o EntityManager do JPA.
  * Implementa o padrão Singleton para garantir uma única instância do EntityManagerFactory.
+ * O EntityManagerFactory é construído sobre um pool de conexões C3P0 configurável
+ * por variáveis de ambiente (ver {@link ConfigUtil}).
+ * 
+ * Se DB_REPLICA_URL estiver definida, um segundo EntityManagerFactory, somente leitura e
+ * sem cache de segundo nível, atende as consultas que aceitam dados com algum atraso
+ * (ver {@link #getEntityManagerLeitura()}).
  * 
  * @author SGA Team
  * @version 1.0
@@ -14,7 +36,58 @@ import javax.persistence.Persistence;
 public class JPAUtil {
 
     private static final String PERSISTENCE_UNIT_NAME = "sgaPU";
-    private static EntityManagerFactory entityManagerFactory;
+
+    /** Propriedade da unidade de persistência com o sslmode exigido nas conexões (ex.: require). */
+    private static final String PROPRIEDADE_SSLMODE = "sga.conexao.sslmode";
+    private static volatile EntityManagerFactory entityManagerFactory;
+    private static ComboPooledDataSource poolConexoes;
+    private static DataSourceMonitorado dataSource;
+
+    /** Tempo de espera para tentar de novo a réplica depois de uma falha ao conectar. */
+    private static final long ESPERA_NOVA_TENTATIVA_REPLICA_MS = 60_000L;
+
+    private static volatile EntityManagerFactory entityManagerFactoryLeitura;
+    private static ComboPooledDataSource poolConexoesLeitura;
+    private static volatile long proximaTentativaReplica;
+
+    /**
+     * Momento (System.currentTimeMillis) da última escrita confirmada pela sessão do usuário
+     * da requisição atual. Enquanto estiver dentro da janela de aderência, as leituras não
+     * vão para a réplica.
+     */
+    private static final ThreadLocal<Long> ULTIMA_ESCRITA = new ThreadLocal<>();
+
+    /**
+     * Marca a thread de uma requisição cujo filtro de aderência guarda a última escrita na
+     * sessão do usuário. Em threads de fundo as escritas não são registradas: nada levaria o
+     * registro adiante, e ele só prenderia as leituras seguintes da thread ao banco principal.
+     */
+    private static final ThreadLocal<Boolean> ADERENCIA_DA_REQUISICAO = new ThreadLocal<>();
+
+    /** Indica que a transação em andamento na thread executou INSERT, UPDATE ou DELETE. */
+    private static final ThreadLocal<Boolean> ESCRITA_NA_TRANSACAO = new ThreadLocal<>();
+
+    /**
+     * Observa os comandos SQL do banco principal e marca a transação da thread que escreveu.
+     * Pega também os UPDATEs nativos e em lote (baixa de estoque, resumo de vendas), que não
+     * passam pela fila de ações da sessão.
+     */
+    private static final StatementInspector DETECTOR_ESCRITA = sql -> {
+        if (ESCRITA_NA_TRANSACAO.get() == null && isEscrita(sql)) {
+            ESCRITA_NA_TRANSACAO.set(Boolean.TRUE);
+        }
+        return sql;
+    };
+
+    /**
+     * EntityManager da unidade de trabalho (transação) em andamento na thread atual.
+     * Enquanto houver uma unidade de trabalho ativa, os DAOs reutilizam este EntityManager
+     * e participam da mesma transação em vez de abrir a sua própria.
+     */
+    private static final ThreadLocal<EntityManager> UNIDADE_DE_TRABALHO = new ThreadLocal<>();
+
+    /** Ações agendadas para depois do commit da unidade de trabalho da thread atual. */
+    private static final ThreadLocal<List<Runnable>> ACOES_APOS_CONFIRMACAO = new ThreadLocal<>();
 
     // Construtor privado para implementar Singleton
     private JPAUtil() {
@@ -27,35 +100,421 @@ public class JPAUtil {
      * @return EntityManagerFactory
      */
     public static EntityManagerFactory getEntityManagerFactory() {
-        if (entityManagerFactory == null || !entityManagerFactory.isOpen()) {
+        EntityManagerFactory emf = entityManagerFactory;
+        if (emf == null || !emf.isOpen()) {
+            synchronized (JPAUtil.class) {
+                emf = entityManagerFactory;
+                if (emf == null || !emf.isOpen()) {
+                    try {
+                        Map<String, Object> propriedades = new HashMap<>();
+                        propriedades.put("javax.persistence.nonJtaDataSource", getDataSource());
+                        propriedades.put("hibernate.javax.cache.uri", ConfigUtil.getCacheConfigUri());
+                        propriedades.put("hibernate.session_factory.statement_inspector", DETECTOR_ESCRITA);
+                        emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME, propriedades);
+                        entityManagerFactory = emf;
+                    } catch (Exception e) {
+                        System.err.println("Erro ao criar EntityManagerFactory: " + e.getMessage());
+                        e.printStackTrace();
+                        throw new RuntimeException("Falha na inicialização do JPA", e);
+                    }
+                }
+            }
+        }
+        return emf;
+    }
+
+    /**
+     * Obtém o DataSource com pool de conexões, criando-o na primeira chamada.
+     * 
+     * @return DataSource monitorado que encapsula o pool C3P0
+     */
+    private static synchronized DataSourceMonitorado getDataSource() throws Exception {
+        if (dataSource == null) {
+            // O driver reescreve cada lote de INSERTs em um único INSERT com vários VALUES
+            ComboPooledDataSource pool = criarPool(
+                    adicionarParametroUrl(exigirSsl(ConfigUtil.getDatabaseUrl()), "reWriteBatchedInserts", "true"),
+                    ConfigUtil.getDatabaseUsername(), ConfigUtil.getDatabasePassword());
+            poolConexoes = pool;
+            dataSource = new DataSourceMonitorado(pool);
+        }
+        return dataSource;
+    }
+
+    /**
+     * Cria um pool C3P0 com os parâmetros DB_POOL_* do ambiente.
+     */
+    private static ComboPooledDataSource criarPool(String url, String usuario, String senha) throws Exception {
+        ComboPooledDataSource pool = new ComboPooledDataSource();
+        pool.setDriverClass("org.postgresql.Driver");
+        pool.setJdbcUrl(url);
+        pool.setUser(usuario);
+        pool.setPassword(senha);
+        pool.setMinPoolSize(ConfigUtil.getPoolMinSize());
+        pool.setInitialPoolSize(ConfigUtil.getPoolMinSize());
+        pool.setMaxPoolSize(ConfigUtil.getPoolMaxSize());
+        pool.setAcquireIncrement(2);
+        pool.setMaxIdleTime(ConfigUtil.getPoolMaxIdleSeconds());
+        pool.setCheckoutTimeout(ConfigUtil.getPoolAcquireTimeoutMillis());
+        // Valida conexões ociosas em segundo plano, sem custo no checkout
+        pool.setIdleConnectionTestPeriod(60);
+        pool.setTestConnectionOnCheckin(true);
+        pool.setMaxStatementsPerConnection(50);
+        return pool;
+    }
+
+    /**
+     * Obtém o EntityManagerFactory da réplica de leitura, criando-o na primeira chamada.
+     * Ele não tem cache de segundo nível (dados da réplica podem estar atrasados e não devem
+     * alimentar o cache do banco principal) e suas conexões são somente leitura.
+     * 
+     * @return EntityManagerFactory da réplica, ou null se não houver réplica configurada ou disponível
+     */
+    private static EntityManagerFactory getEntityManagerFactoryLeitura() {
+        EntityManagerFactory emf = entityManagerFactoryLeitura;
+        if (emf != null && emf.isOpen()) {
+            return emf;
+        }
+        String url = ConfigUtil.getReplicaDatabaseUrl();
+        if (url == null || System.currentTimeMillis() < proximaTentativaReplica) {
+            return null;
+        }
+        synchronized (JPAUtil.class) {
+            emf = entityManagerFactoryLeitura;
+            if (emf != null && emf.isOpen()) {
+                return emf;
+            }
+            ComboPooledDataSource pool = null;
             try {
-                entityManagerFactory = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME);
+                pool = criarPool(adicionarParametroUrl(exigirSsl(url), "readOnly", "true"),
+                        ConfigUtil.getReplicaDatabaseUsername(), ConfigUtil.getReplicaDatabasePassword());
+                Map<String, Object> propriedades = new HashMap<>();
+                propriedades.put("javax.persistence.nonJtaDataSource", new DataSourceMonitorado(pool));
+                propriedades.put("javax.persistence.sharedCache.mode", "NONE");
+                propriedades.put("hibernate.hbm2ddl.auto", "none");
+                propriedades.put("hibernate.cache.use_second_level_cache", "false");
+                propriedades.put("hibernate.cache.use_query_cache", "false");
+                emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME, propriedades);
+                poolConexoesLeitura = pool;
+                entityManagerFactoryLeitura = emf;
+                return emf;
             } catch (Exception e) {
-                System.err.println("Erro ao criar EntityManagerFactory: " + e.getMessage());
-                e.printStackTrace();
-                throw new RuntimeException("Falha na inicialização do JPA", e);
+                // Sem a réplica, as leituras continuam no banco principal
+                System.err.println("Erro ao criar EntityManagerFactory da réplica de leitura: " + e.getMessage());
+                if (pool != null) {
+                    pool.close();
+                }
+                proximaTentativaReplica = System.currentTimeMillis() + ESPERA_NOVA_TENTATIVA_REPLICA_MS;
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Acrescenta à URL o sslmode exigido pela unidade de persistência em uso (a da AWS exige
+     * TLS), para que uma DB_URL sem ele não conecte em texto claro.
+     */
+    private static String exigirSsl(String url) {
+        for (ParsedPersistenceXmlDescriptor unidade : PersistenceXmlParser.locatePersistenceUnits(new HashMap<>())) {
+            if (PERSISTENCE_UNIT_NAME.equals(unidade.getName())) {
+                String sslmode = unidade.getProperties().getProperty(PROPRIEDADE_SSLMODE);
+                if (sslmode != null && !sslmode.trim().isEmpty()) {
+                    return adicionarParametroUrl(url, "sslmode", sslmode.trim());
+                }
+            }
+        }
+        return url;
+    }
+
+    /**
+     * Acrescenta um parâmetro à URL JDBC, a menos que ela já o defina.
+     */
+    private static String adicionarParametroUrl(String url, String parametro, String valor) {
+        if (url.contains(parametro + "=")) {
+            return url;
+        }
+        return url + (url.indexOf('?') >= 0 ? "&" : "?") + parametro + "=" + valor;
+    }
+
+    /**
+     * Obtém as estatísticas atuais do pool de conexões.
+     * 
+     * @return Estatísticas do pool ou null se o pool ainda não foi criado
+     */
+    public static synchronized EstatisticasPool getEstatisticasPool() {
+        if (poolConexoes == null || dataSource == null) {
+            return null;
+        }
+        try {
+            HistogramaLatencia histograma = dataSource.getHistogramaObtencao();
+            return new EstatisticasPool(
+                    poolConexoes.getNumBusyConnectionsDefaultUser(),
+                    poolConexoes.getNumIdleConnectionsDefaultUser(),
+                    poolConexoes.getNumConnectionsDefaultUser(),
+                    poolConexoes.getNumThreadsAwaitingCheckoutDefaultUser(),
+                    poolConexoes.getMinPoolSize(),
+                    poolConexoes.getMaxPoolSize(),
+                    dataSource.getFalhasObtencao(),
+                    histograma.getLimitesMs(),
+                    histograma.getContagens(),
+                    histograma.getMediaMs());
+        } catch (SQLException e) {
+            System.err.println("Erro ao obter estatísticas do pool: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Obtém as estatísticas das regiões do cache de segundo nível, publicadas pelo
+     * provedor JCache (ehcache.xml com enable-statistics="true").
+     * 
+     * @return Estatísticas por região, ordenadas pelo nome; vazia se o cache não estiver ativo
+     */
+    public static List<EstatisticasCache> getEstatisticasCache() {
+        List<EstatisticasCache> estatisticas = new ArrayList<>();
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            for (ObjectName nome : servidor.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+                estatisticas.add(new EstatisticasCache(
+                        nome.getKeyProperty("Cache"),
+                        (Long) servidor.getAttribute(nome, "CacheHits"),
+                        (Long) servidor.getAttribute(nome, "CacheMisses"),
+                        (Long) servidor.getAttribute(nome, "CachePuts"),
+                        (Long) servidor.getAttribute(nome, "CacheRemovals"),
+                        (Long) servidor.getAttribute(nome, "CacheEvictions")));
             }
+        } catch (Exception e) {
+            System.err.println("Erro ao obter estatísticas do cache: " + e.getMessage());
         }
-        return entityManagerFactory;
+        estatisticas.sort(Comparator.comparing(EstatisticasCache::getRegiao));
+        return estatisticas;
     }
 
     /**
-     * Cria um novo EntityManager.
+     * Obtém um EntityManager.
+     * Se houver uma unidade de trabalho ativa na thread, retorna o EntityManager dela;
+     * caso contrário, cria um novo.
      * 
      * @return EntityManager
      */
     public static EntityManager getEntityManager() {
+        EntityManager atual = UNIDADE_DE_TRABALHO.get();
+        if (atual != null) {
+            return atual;
+        }
         return getEntityManagerFactory().createEntityManager();
     }
 
+    /**
+     * Obtém um EntityManager para consultas que aceitam ser atendidas pela réplica de leitura
+     * (listagens e relatórios pesados). Os DAOs marcam essas consultas usando este método em
+     * vez de {@link #getEntityManager()}. A consulta fica no banco principal quando:
+     * há uma unidade de trabalho ativa (a transação pode ter escrito dados ainda não
+     * confirmados); a sessão do usuário escreveu há menos de DB_REPLICA_ADERENCIA_SEGUNDOS
+     * (para que ele veja o que acabou de gravar); ou não há réplica configurada ou disponível.
+     * 
+     * @return EntityManager da unidade de trabalho, da réplica ou do banco principal
+     */
+    public static EntityManager getEntityManagerLeitura() {
+        EntityManager atual = UNIDADE_DE_TRABALHO.get();
+        if (atual != null) {
+            return atual;
+        }
+        Long ultimaEscrita = ULTIMA_ESCRITA.get();
+        boolean aderente = ultimaEscrita != null
+                && System.currentTimeMillis() - ultimaEscrita < ConfigUtil.getReplicaAderenciaSegundos() * 1000L;
+        EntityManagerFactory replica = aderente ? null : getEntityManagerFactoryLeitura();
+        return replica != null ? replica.createEntityManager() : getEntityManagerFactory().createEntityManager();
+    }
+
+    /**
+     * Passa a registrar na thread atual as escritas da sessão do usuário atendida por ela
+     * (chamado no início de cada requisição).
+     * 
+     * @param momento Momento da última escrita da sessão (System.currentTimeMillis), ou null se não houver
+     */
+    public static void iniciarAderencia(Long momento) {
+        ADERENCIA_DA_REQUISICAO.set(Boolean.TRUE);
+        if (momento == null) {
+            ULTIMA_ESCRITA.remove();
+        } else {
+            ULTIMA_ESCRITA.set(momento);
+        }
+    }
+
+    /**
+     * Para de registrar escritas na thread atual (chamado ao fim de cada requisição).
+     * 
+     * @return Momento da última escrita confirmada durante a requisição, ou o informado em
+     *         {@link #iniciarAderencia(Long)} se nenhuma escrita ocorreu depois dele
+     */
+    public static Long encerrarAderencia() {
+        Long momento = ULTIMA_ESCRITA.get();
+        ULTIMA_ESCRITA.remove();
+        ADERENCIA_DA_REQUISICAO.remove();
+        return momento;
+    }
+
+    /**
+     * Registra a última escrita depois de um commit, se a transação de fato escreveu e a
+     * thread atende uma requisição.
+     */
+    private static void registrarEscrita() {
+        boolean escreveu = ESCRITA_NA_TRANSACAO.get() != null;
+        ESCRITA_NA_TRANSACAO.remove();
+        if (escreveu && ADERENCIA_DA_REQUISICAO.get() != null) {
+            ULTIMA_ESCRITA.set(System.currentTimeMillis());
+        }
+    }
+
+    private static boolean isEscrita(String sql) {
+        int inicio = 0;
+        while (inicio < sql.length()) {
+            char c = sql.charAt(inicio);
+            if (Character.isWhitespace(c) || c == '(') {
+                inicio++;
+            } else if (sql.startsWith("/*", inicio)) {
+                int fim = sql.indexOf("*/", inicio + 2);
+                inicio = fim < 0 ? sql.length() : fim + 2;
+            } else {
+                break;
+            }
+        }
+        // Na dúvida conta como escrita: prender a sessão ao principal à toa é só mais lento
+        return !sql.regionMatches(true, inicio, "select", 0, 6);
+    }
+
+    /**
+     * Verifica se existe uma unidade de trabalho ativa na thread atual.
+     * 
+     * @return true se houver uma transação gerenciada em andamento
+     */
+    public static boolean isUnidadeDeTrabalhoAtiva() {
+        return UNIDADE_DE_TRABALHO.get() != null;
+    }
+
+    /**
+     * Executa uma operação dentro de uma única unidade de trabalho:
+     * um EntityManager e uma transação compartilhados por todos os DAOs chamados.
+     * Se já houver uma unidade de trabalho ativa, a operação participa dela.
+     * Qualquer exceção provoca rollback e é repassada ao chamador; se a transação tiver sido
+     * marcada para rollback (falha de um DAO tratada pela operação), lança DAOException.
+     * 
+     * @param operacao Operação a ser executada
+     * @param <T> Tipo do retorno da operação
+     * @return Resultado da operação
+     * @throws Exception exceção lançada pela operação ou pelo commit
+     */
+    public static <T> T executarEmTransacao(OperacaoTransacional<T> operacao) throws Exception {
+        if (isUnidadeDeTrabalhoAtiva()) {
+            return operacao.executar();
+        }
+
+        EntityManager em = getEntityManagerFactory().createEntityManager();
+        List<Runnable> acoesAposConfirmacao = new ArrayList<>();
+        UNIDADE_DE_TRABALHO.set(em);
+        ACOES_APOS_CONFIRMACAO.set(acoesAposConfirmacao);
+        boolean confirmada = false;
+        T resultado;
+        try {
+            ESCRITA_NA_TRANSACAO.remove();
+            em.getTransaction().begin();
+            resultado = operacao.executar();
+            if (em.getTransaction().getRollbackOnly()) {
+                // Um DAO falhou e a operação seguiu adiante: nada foi gravado, e o chamador precisa saber
+                throw new DAOException("transação marcada para rollback");
+            }
+            em.getTransaction().commit();
+            registrarEscrita();
+            confirmada = true;
+        } catch (Exception e) {
+            UNIDADE_DE_TRABALHO.remove();
+            rollback(em);
+            throw e;
+        } finally {
+            UNIDADE_DE_TRABALHO.remove();
+            ACOES_APOS_CONFIRMACAO.remove();
+            closeEntityManager(em);
+        }
+
+        if (confirmada) {
+            executarAcoes(acoesAposConfirmacao);
+        }
+        return resultado;
+    }
+
+    /**
+     * Agenda uma ação para depois do commit da unidade de trabalho ativa
+     * (ex.: invalidar caches em memória). Se a unidade de trabalho for desfeita, a ação é descartada.
+     * Sem unidade de trabalho ativa, a ação é executada imediatamente.
+     * 
+     * @param acao Ação a executar após o commit
+     */
+    public static void aposConfirmacao(Runnable acao) {
+        List<Runnable> acoes = ACOES_APOS_CONFIRMACAO.get();
+        if (acoes != null) {
+            acoes.add(acao);
+        } else {
+            executarAcoes(Collections.singletonList(acao));
+        }
+    }
+
+    private static void executarAcoes(List<Runnable> acoes) {
+        for (Runnable acao : acoes) {
+            try {
+                acao.run();
+            } catch (RuntimeException e) {
+                // A transação já foi confirmada; uma falha aqui não pode desfazê-la
+                System.err.println("Erro ao executar ação após commit: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Inicia uma transação local, a menos que o EntityManager pertença à unidade de trabalho ativa
+     * (nesse caso a transação já foi iniciada por quem abriu a unidade de trabalho).
+     * 
+     * @param entityManager EntityManager obtido via {@link #getEntityManager()}
+     */
+    public static void beginTransaction(EntityManager entityManager) {
+        if (entityManager != UNIDADE_DE_TRABALHO.get()) {
+            ESCRITA_NA_TRANSACAO.remove();
+            entityManager.getTransaction().begin();
+        }
+    }
+
+    /**
+     * Confirma uma transação local, a menos que o EntityManager pertença à unidade de trabalho ativa
+     * (nesse caso o commit acontece ao final da unidade de trabalho).
+     * 
+     * @param entityManager EntityManager obtido via {@link #getEntityManager()}
+     */
+    public static void commit(EntityManager entityManager) {
+        if (entityManager != UNIDADE_DE_TRABALHO.get()) {
+            entityManager.getTransaction().commit();
+            registrarEscrita();
+        }
+    }
+
     /**
      * Fecha o EntityManagerFactory.
      * Deve ser chamado quando a aplicação for finalizada.
      */
-    public static void closeEntityManagerFactory() {
+    public static synchronized void closeEntityManagerFactory() {
         if (entityManagerFactory != null && entityManagerFactory.isOpen()) {
             entityManagerFactory.close();
         }
+        if (entityManagerFactoryLeitura != null && entityManagerFactoryLeitura.isOpen()) {
+            entityManagerFactoryLeitura.close();
+        }
+        if (poolConexoesLeitura != null) {
+            poolConexoesLeitura.close();
+            poolConexoesLeitura = null;
+        }
+        if (poolConexoes != null) {
+            poolConexoes.close();
+            poolConexoes = null;
+            dataSource = null;
+        }
     }
 
     /**
@@ -64,7 +523,8 @@ public class JPAUtil {
      * @param entityManager EntityManager a ser fechado
      */
     public static void closeEntityManager(EntityManager entityManager) {
-        if (entityManager != null && entityManager.isOpen()) {
+        // O EntityManager da unidade de trabalho é fechado por quem a iniciou
+        if (entityManager != null && entityManager.isOpen() && entityManager != UNIDADE_DE_TRABALHO.get()) {
             try {
                 entityManager.close();
             } catch (Exception e) {
@@ -76,12 +536,19 @@ public class JPAUtil {
 
     /**
      * Executa rollback em uma transação de forma segura.
+     * Dentro de uma unidade de trabalho, apenas marca a transação para rollback,
+     * que será efetivado quando a unidade de trabalho terminar.
      * 
      * @param entityManager EntityManager com transação ativa
      */
     public static void rollback(EntityManager entityManager) {
         if (entityManager != null && entityManager.getTransaction().isActive()) {
             try {
+                if (entityManager == UNIDADE_DE_TRABALHO.get()) {
+                    entityManager.getTransaction().setRollbackOnly();
+                    return;
+                }
+                ESCRITA_NA_TRANSACAO.remove();
                 entityManager.getTransaction().rollback();
             } catch (Exception e) {
                 System.err.println("Erro ao fazer rollback da transação: " + e.getMessage());
@@ -0,0 +1,138 @@
+package com.seuteste.sga.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de registros CSV: campos entre aspas podem conter o separador, aspas duplicadas
+ * ({@code ""}) e quebras de linha. Lê em blocos de caracteres, sem expressões regulares,
+ * para acompanhar arquivos com milhões de linhas.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public class LeitorCsv {
+
+    private static final String[] SEM_CAMPOS = new String[0];
+
+    private final Reader entrada;
+    private final char separador;
+    private final char[] buffer = new char[1 << 16];
+    private int posicao;
+    private int limite;
+    private int linhaAtual = 1;
+    private int linhaRegistro;
+
+    /**
+     * @param entrada Texto do arquivo (não é fechado pelo leitor)
+     * @param separador Separador de campos (ex.: ';')
+     */
+    public LeitorCsv(Reader entrada, char separador) {
+        this.entrada = entrada;
+        this.separador = separador;
+    }
+
+    /**
+     * Escolhe o separador pela primeira linha do arquivo: ';' se ela contiver ';', senão ','.
+     *
+     * @param primeiraLinha Primeira linha do arquivo (cabeçalho)
+     * @return Separador de campos
+     */
+    public static char detectarSeparador(String primeiraLinha) {
+        return primeiraLinha != null && primeiraLinha.indexOf(';') < 0 && primeiraLinha.indexOf(',') >= 0 ? ',' : ';';
+    }
+
+    /**
+     * Lê o próximo registro, ignorando linhas em branco.
+     *
+     * @return Campos do registro, ou null no fim do arquivo
+     * @throws IOException em caso de erro na leitura
+     */
+    public String[] proximo() throws IOException {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        while (true) {
+            linhaRegistro = linhaAtual;
+            campos.clear();
+            campo.setLength(0);
+            boolean entreAspas = false;
+            boolean lido = false;
+            int c;
+            while ((c = ler()) >= 0) {
+                lido = true;
+                if (entreAspas) {
+                    if (c == '"') {
+                        if (espiar() == '"') {
+                            ler();
+                            campo.append('"');
+                        } else {
+                            entreAspas = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            linhaAtual++;
+                        }
+                        campo.append((char) c);
+                    }
+                } else if (c == '"' && campo.length() == 0) {
+                    entreAspas = true;
+                } else if (c == separador) {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r' && espiar() == '\n') {
+                        ler();
+                    }
+                    linhaAtual++;
+                    break;
+                } else {
+                    campo.append((char) c);
+                }
+            }
+            if (!lido) {
+                return null;
+            }
+            if (campos.isEmpty() && campo.length() == 0) {
+                continue;
+            }
+            campos.add(campo.toString());
+            return campos.toArray(SEM_CAMPOS);
+        }
+    }
+
+    /**
+     * @return Número da linha do arquivo em que começa o último registro lido (a primeira é 1)
+     */
+    public int getLinha() {
+        return linhaRegistro;
+    }
+
+    private int ler() throws IOException {
+        if (posicao == limite && !preencher()) {
+            return -1;
+        }
+        return buffer[posicao++];
+    }
+
+    private int espiar() throws IOException {
+        if (posicao == limite && !preencher()) {
+            return -1;
+        }
+        return buffer[posicao];
+    }
+
+    private boolean preencher() throws IOException {
+        int lidos;
+        do {
+            lidos = entrada.read(buffer, 0, buffer.length);
+        } while (lidos == 0);
+        if (lidos < 0) {
+            return false;
+        }
+        posicao = 0;
+        limite = lidos;
+        return true;
+    }
+}
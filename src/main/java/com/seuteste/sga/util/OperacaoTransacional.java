@@ -0,0 +1,21 @@
+package com.seuteste.sga.util;
+
+/**
+ * Operação executada dentro de uma unidade de trabalho do {@link JPAUtil}.
+ *
+ * @param <T> Tipo do resultado da operação
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface OperacaoTransacional<T> {
+
+    /**
+     * Executa a operação.
+     *
+     * @return Resultado da operação
+     * @throws Exception em caso de erro (provoca rollback da unidade de trabalho)
+     */
+    T executar() throws Exception;
+}
@@ -5,6 +5,7 @@ import com.seuteste.sga.model.Usuario;
 import javax.faces.context.FacesContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
+import java.util.List;
 
 /**
  * Classe utilitária para gerenciamento de sessão de usuários.
@@ -19,6 +20,11 @@ public class SessaoUtil {
      */
     private static final String USUARIO_LOGADO_KEY = "usuarioLogado";
 
+    /**
+     * Proxies cujo X-Forwarded-For é aceito, lidos uma vez na subida.
+     */
+    private static final List<String> PROXIES_CONFIAVEIS = ConfigUtil.getLoginProxiesConfiaveis();
+
     /**
      * Construtor privado para evitar instanciação da classe utilitária.
      */
@@ -54,6 +60,111 @@ public class SessaoUtil {
         return null;
     }
 
+    /**
+     * Obtém o endereço IP de origem da requisição atual.
+     * 
+     * Quando a conexão vem de um proxy listado em LOGIN_PROXIES_CONFIAVEIS, o endereço é o
+     * último do X-Forwarded-For que não seja de um desses proxies; entradas mais à esquerda
+     * são informadas pelo próprio cliente e não são usadas. De qualquer outra origem o
+     * cabeçalho é ignorado.
+     * 
+     * @return Endereço remoto da requisição ou null fora de uma requisição JSF
+     */
+    public static String getEnderecoRemoto() {
+        FacesContext facesContext = FacesContext.getCurrentInstance();
+        if (facesContext == null) {
+            return null;
+        }
+        HttpServletRequest request = (HttpServletRequest) facesContext.getExternalContext().getRequest();
+        String endereco = request.getRemoteAddr();
+        if (PROXIES_CONFIAVEIS.isEmpty() || !isProxyConfiavel(endereco)) {
+            return endereco;
+        }
+        String encaminhado = request.getHeader("X-Forwarded-For");
+        if (encaminhado == null) {
+            return endereco;
+        }
+        String[] saltos = encaminhado.split(",");
+        for (int i = saltos.length - 1; i >= 0; i--) {
+            String salto = saltos[i].trim();
+            if (salto.isEmpty()) {
+                break;
+            }
+            endereco = salto;
+            if (!isProxyConfiavel(salto)) {
+                break;
+            }
+        }
+        return endereco;
+    }
+
+    /**
+     * Verifica se o endereço pertence a um dos proxies confiáveis.
+     * 
+     * @param endereco Endereço IP
+     * @return true se o endereço ou sua faixa estiver em LOGIN_PROXIES_CONFIAVEIS
+     */
+    private static boolean isProxyConfiavel(String endereco) {
+        long ipv4 = converterIpv4(endereco);
+        for (String proxy : PROXIES_CONFIAVEIS) {
+            int barra = proxy.indexOf('/');
+            if (barra < 0) {
+                if (proxy.equalsIgnoreCase(endereco)) {
+                    return true;
+                }
+                continue;
+            }
+            long rede = converterIpv4(proxy.substring(0, barra));
+            int prefixo;
+            try {
+                prefixo = Integer.parseInt(proxy.substring(barra + 1));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (ipv4 < 0 || rede < 0 || prefixo < 0 || prefixo > 32) {
+                continue;
+            }
+            long mascara = (0xFFFFFFFFL << (32 - prefixo)) & 0xFFFFFFFFL;
+            if ((ipv4 & mascara) == (rede & mascara)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converte um endereço IPv4 em número, sem consultar DNS.
+     * 
+     * @param endereco Endereço no formato a.b.c.d
+     * @return O endereço como número, ou -1 se não for um IPv4 válido
+     */
+    private static long converterIpv4(String endereco) {
+        if (endereco == null) {
+            return -1;
+        }
+        String[] partes = endereco.split("\\.", -1);
+        if (partes.length != 4) {
+            return -1;
+        }
+        long valor = 0;
+        for (String parte : partes) {
+            if (parte.isEmpty() || parte.length() > 3) {
+                return -1;
+            }
+            int octeto;
+            try {
+                octeto = Integer.parseInt(parte);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+            if (octeto < 0 || octeto > 255) {
+                return -1;
+            }
+            valor = (valor << 8) | octeto;
+        }
+        return valor;
+    }
+
     /**
      * Armazena o usuário logado na sessão.
      * 
@@ -79,6 +190,20 @@ public class SessaoUtil {
         return null;
     }
 
+    /**
+     * Obtém o usuário logado da sessão de uma requisição fora do JSF (ex.: servlets).
+     * 
+     * @param request Requisição HTTP
+     * @return O usuário logado ou null se não houver usuário na sessão
+     */
+    public static Usuario getUsuarioLogado(HttpServletRequest request) {
+        HttpSession sessao = request.getSession(false);
+        if (sessao != null) {
+            return (Usuario) sessao.getAttribute(USUARIO_LOGADO_KEY);
+        }
+        return null;
+    }
+
     /**
      * Verifica se há um usuário logado na sessão.
      * 
@@ -0,0 +1,109 @@
+package com.seuteste.sga.util;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cria a tabela {@code resumo_vendas_diario} e os índices usados para mantê-la.
+ *
+ * A tabela guarda, por dia, categoria e cliente, a quantidade de itens e a receita dos
+ * pedidos ativos e não cancelados. Não é uma entidade JPA: é atualizada por SQL com os
+ * deltas de cada pedido (ver {@link com.seuteste.sga.dao.ResumoVendasDAO}). Os índices em
+ * {@code item_pedido} e {@code pedido} deixam o cálculo desses deltas e a reconstrução por
+ * período sem leitura completa das tabelas. Executado na subida da aplicação; todos os
+ * comandos são idempotentes.
+ *
+ * @author SGA Team
+ * @version 1.0
+ */
+public final class TabelaResumoVendas {
+
+    private static final Logger LOGGER = Logger.getLogger(TabelaResumoVendas.class.getName());
+
+    private static final String SQL_CRIAR_TABELA =
+            "CREATE TABLE IF NOT EXISTS resumo_vendas_diario ("
+            + " data date NOT NULL,"
+            + " categoria_id bigint NOT NULL,"
+            + " cliente_id bigint NOT NULL,"
+            + " quantidade bigint NOT NULL DEFAULT 0,"
+            + " receita numeric(14,2) NOT NULL DEFAULT 0,"
+            + " PRIMARY KEY (data, categoria_id, cliente_id))";
+
+    /** Trios tabela / nome do índice / colunas. */
+    private static final String[][] INDICES = {
+        {"item_pedido", "idx_item_pedido_pedido", "pedido_id"},
+        {"item_pedido", "idx_item_pedido_produto", "produto_id"},
+        {"pedido", "idx_pedido_data_pedido", "data_pedido"}
+    };
+
+    private TabelaResumoVendas() {
+    }
+
+    /**
+     * Garante a tabela de resumo e os índices auxiliares.
+     * Falhas são registradas no log; sem a tabela, as gravações de pedidos falham e os
+     * relatórios de vendas ficam indisponíveis até a próxima subida.
+     */
+    public static void criar() {
+        EntityManager em = null;
+        try {
+            em = JPAUtil.getEntityManager();
+            em.unwrap(Session.class).doWork(TabelaResumoVendas::criar);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Não foi possível criar a tabela de resumo de vendas", e);
+        } finally {
+            JPAUtil.closeEntityManager(em);
+        }
+    }
+
+    private static void criar(Connection conexao) throws SQLException {
+        boolean autoCommit = conexao.getAutoCommit();
+        // CREATE INDEX CONCURRENTLY não roda dentro de transação
+        conexao.setAutoCommit(true);
+        try (Statement comando = conexao.createStatement()) {
+            comando.execute(SQL_CRIAR_TABELA);
+            for (String[] indice : INDICES) {
+                String tabela = indice[0];
+                String nome = indice[1];
+                if (!existeTabela(conexao, tabela)) {
+                    continue;
+                }
+                if (isIndiceInvalido(conexao, nome)) {
+                    comando.execute("DROP INDEX CONCURRENTLY IF EXISTS " + nome);
+                }
+                comando.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + nome + " ON " + tabela
+                        + " (" + indice[2] + ")");
+            }
+            LOGGER.info("Tabela de resumo de vendas verificada");
+        } finally {
+            conexao.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static boolean existeTabela(Connection conexao, String tabela) throws SQLException {
+        try (PreparedStatement consulta = conexao.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            consulta.setString(1, tabela);
+            try (ResultSet resultado = consulta.executeQuery()) {
+                return resultado.next() && resultado.getBoolean(1);
+            }
+        }
+    }
+
+    private static boolean isIndiceInvalido(Connection conexao, String indice) throws SQLException {
+        String sql = "SELECT NOT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?";
+        try (PreparedStatement consulta = conexao.prepareStatement(sql)) {
+            consulta.setString(1, indice);
+            try (ResultSet resultado = consulta.executeQuery()) {
+                return resultado.next() && resultado.getBoolean(1);
+            }
+        }
+    }
+}